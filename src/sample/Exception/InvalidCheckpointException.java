@@ -0,0 +1,12 @@
+package sample.Exception;
+
+public class InvalidCheckpointException extends Exception{
+    /**
+     * The InvalidCheckpointException occurs when a checkpoint file cannot be read, or was saved for another house
+     * than the one being simulated.
+     * @param e error message
+     */
+    public InvalidCheckpointException(String e){
+        super(e);
+    }
+}
@@ -0,0 +1,36 @@
+package sample.Exception;
+
+public class InvalidHouseLayoutException extends Exception{
+
+    private final int line;
+    private final int column;
+
+    /**
+     * The InvalidHouseLayoutException occurs when the house layout file is not valid JSON, or does not describe a
+     * house. The message gives the position of the error in the file.
+     * @param e error message
+     * @param line the line of the error (starting at 1)
+     * @param column the column of the error (starting at 1)
+     */
+    public InvalidHouseLayoutException(String e, int line, int column){
+        super("Line " + line + ", column " + column + ": " + e);
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * Gets the line of the error.
+     * @return the line (starting at 1)
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * Gets the column of the error.
+     * @return the column (starting at 1)
+     */
+    public int getColumn() {
+        return column;
+    }
+}
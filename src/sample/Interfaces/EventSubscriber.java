@@ -0,0 +1,19 @@
+package sample.Interfaces;
+
+import sample.SmartHomeModel.SimulationEvent;
+
+/**
+ * Subscriber to one type of event of the simulation event bus. Events are delivered in the order they were published,
+ * on the executor of the subscription, never on the thread which published them.
+ *
+ * @param <E> the type of event
+ */
+public interface EventSubscriber<E extends SimulationEvent> {
+
+    /**
+     * Called for every event of the subscribed type.
+     *
+     * @param event the event
+     */
+    public void onEvent(E event);
+}
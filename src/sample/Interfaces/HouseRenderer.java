@@ -0,0 +1,32 @@
+package sample.Interfaces;
+
+import javafx.scene.layout.BorderPane;
+import sample.SmartHomeModel.HouseModel;
+import sample.SmartHomeModel.RoomModel;
+import sample.SmartHomeModel.UserRegistry;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Renderer which draws the house layout in a BorderPane. Every method is called on the JavaFX application thread.
+ */
+public interface HouseRenderer {
+
+    /**
+     * Draw layout of the house.
+     *
+     * @param bp             the bp
+     * @param houseModel     the house model
+     * @param users          the users
+     * @param manualOverride the manual override
+     */
+    public void drawLayout(BorderPane bp, HouseModel houseModel, UserRegistry users, Map<String, Boolean> manualOverride);
+
+    /**
+     * Update the temperature of some rooms of the layout drawn last, leaving the rest of the layout as it is.
+     *
+     * @param rooms the rooms whose temperature changed
+     */
+    public void refreshRooms(Collection<RoomModel> rooms);
+}
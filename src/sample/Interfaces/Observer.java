@@ -1,6 +0,0 @@
-package sample.Interfaces;
-
-public interface Observer {
-
-    public void update (Object observable);
-}
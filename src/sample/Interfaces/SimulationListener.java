@@ -0,0 +1,17 @@
+package sample.Interfaces;
+
+import java.time.LocalTime;
+
+/**
+ * Listener notified by the simulation engine of anything that should be shown to the user.
+ */
+public interface SimulationListener {
+
+    /**
+     * Called when the simulation wants to print a message on the console.
+     *
+     * @param time    the simulated time at which the message was printed
+     * @param message the message
+     */
+    public void onMessage(LocalTime time, String message);
+}
@@ -0,0 +1,41 @@
+package sample.Interfaces;
+
+import sample.SmartHomeModel.RoomModel;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+
+/**
+ * View which displays the state of a running simulation. Every method is called on the JavaFX application thread.
+ */
+public interface SimulationView {
+
+    /**
+     * Display the date and time of the simulation.
+     *
+     * @param date the date
+     * @param time the time
+     */
+    public void showTime(LocalDate date, LocalTime time);
+
+    /**
+     * Print a message on the console.
+     *
+     * @param time    the simulated time at which the message was printed
+     * @param message the message
+     */
+    public void showMessage(LocalTime time, String message);
+
+    /**
+     * Redraw the house layout after a light or a window was opened or closed.
+     */
+    public void redrawLayout();
+
+    /**
+     * Update the temperature of the rooms of the house layout which changed.
+     *
+     * @param changedRooms the rooms whose temperature changed since the last update
+     */
+    public void refreshLayout(Collection<RoomModel> changedRooms);
+}
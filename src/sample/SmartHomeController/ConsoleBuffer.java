@@ -0,0 +1,124 @@
+package sample.SmartHomeController;
+
+import javafx.collections.ObservableListBase;
+import sample.SmartHomeModel.ConsoleEntry;
+
+import java.util.Arrays;
+
+/**
+ * Class for the messages shown on the console.
+ * The messages are kept in a ring buffer of fixed capacity: adding a message takes constant time and, once the
+ * buffer is full, replaces the oldest one. The buffer is an ObservableList ordered from the newest message to the
+ * oldest, so a ListView only creates cells for the messages on screen.
+ * Must only be used on the JavaFX application thread.
+ */
+public class ConsoleBuffer extends ObservableListBase<ConsoleEntry> {
+
+    /**
+     * The number of messages kept when the system property shs.consoleRetention is not set.
+     */
+    public static final int DEFAULT_RETENTION = 10000;
+
+    private ConsoleEntry[] entries;
+
+    /**
+     * The index of the next slot to write.
+     */
+    private int next = 0;
+
+    private int size = 0;
+
+    /**
+     * Instantiates a new Console buffer with the retention given by the system property shs.consoleRetention.
+     */
+    public ConsoleBuffer() {
+        this(Integer.getInteger("shs.consoleRetention", DEFAULT_RETENTION));
+    }
+
+    /**
+     * Instantiates a new Console buffer.
+     *
+     * @param retention the number of messages kept
+     */
+    public ConsoleBuffer(int retention) {
+        if (retention < 1) {
+            throw new IllegalArgumentException("The console must keep at least one message.");
+        }
+
+        entries = new ConsoleEntry[retention];
+    }
+
+    /**
+     * Add a message at the top of the console, dropping the oldest one if the buffer is full.
+     *
+     * @param entry the message
+     */
+    public void append(ConsoleEntry entry) {
+        ConsoleEntry dropped = entries[next];
+
+        entries[next] = entry;
+        next = (next + 1) % entries.length;
+
+        beginChange();
+        if (size == entries.length) {
+            nextRemove(size - 1, dropped);
+        } else {
+            size++;
+        }
+        nextAdd(0, 1);
+        endChange();
+    }
+
+    /**
+     * Remove every message.
+     */
+    @Override
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+
+        beginChange();
+        for (int i = size - 1; i >= 0; i--) {
+            nextRemove(i, get(i));
+        }
+        Arrays.fill(entries, null);
+        next = 0;
+        size = 0;
+        endChange();
+    }
+
+    /**
+     * Gets a message.
+     *
+     * @param index the index (0 is the newest message)
+     * @return the message
+     */
+    @Override
+    public ConsoleEntry get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        return entries[Math.floorMod(next - 1 - index, entries.length)];
+    }
+
+    /**
+     * Gets the number of messages.
+     *
+     * @return the int
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of messages kept.
+     *
+     * @return the int
+     */
+    public int getRetention() {
+        return entries.length;
+    }
+}
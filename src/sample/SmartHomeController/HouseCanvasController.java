@@ -0,0 +1,416 @@
+package sample.SmartHomeController;
+
+import javafx.beans.value.ChangeListener;
+import javafx.geometry.Bounds;
+import javafx.scene.Parent;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontPosture;
+import javafx.scene.text.FontWeight;
+import sample.Interfaces.HouseRenderer;
+import sample.SmartHomeModel.HouseModel;
+import sample.SmartHomeModel.RoomModel;
+import sample.SmartHomeModel.RoomSpatialIndex;
+import sample.SmartHomeModel.Temperature;
+import sample.SmartHomeModel.UserModel;
+import sample.SmartHomeModel.UserRegistry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Class for the House canvas controller, the renderer used for very large layouts.
+ * Instead of one node per element, the house is painted on a single Canvas. Only the rooms inside the visible part
+ * of the house (found with a spatial index) are painted, so the cost of a frame depends on what is on screen rather
+ * than on the size of the building. The view is panned by dragging the mouse and zoomed with the scroll wheel.
+ * The canvas has the size of the viewport of the ScrollPane holding the layout, and follows it when it is resized.
+ * The model is read under the lock the simulation changes it with, including when the view is panned or zoomed.
+ * When only the temperature of some rooms changed, the canvas is painted again only if one of them is on screen.
+ */
+public class HouseCanvasController implements HouseRenderer {
+
+    /**
+     * The width and height of a cell of the spatial index.
+     */
+    private static final int CELL_SIZE = 200;
+
+    private static final double MIN_ZOOM = 0.05;
+    private static final double MAX_ZOOM = 4;
+
+    private static final Font ROOM_NAME_FONT = Font.font("Sans serif", FontWeight.BOLD, FontPosture.REGULAR, 14);
+    private static final Font ROOM_INFO_FONT = Font.font("Sans serif", FontWeight.BOLD, FontPosture.REGULAR, 10);
+    private static final Font LABEL_FONT = Font.getDefault();
+
+    /**
+     * The position of a user and the location it was placed in.
+     */
+    private static class UserPosition {
+        private String location;
+        private double[] position;
+    }
+
+    /**
+     * The lock the model is changed under.
+     */
+    private final Object lock;
+
+    private BorderPane bp;
+    private HouseModel houseModel;
+    private UserRegistry users;
+    private Map<String, Boolean> manualOverride;
+
+    private Canvas canvas;
+    private RoomSpatialIndex index;
+
+    /**
+     * The ScrollPane holding the layout (null if there is none) and the listener sizing the canvas to its viewport.
+     */
+    private ScrollPane scrollPane;
+    private ChangeListener<Bounds> viewportListener;
+
+    /**
+     * The number of rooms when the index was built, to detect a new layout.
+     */
+    private int indexedRooms;
+
+    private Map<Integer, UserPosition> userPositions = new HashMap<>();
+    private List<RoomModel> visibleRooms = new ArrayList<>();
+
+    private double zoom = 1;
+    private double panX = 0;
+    private double panY = 0;
+    private double dragX;
+    private double dragY;
+
+    private Random r = new Random();
+
+    /**
+     * Instantiates a new House canvas controller.
+     *
+     * @param lock the lock the model is changed under (the simulation engine)
+     */
+    public HouseCanvasController(Object lock) {
+        this.lock = lock;
+    }
+
+    /**
+     * Draw layout of the house.
+     *
+     * @param bp             the bp
+     * @param houseModel     the house model
+     * @param users          the users
+     * @param manualOverride the manual override
+     */
+    @Override
+    public void drawLayout(BorderPane bp, HouseModel houseModel, UserRegistry users, Map<String, Boolean> manualOverride) {
+        if (this.bp != bp || this.houseModel != houseModel || indexedRooms != houseModel.getRooms().size()) {
+            buildCanvas(bp, houseModel);
+        }
+
+        this.users = users;
+        this.manualOverride = manualOverride;
+
+        // The users are placed as they are painted; only the positions of users who were removed are dropped here.
+        if (userPositions.size() > users.size()) {
+            userPositions.keySet().removeIf(id -> users.get(id) == null);
+        }
+
+        paint();
+    }
+
+    /**
+     * Paint the canvas again if one of the rooms whose temperature changed is visible.
+     *
+     * @param rooms the rooms whose temperature changed
+     */
+    @Override
+    public void refreshRooms(Collection<RoomModel> rooms) {
+        if (canvas == null) {
+            return;
+        }
+
+        for (RoomModel room : rooms) {
+            if (isVisible(room)) {
+                paint();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Check if a room is inside the visible part of the house.
+     *
+     * @param room the room
+     * @return true if at least a part of the room is on screen
+     */
+    private boolean isVisible(RoomModel room) {
+        double x = -panX / zoom;
+        double y = -panY / zoom;
+
+        return room.getxAxis() <= x + canvas.getWidth() / zoom && room.getxAxis() + room.getWidth() >= x
+                && room.getyAxis() <= y + canvas.getHeight() / zoom && room.getyAxis() + room.getHeight() >= y;
+    }
+
+    /**
+     * Create the canvas and the spatial index for a house.
+     *
+     * @param bp         the bp
+     * @param houseModel the house model
+     */
+    private void buildCanvas(BorderPane bp, HouseModel houseModel) {
+        this.bp = bp;
+        this.houseModel = houseModel;
+        indexedRooms = houseModel.getRooms().size();
+        index = new RoomSpatialIndex(houseModel.getRooms().values(), CELL_SIZE);
+        userPositions.clear();
+
+        canvas = new Canvas(Math.max(bp.getPrefWidth(), 1), Math.max(bp.getPrefHeight(), 1));
+        fitToViewport(bp);
+
+        canvas.setOnMousePressed(event -> {
+            dragX = event.getX();
+            dragY = event.getY();
+        });
+
+        canvas.setOnMouseDragged(event -> {
+            panX += event.getX() - dragX;
+            panY += event.getY() - dragY;
+            dragX = event.getX();
+            dragY = event.getY();
+            paintLocked();
+        });
+
+        canvas.setOnScroll(event -> {
+            double factor = event.getDeltaY() > 0 ? 1.1 : 1 / 1.1;
+            double newZoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom * factor));
+
+            // Keep the point under the mouse in place.
+            panX = event.getX() - (event.getX() - panX) * newZoom / zoom;
+            panY = event.getY() - (event.getY() - panY) * newZoom / zoom;
+            zoom = newZoom;
+
+            paintLocked();
+            event.consume();
+        });
+
+        bp.getChildren().clear();
+        bp.getChildren().add(canvas);
+    }
+
+    /**
+     * Size the canvas to the viewport of the ScrollPane holding the layout, now and whenever the viewport changes. The
+     * layout is panned and zoomed on the canvas rather than scrolled, so the BorderPane is given the size of the
+     * viewport too.
+     *
+     * @param bp the bp
+     */
+    private void fitToViewport(BorderPane bp) {
+        if (scrollPane != null) {
+            scrollPane.viewportBoundsProperty().removeListener(viewportListener);
+        }
+
+        scrollPane = null;
+        for (Parent parent = bp.getParent(); parent != null; parent = parent.getParent()) {
+            if (parent instanceof ScrollPane) {
+                scrollPane = (ScrollPane) parent;
+                break;
+            }
+        }
+
+        if (scrollPane == null) {
+            return;
+        }
+
+        resize(bp, scrollPane.getViewportBounds());
+
+        viewportListener = (observable, oldBounds, bounds) -> {
+            if (resize(bp, bounds)) {
+                paintLocked();
+            }
+        };
+        scrollPane.viewportBoundsProperty().addListener(viewportListener);
+    }
+
+    /**
+     * Give the canvas and the BorderPane the size of the viewport.
+     *
+     * @param bp     the bp
+     * @param bounds the bounds of the viewport
+     * @return true if the canvas was resized
+     */
+    private boolean resize(BorderPane bp, Bounds bounds) {
+        if (bounds.getWidth() <= 0 || bounds.getHeight() <= 0) {
+            return false;
+        }
+
+        bp.setPrefSize(bounds.getWidth(), bounds.getHeight());
+        canvas.setWidth(bounds.getWidth());
+        canvas.setHeight(bounds.getHeight());
+        return true;
+    }
+
+    /**
+     * Gets the position of a user, placing it again if it is new or its location changed.
+     *
+     * @param userModel the user
+     * @return the x-axis and y-axis of the user, or null if its location is not drawn
+     */
+    private double[] position(UserModel userModel) {
+        UserPosition userPosition = userPositions.get(userModel.getId());
+        if (userPosition == null) {
+            userPosition = new UserPosition();
+            userPositions.put(userModel.getId(), userPosition);
+        }
+
+        if (!userModel.getCurrentLocation().equals(userPosition.location)) {
+            userPosition.location = userModel.getCurrentLocation();
+            userPosition.position = HouseViewController.userPosition(houseModel, userModel, r);
+        }
+
+        return userPosition.position;
+    }
+
+    /**
+     * Paint the visible part of the house, taking the lock of the model (for the events of the canvas itself).
+     */
+    private void paintLocked() {
+        synchronized (lock) {
+            paint();
+        }
+    }
+
+    /**
+     * Paint the visible part of the house. The caller holds the lock of the model.
+     */
+    private void paint() {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+
+        gc.setTransform(1, 0, 0, 1, 0, 0);
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        gc.setTransform(zoom, 0, 0, zoom, panX, panY);
+
+        double x = -panX / zoom;
+        double y = -panY / zoom;
+        double width = canvas.getWidth() / zoom;
+        double height = canvas.getHeight() / zoom;
+
+        // Drawing the empty house layout
+        gc.setStroke(Color.BLUE);
+        gc.strokeRect(houseModel.getxAxis(), houseModel.getyAxis(), houseModel.getWidth(), houseModel.getHeight());
+
+        gc.setFill(Color.BLACK);
+        gc.setFont(LABEL_FONT);
+        gc.fillText("Outside Temperature: " + Temperature.format(houseModel.getOutsideTempHundredths()) + "°C", houseModel.getxAxis() - 25, houseModel.getyAxis() - 25);
+
+        visibleRooms.clear();
+        index.query(x, y, width, height, visibleRooms);
+
+        for (RoomModel room : visibleRooms) {
+            paintRoom(gc, room);
+        }
+
+        //Adding lights and doors (front,back)
+        paintOutside(gc, "Front yard", houseModel.getxAxis() - 55);
+        paintOutside(gc, "Backyard", houseModel.getxAxis() + houseModel.getWidth() + 10);
+
+        // Adding people in the visible rooms, then in the general area of the house and outside.
+        gc.setFill(Color.BLACK);
+        gc.setFont(LABEL_FONT);
+
+        for (RoomModel room : visibleRooms) {
+            paintUsers(gc, users.getByLocation(room.getName()));
+        }
+
+        paintUsers(gc, users.getByLocation("House"));
+        paintUsers(gc, users.getByLocation("Front yard"));
+        paintUsers(gc, users.getByLocation("Backyard"));
+    }
+
+    /**
+     * Paint a room and its devices.
+     *
+     * @param gc   the graphics context
+     * @param room the room
+     */
+    private void paintRoom(GraphicsContext gc, RoomModel room) {
+        gc.setStroke(Color.BLUE);
+        gc.strokeRect(room.getxAxis(), room.getyAxis(), room.getWidth(), room.getHeight());
+
+        gc.setFill(Color.BLACK);
+        gc.setFont(ROOM_NAME_FONT);
+        gc.fillText(room.getName(), room.getxAxis() + 5, room.getyAxis() + 15);
+
+        gc.setFont(ROOM_INFO_FONT);
+        gc.fillText(Temperature.format(room.getTemperatureHundredths()) + "°C", room.getxAxis() + 5, room.getyAxis() + 30);
+
+        if (manualOverride.containsKey(room.getName()) && manualOverride.get(room.getName())) {
+            gc.setFill(Color.RED);
+            gc.fillText("Manual override", room.getxAxis() + 5, room.getyAxis() + 45);
+            gc.setFill(Color.BLACK);
+        }
+
+        gc.setFont(LABEL_FONT);
+        gc.fillText(room.getWindow().hasObject() ? "Has Object" : "No Object", room.getxAxis() + room.getWidth() - 50, room.getyAxis() + 60);
+        gc.fillText(room.getDoor().isLocked() ? "Locked" : "Unlocked", room.getxAxis(), room.getyAxis() + room.getHeight() - 55);
+
+        paintImage(gc, ImageRegistry.door(room.getDoor().isOpen()), room.getxAxis(), room.getyAxis() + room.getHeight() - 52);
+        paintImage(gc, ImageRegistry.window(room.getWindow().isOpen()), room.getxAxis() + room.getWidth() - 50, room.getyAxis());
+        paintImage(gc, ImageRegistry.light(room.getLight().isOpen()), room.getxAxis() + room.getWidth() - 50, room.getyAxis() + room.getHeight() - 52);
+    }
+
+    /**
+     * Paint the door, light and lock of the front yard or backyard.
+     *
+     * @param gc       the graphics context
+     * @param location the location (Front yard or Backyard)
+     * @param x        the x-axis of the devices
+     */
+    private void paintOutside(GraphicsContext gc, String location, double x) {
+        double middle = houseModel.getyAxis() + (houseModel.getHeight() / 2);
+
+        gc.setFill(Color.BLACK);
+        gc.setFont(LABEL_FONT);
+        gc.fillText(houseModel.getDoors().get(location).isLocked() ? "Locked" : "Unlocked", x, middle - 35);
+
+        paintImage(gc, ImageRegistry.door(houseModel.getDoors().get(location).isOpen()), x, middle - 30);
+        paintImage(gc, ImageRegistry.light(houseModel.getLights().get(location).isOpen()), x, middle + 30);
+    }
+
+    /**
+     * Paint the names of the users of a location. Only the users of the locations on screen are ever placed.
+     *
+     * @param gc    the graphics context
+     * @param users the users
+     */
+    private void paintUsers(GraphicsContext gc, List<UserModel> users) {
+        for (UserModel userModel : users) {
+            double[] position = position(userModel);
+            if (position != null) {
+                gc.fillText("• " + userModel.getName() + " (ID: " + userModel.getId() + ")", position[0], position[1]);
+            }
+        }
+    }
+
+    /**
+     * Paint the image of a device.
+     *
+     * @param gc    the graphics context
+     * @param image the image (may be null)
+     * @param x     the x-axis
+     * @param y     the y-axis
+     */
+    private void paintImage(GraphicsContext gc, Image image, double x, double y) {
+        if (image != null) {
+            gc.drawImage(image, x, y, 50, 50);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package sample.SmartHomeController;
 
+import javafx.scene.Group;
+import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.paint.Color;
@@ -8,26 +10,145 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontPosture;
 import javafx.scene.text.FontWeight;
 import javafx.scene.text.Text;
+import sample.Interfaces.HouseRenderer;
 import sample.SmartHomeModel.HouseModel;
+import sample.SmartHomeModel.RoomModel;
+import sample.SmartHomeModel.Temperature;
 import sample.SmartHomeModel.UserModel;
-import java.util.ArrayList;
+import sample.SmartHomeModel.UserRegistry;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 
 /**
  * Class for the House view controller.
+ * The nodes of the layout are created once per house; each following call to drawLayout only updates the
+ * properties which changed (temperature, manual override, lock, object, images and the location of the users).
+ * While the simulation runs, refreshRooms only updates the temperature of the rooms it is given.
  */
-public class HouseViewController {
+public class HouseViewController implements HouseRenderer {
+
+    /**
+     * The nodes which display one room.
+     */
+    private static class RoomNode {
+        private Group group = new Group();
+        private Text temperature = new Text();
+        private int shownTemperature = Integer.MIN_VALUE;
+        private Text override = new Text("Manual override");
+        private Text hasObject = new Text();
+        private Text doorIsLock = new Text();
+        private ImageView doorImageView = new ImageView();
+        private ImageView lightImageView = new ImageView();
+        private ImageView windowImageView = new ImageView();
+    }
+
+    /**
+     * The node which displays one user and the location it was placed in.
+     */
+    private static class UserNode {
+        private Text name = new Text();
+        private String location;
+    }
+
+    /**
+     * The BorderPane the layout is drawn in.
+     */
+    private BorderPane bp;
+
+    /**
+     * The house the layout was built for.
+     */
+    private HouseModel houseModel;
+
+    /**
+     * The nodes of every room, by room name.
+     */
+    private Map<String, RoomNode> roomNodes = new HashMap<>();
+
+    /**
+     * The nodes of every user, by user ID.
+     */
+    private Map<Integer, UserNode> userNodes = new HashMap<>();
+
+    /**
+     * The users placed by the last call to updateUsers, by user ID.
+     */
+    private Set<Integer> placedUsers = new HashSet<>();
+
+    private Text outsideTemperature;
+    private ImageView frontDoorImage;
+    private ImageView backDoorImage;
+    private ImageView frontLightImage;
+    private ImageView backLightImage;
+    private Text frontDoorIsLock;
+    private Text backDoorIsLock;
+
+    private Random r = new Random();
 
     /**
      * Draw layout of the house.
      *
      * @param bp         the bp
      * @param houseModel the house model
-     * @param userList   the user list
+     * @param users      the users
      * @param manualOverride the manual override
      */
-    public void drawLayout(BorderPane bp, HouseModel houseModel, ArrayList<UserModel> userList, Map<String, Boolean> manualOverride) {
+    @Override
+    public void drawLayout(BorderPane bp, HouseModel houseModel, UserRegistry users, Map<String, Boolean> manualOverride) {
+
+        if (this.bp != bp || this.houseModel != houseModel || !roomNodes.keySet().equals(houseModel.getRooms().keySet())) {
+            buildLayout(bp, houseModel);
+        }
+
+        setText(outsideTemperature, "Outside Temperature: " + Temperature.format(houseModel.getOutsideTempHundredths()) + "°C");
+
+        for (Map.Entry<String, RoomNode> entry : roomNodes.entrySet()) {
+            updateRoom(houseModel.getRooms().get(entry.getKey()), entry.getValue(), manualOverride);
+        }
+
+        setText(frontDoorIsLock, houseModel.getDoors().get("Front yard").isLocked() ? "Locked" : "Unlocked");
+        setText(backDoorIsLock, houseModel.getDoors().get("Backyard").isLocked() ? "Locked" : "Unlocked");
+
+        setImage(frontDoorImage, ImageRegistry.door(houseModel.getDoors().get("Front yard").isOpen()));
+        setImage(backDoorImage, ImageRegistry.door(houseModel.getDoors().get("Backyard").isOpen()));
+        setImage(frontLightImage, ImageRegistry.light(houseModel.getLights().get("Front yard").isOpen()));
+        setImage(backLightImage, ImageRegistry.light(houseModel.getLights().get("Backyard").isOpen()));
+
+        updateUsers(users);
+    }
+
+    /**
+     * Update the temperature of some rooms of the layout.
+     *
+     * @param rooms the rooms whose temperature changed
+     */
+    @Override
+    public void refreshRooms(Collection<RoomModel> rooms) {
+        for (RoomModel room : rooms) {
+            RoomNode roomNode = roomNodes.get(room.getName());
+            if (roomNode != null) {
+                updateTemperature(room, roomNode);
+            }
+        }
+    }
+
+    /**
+     * Create every node of the layout of a house.
+     *
+     * @param bp         the bp
+     * @param houseModel the house model
+     */
+    private void buildLayout(BorderPane bp, HouseModel houseModel) {
+        this.bp = bp;
+        this.houseModel = houseModel;
+        roomNodes.clear();
+        userNodes.clear();
 
         bp.getChildren().clear();
 
@@ -37,7 +158,7 @@ public class HouseViewController {
         r1.setFill(Color.TRANSPARENT);
 
         //Add outside temperature
-        Text outsideTemperature = new Text("Outside Temperature: " + Double.toString(houseModel.getOutsideTemp()) + "°C");
+        outsideTemperature = new Text();
         outsideTemperature.setX(houseModel.getxAxis() - 25);
         outsideTemperature.setY(houseModel.getyAxis() - 25);
 
@@ -48,279 +169,280 @@ public class HouseViewController {
 
         bp.getChildren().addAll(outsideTemperature, r1);
 
-        for (String roomName : houseModel.getRooms().keySet()) {
-
-            //Draw Room
-            r1 = new Rectangle();
-            r1.setStroke(Color.BLUE);
-            r1.setFill(Color.TRANSPARENT);
-
-            //Add Room Name
-            Text text = new Text(roomName);
-
-            text.setX(houseModel.getRooms().get(roomName).getxAxis() + 5);
-            text.setY(houseModel.getRooms().get(roomName).getyAxis() + 15);
-            text.setFont(Font.font("Sans serif", FontWeight.BOLD, FontPosture.REGULAR, 14));
-
-            r1.setWidth(houseModel.getRooms().get(roomName).getWidth());
-            r1.setHeight(houseModel.getRooms().get(roomName).getHeight());
-            r1.setX(houseModel.getRooms().get(roomName).getxAxis());
-            r1.setY(houseModel.getRooms().get(roomName).getyAxis());
-
-            Text temperature = new Text(Double.toString(houseModel.getRooms().get(roomName).getTemperature()) + "°C");
-            Text override = new Text();
-            temperature.setX(houseModel.getRooms().get(roomName).getxAxis() + 5);
-            temperature.setY(houseModel.getRooms().get(roomName).getyAxis() + 30);
-            temperature.setFont(Font.font("Sans serif", FontWeight.BOLD, FontPosture.REGULAR, 10));
-
-            override = manualOverride(houseModel, manualOverride, roomName, override);
-
-            ImageView windowImageView = new ImageView();
-
-            houseWindowImage(houseModel, roomName, windowImageView);
+        for (Map.Entry<String, RoomModel> room : houseModel.getRooms().entrySet()) {
+            RoomNode roomNode = buildRoom(room.getValue());
+            roomNodes.put(room.getKey(), roomNode);
+            bp.getChildren().add(roomNode.group);
+        }
 
-            Text hasObjectText;
-            if (!houseModel.getRooms().get(roomName).getWindow().hasObject().get()) {
-                hasObjectText = new Text("No Object");
-            } else {
-                hasObjectText = new Text("Has Object");
-            }
+        //Adding lights and doors (front,back)
+        frontDoorImage = new ImageView();
+        backDoorImage = new ImageView();
+        frontLightImage = new ImageView();
+        backLightImage = new ImageView();
+        frontDoorIsLock = new Text();
+        backDoorIsLock = new Text();
 
-            ImageView lightImageView = new ImageView();
+        frontDoorIsLock.setX(houseModel.getxAxis() - 55);
+        frontDoorIsLock.setY(houseModel.getyAxis() + (houseModel.getHeight()/2) - 35);
 
-            houseLightImage(houseModel, roomName, lightImageView);
+        backDoorIsLock.setX(houseModel.getxAxis() + houseModel.getWidth() + 10);
+        backDoorIsLock.setY(houseModel.getyAxis() + (houseModel.getHeight()/2) - 35);
 
-            ImageView doorImageView = new ImageView();
+        placeImage(frontDoorImage, houseModel.getxAxis() - 55, houseModel.getyAxis() + (houseModel.getHeight()/2) - 30);
+        placeImage(backDoorImage, houseModel.getxAxis() + houseModel.getWidth() + 10, houseModel.getyAxis() + (houseModel.getHeight()/2) - 30);
+        placeImage(frontLightImage, houseModel.getxAxis() - 55, houseModel.getyAxis() + (houseModel.getHeight()/2) + 30);
+        placeImage(backLightImage, houseModel.getxAxis() + houseModel.getWidth() + 10, houseModel.getyAxis() + (houseModel.getHeight()/2) + 30);
 
-            houseDoorImage(houseModel, roomName, doorImageView);
+        bp.getChildren().addAll(frontDoorImage,frontLightImage,backDoorImage,backLightImage,frontDoorIsLock, backDoorIsLock);
+    }
 
-            Text doorIsLock;
-            if (houseModel.getRooms().get(roomName).getDoor().isLocked()) {
-                doorIsLock = new Text("Locked");
-            } else {
-                doorIsLock = new Text("Unlocked");
-            }
+    /**
+     * Create the nodes of a room.
+     *
+     * @param room the room
+     * @return the nodes of the room
+     */
+    private RoomNode buildRoom(RoomModel room) {
+        RoomNode roomNode = new RoomNode();
 
-            hasObjectText.setX(houseModel.getRooms().get(roomName).getxAxis() + houseModel.getRooms().get(roomName).getWidth() - 50);
-            hasObjectText.setY(houseModel.getRooms().get(roomName).getyAxis() + 60);
+        //Draw Room
+        Rectangle r1 = new Rectangle();
+        r1.setStroke(Color.BLUE);
+        r1.setFill(Color.TRANSPARENT);
+        r1.setWidth(room.getWidth());
+        r1.setHeight(room.getHeight());
+        r1.setX(room.getxAxis());
+        r1.setY(room.getyAxis());
 
-            doorIsLock.setX(houseModel.getRooms().get(roomName).getxAxis());
-            doorIsLock.setY(houseModel.getRooms().get(roomName).getyAxis() + houseModel.getRooms().get(roomName).getHeight() - 55);
+        //Add Room Name
+        Text text = new Text(room.getName());
+        text.setX(room.getxAxis() + 5);
+        text.setY(room.getyAxis() + 15);
+        text.setFont(Font.font("Sans serif", FontWeight.BOLD, FontPosture.REGULAR, 14));
 
-            doorImageView.setFitWidth(50);
-            doorImageView.setFitHeight(50);
-            doorImageView.setX(houseModel.getRooms().get(roomName).getxAxis());
-            doorImageView.setY(houseModel.getRooms().get(roomName).getyAxis() + houseModel.getRooms().get(roomName).getHeight() - 52);
+        roomNode.temperature.setX(room.getxAxis() + 5);
+        roomNode.temperature.setY(room.getyAxis() + 30);
+        roomNode.temperature.setFont(Font.font("Sans serif", FontWeight.BOLD, FontPosture.REGULAR, 10));
 
-            lightImageView.setFitWidth(50);
-            lightImageView.setFitHeight(50);
-            lightImageView.setX(houseModel.getRooms().get(roomName).getxAxis() + houseModel.getRooms().get(roomName).getWidth() - 50);
-            lightImageView.setY(houseModel.getRooms().get(roomName).getyAxis() + houseModel.getRooms().get(roomName).getHeight() - 52);
+        roomNode.override.setX(room.getxAxis() + 5);
+        roomNode.override.setY(room.getyAxis() + 45);
+        roomNode.override.setFont(Font.font("Sans serif", FontWeight.BOLD, FontPosture.REGULAR, 10));
+        roomNode.override.setFill(Color.RED);
+        roomNode.override.setVisible(false);
 
-            windowImageView.setFitWidth(50);
-            windowImageView.setFitHeight(50);
-            windowImageView.setX(houseModel.getRooms().get(roomName).getxAxis() + houseModel.getRooms().get(roomName).getWidth() - 50);
-            windowImageView.setY(houseModel.getRooms().get(roomName).getyAxis());
+        roomNode.hasObject.setX(room.getxAxis() + room.getWidth() - 50);
+        roomNode.hasObject.setY(room.getyAxis() + 60);
 
-            bp.getChildren().addAll(doorIsLock,hasObjectText,temperature,override,doorImageView,windowImageView,lightImageView);
+        roomNode.doorIsLock.setX(room.getxAxis());
+        roomNode.doorIsLock.setY(room.getyAxis() + room.getHeight() - 55);
 
-            //adding people in room
-            for (UserModel userModel : userList) {
+        placeImage(roomNode.doorImageView, room.getxAxis(), room.getyAxis() + room.getHeight() - 52);
+        placeImage(roomNode.lightImageView, room.getxAxis() + room.getWidth() - 50, room.getyAxis() + room.getHeight() - 52);
+        placeImage(roomNode.windowImageView, room.getxAxis() + room.getWidth() - 50, room.getyAxis());
 
-                Random r = new Random();
-                Text userName = new Text("• " + userModel.getName() + " (ID: " + userModel.getId() + ")");
+        roomNode.group.getChildren().addAll(roomNode.doorIsLock, roomNode.hasObject, roomNode.temperature, roomNode.override,
+                roomNode.doorImageView, roomNode.windowImageView, roomNode.lightImageView, text, r1);
 
-                coordinates(bp, houseModel, roomName, userModel, r, userName);
-            }
+        return roomNode;
+    }
 
-            bp.getChildren().addAll(text, r1);
-        }
+    /**
+     * Update the nodes of a room with the current state of the room.
+     *
+     * @param room           the room
+     * @param roomNode       the nodes of the room
+     * @param manualOverride the manual override
+     */
+    private void updateRoom(RoomModel room, RoomNode roomNode, Map<String, Boolean> manualOverride) {
+        updateTemperature(room, roomNode);
 
-        //Adding lights and doors (front,back)
-        ImageView frontDoorImage = new ImageView();
-        ImageView backDoorImage = new ImageView();
-        ImageView frontLightImage = new ImageView();
-        ImageView backLightImage = new ImageView();
-
-        Text frontDoorIsLock;
-        if (houseModel.getDoors().get("Front yard").isLocked()) {
-            frontDoorIsLock = new Text("Locked");
-        } else {
-            frontDoorIsLock = new Text("Unlocked");
+        boolean isManual = manualOverride.containsKey(room.getName()) && manualOverride.get(room.getName());
+        if (roomNode.override.isVisible() != isManual) {
+            roomNode.override.setVisible(isManual);
         }
 
-        Text backDoorIsLock;
-        if (houseModel.getDoors().get("Backyard").isLocked()) {
-            backDoorIsLock = new Text("Locked");
-        } else {
-            backDoorIsLock = new Text("Unlocked");
-        }
+        setText(roomNode.hasObject, room.getWindow().hasObject() ? "Has Object" : "No Object");
+        setText(roomNode.doorIsLock, room.getDoor().isLocked() ? "Locked" : "Unlocked");
 
-        if(houseModel.getDoors().get("Front yard").isOpen()){
-            frontDoorImage.setImage(houseModel.getDoors().get("Front yard").getImageOpen());
-        } else{
-            frontDoorImage.setImage(houseModel.getDoors().get("Front yard").getImageClose());
-        }
+        setImage(roomNode.doorImageView, ImageRegistry.door(room.getDoor().isOpen()));
+        setImage(roomNode.lightImageView, ImageRegistry.light(room.getLight().isOpen()));
+        setImage(roomNode.windowImageView, ImageRegistry.window(room.getWindow().isOpen()));
+    }
 
-        if(houseModel.getDoors().get("Backyard").isOpen()){
-            backDoorImage.setImage(houseModel.getDoors().get("Backyard").getImageOpen());
-        } else{
-            backDoorImage.setImage(houseModel.getDoors().get("Backyard").getImageClose());
+    /**
+     * Update the temperature of a room. The temperature is only formatted when it changes.
+     *
+     * @param room     the room
+     * @param roomNode the nodes of the room
+     */
+    private void updateTemperature(RoomModel room, RoomNode roomNode) {
+        if (roomNode.shownTemperature != room.getTemperatureHundredths()) {
+            roomNode.shownTemperature = room.getTemperatureHundredths();
+            roomNode.temperature.setText(Temperature.format(roomNode.shownTemperature) + "°C");
         }
+    }
 
-        if(houseModel.getLights().get("Front yard").isOpen()){
-            frontLightImage.setImage(houseModel.getLights().get("Front yard").getImageOpen());
-        } else{
-            frontLightImage.setImage(houseModel.getLights().get("Front yard").getImageClose());
-        }
+    /**
+     * Add, move and remove the names of the users. Only the users of the locations which are drawn (the rooms, the
+     * house and the yards) are looked up; a user is only placed again when its location changed.
+     *
+     * @param users the users
+     */
+    private void updateUsers(UserRegistry users) {
+        placedUsers.clear();
 
-        if(houseModel.getLights().get("Backyard").isOpen()){
-            backLightImage.setImage(houseModel.getLights().get("Backyard").getImageOpen());
-        } else{
-            backLightImage.setImage(houseModel.getLights().get("Backyard").getImageClose());
+        for (String location : roomNodes.keySet()) {
+            updateUsers(users.getByLocation(location));
         }
 
-        frontDoorIsLock.setX(houseModel.getxAxis() - 55);
-        frontDoorIsLock.setY(houseModel.getyAxis() + (houseModel.getHeight()/2) - 35);
-
-        backDoorIsLock.setX(houseModel.getxAxis() + houseModel.getWidth() + 10);
-        backDoorIsLock.setY(houseModel.getyAxis() + (houseModel.getHeight()/2) - 35);
-
-
-        frontDoorImage.setFitWidth(50);
-        frontDoorImage.setFitHeight(50);
-        frontDoorImage.setX(houseModel.getxAxis() - 55);
-        frontDoorImage.setY(houseModel.getyAxis() + (houseModel.getHeight()/2) - 30);
-
-        backDoorImage.setFitWidth(50);
-        backDoorImage.setFitHeight(50);
-        backDoorImage.setX(houseModel.getxAxis() + houseModel.getWidth() + 10);
-        backDoorImage.setY(houseModel.getyAxis() + (houseModel.getHeight()/2) - 30);
+        updateUsers(users.getByLocation("House"));
+        updateUsers(users.getByLocation("Front yard"));
+        updateUsers(users.getByLocation("Backyard"));
 
-        frontLightImage.setFitWidth(50);
-        frontLightImage.setFitHeight(50);
-        frontLightImage.setX(houseModel.getxAxis()  - 55);
-        frontLightImage.setY(houseModel.getyAxis()  + (houseModel.getHeight()/2) + 30);
-
-        backLightImage.setFitWidth(50);
-        backLightImage.setFitHeight(50);
-        backLightImage.setX(houseModel.getxAxis() + houseModel.getWidth() + 10);
-        backLightImage.setY(houseModel.getyAxis() + (houseModel.getHeight()/2) + 30);
-
-        bp.getChildren().addAll(frontDoorImage,frontLightImage,backDoorImage,backLightImage,frontDoorIsLock, backDoorIsLock);
+        Iterator<Map.Entry<Integer, UserNode>> iterator = userNodes.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, UserNode> entry = iterator.next();
+            if (!placedUsers.contains(entry.getKey())) {
+                bp.getChildren().remove(entry.getValue().name);
+                iterator.remove();
+            }
+        }
+    }
 
-        // Adding people outside of rooms (such as in the general area of the house and outside).
-        for (UserModel userModel : userList) {
+    /**
+     * Add or move the names of the users of a location.
+     *
+     * @param users the users of the location
+     */
+    private void updateUsers(List<UserModel> users) {
+        for (UserModel userModel : users) {
+            placedUsers.add(userModel.getId());
+
+            UserNode userNode = userNodes.get(userModel.getId());
+            if (userNode == null) {
+                userNode = new UserNode();
+                userNodes.put(userModel.getId(), userNode);
+                bp.getChildren().add(userNode.name);
+            }
 
-            Random r = new Random();
-            Text userName = new Text("• " + userModel.getName() + " (ID: " + userModel.getId() + ")");
+            setText(userNode.name, "• " + userModel.getName() + " (ID: " + userModel.getId() + ")");
 
-            /**
-             * Complete if for Backyard
-             */
-            if (userModel.getCurrentLocation().equals("Front yard")) {
-                int xLow = 0;
-                int xHigh = (int) (0.8 * houseModel.getxAxis());
-                int xResult = r.nextInt(xHigh - xLow) + xLow;
+            if (!userModel.getCurrentLocation().equals(userNode.location)) {
+                userNode.location = userModel.getCurrentLocation();
+                coordinates(userModel, userNode.name);
+            }
+        }
+    }
 
-                int yLow = 0;
-                int yHigh = (int) (0.8 * houseModel.getyAxis() + houseModel.getHeight());
-                int yResult = r.nextInt(yHigh - yLow) + yLow;
+    /**
+     * Place the name of a user at a random position in its current location.
+     *
+     * @param userModel the user
+     * @param userName  the node displaying the name of the user
+     */
+    private void coordinates(UserModel userModel, Text userName) {
+        double[] position = userPosition(houseModel, userModel, r);
 
-                userName.setX(xResult);
-                userName.setY(yResult);
+        if (position != null) {
+            userName.setX(position[0]);
+            userName.setY(position[1]);
+        }
 
-                bp.getChildren().add(userName);
-            }
-             else if (userModel.getCurrentLocation().equals("Backyard")) {
-                int xLow = houseModel.getxAxis() + houseModel.getWidth() + 10;
-                int xHigh = houseModel.getxAxis() + houseModel.getWidth() + 70;
-                int xResult = r.nextInt(xHigh - xLow) + xLow;
+        userName.setVisible(position != null);
+    }
 
-                int yLow = houseModel.getxAxis();
-                int yHigh = houseModel.getyAxis() + houseModel.getHeight();
-                int yResult = r.nextInt(yHigh - yLow) + yLow;
+    /**
+     * Pick a random position for a user in its current location.
+     *
+     * @param houseModel the house model
+     * @param userModel  the user
+     * @param r          the random number generator
+     * @return the x-axis and y-axis of the user, or null if its location is not drawn
+     */
+    static double[] userPosition(HouseModel houseModel, UserModel userModel, Random r) {
+        RoomModel room = houseModel.getRooms().get(userModel.getCurrentLocation());
 
-                userName.setX(xResult);
-                userName.setY(yResult);
+        if (room != null) {
+            int xLow = (int) (0.2 * room.getWidth());
+            int xHigh = (int) (0.8 * room.getWidth());
+            int xResult = r.nextInt(xHigh - xLow) + xLow;
 
-                bp.getChildren().add(userName);
-            } else if (userModel.getCurrentLocation().equals("House")) {
+            int yLow = (int) (0.2 * room.getHeight());
+            int yHigh = (int) (0.8 * room.getHeight());
+            int yResult = r.nextInt(yHigh - yLow) + yLow;
 
-                int xLow = (int) (0.1 * houseModel.getWidth());
-                int xHigh = (int) (0.3 * houseModel.getWidth());
-                int xResult = r.nextInt(xHigh - xLow) + xLow;
+            return new double[] {room.getxAxis() + xResult, room.getyAxis() + yResult};
+        } else if (userModel.getCurrentLocation().equals("Front yard")) {
+            int xLow = 0;
+            int xHigh = (int) (0.8 * houseModel.getxAxis());
+            int xResult = r.nextInt(xHigh - xLow) + xLow;
 
-                int yLow = (int) (0.4 * houseModel.getHeight());
-                int yHigh = (int) (0.6 * houseModel.getHeight());
-                int yResult = r.nextInt(yHigh - yLow) + yLow;
+            int yLow = 0;
+            int yHigh = (int) (0.8 * houseModel.getyAxis() + houseModel.getHeight());
+            int yResult = r.nextInt(yHigh - yLow) + yLow;
 
-                userName.setX(houseModel.getxAxis() + xResult);
-                userName.setY(houseModel.getyAxis() + yResult);
+            return new double[] {xResult, yResult};
+        } else if (userModel.getCurrentLocation().equals("Backyard")) {
+            int xLow = houseModel.getxAxis() + houseModel.getWidth() + 10;
+            int xHigh = houseModel.getxAxis() + houseModel.getWidth() + 70;
+            int xResult = r.nextInt(xHigh - xLow) + xLow;
 
-                bp.getChildren().add(userName);
-            }
-        }
-    }
+            int yLow = houseModel.getxAxis();
+            int yHigh = houseModel.getyAxis() + houseModel.getHeight();
+            int yResult = r.nextInt(yHigh - yLow) + yLow;
 
-    private void coordinates(BorderPane bp, HouseModel houseModel, String roomName, UserModel userModel, Random r, Text userName) {
-        if (userModel.getCurrentLocation().equals(houseModel.getRooms().get(roomName).getName())) {
-            int xLow = (int) (0.2 * houseModel.getRooms().get(roomName).getWidth());
-            int xHigh = (int) (0.8 * houseModel.getRooms().get(roomName).getWidth());
+            return new double[] {xResult, yResult};
+        } else if (userModel.getCurrentLocation().equals("House")) {
+            int xLow = (int) (0.1 * houseModel.getWidth());
+            int xHigh = (int) (0.3 * houseModel.getWidth());
             int xResult = r.nextInt(xHigh - xLow) + xLow;
 
-            int yLow = (int) (0.2 * houseModel.getRooms().get(roomName).getHeight());
-            int yHigh = (int) (0.8 * houseModel.getRooms().get(roomName).getHeight());
+            int yLow = (int) (0.4 * houseModel.getHeight());
+            int yHigh = (int) (0.6 * houseModel.getHeight());
             int yResult = r.nextInt(yHigh - yLow) + yLow;
 
-            userName.setX(houseModel.getRooms().get(roomName).getxAxis() + xResult);
-            userName.setY(houseModel.getRooms().get(roomName).getyAxis() + yResult);
-            bp.getChildren().add(userName);
+            return new double[] {houseModel.getxAxis() + xResult, houseModel.getyAxis() + yResult};
         }
-    }
 
-    private void houseDoorImage(HouseModel houseModel, String roomName, ImageView doorImageView) {
-        if (houseModel.getRooms().get(roomName).getDoor().isOpen()) {
-            doorImageView.setImage(houseModel.getRooms().get(roomName).getDoor().getImageOpen());
-        } else {
-            doorImageView.setImage(houseModel.getRooms().get(roomName).getDoor().getImageClose());
-        }
+        return null;
     }
 
-    private void houseLightImage(HouseModel houseModel, String roomName, ImageView lightImageView) {
-        if (houseModel.getRooms().get(roomName).getLight().isOpen()) {
-            lightImageView.setImage(houseModel.getRooms().get(roomName).getLight().getImageOpen());
-        } else {
-            lightImageView.setImage(houseModel.getRooms().get(roomName).getLight().getImageClose());
-        }
+    /**
+     * Size and place an ImageView of a device.
+     *
+     * @param imageView the image view
+     * @param x         the x-axis
+     * @param y         the y-axis
+     */
+    private void placeImage(ImageView imageView, int x, int y) {
+        imageView.setFitWidth(50);
+        imageView.setFitHeight(50);
+        imageView.setX(x);
+        imageView.setY(y);
     }
 
-    private void houseWindowImage(HouseModel houseModel, String roomName, ImageView windowImageView) {
-        if (!houseModel.getRooms().get(roomName).getWindow().isOpen()) {
-            windowImageView.setImage(houseModel.getRooms().get(roomName).getWindow().getImageClose());
-        } else {
-            windowImageView.setImage(houseModel.getRooms().get(roomName).getWindow().getImageOpen());
+    /**
+     * Change the text of a node only if it is different.
+     *
+     * @param text  the node
+     * @param value the text
+     */
+    private void setText(Text text, String value) {
+        if (!value.equals(text.getText())) {
+            text.setText(value);
         }
     }
 
-
     /**
-     * Manual override
+     * Change the image of an ImageView only if it is different.
      *
-     * @param houseModel the house model
-     * @param manualOverride the manual override
-     * @param roomName the name of the room
-     * @param override the override
-     * @return Text
+     * @param imageView the image view
+     * @param image     the image
      */
-    private Text manualOverride(HouseModel houseModel, Map<String, Boolean> manualOverride, String roomName, Text override) {
-        if (manualOverride.containsKey(roomName) && manualOverride.get(roomName)) {
-            override = new Text("Manual override");
-            override.setX(houseModel.getRooms().get(roomName).getxAxis() + 5);
-            override.setY(houseModel.getRooms().get(roomName).getyAxis() + 45);
-            override.setFont(Font.font("Sans serif", FontWeight.BOLD, FontPosture.REGULAR, 10));
-            override.setFill(Color.RED);
+    private void setImage(ImageView imageView, Image image) {
+        if (imageView.getImage() != image) {
+            imageView.setImage(image);
         }
-        return override;
     }
 }
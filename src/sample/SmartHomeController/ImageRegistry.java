@@ -0,0 +1,61 @@
+package sample.SmartHomeController;
+
+import javafx.scene.image.Image;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class for the registry of the device icons drawn on the house layout.
+ * Each icon is decoded once, the first time it is requested, and the same Image is shared by every device.
+ */
+public final class ImageRegistry {
+
+    /**
+     * The decoded icons, by path on the classpath.
+     */
+    private static final Map<String, Image> IMAGES = new ConcurrentHashMap<>();
+
+    private ImageRegistry() {
+    }
+
+    /**
+     * Gets the image of a door.
+     *
+     * @param open whether the door is open
+     * @return the image
+     */
+    public static Image door(boolean open) {
+        return get(open ? "/img/door_open.jpg" : "/img/door_close.jpg");
+    }
+
+    /**
+     * Gets the image of a light.
+     *
+     * @param open whether the light is open
+     * @return the image
+     */
+    public static Image light(boolean open) {
+        return get(open ? "/img/light_bulb_open.jpg" : "/img/light_bulb_close.jpg");
+    }
+
+    /**
+     * Gets the image of a window.
+     *
+     * @param open whether the window is open
+     * @return the image
+     */
+    public static Image window(boolean open) {
+        return get(open ? "/img/window_open.png" : "/img/window_close.png");
+    }
+
+    /**
+     * Gets an image, decoding it the first time.
+     *
+     * @param path the path of the image on the classpath
+     * @return the image
+     */
+    public static Image get(String path) {
+        return IMAGES.computeIfAbsent(path, key -> new Image(ImageRegistry.class.getResourceAsStream(key)));
+    }
+}
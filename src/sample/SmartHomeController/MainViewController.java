@@ -14,35 +14,52 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
-import javafx.util.Pair;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
+import javafx.stage.FileChooser;
+import sample.Exception.InvalidCheckpointException;
+import sample.Exception.InvalidHouseLayoutException;
 import sample.Exception.UserDoesNotExistException;
+import sample.Interfaces.HouseRenderer;
+import sample.Interfaces.SimulationView;
 import sample.SmartHomeModel.*;
 
 import java.io.*;
-import java.text.DecimalFormat;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Class for the Main view controller.
  */
-public class MainViewController {
+public class MainViewController implements SimulationView {
 
     /**
      * A controller which handles the house and user information (i.e. the simulation data).
      */
     private SimulationDataController simulationDataController;
 
+    /**
+     * Houses with more rooms than this are drawn on a canvas rather than with one node per element.
+     * The choice can be forced with the system property shs.renderer (canvas or nodes).
+     */
+    private static final int CANVAS_RENDERER_ROOMS = 200;
+
+    /**
+     * The directory of the command journals, set with the system property shs.journalDir (default journal).
+     */
+    private static final File JOURNAL_DIRECTORY = new File(System.getProperty("shs.journalDir", "journal"));
+
+    /**
+     * The format of the wall time in the name of a command journal.
+     */
+    private static final DateTimeFormatter JOURNAL_NAME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
     /**
      * A controller which handles the drawing of the house layout.
      */
-    private HouseViewController houseViewController;
+    private HouseRenderer houseRenderer;
 
     /**
      * A controller which handles the modification of the simulation data.
@@ -76,9 +93,14 @@ public class MainViewController {
     private HouseModel houseModel;
 
     /**
-     * A list which contains all the user profiles present in the simulation.
+     * The registry of all the user profiles present in the simulation.
+     */
+    private UserRegistry users;
+
+    /**
+     * The store in which the changes of the user profiles are saved.
      */
-    private ArrayList<UserModel> userModelArrayList;
+    private UserStore userStore;
 
     /**
      * A list which contains all the names of the rooms of the house.
@@ -121,6 +143,18 @@ public class MainViewController {
     @FXML
     Button turnOnOffSimulation;
 
+    /**
+     * The Button used to save the state of the simulation to a checkpoint file.
+     */
+    @FXML
+    Button saveState;
+
+    /**
+     * The Button used to load the state of the simulation from a checkpoint file.
+     */
+    @FXML
+    Button loadState;
+
     /**
      * A ComboBox containing the different permission levels (roles) that a user can have.
      */
@@ -176,10 +210,15 @@ public class MainViewController {
     TabPane moduleTabs;
 
     /**
-     * The TextArea used where the console messages will print.
+     * The ListView used where the console messages will print.
      */
     @FXML
-    TextArea consoleTextField;
+    ListView<ConsoleEntry> consoleListView;
+
+    /**
+     * The messages shown on the console.
+     */
+    private ConsoleBuffer consoleBuffer = new ConsoleBuffer();
 
     /**
      * Spinner used to specify the ID of a new or existing user.
@@ -649,27 +688,31 @@ public class MainViewController {
      * Time running.
      */
     private AtomicBoolean running = new AtomicBoolean(false);
-    /**
-     * Time countdown.
-     */
-    private AtomicBoolean countdown = new AtomicBoolean(false);
     /**
      * Time chosen.
      */
     private LocalTime chosenTime;
 
     /**
-     * Printing on console.
+     * Printing on console (messages of the SHS module).
      */
     private volatile PrintConsole printConsole;
     /**
-     * Time speed.
+     * Printing on console (messages of the SHC module).
+     */
+    private volatile PrintConsole shcConsole;
+    /**
+     * Printing on console (messages of the SHP module).
      */
-    private static volatile int speed = 1000; //Waiting time in ms
+    private volatile PrintConsole shpConsole;
     /**
-     * awayMood.
+     * Printing on console (messages of the SHH module).
      */
-    private boolean awayModeOn = false;
+    private volatile PrintConsole shhConsole;
+    /**
+     * Time speed (simulated seconds per second).
+     */
+    private static volatile double speed = 1;
     /**
      * When intrusion occurs and alert is triggered.
      */
@@ -687,459 +730,99 @@ public class MainViewController {
      */
     private boolean simulationParametersSet = false;
     /**
-     * HashMap for time.
+     * The engine which runs the simulation (HVAC, light schedules and time).
      */
-    private Map<String, Pair<LocalTime, LocalTime>> keepLightsOn = new HashMap<>();
-
-    private AtomicBoolean isHVACOn = new AtomicBoolean();
-
-    private volatile Map<RoomModel, HVAC> roomHVACS = new HashMap<>();
-
-    private volatile Map<RoomModel, Double> requestsForHVACS = new HashMap<>();
-
-    private volatile Map<String, Boolean> isroomHVACManual = new HashMap<>();
+    private SimulationEngine simulationEngine;
 
     /**
-     * The thread for clock for simulation.
+     * The layer which applies the changes of the simulation to the view once per frame.
      */
-    private class Countdown extends Thread {
-
-        @Override
-        /**
-         * Run the countdown
-         */
-        public void run() {
-            AtomicInteger seconds = new AtomicInteger(countdownSecondsLeft);
-            AtomicInteger minutes = new AtomicInteger(countdownMinutesLeft);
-            AtomicReference<PrintConsole> console = new AtomicReference<>(printConsole);
-
-            if (!running.get()) {
-                Platform.runLater(() -> {
-                    countDownAuthorities.setText(
-                            String.format("%s:%s", minutes.get() < 10 ? "0" + minutes.get() : "" + minutes.get(), seconds.get() < 10 ? "0" + seconds.get() : seconds.get() + "")
-                    );
-                });
-            }
-
-            while (countdown.get() && running.get()) {
-
-                try {
-                    Thread.sleep(speed);
-                } catch (InterruptedException e) {
-                    e.getMessage();
-                }
-
-                Platform.runLater(() -> {
-                    if (seconds.get() != 0) {
-                        seconds.getAndDecrement();
-                    } else if (minutes.get() != 0) {
-                        minutes.getAndDecrement();
-                        seconds.getAndSet(60);
-                    } else if (seconds.get() == 0 && minutes.get() == 0) {
-                        countdown.getAndSet(false);
-                        authoritiesCalledMessage.setText("The authorities have been called!!!");
-                        console.get().setText("The authorities have been called!!!");
-                    }
-
-                    countDownAuthorities.setText(
-                            String.format("%s:%s", minutes.get() < 10 ? "0" + minutes.get() : "" + minutes.get(), seconds.get() < 10 ? "0" + seconds.get() : seconds.get() + "")
-                    );
-                });
-
-                // Store the remaining sec and min
-                countdownSecondsLeft = seconds.get();
-                countdownMinutesLeft = minutes.get();
-            }
-        }
-    }
+    private SimulationPublisher simulationPublisher;
 
     /**
-     * Thread for clock
+     * The scope in which the clock of the current simulation runs.
      */
-    private class Clock extends Thread {
+    private SimulationScope simulationScope;
 
-        /**
-         * The Local.
-         */
-        AtomicReference<LocalTime> local = new AtomicReference<>(chosenTime);
-        /**
-         * The Lights to turn on.
-         */
-        AtomicReference<Map<String, Pair<LocalTime, LocalTime>>> lightsToTurnOn = new AtomicReference<>(keepLightsOn);
-        /**
-         * The Date.
-         */
-        AtomicReference<JFXDatePicker> date = new AtomicReference<>(dateSHS);
-        /**
-         * The Console.
-         */
-        AtomicReference<PrintConsole> console = new AtomicReference<>(printConsole);
-        /**
-         * The House.
-         */
-        AtomicReference<HouseModel> house = new AtomicReference<>(houseModel);
-        /**
-         * The Pipe burst message sent.
-         */
-        Map<RoomModel, Boolean> pipeBurstMessageSent = new HashMap<>();
-        /**
-         * The Continuous blocking message sent.
-         */
-        Map<RoomModel, Boolean> continuousBlockingMessageSent = new HashMap<>();
-        /**
-         * The Hvacs.
-         */
-        AtomicReference<Map<RoomModel, HVAC>> HVACS = new AtomicReference<>(roomHVACS);
-        /**
-         * The Hvacs requests.
-         */
-        AtomicReference<Map<RoomModel, Double>> HVACSRequests = new AtomicReference<>(requestsForHVACS);
-        /**
-         * The Is room manual.
-         */
-        AtomicReference<Map<String, Boolean>> isRoomManual = new AtomicReference<>(isroomHVACManual);
-        /**
-         * The Shc controller atomic reference.
-         */
-        AtomicReference<SHCController> shcControllerAtomicReference = new AtomicReference<>(shcController);
-
-        @Override
-        /**
-         * Run the clock
-         */
-        public void run() {
-
-            // Start an HVAC thread for every room. Every HVAC starts with the default target temp as the outside.
-            for (RoomModel room : house.get().getRooms().values()) {
-                HVAC hvac = new HVAC(new AtomicReference<>(room), 0.1, room.getTemperature(), new DecimalFormat("#.#"));
-                HVACS.get().put(room, hvac);
-                pipeBurstMessageSent.put(room, false);
-                continuousBlockingMessageSent.put(room, false);
-                isRoomManual.get().put(room.getName(), false);
-                hvac.start();
-            }
-
-            while (running.get()) {
-                try {
-                    Thread.sleep(speed);
-                } catch (InterruptedException e) {
-                    e.getMessage();
-                }
+    /**
+     * The clock of the current simulation.
+     */
+    private SimulationClock simulationClock;
 
-                Platform.runLater(() -> {
-
-                    // Lights scheduling
-                    for (String lightName : lightsToTurnOn.get().keySet()) {
-
-                        if (local.get().compareTo(lightsToTurnOn.get().get(lightName).getKey()) == 0) {
-                            System.out.println(lightsToTurnOn.get().get(lightName).getKey());
-                            scheduleTurnOnOffLight(lightName, "open");
-                        } else if (local.get().compareTo(lightsToTurnOn.get().get(lightName).getValue()) == 0) {
-                            scheduleTurnOnOffLight(lightName, "close");
-                        }
-                    }
-
-                    // When entering these two for loops, a HVAC can be in four states:
-                    // 1. Idle and not away mode
-                    // 2. Idle and away mode
-                    // 3. Manual and not away mode
-                    // 4. Manual and away mode
-
-                    for (RoomModel room : house.get().getRooms().values()) {
-                        for (Zone zone : house.get().getZoneList().values()) {
-
-                            String month = date.get().getValue().getMonth().toString();
-                            month = month.substring(0, 1).toUpperCase() + month.substring(1).toLowerCase(); // Capitalize first letter
-
-                            if (isHVACOn.get()) {
-
-                                // Activating all the manual temperature changes.
-                                if (HVACSRequests.get().containsKey(room) && !HVACS.get().get(room).getStateHVAC().equals("Manual")) {
-                                    HVACS.get().get(room).setTargetTemperature(HVACSRequests.get().get(room));
-                                    HVACS.get().get(room).setRate(0.1);
-                                    HVACS.get().get(room).setRounding(new DecimalFormat("#.#"));
-                                    HVACS.get().get(room).setStateHVAC("Manual");
-                                    console.get().setText("Starting to cool/heat the " + room.getName() + " to a temperature of " + HVACSRequests.get().get(room) + " C.");
-                                }
-
-                                // Case #-2 If you had the HVAC off and now you turned it back on, your state will still be off and so we have to make it idle.
-                                if (HVACS.get().get(room).getStateHVAC().equals("Off")) {
-                                    HVACS.get().get(room).setStateHVAC("Idle");
-                                    HVACS.get().get(room).setTargetTemperature(room.getTemperature());
-                                }
-
-                                // Case #-1 If you are in away mode and you are not in state Idle, Manual, Away Mode Summer or Away Mode Winter, then your state will change to Idle. /////////// add to this if? || HVACS.get().get(room).getStateHVAC().equals("Summer Cooling")
-                                if (awayModeOn && !HVACS.get().get(room).getStateHVAC().equals("Idle") && !HVACS.get().get(room).getStateHVAC().equals("Manual") && !HVACS.get().get(room).getStateHVAC().equals("Away Mode Summer") && !HVACS.get().get(room).getStateHVAC().equals("Away Mode Winter")) {
-                                    HVACS.get().get(room).setStateHVAC("Idle");
-                                    HVACS.get().get(room).setTargetTemperature(room.getTemperature());
-                                }
-
-                                // Case #0 If you were in away mode and in either the state Away Mode Summer or the state Away Mode Winter AND you just turned off away mode, then your state is now set to idle.
-                                if (!awayModeOn && (HVACS.get().get(room).getStateHVAC().equals("Away Mode Summer") || HVACS.get().get(room).getStateHVAC().equals("Away Mode Winter"))) {
-                                    HVACS.get().get(room).setStateHVAC("Idle");
-                                    HVACS.get().get(room).setTargetTemperature(room.getTemperature());
-                                }
-
-                                // Case #1
-                                if (!awayModeOn && zone.getRooms().contains(room) && !HVACS.get().get(room).getStateHVAC().equals("Manual") && !HVACS.get().get(room).getStateHVAC().equals("Away Mode Summer") && !HVACS.get().get(room).getStateHVAC().equals("Away Mode Winter")) {
-                                    // Check if it's 00:00, 08:00, 16:00 and change target temp according to the zone's corresponding period temp
-                                    if (local.get().compareTo(LocalTime.of(0, 0)) >= 0 && local.get().compareTo(LocalTime.of(8, 0)) < 0 && !HVACS.get().get(room).getStateHVAC().equals("Night Schedule") && !zone.isUnsetNightTemp()) {
-                                        HVACS.get().get(room).setStateHVAC("Night Schedule");
-                                        HVACS.get().get(room).setTargetTemperature(zone.getNightTemp());
-                                        HVACS.get().get(room).setRate(0.1);
-                                        HVACS.get().get(room).setRounding(new DecimalFormat("#.#"));
-                                        console.get().setText("Starting scheduling heating/cooling for the night in the " + room.getName() + " (" + zone.getZoneName() + "). Target temperature: " + zone.getNightTemp() + " C.");
-                                    } else if (local.get().compareTo(LocalTime.of(8, 0)) >= 0 && local.get().compareTo(LocalTime.of(16, 0)) < 0 && !HVACS.get().get(room).getStateHVAC().equals("Day Schedule") && !zone.isUnsetDayTemp()) {
-                                        HVACS.get().get(room).setStateHVAC("Day Schedule");
-                                        HVACS.get().get(room).setTargetTemperature(zone.getDayTemp());
-                                        HVACS.get().get(room).setRate(0.1);
-                                        HVACS.get().get(room).setRounding(new DecimalFormat("#.#"));
-                                        console.get().setText("Starting scheduling heating/cooling for the day in the " + room.getName() + " (" + zone.getZoneName() + "). Target temperature: " + zone.getDayTemp() + " C.");
-                                    } else if (local.get().compareTo(LocalTime.of(16, 0)) >= 0 && local.get().compareTo(LocalTime.of(23, 59, 59)) < 0 && !HVACS.get().get(room).getStateHVAC().equals("Evening Schedule") && !zone.isUnsetEveningTemp()) {
-                                        HVACS.get().get(room).setStateHVAC("Evening Schedule");
-                                        HVACS.get().get(room).setTargetTemperature(zone.getEveningTemp());
-                                        HVACS.get().get(room).setRate(0.1);
-                                        HVACS.get().get(room).setRounding(new DecimalFormat("#.#"));
-                                        console.get().setText("Starting scheduling heating/cooling for the evening in the " + room.getName() + " (" + zone.getZoneName() + "). Target temperature: " + zone.getEveningTemp() + " C.");
-                                    }
-                                }
-
-                                // Case #2 when in summer month, away mode is off, it's not manual mode, window of a specific room is not blocked, HVAC is on, and room temp > outside temp: set target temp for the
-                                // specific room to the outside temp and make the room temp go down by 0.05 C/S
-                                // Check if any room temp is above outside temp if the we're in a summer month and the window of the room is not blocked.
-                                if (!awayModeOn && house.get().getSummerMonthList().contains(month) && (house.get().getOutsideTemp() < room.getTemperature()) && !HVACS.get().get(room).getStateHVAC().equals("Summer Cooling") && !HVACS.get().get(room).getStateHVAC().equals("Manual") && !HVACS.get().get(room).getStateHVAC().equals("Night Schedule") && !HVACS.get().get(room).getStateHVAC().equals("Day Schedule") && !HVACS.get().get(room).getStateHVAC().equals("Evening Schedule")) {
-                                    if (!room.getWindow().isOpen() && room.getWindow().hasObject().get() && !continuousBlockingMessageSent.get(room)) {
-                                        continuousBlockingMessageSent.put(room, true);
-                                        console.get().setText("Cannot cool " + room.getName() + " to outside temperature because the windows cannot be opened (there is an object blocking them)!");
-                                    } else if (room.getWindow().isOpen() || (!room.getWindow().isOpen() && !room.getWindow().hasObject().get())) {
-                                        continuousBlockingMessageSent.put(room, false);
-                                        shcControllerAtomicReference.get().openWindow(room.getName(), house.get(), console.get());
-                                        HVACS.get().get(room).setTargetTemperature(house.get().getOutsideTemp());
-                                        HVACS.get().get(room).setRate(0.05);
-                                        HVACS.get().get(room).setRounding(new DecimalFormat("#.##"));
-                                        HVACS.get().get(room).setStateHVAC("Summer Cooling");
-                                        console.get().setText("Canceling any current heating/cooling for the " + room.getName() + " in order to cool it to the outside temperature! [Continuous monitoring]");
-                                    }
-                                }
-
-                                // Case #3 If the house is in away mode and the HVAC is on and it's a summer month and the room is not in manual mode, change target temp of the room to season temp
-                                if (awayModeOn && !HVACS.get().get(room).getStateHVAC().equals("Manual")) {
-                                    //refactoring Extract Variable, make condition more readable
-                                    final boolean monthIsASummerMonth = house.get().getSummerMonthList().contains(month);
-                                    final boolean monthIsAWinterMonth = house.get().getWinterMonthList().contains(month);
-                                    final boolean isRoomInZone = room.getZone() != null;
-                                    final boolean isSummerTemperatureSet = !houseModel.isUnsetSummerTemp();
-                                    final boolean isAwayModeSummer = !HVACS.get().get(room).getStateHVAC().equals("Away Mode Summer");
-                                    final boolean isAwayModeWinter = !HVACS.get().get(room).getStateHVAC().equals("Away Mode Winter");
-                                    final boolean isWinterTemperatureSet = !houseModel.isUnsetWinterTemp();
-
-                                    if(monthIsASummerMonth && isRoomInZone && isAwayModeSummer && isSummerTemperatureSet){
-
-                                        // Set state to away mode summer
-                                        HVACS.get().get(room).setTargetTemperature(house.get().getSummerTemperature());
-                                        HVACS.get().get(room).setRate(0.1);
-                                        HVACS.get().get(room).setRounding(new DecimalFormat("#.#"));
-                                        HVACS.get().get(room).setStateHVAC("Away Mode Summer");
-                                        console.get().setText("Starting default heating/cooling for the summer in the " + room.getName() + ". Target temperature: " + house.get().getSummerTemperature() + " C. [Away Mode]");
-
-                                    } else if(monthIsAWinterMonth && isRoomInZone && isAwayModeWinter && isWinterTemperatureSet) {
-
-                                        // Set state to away mode winter
-
-                                        HVACS.get().get(room).setTargetTemperature(house.get().getWinterTemperature());
-                                        HVACS.get().get(room).setRate(0.1);
-                                        HVACS.get().get(room).setRounding(new DecimalFormat("#.#"));
-                                        HVACS.get().get(room).setStateHVAC("Away Mode Winter");
-                                        console.get().setText("Starting default heating/cooling for the summer in the " + room.getName() + ". Target temperature: " + house.get().getWinterTemperature() + " C. [Away Mode]");
-                                    }
-                                }
-                            }
-
-                            // Case #4 when the HVAC is off: set target temp for all rooms to the outside temp and make the room temp go down by 0.05 C/S
-                            if (!isHVACOn.get() && !HVACS.get().get(room).getStateHVAC().equals("Off")) {
-                                HVACS.get().get(room).setTargetTemperature(house.get().getOutsideTemp());
-                                HVACS.get().get(room).setRate(0.05);
-                                HVACS.get().get(room).setRounding(new DecimalFormat("#.##"));
-                                HVACS.get().get(room).setStateHVAC("Off");
-                            }
-
-                            if (room.getTemperature() > 0 && pipeBurstMessageSent.get(room)) {
-                                pipeBurstMessageSent.put(room, false);
-                            }
-
-                            if (room.getTemperature() < 0 && !pipeBurstMessageSent.get(room)) {
-                                pipeBurstMessageSent.put(room, true);
-                                console.get().setText("The temperature in the " + room.getName() + " is below zero! There might be a burst pipe in there!");
-                            }
-                        }
-                    }
-
-                    local.getAndSet(local.get().plusSeconds(1));
-                    int h = local.get().getHour();
-                    int m = local.get().getMinute();
-                    int s = local.get().getSecond();
-                    leftPanelTime.setText(
-                            String.format("Time: %s:%s:%s", h < 10 ? "0" + h : "" + h, m < 10 ? "0" + m : "" + m, s < 10 ? "0" + s : s + "")
-                    );
-                    if (h == 0 && m == 0 && s == 0)
-                        leftPanelDate.setText("Date: " + dateSHS.getValue().plusDays(1));
-
-                    chosenTime = local.get();
-                });
-            }
-        }
-    }
+    /**
+     * The subscriptions of the modules to the event bus of the simulation engine.
+     */
+    private List<EventBus.Subscription<?>> subscriptions = new ArrayList<>();
 
     /**
-     * Class for HVAC
+     * The type Print console. Every message printed is also written to the event log, tagged with the module the
+     * console belongs to.
      */
-    private class HVAC extends Thread {
+    class PrintConsole {
 
         /**
-         * The Room.
-         */
-        AtomicReference<RoomModel> room;
-        /**
-         * The Rate.
-         */
-        volatile double rate;
-        /**
-         * The Target temperature.
-         */
-        volatile double targetTemperature;
-        /**
-         * The Df.
-         */
-        DecimalFormat df;
-        /**
-         * The State hvac.
-         */
-        String stateHVAC;
-        /**
-         * The Is manual.
-         */
-        boolean isManual = false;
-        /**
-         * The Is room manual.
+         * The module the messages come from.
          */
-        AtomicReference<Map<String, Boolean>> isRoomManual = new AtomicReference<>(isroomHVACManual);
+        private EventLog.Module module;
 
         /**
-         * Instantiates a new Hvac.
+         * Instantiates a new Print console.
          *
-         * @param room              the room
-         * @param rate              the rate
-         * @param targetTemperature the target temperature
-         * @param df                the df
-         */
-        HVAC(AtomicReference<RoomModel> room, double rate, double targetTemperature, DecimalFormat df) {
-            this.room = room;
-            this.rate = rate;
-            this.targetTemperature = targetTemperature;
-            this.df = df;
-            stateHVAC = "Idle";
-        }
-
-        @Override
-        /**
-         * Run the HVAC
-         */
-        public void run() {
-            while (running.get()) { //Runs on the same variable as the simulation's clock
-
-                try {
-                    Thread.sleep(speed);
-                } catch (InterruptedException e) {
-                    e.getMessage();
-                }
-
-                if (room.get().getZone() != null) {
-                    if (stateHVAC.equals("Night Schedule")) {
-                        targetTemperature = room.get().getZone().getNightTemp();
-                    } else if (stateHVAC.equals("Day Schedule")) {
-                        targetTemperature = room.get().getZone().getDayTemp();
-                    } else if (stateHVAC.equals("Evening Schedule")) {
-                        targetTemperature = room.get().getZone().getEveningTemp();
-                    }
-                }
-
-                Platform.runLater(() -> {
-                    if (targetTemperature < room.get().getTemperature()) {
-                        changeTempPeriod(Double.parseDouble(df.format(room.get().getTemperature() - rate)), room.get().getName(), isManual);
-                    } else if (targetTemperature > room.get().getTemperature()) {
-                        changeTempPeriod(Double.parseDouble(df.format(room.get().getTemperature() + rate)), room.get().getName(), isManual);
-                    }
-                });
-            }
-        }
-
-        /**
-         * Set the rate
-         * @param rate
+         * @param module the module the messages come from
          */
-        void setRate(double rate) {
-            this.rate = rate;
+        PrintConsole(EventLog.Module module) {
+            this.module = module;
         }
 
         /**
-         * Set the target temperature
-         * @param targetTemperature
+         * Sets text.
+         *
+         * @param message the message
          */
-        void setTargetTemperature(double targetTemperature) {
-            this.targetTemperature = targetTemperature;
+        void setText(String message) {
+            print(EventLog.Type.CONSOLE, null, message);
         }
 
         /**
-         * Round a decimal
-         * @param df decimal format
+         * Sets text about a room.
+         *
+         * @param room    the room concerned
+         * @param message the message
          */
-        void setRounding(DecimalFormat df) {
-            this.df = df;
+        void setText(String room, String message) {
+            print(EventLog.Type.CONSOLE, room, message);
         }
 
         /**
-         * Gets state hvac.
+         * Sets the text of an alert.
          *
-         * @return the state hvac
+         * @param room    the room concerned (may be null)
+         * @param message the message
          */
-        String getStateHVAC() {
-            return stateHVAC;
+        void alert(String room, String message) {
+            print(EventLog.Type.ALERT, room, message);
         }
 
         /**
-         * Set the state of the HVAC
-         * @param state the state
+         * Print a message on the console and log it.
+         *
+         * @param type    the event type
+         * @param room    the room concerned (may be null)
+         * @param message the message
          */
-        void setStateHVAC(String state) {
-            this.stateHVAC = state;
-            isManual = state.equals("Manual");
-
-            if (isManual) {
-                isRoomManual.get().put(room.get().getName(), true);
-            } else {
-                isRoomManual.get().put(room.get().getName(), false);
-            }
+        private void print(EventLog.Type type, String room, String message) {
+            consoleBuffer.append(new ConsoleEntry(chosenTime, message));
+            EventLog.log(module, type, room, message);
         }
-    }
 
-    /**
-     * The type Print console.
-     */
-    class PrintConsole {
         /**
-         * Sets text.
+         * Log a message without printing it on the console.
          *
+         * @param room    the room concerned (may be null)
          * @param message the message
          */
-        void setText(String message) {
-
-            int h = chosenTime.getHour();
-            int m = chosenTime.getMinute();
-            int s = chosenTime.getSecond();
-
-            String time = String.format("%s:%s:%s", h < 10 ? "0" + h : "" + h, m < 10 ? "0" + m : "" + m, s < 10 ? "0" + s : s + "");
-
-            consoleTextField.setText("[" + time + "] " + message + "\n" + consoleTextField.getText());
+        void debug(String room, String message) {
+            EventLog.log(module, EventLog.Type.DEBUG, room, message);
         }
     }
 
@@ -1148,7 +831,7 @@ public class MainViewController {
      */
     public MainViewController() {
         simulationDataController = new SimulationDataController();
-        houseViewController = new HouseViewController();
+        houseRenderer = new HouseViewController();
         shsController = new SHSController();
         shcController = new SHCController();
         shpController = new SHPController();
@@ -1161,7 +844,10 @@ public class MainViewController {
      */
     @FXML
     public void initialize() {
+        consoleListView.setItems(consoleBuffer);
         turnOnOffSimulation.setDisable(true);
+        saveState.setDisable(true);
+        loadState.setDisable(true);
         moduleTabs.setDisable(true);
         callingAuthoritiesLabel.setVisible(false);
         selectLightMessage.setVisible(false);
@@ -1184,22 +870,16 @@ public class MainViewController {
         gridSHH.setDisable(true);
         gridSHP.setDisable(true);
 
-        shsController.register(shcController);
-        shsController.register(shpController);
-
         countdownSecondsLeft = timerSecondAuthority.getValue();
         countdownMinutesLeft = timerMinuteAuthority.getValue();
-
-        // Check HVAC on or off.
-        isHVACOn.set(saveHVAC.getText().equals("Turn Off HVAC"));
     }
 
     /**
-     * Add users to the SHS table.
+     * Add users to the SHS table. The table only reads the rows it shows, so the users are decoded as they are
+     * scrolled to rather than all at once.
      */
     private void loadUsersInSHSTable() {
-        data = FXCollections.observableArrayList();
-        data.addAll(userModelArrayList);
+        data = FXCollections.observableList(users.asList());
     }
 
     /**
@@ -1207,8 +887,10 @@ public class MainViewController {
      */
     @FXML
     private synchronized void drawLayout() {
-        System.out.println(bp.getChildren().isEmpty());
-        houseViewController.drawLayout(bp, houseModel, userModelArrayList, isroomHVACManual);
+        // The clock thread may be ticking; draw a consistent state of the house.
+        synchronized (simulationEngine) {
+            houseRenderer.drawLayout(bp, houseModel, users, simulationEngine.getManualOverrides());
+        }
     }
 
     /**
@@ -1220,10 +902,10 @@ public class MainViewController {
     public void setOutsideTemperature(ActionEvent event) {
         double value = outTempSHS.getValue();
 
-        shsController.setOutsideTemperature(houseModel, value);
+        shsController.setOutsideTemperature(simulationEngine, value);
 
         // New lines
-        shsController.setInsideTemperature(rooms, value);
+        shsController.setInsideTemperature(simulationEngine, value);
 
         drawLayout();
         leftPanelOutTemp.setText("Outside Temperature: " + outTempSHS.getValue().toString() + " C");
@@ -1248,7 +930,7 @@ public class MainViewController {
     @FXML
     public void addObjectToWindow(ActionEvent event) {
         String value = blockWinLocComboBoxSHS.getValue();
-        shsController.addObjectToWindow(rooms, value, printConsole);
+        shsController.addObjectToWindow(simulationEngine, value, printConsole);
         drawLayout();
         saveSimulationConditions(event);
     }
@@ -1261,50 +943,129 @@ public class MainViewController {
         if (turnOnOffSimulation.getText().equals("Start the simulation")) {
             turnOnOffSimulation.setText("Stop the simulation");
 
-            System.out.println("The simulation has been started!");
             saveDate.setDisable(true);
             saveTime.setDisable(true);
             saveOutsideTemp.setDisable(true);
             loginButton.setDisable(true);
             saveTimeSpeed.setDisable(true);
 
-            running.set(true);
-
-            try {
-                Thread.sleep(speed);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+            simulationScope = new SimulationScope(running);
+            simulationEngine.start(dateSHS.getValue(), chosenTime);
+            openJournal();
 
             printConsole.setText("The simulation has been started! Starting the simulation clock and the scheduled heating/cooling.");
-            (new Clock()).start();
+            simulationClock = new SimulationClock(simulationEngine, simulationPublisher, running, speed);
+            simulationScope.fork(simulationClock);
 
             if (alertTriggered) {
-
                 callingAuthoritiesLabel.setVisible(true);
                 countDownAuthorities.setVisible(true);
-
-                (new Countdown()).start();
             }
         } else if (turnOnOffSimulation.getText().equals("Stop the simulation")) {
             turnOnOffSimulation.setText("Start the simulation");
 
-            System.out.println("The simulation has been stopped!");
             saveDate.setDisable(false);
             saveTime.setDisable(false);
             saveOutsideTemp.setDisable(false);
             loginButton.setDisable(false);
             saveTimeSpeed.setDisable(false);
 
-            running.set(false);
+            // Stops the clock right away instead of waiting for its next tick.
+            simulationScope.close();
+            simulationEngine.closeJournal();
 
-            try {
-                Thread.sleep(speed);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+            printConsole.setText("The simulation has been stopped! Stopping the simulation clock and the scheduled heating/cooling.");
+        }
+    }
+
+    /**
+     * Save the state of the simulation to a checkpoint file chosen by the user. The state is captured between two
+     * ticks and the file is written in the background, so the simulation does not have to be stopped.
+     */
+    @FXML
+    public void saveState() {
+        Checkpoint checkpoint;
+
+        try {
+            checkpoint = simulationEngine.checkpoint();
+        } catch (IllegalStateException e) {
+            printConsole.setText("Please start the simulation before saving its state.");
+            return;
+        }
+
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Save the state of the simulation");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Simulation checkpoints", "*.shsc"));
+        fileChooser.setInitialFileName("simulation.shsc");
+        File file = fileChooser.showSaveDialog(bp.getScene().getWindow());
+
+        if (file == null) {
+            return;
+        }
+
+        checkpoint.writeAsync(file).whenComplete((result, e) -> Platform.runLater(() -> {
+            if (e == null) {
+                printConsole.setText("The state of the simulation at " + checkpoint.getDate() + " " + checkpoint.getTime() + " has been saved to " + file + ".");
+            } else {
+                EventLog.log(EventLog.Module.SHS, EventLog.Type.ERROR, null, "Could not write the checkpoint " + file + ": " + e.getMessage());
+                printConsole.setText("The state of the simulation could not be saved to " + file + ".");
             }
+        }));
+    }
 
-            printConsole.setText("The simulation has been stopped! Stopping the simulation clock and the scheduled heating/cooling.");
+    /**
+     * Load the state of the simulation from a checkpoint file chosen by the user. The simulation must be stopped; it
+     * resumes from the loaded state the next time it is started.
+     */
+    @FXML
+    public void loadState() {
+        if (running.get()) {
+            printConsole.setText("Please stop the simulation before loading a state.");
+            return;
+        }
+
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Load the state of the simulation");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Simulation checkpoints", "*.shsc"));
+        File file = fileChooser.showOpenDialog(bp.getScene().getWindow());
+
+        if (file == null) {
+            return;
+        }
+
+        Checkpoint checkpoint;
+
+        try {
+            checkpoint = Checkpoint.read(file);
+            simulationEngine.restore(checkpoint, users);
+        } catch (IOException | InvalidCheckpointException e) {
+            EventLog.log(EventLog.Module.SHS, EventLog.Type.ERROR, null, "Could not load the checkpoint " + file + ": " + e.getMessage());
+            printConsole.setText("The state of the simulation could not be loaded from " + file + ": " + e.getMessage());
+            return;
+        }
+
+        timeSHS.setValue(checkpoint.getTime());
+        dateSHS.setValue(checkpoint.getDate());
+        leftPanelDate.setText("Date: " + checkpoint.getDate());
+        showTime(checkpoint.getDate(), checkpoint.getTime());
+        leftPanelOutTemp.setText("Outside Temperature: " + houseModel.getOutsideTemp() + " C");
+        saveHVAC.setText(simulationEngine.isHVACOn() ? "Turn Off HVAC" : "Turn On HVAC");
+
+        drawLayout();
+        printConsole.setText("The state of the simulation at " + checkpoint.getDate() + " " + checkpoint.getTime() + " has been loaded from " + file + ".");
+    }
+
+    /**
+     * Start recording the commands of the user in a new journal, which can be replayed headless to reproduce the run.
+     */
+    private void openJournal() {
+        File file = new File(JOURNAL_DIRECTORY, "simulation-" + LocalDateTime.now().format(JOURNAL_NAME) + ".shsj");
+
+        try {
+            simulationEngine.openJournal(file);
+            printConsole.debug(null, "Recording the commands in " + file + ".");
+        } catch (IOException e) {
+            EventLog.log(EventLog.Module.SHS, EventLog.Type.ERROR, null, "Could not create the command journal " + file + ": " + e.getMessage());
         }
     }
 
@@ -1315,7 +1076,7 @@ public class MainViewController {
     public void login() {
         int id = userIdToLogin.getValue();
 
-        userInfo = shsController.login(houseModel, id, userModelArrayList, printConsole);
+        userInfo = shsController.login(houseModel, id, users, printConsole);
 
         processUserInfo("login");
 
@@ -1331,9 +1092,8 @@ public class MainViewController {
     public void deleteUserProfile() {
         int id = userIdToRemove.getValue();
 
-        shsController.deleteUserProfile(userModelArrayList, rooms, id, printConsole);
+        shsController.deleteUserProfile(userStore, simulationEngine, id, printConsole);
 
-        data.clear();
         loadUsersInSHSTable();
         userTable.setItems(data);
 
@@ -1353,7 +1113,7 @@ public class MainViewController {
         String userType = addModifyRoleComboBoxSHS.getValue();
         String location = addModifyLocComboBoxSHS.getValue();
 
-        userInfo = shsController.addModifyUser(userModelArrayList, rooms, id, name, userType, location, printConsole);
+        userInfo = shsController.addModifyUser(userStore, simulationEngine, id, name, userType, location, printConsole);
 
         //Catching exception, this method is only called when the autoMode is turned on
         try {
@@ -1365,7 +1125,6 @@ public class MainViewController {
 
         processUserInfo("add/modify");
 
-        data.clear();
         loadUsersInSHSTable();
         userTable.setItems(data);
         drawLayout();
@@ -1374,6 +1133,20 @@ public class MainViewController {
 
     }
 
+    /**
+     * Subscribe the modules to the events of the simulation engine, each on its own thread, after closing the
+     * subscriptions to the engine of the previous house layout.
+     */
+    private void subscribeModules() {
+        for (EventBus.Subscription<?> subscription : subscriptions) {
+            subscription.close();
+        }
+        subscriptions.clear();
+
+        subscriptions.add(simulationEngine.getEventBus().subscribe(DeviceEvent.class, shcController));
+        subscriptions.add(simulationEngine.getEventBus().subscribe(AlertEvent.class, shpController));
+    }
+
     /**
      * Check for Intrusion.
      */
@@ -1381,18 +1154,16 @@ public class MainViewController {
         // Check if you can enable away mode.
         awayButton.setDisable(false);
 
-        System.out.println("\n\nCheck intrusion called");
-
         for (String roomName : rooms.keySet()) {
 
-            System.out.println("Room name: " + roomName);
-            System.out.println("rooms.get(roomName).getNbPeople(): " + rooms.get(roomName).getNbPeople());
+            EventLog.log(EventLog.Module.SHP, EventLog.Type.DEBUG, roomName, "Checking for intrusion, number of people: " + rooms.get(roomName).getNbPeople());
 
             if (rooms.get(roomName).getNbPeople() > 0) {
                 awayButton.setDisable(true);
 
-                if (awayModeOn) {
-                    printConsole.setText("There is an intruder in the " + roomName + " area!!!");
+                if (simulationEngine.isAwayModeOn()) {
+                    shpConsole.alert(roomName, "There is an intruder in the " + roomName + " area!!!");
+                    simulationEngine.raiseAlert(AlertEvent.Kind.INTRUSION, roomName, "There is an intruder in the " + roomName + " area!!!");
                     alertTriggered = true;
                 }
             }
@@ -1400,10 +1171,12 @@ public class MainViewController {
 
         if (alertTriggered) {
             saveDurationAuth.setDisable(true);
-            countdown.getAndSet(true);
             callingAuthoritiesLabel.setVisible(true);
             countDownAuthorities.setVisible(true);
-            (new Countdown()).start();
+
+            // The countdown runs with the simulation clock, in simulated seconds.
+            simulationEngine.startAuthoritiesCountdown(countdownMinutesLeft * 60 + countdownSecondsLeft);
+            showCountdown();
         }
     }
 
@@ -1412,7 +1185,7 @@ public class MainViewController {
      */
     @FXML
     public void saveUserProfiles() {
-        shsController.saveUserProfiles(userModelArrayList, printConsole);
+        shsController.saveUserProfiles(userStore, printConsole);
     }
 
     /**
@@ -1444,8 +1217,9 @@ public class MainViewController {
             printConsole.setText("The outside temperature has been changed to " + outTempSHS.getValue().toString() + " Celsius.");
         }
 
+        EventLog.setSimulatedTime(LocalDateTime.of(dateSHS.getValue(), chosenTime));
+
         turnOffSimulationWarning();
-        System.out.println(dateSHS.getValue().toString());
     }
 
     /**
@@ -1455,6 +1229,8 @@ public class MainViewController {
     private void turnOffSimulationWarning() {
         if (!leftPanelDate.getText().isEmpty() && !leftPanelTime.getText().isEmpty() && !leftPanelTimeSpeed.getText().isEmpty() && !leftPanelTimeSpeed.getText().isEmpty() && !leftPanelOutTemp.getText().isEmpty() && isLoggedIn) {
             turnOnOffSimulation.setDisable(false);
+            saveState.setDisable(false);
+            loadState.setDisable(false);
 
             warningLabelSimulation.setText("Welcome to the Best Smart\nHome Simulator Ever!\nYou are now Ready to\nStart the Simulation!");
             warningLabelSimulation.setTextFill(Color.GREEN);
@@ -1580,24 +1356,23 @@ public class MainViewController {
     private void readHouseLayoutFile() {
 
         //For the path, try something like C:\Soen 343\Project\HouseInfo.json
-        JSONParser parser = new JSONParser();
         String path = houseLayoutFilePath.getText().replaceAll("\\\\+", "\\\\\\\\");
-        Object obj = null;
 
+        // The layout is validated while the simulation data is built from it.
         try {
-            obj = parser.parse(new FileReader(path));
-        } catch (IOException | ParseException e) {
-            System.out.println("File not found or parse error occurred!");
-            System.out.println("Textfield: " + houseLayoutFilePath.getText());
-            System.out.println("Path: " + path);
-            errorLabelHouseLayoutFile.setText("An error has occurred!\nEither the file was not found\nor a parsing error has\noccurred. Please double\ncheck your file path.");
+            simulationDataController.loadData(path);
+        } catch (IOException e) {
+            EventLog.log(EventLog.Module.SHS, EventLog.Type.ERROR, null, "File not found or could not be read for " + path + ": " + e.getMessage());
+            errorLabelHouseLayoutFile.setText("An error has occurred!\nEither the file was not found\nor it could not be read.\nPlease double check\nyour file path.");
+            return;
+        } catch (InvalidHouseLayoutException e) {
+            EventLog.log(EventLog.Module.SHS, EventLog.Type.ERROR, null, "Invalid house layout in " + path + ": " + e.getMessage());
+            errorLabelHouseLayoutFile.setText("An error has occurred!\nThe house layout is not\nvalid at line " + e.getLine() + ",\ncolumn " + e.getColumn() + ". Please double\ncheck your file.");
             return;
         }
 
         warningLabelSimulation.setText("Please log in as a user as\nwell as set the date, time,\nsimulation time speed,\ninside temperature, and\noutside temperature before\nstarting the simulation\nand accessing the modules.");
-        System.out.println("File found!");
-        System.out.println("Textfield: " + houseLayoutFilePath.getText());
-        System.out.println("Path: " + path);
+        EventLog.log(EventLog.Module.SHS, EventLog.Type.DEBUG, null, "House layout file found: " + path);
 
         moduleTabs.setDisable(false);
         showUIElement(labelHouseLayoutFile, false);
@@ -1619,16 +1394,24 @@ public class MainViewController {
 
         // SHS prep
 
-        simulationDataController.loadData(path);
         houseModel = simulationDataController.getHouseModel();
         rooms = houseModel.getRooms();
         roomNamesSet = houseModel.getRooms().keySet();
-        userModelArrayList = simulationDataController.getUserArrayList();
+        userStore = simulationDataController.getUserStore();
+        users = userStore.getUsers();
         zoneList = houseModel.getZoneList();
 
+        simulationPublisher = new SimulationPublisher(this);
+        simulationEngine = new SimulationEngine(houseModel, simulationPublisher);
+        subscribeModules();
+        // Check HVAC on or off.
+        simulationEngine.setHVACOn(saveHVAC.getText().equals("Turn Off HVAC"));
+
         loadUsersInSHSTable();
 
-        houseViewController.drawLayout(bp, houseModel, userModelArrayList, isroomHVACManual);
+        String renderer = System.getProperty("shs.renderer", houseModel.getRooms().size() > CANVAS_RENDERER_ROOMS ? "canvas" : "nodes");
+        houseRenderer = renderer.equals("canvas") ? new HouseCanvasController(simulationEngine) : new HouseViewController();
+        houseRenderer.drawLayout(bp, houseModel, users, simulationEngine.getManualOverrides());
 
         fillDefaultComboBox(true);
 
@@ -1645,7 +1428,88 @@ public class MainViewController {
         timerFrom.setValue(LocalTime.of(12, 0, 0));
         timerTo.setValue(LocalTime.of(12, 1, 0));
 
-        printConsole = new PrintConsole();
+        printConsole = new PrintConsole(EventLog.Module.SHS);
+        shcConsole = new PrintConsole(EventLog.Module.SHC);
+        shpConsole = new PrintConsole(EventLog.Module.SHP);
+        shhConsole = new PrintConsole(EventLog.Module.SHH);
+        EventLog.setSimulatedTime(LocalDateTime.of(dateSHS.getValue(), chosenTime));
+
+        simulationPublisher.start();
+    }
+
+    /**
+     * Display the date and time of the simulation (called once per frame while the simulation runs).
+     *
+     * @param date the date
+     * @param time the time
+     */
+    @Override
+    public void showTime(LocalDate date, LocalTime time) {
+        int h = time.getHour();
+        int m = time.getMinute();
+        int s = time.getSecond();
+        leftPanelTime.setText(
+                String.format("Time: %s:%s:%s", h < 10 ? "0" + h : "" + h, m < 10 ? "0" + m : "" + m, s < 10 ? "0" + s : s + "")
+        );
+
+        if (!date.equals(dateSHS.getValue())) {
+            dateSHS.setValue(date);
+            leftPanelDate.setText("Date: " + date);
+        }
+
+        chosenTime = time;
+        EventLog.setSimulatedTime(LocalDateTime.of(date, time));
+
+        if (alertTriggered) {
+            showCountdown();
+        }
+    }
+
+    /**
+     * Display the time left until the authorities are called, or that they have been called.
+     */
+    private void showCountdown() {
+        int minutes = simulationEngine.getCountdownSeconds() / 60;
+        int seconds = simulationEngine.getCountdownSeconds() % 60;
+        countDownAuthorities.setText(
+                String.format("%s:%s", minutes < 10 ? "0" + minutes : "" + minutes, seconds < 10 ? "0" + seconds : seconds + "")
+        );
+
+        if (simulationEngine.isAuthoritiesCalled()) {
+            authoritiesCalledMessage.setText("The authorities have been called!!!");
+        }
+    }
+
+    /**
+     * Print a message of the simulation on the console.
+     *
+     * @param time    the simulated time at which the message was printed
+     * @param message the message
+     */
+    @Override
+    public void showMessage(LocalTime time, String message) {
+        // The engine has already logged the message.
+        consoleBuffer.append(new ConsoleEntry(time, message));
+    }
+
+    /**
+     * Redraw the house layout after the simulation opened or closed a light or a window.
+     */
+    @Override
+    public void redrawLayout() {
+        drawLayout();
+    }
+
+    /**
+     * Update the rooms of the house layout whose temperature the simulation changed.
+     *
+     * @param changedRooms the rooms whose temperature changed since the last update
+     */
+    @Override
+    public synchronized void refreshLayout(Collection<RoomModel> changedRooms) {
+        synchronized (simulationEngine) {
+            houseRenderer.refreshRooms(changedRooms);
+        }
     }
 
 
@@ -1699,7 +1563,7 @@ public class MainViewController {
             lockDoorComboBoxSHC.getItems().addAll("Backyard", "\"Front yard\"");
             addModifyLocComboBoxSHS.getItems().addAll("Front yard", "Backyard");
             addModifyRoleComboBoxSHS.getItems().addAll("Parent", "Child", "Guest", "Stranger");
-            timeSpeedComboBoxSHS.getItems().addAll("0.25", "0.5", "0.75", "1", "1.25", "1.5", "1.75", "2");
+            timeSpeedComboBoxSHS.getItems().addAll("0.25", "0.5", "0.75", "1", "1.25", "1.5", "1.75", "2", "10", "60", "600", "3600", "86400");
             month.getItems().addAll("January", "February", "March", "April", "May", "June", "July", "August", "September", "October", "November", "December");
             season.getItems().addAll("Winter", "Summer");
 
@@ -1753,10 +1617,10 @@ public class MainViewController {
 
         if (shcController.isAutoMode()) {
             turnOnOffAutomode.setText("Turn Off AutoMode");
-            printConsole.setText("Turning on AutoMode.");
+            shcConsole.setText("Turning on AutoMode.");
         } else {
             turnOnOffAutomode.setText("Turn On AutoMode");
-            printConsole.setText("Turning off AutoMode.");
+            shcConsole.setText("Turning off AutoMode.");
         }
     }
 
@@ -1766,7 +1630,7 @@ public class MainViewController {
     @FXML
     public void openDoor() {
         String value = doorComboBoxSHC.getValue();
-        shcController.openDoor(value, houseModel, printConsole);
+        shcController.openDoor(value, simulationEngine, shcConsole);
         drawLayout();
     }
 
@@ -1776,7 +1640,7 @@ public class MainViewController {
     @FXML
     public void closeDoor() {
         String value = doorComboBoxSHC.getValue();
-        shcController.closeDoor(value, houseModel, printConsole);
+        shcController.closeDoor(value, simulationEngine, shcConsole);
         drawLayout();
     }
 
@@ -1786,7 +1650,7 @@ public class MainViewController {
     @FXML
     public void lockDoor() {
         String value = lockDoorComboBoxSHC.getValue();
-        shcController.lockDoor(value, houseModel, printConsole);
+        shcController.lockDoor(value, simulationEngine, shcConsole);
         drawLayout();
     }
 
@@ -1796,7 +1660,7 @@ public class MainViewController {
     @FXML
     public void unLock() {
         String value = lockDoorComboBoxSHC.getValue();
-        shcController.unLock(value, houseModel, printConsole);
+        shcController.unLock(value, simulationEngine, shcConsole);
         drawLayout();
     }
 
@@ -1806,7 +1670,7 @@ public class MainViewController {
     @FXML
     void openWindow() {
         String value = winComboBoxSHC.getValue();
-        shcController.openWindow(value, houseModel, printConsole);
+        shcController.openWindow(value, simulationEngine, shcConsole);
         drawLayout();
     }
 
@@ -1816,7 +1680,7 @@ public class MainViewController {
     @FXML
     void closeWindow() {
         String value = winComboBoxSHC.getValue();
-        shcController.closeWindow(value, houseModel, printConsole);
+        shcController.closeWindow(value, simulationEngine, shcConsole);
         drawLayout();
     }
 
@@ -1830,19 +1694,15 @@ public class MainViewController {
         double temperature = temperatureManSpinnerSHH.getValue().doubleValue();
         RoomModel room = houseModel.getRooms().get(location);
 
-        // If the simulation is running, update the HVAC target temperature manually live.
-        if (running.get()) {
-            roomHVACS.get(room).setTargetTemperature(temperature);
-            roomHVACS.get(room).setRate(0.1);
-            roomHVACS.get(room).setRounding(new DecimalFormat("#.#"));
-            roomHVACS.get(room).setStateHVAC("Manual");
-            printConsole.setText("Starting to cool/heat the " + room.getName() + " to a temperature of " + temperature + " C.");
+        // Regardless of whether or not the simulation is running, store the manual update which will be processed each time the simulation goes live (until the override is removed).
+        // If the simulation is running, the HVAC target temperature is also updated manually live.
+        boolean updatedLive = simulationEngine.setManualTemperature(room, temperature);
+
+        if (running.get() && updatedLive) {
+            shhConsole.setText(room.getName(), "Starting to cool/heat the " + room.getName() + " to a temperature of " + temperature + " C.");
         } else {
-            printConsole.setText("Will start to cool/heat the " + room.getName() + " to a temperature of " + temperature + " C once the simulation restarts.");
+            shhConsole.setText(room.getName(), "Will start to cool/heat the " + room.getName() + " to a temperature of " + temperature + " C once the simulation restarts.");
         }
-
-        // Regardless of whether or not the simulation is running, store the manual update which will be processed each time the simulation goes live (until the override is removed).
-        requestsForHVACS.put(room, temperature);
     }
 
     /**
@@ -1854,19 +1714,19 @@ public class MainViewController {
     void openOrCloseLights(ActionEvent event) {
         String value = lightComboBoxSHC.getValue();
         if (event != null && event.getSource().equals(turnOnLight)) {
-            shcController.openOrCloseLights(value, true, "open", houseModel, printConsole, false);
+            shcController.openOrCloseLights(value, true, "open", simulationEngine, shcConsole, false);
             turnOnOffAutomode.setText("Turn On AutoMode");
         } else if (event != null && event.getSource().equals(turnOffLight)) {
-            shcController.openOrCloseLights(value, true, "close", houseModel, printConsole, false);
+            shcController.openOrCloseLights(value, true, "close", simulationEngine, shcConsole, false);
             turnOnOffAutomode.setText("Turn On AutoMode");
         } else {
             UserModel user = ((UserModel) userInfo[1]);
             if (rooms.containsKey(user.getCurrentLocation())) {
-                shcController.openOrCloseLights(user.getCurrentLocation(), false, "open", houseModel, printConsole, false);
+                shcController.openOrCloseLights(user.getCurrentLocation(), false, "open", simulationEngine, shcConsole, false);
             }
 
             if (rooms.containsKey(user.getPreviousLocation()) && rooms.get(user.getPreviousLocation()).getNbPeople() == 0) {
-                shcController.openOrCloseLights(user.getPreviousLocation(), false, "close", houseModel, printConsole, false);
+                shcController.openOrCloseLights(user.getPreviousLocation(), false, "close", simulationEngine, shcConsole, false);
             }
 
         }
@@ -1883,8 +1743,7 @@ public class MainViewController {
 
         leftPanelTimeSpeed.setText("Simulation time speed: " + timeSpeedComboBoxSHS.getValue() + "x");
 
-        AtomicInteger newSpeed = new AtomicInteger(((Double) (1000 / Double.parseDouble(timeSpeedComboBoxSHS.getValue()))).intValue());
-        speed = newSpeed.get();
+        speed = Double.parseDouble(timeSpeedComboBoxSHS.getValue());
 
         saveSimulationConditions(event);
     }
@@ -1898,13 +1757,13 @@ public class MainViewController {
         LocalTime from = timerFrom.getValue();
 
         if (to.compareTo(from) > 0) {
-            keepLightsOn.put(lightComboBoxSHP.getValue(), new Pair<>(from, to));
-            printConsole.setText("Scheduling for light in room " + lightComboBoxSHP.getValue() + " to be on between " + from + " and " + to + ".");
+            simulationEngine.scheduleLight(lightComboBoxSHP.getValue(), new LightSchedule(from, to));
+            shpConsole.setText(lightComboBoxSHP.getValue(), "Scheduling for light in room " + lightComboBoxSHP.getValue() + " to be on between " + from + " and " + to + ".");
         } else {
             selectLightMessage.setVisible(true);
             selectLightMessage.setText("Lights: (The second time must be after the first one)");
             selectLightMessage.setTextFill(Color.RED);
-            printConsole.setText("In order to schedule a light to remain on, the second time must be after the first one.");
+            shpConsole.setText("In order to schedule a light to remain on, the second time must be after the first one.");
         }
     }
 
@@ -1915,7 +1774,7 @@ public class MainViewController {
     public void saveCountdownAuthority() {
         countdownMinutesLeft = timerMinuteAuthority.getValue();
         countdownSecondsLeft = timerSecondAuthority.getValue();
-        printConsole.setText("Setting the waiting time until the authorities are called at " + countdownMinutesLeft + " min and " + countdownSecondsLeft + " sec.");
+        shpConsole.setText("Setting the waiting time until the authorities are called at " + countdownMinutesLeft + " min and " + countdownSecondsLeft + " sec.");
     }
 
     /**
@@ -1924,23 +1783,23 @@ public class MainViewController {
     @FXML
     public void enterAwayMode() {
 
-        if (awayModeOn) {
-            awayModeOn = false;
+        if (simulationEngine.isAwayModeOn()) {
+            simulationEngine.setAwayModeOn(false);
             awayButton.setText("Turn On Away Mode");
-            printConsole.setText("Turning off Away Mode.");
+            shpConsole.setText("Turning off Away Mode.");
             return;
         }
 
         awayButton.setText("Turn Off Away Mode");
-        awayModeOn = true;
-        printConsole.setText("Turning on Away Mode.");
+        simulationEngine.setAwayModeOn(true);
+        shpConsole.setText("Turning on Away Mode.");
 
         for (String windowName : houseModel.getWindows().keySet()) {
-            shcController.closeWindow(windowName, houseModel, printConsole);
+            shcController.closeWindow(windowName, simulationEngine, shcConsole);
         }
 
         for (String doorName : houseModel.getDoors().keySet()) {
-            shcController.lockDoor(doorName, houseModel, printConsole);
+            shcController.lockDoor(doorName, simulationEngine, shcConsole);
         }
 
         //shhController.changeZoneTemperatureToSeasonTemperature(leftPanelDate, houseModel, printConsole);
@@ -1954,43 +1813,20 @@ public class MainViewController {
     public void cancelAlert() {
 
         if (!alertTriggered) {
-            printConsole.setText("There is no alert to cancel.");
+            shpConsole.setText("There is no alert to cancel.");
             return;
         }
 
-        countdown.getAndSet(false);
-        awayModeOn = false;
+        simulationEngine.cancelAuthoritiesCountdown();
+        simulationEngine.setAwayModeOn(false);
         alertTriggered = false;
         saveDurationAuth.setDisable(false);
-        printConsole.setText("The alert has been canceled.");
+        shpConsole.setText("The alert has been canceled.");
         countDownAuthorities.setVisible(false);
         authoritiesCalledMessage.setText("The alert has been canceled.");
         callingAuthoritiesLabel.setVisible(false);
     }
 
-    /**
-     * Turn off the lights on a schedule
-     *
-     * @param location
-     * @param action
-     */
-    private synchronized void scheduleTurnOnOffLight(String location, String action) {
-        shcController.openOrCloseLights(location, true, action, houseModel, printConsole, true);
-        drawLayout();
-    }
-
-    /**
-     * Change the temperature of a room
-     *
-     * @param temperature
-     * @param location
-     * @param isManual
-     */
-    private synchronized void changeTempPeriod(double temperature, String location, boolean isManual) {
-        shhController.changeRoomTemperature(houseModel, printConsole, temperature, location);
-        drawLayout();
-    }
-
     /**
      * Set the season based on the month
      */
@@ -1998,7 +1834,7 @@ public class MainViewController {
     public void setMonthToSeason() {
         String monthSelected = month.getValue();
         String seasonSelected = season.getValue();
-        shsController.setMonthToSeason(houseModel, monthSelected, seasonSelected, printConsole);
+        shsController.setMonthToSeason(simulationEngine, monthSelected, seasonSelected, printConsole);
     }
 
     /**
@@ -2008,16 +1844,8 @@ public class MainViewController {
     public void setSeasonTemperature() {
         String season = seasonComboBoxSHH.getValue();
         Double temperature = temperatureSeasonSpinnerSHH.getValue();
-        shhController.setSeasonTemperature(houseModel, printConsole, temperature, season);
-
-        for (HVAC hvac : roomHVACS.values()) {
-            if (season.equals("Summer") && hvac.getStateHVAC().equals("Away Mode Summer")) {
-                hvac.setTargetTemperature(temperature);
-                printConsole.setText("Any current and future heating/cooling to the default summer temperature will now heat/cool to this temperature.");
-            } else if (season.equals("Winter") && hvac.getStateHVAC().equals("Away Mode Winter")) {
-                hvac.setTargetTemperature(temperature);
-                printConsole.setText("Any current and future heating/cooling to the default winter temperature will now heat/cool to this temperature.");
-            }
+        if (shhController.setSeasonTemperature(simulationEngine, shhConsole, temperature, season)) {
+            shhConsole.setText("Any current and future heating/cooling to the default " + season.toLowerCase() + " temperature will now heat/cool to this temperature.");
         }
     }
 
@@ -2028,7 +1856,7 @@ public class MainViewController {
     public void setRoomInZone() {
         String location = locationComboBoxSHH.getValue();
         String zone = zoneComboBoxSHH.getValue();
-        shhController.setRoomInZone(houseModel, printConsole, zone, location);
+        shhController.setRoomInZone(simulationEngine, shhConsole, zone, location);
     }
 
     /**
@@ -2039,7 +1867,7 @@ public class MainViewController {
         String zone = zoneTemperatureComboBox.getValue();
         String period = periodComboBoxSHH.getValue();
         double temperature = temperaturePeriodSpinnerSHH.getValue().doubleValue();
-        shhController.setTemperatureZonePeriod(houseModel, zone, period, temperature, printConsole);
+        shhController.setTemperatureZonePeriod(simulationEngine, zone, period, temperature, shhConsole);
     }
 
     /**
@@ -2051,14 +1879,14 @@ public class MainViewController {
 
         if (saveHVAC.getText().equals("Turn Off HVAC")) {
             saveHVAC.setText("Turn On HVAC");
-            printConsole.setText("The HVAC has been turned OFF! All heating/cooling has been stopped!");
+            shhConsole.setText("The HVAC has been turned OFF! All heating/cooling has been stopped!");
         } else {
             saveHVAC.setText("Turn Off HVAC");
-            printConsole.setText("The HVAC has been turned ON!");
+            shhConsole.setText("The HVAC has been turned ON!");
         }
 
         // Check HVAC on or off.
-        isHVACOn.set(saveHVAC.getText().equals("Turn Off HVAC"));
+        simulationEngine.setHVACOn(saveHVAC.getText().equals("Turn Off HVAC"));
     }
 
     /**
@@ -2070,18 +1898,12 @@ public class MainViewController {
 
         RoomModel room = houseModel.getRooms().get(location);
 
-        // If the simulation is running, update the HVAC target temperature manually live.
-        if (running.get() && roomHVACS.get(room).getStateHVAC().equals("Manual")) {
-            roomHVACS.get(room).setStateHVAC("Idle");
-            roomHVACS.get(room).setTargetTemperature(room.getTemperature());
-        }
-
-        if (requestsForHVACS.containsKey(room)) {
-            requestsForHVACS.remove(room);
-            printConsole.setText("Turning off manual override for the " + room.getName() + ". The HVAC in that room is now in idle mode.");
+        // If the simulation is running, the HVAC in manual mode goes back to idle.
+        if (simulationEngine.clearManualTemperature(room)) {
+            shhConsole.setText(room.getName(), "Turning off manual override for the " + room.getName() + ". The HVAC in that room is now in idle mode.");
             drawLayout();
         } else {
-            printConsole.setText("The " + room.getName() + " is not currently in Manual Override Mode.");
+            shhConsole.setText(room.getName(), "The " + room.getName() + " is not currently in Manual Override Mode.");
         }
     }
 }
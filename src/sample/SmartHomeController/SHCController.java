@@ -1,12 +1,16 @@
 package sample.SmartHomeController;
 
-import sample.Interfaces.Observer;
+import sample.Interfaces.EventSubscriber;
+import sample.SmartHomeModel.Command;
+import sample.SmartHomeModel.DeviceEvent;
+import sample.SmartHomeModel.EventLog;
 import sample.SmartHomeModel.HouseModel;
+import sample.SmartHomeModel.SimulationEngine;
 
 /**
  * Class for the SHC Controller.
  */
-public class SHCController implements Observer {
+public class SHCController implements EventSubscriber<DeviceEvent> {
 
     private boolean autoMode;
 
@@ -23,11 +27,11 @@ public class SHCController implements Observer {
      * @param areaName      the area name
      * @param manualControl the manual control
      * @param action        the action
-     * @param houseModel    the house model
+     * @param engine        the simulation engine
      * @param printConsole  the print console
      * @param isScheduled   the is scheduled
      */
-    void openOrCloseLights(String areaName, boolean manualControl, String action, HouseModel houseModel, MainViewController.PrintConsole printConsole, boolean isScheduled) {
+    void openOrCloseLights(String areaName, boolean manualControl, String action, SimulationEngine engine, MainViewController.PrintConsole printConsole, boolean isScheduled) {
 
         if(manualControl || autoMode){
 
@@ -36,18 +40,16 @@ public class SHCController implements Observer {
             String extraInfo = isScheduled ? " as scheduled." : ".";
 
             if(action.equals("close")){
-                System.out.println("Light to close: " + houseModel.getLights().get(areaName).getName());
-                houseModel.getLights().get(areaName).setOpen(false);
+                engine.execute(Command.openLight(areaName, false));
                 printConsole.setText("Closing the lights in " + areaName + extraInfo);
             }
             else if(action.equals("open")){
-                System.out.println("Light to open: " + houseModel.getLights().get(areaName).getName());
-                houseModel.getLights().get(areaName).setOpen(true);
+                engine.execute(Command.openLight(areaName, true));
                 printConsole.setText("Opening the lights in " + areaName + extraInfo);
             }
         }
         else {
-            System.out.println("Manual control: " + manualControl + ", and autoMode: " + autoMode);
+            printConsole.debug(areaName, "Ignoring automatic light change, manual control: " + manualControl + ", and autoMode: " + autoMode);
         }
     }
 
@@ -55,16 +57,17 @@ public class SHCController implements Observer {
      * Open door.
      *
      * @param roomName     the room name
-     * @param houseModel   the house model
+     * @param engine       the simulation engine
      * @param printConsole the print console
      */
-    void openDoor(String roomName, HouseModel houseModel, MainViewController.PrintConsole printConsole) {
+    void openDoor(String roomName, SimulationEngine engine, MainViewController.PrintConsole printConsole) {
+        HouseModel houseModel = engine.getHouseModel();
 
         if(houseModel.getDoors().get(roomName).isLocked() && houseModel.getDoors().get(roomName).isOpen() == false){
             printConsole.setText("Cannot open the door in " + roomName + ".");
         }
         else{
-            houseModel.getDoors().get(roomName).setOpen(true);
+            engine.execute(Command.openDoor(roomName, true));
             printConsole.setText("Opening the door in " + roomName + ".");
         }
     }
@@ -73,11 +76,11 @@ public class SHCController implements Observer {
      * Close door.
      *
      * @param roomName     the room name
-     * @param houseModel   the house model
+     * @param engine       the simulation engine
      * @param printConsole the print console
      */
-    void closeDoor(String roomName, HouseModel houseModel, MainViewController.PrintConsole printConsole) {
-        houseModel.getDoors().get(roomName).setOpen(false);
+    void closeDoor(String roomName, SimulationEngine engine, MainViewController.PrintConsole printConsole) {
+        engine.execute(Command.openDoor(roomName, false));
         printConsole.setText("Closing the door in " + roomName + ".");
     }
 
@@ -85,11 +88,11 @@ public class SHCController implements Observer {
      * Lock door.
      *
      * @param roomName     the room name
-     * @param houseModel   the house model
+     * @param engine       the simulation engine
      * @param printConsole the print console
      */
-    void lockDoor(String roomName, HouseModel houseModel, MainViewController.PrintConsole printConsole) {
-        houseModel.getDoors().get(roomName).setLocked(true);
+    void lockDoor(String roomName, SimulationEngine engine, MainViewController.PrintConsole printConsole) {
+        engine.execute(Command.lockDoor(roomName, true));
         printConsole.setText("Locking the door in " + roomName + ".");
     }
 
@@ -97,11 +100,11 @@ public class SHCController implements Observer {
      * Un lock.
      *
      * @param roomName     the room name
-     * @param houseModel   the house model
+     * @param engine       the simulation engine
      * @param printConsole the print console
      */
-    void unLock(String roomName, HouseModel houseModel, MainViewController.PrintConsole printConsole) {
-        houseModel.getDoors().get(roomName).setLocked(false);
+    void unLock(String roomName, SimulationEngine engine, MainViewController.PrintConsole printConsole) {
+        engine.execute(Command.lockDoor(roomName, false));
         printConsole.setText("Unlocking the door in " + roomName + ".");
     }
 
@@ -109,15 +112,16 @@ public class SHCController implements Observer {
      * Open window.
      *
      * @param roomName     the room name
-     * @param houseModel   the house model
+     * @param engine       the simulation engine
      * @param printConsole the print console
      */
-    void openWindow(String roomName, HouseModel houseModel, MainViewController.PrintConsole printConsole) {
-        if(houseModel.getWindows().get(roomName).hasObject().get()){
+    void openWindow(String roomName, SimulationEngine engine, MainViewController.PrintConsole printConsole) {
+        HouseModel houseModel = engine.getHouseModel();
+        if(houseModel.getWindows().get(roomName).hasObject()){
             printConsole.setText("Cannot open the windows in " + roomName + " since there is an object blocking them.");
         }
-        if(!houseModel.getWindows().get(roomName).hasObject().get()){
-            houseModel.getWindows().get(roomName).setOpen(true);
+        if(!houseModel.getWindows().get(roomName).hasObject()){
+            engine.execute(Command.openWindow(roomName, true));
             printConsole.setText("Opening the window in " + roomName + ".");
         }
     }
@@ -126,15 +130,16 @@ public class SHCController implements Observer {
      * Close window.
      *
      * @param roomName     the room name
-     * @param houseModel   the house model
+     * @param engine       the simulation engine
      * @param printConsole the print console
      */
-    void closeWindow(String roomName, HouseModel houseModel, MainViewController.PrintConsole printConsole) {
-        if(houseModel.getWindows().get(roomName).hasObject().get()){
+    void closeWindow(String roomName, SimulationEngine engine, MainViewController.PrintConsole printConsole) {
+        HouseModel houseModel = engine.getHouseModel();
+        if(houseModel.getWindows().get(roomName).hasObject()){
             printConsole.setText("Cannot close the windows in " + roomName + " since there is an object blocking them.");
         }
-        if(!houseModel.getWindows().get(roomName).hasObject().get()){
-            houseModel.getWindows().get(roomName).setOpen(false);
+        if(!houseModel.getWindows().get(roomName).hasObject()){
+            engine.execute(Command.openWindow(roomName, false));
             printConsole.setText("Closing the window in " + roomName + ".");
         }
     }
@@ -158,12 +163,12 @@ public class SHCController implements Observer {
     }
 
     /**
-     * Update
+     * Record every change of a door, a window or a light, whether it was made by the user or by the simulation.
      *
-     * @param observable Object
+     * @param event the change
      */
     @Override
-    public void update(Object observable) {
-
+    public void onEvent(DeviceEvent event) {
+        EventLog.log(event.getDateTime(), EventLog.Module.SHC, EventLog.Type.DEBUG, event.getLocation(), "The " + event.getDevice().toString().toLowerCase() + " of " + event.getLocation() + " is " + event.getChange().toString().toLowerCase() + ".");
     }
 }
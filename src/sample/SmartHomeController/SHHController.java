@@ -1,11 +1,13 @@
 package sample.SmartHomeController;
 
 import javafx.scene.control.Label;
-import sample.SmartHomeModel.HouseModel;
+import sample.SmartHomeModel.Command;
 import sample.SmartHomeModel.RoomModel;
+import sample.SmartHomeModel.SimulationEngine;
 import sample.SmartHomeModel.UserModel;
 import sample.SmartHomeModel.Zone;
 
+import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Map;
 
@@ -17,82 +19,77 @@ public class SHHController {
     /**
      * Change the room temperature
      *
-     * @param houseModel the house model
+     * @param engine the simulation engine
      * @param printConsole print to console
      * @param temperature the temperature
      * @param location the location
      */
-    public void changeRoomTemperature(HouseModel houseModel, MainViewController.PrintConsole printConsole, double temperature, String location){
-        houseModel.getRooms().get(location).setTemperature(temperature);
+    public void changeRoomTemperature(SimulationEngine engine, MainViewController.PrintConsole printConsole, double temperature, String location){
+        engine.execute(Command.roomTemperature(location, temperature));
     }
 
     /**
      * Set the temperature of a season
      *
-     * @param houseModel the house model
+     * @param engine the simulation engine
      * @param printConsole print to console
      * @param temperature the temperature
      * @param season the season
-
+     * @return true if at least one HVAC heating/cooling to the default temperature of the season was updated
      */
-    public void setSeasonTemperature(HouseModel houseModel, MainViewController.PrintConsole printConsole, Double temperature, String season){
+    public boolean setSeasonTemperature(SimulationEngine engine, MainViewController.PrintConsole printConsole, Double temperature, String season){
+        boolean updated = engine.setSeasonTemperature(season, temperature);
+
         if(season.equals("Summer")){
-            houseModel.setSummerTemperature(temperature);
             printConsole.setText("Default temperature for Summer is set to " + temperature + " °C.");
         }
         if(season.equals("Winter")){
-            houseModel.setWinterTemperature(temperature);
             printConsole.setText("Default temperature for Winter is set to " + temperature + " °C.");
         }
+
+        return updated;
     }
 
     /**
      * Set the room in a zone
      *
-     * @param houseModel the house model
+     * @param engine the simulation engine
      * @param printConsole print to console
      * @param zone the zone
      * @param location the location
 
      */
-    public void setRoomInZone(HouseModel houseModel, MainViewController.PrintConsole printConsole, String zone, String location){
-        houseModel.getRooms().get(location).setZone(houseModel.getZoneList().get(zone));
+    public void setRoomInZone(SimulationEngine engine, MainViewController.PrintConsole printConsole, String zone, String location){
+        Zone previous = engine.getHouseModel().getRooms().get(location).getZone();
+        engine.execute(Command.roomZone(location, zone));
 
-        houseModel.getZoneList().forEach((zoneName, zoneItem) -> {
-
-            if (zoneItem.getRooms().contains(houseModel.getRooms().get(location))) {
-                zoneItem.getRooms().remove(houseModel.getRooms().get(location));
-                printConsole.setText("Removing " + location + " from " + zoneName);
-            }
-
-            if (zone.equals(zoneName)) {
-                zoneItem.addRomeToList(houseModel.getRooms().get(location));
-            }
-        });
+        if (previous != null) {
+            printConsole.setText(location, "Removing " + location + " from " + previous.getZoneName());
+        }
 
-        printConsole.setText("Adding " + location + " to " + zone);
+        printConsole.setText(location, "Adding " + location + " to " + zone);
     }
 
     /**
      * Set the temperature for a zone for a period
      *
-     * @param houseModel the house model
+     * @param engine the simulation engine
      * @param zone the zone
      * @param period the period
      * @param temperature the temperature
      * @param printConsole print to console
      */
-    public void setTemperatureZonePeriod(HouseModel houseModel, String zone, String period, double temperature, MainViewController.PrintConsole printConsole){
+    public void setTemperatureZonePeriod(SimulationEngine engine, String zone, String period, double temperature, MainViewController.PrintConsole printConsole){
         if(period.equals("00:00 - 08:00")){
-            houseModel.getZoneList().get(zone).setNightTemp(temperature);
+            engine.execute(Command.zoneTemperature(zone, LocalTime.of(0, 0), temperature));
             printConsole.setText(zone + " temperature is set to " + temperature + " °C for the 00:00 to 08:00 period.");
         }
         else if(period.equals("08:00 - 16:00")){
-            houseModel.getZoneList().get(zone).setDayTemp(temperature);
+            engine.execute(Command.zoneTemperature(zone, LocalTime.of(8, 0), temperature));
             printConsole.setText(zone + " temperature is set to " + temperature + " °C for the 08:00 to 16:00 period.");
         }
         else if(period.equals("16:00 - 24:00")){
-            houseModel.getZoneList().get(zone).setEveningTemp(temperature);
+            engine.execute(Command.zoneTemperature(zone, LocalTime.of(16, 0), temperature));
             printConsole.setText(zone + " temperature is set to " + temperature + " °C for the 16:00 to 24:00 period.");
         }
     }
@@ -1,18 +1,23 @@
 package sample.SmartHomeController;
 
-import sample.Interfaces.Observer;
+import sample.Interfaces.EventSubscriber;
+import sample.SmartHomeModel.AlertEvent;
+import sample.SmartHomeModel.EventLog;
 
 /**
  * Class for the SHP Controller.
  */
-public class SHPController implements Observer {
+public class SHPController implements EventSubscriber<AlertEvent> {
 
-    @Override
     /**
-     * Update
-     * @param observable Object
+     * Alert the authorities when an intrusion is detected.
+     *
+     * @param event the alert
      */
-    public void update(Object observable) {
-        System.out.println("Alerting cops!");
+    @Override
+    public void onEvent(AlertEvent event) {
+        if (event.getKind() == AlertEvent.Kind.INTRUSION) {
+            EventLog.log(EventLog.Module.SHP, EventLog.Type.ALERT, event.getLocation(), "Alerting cops!");
+        }
     }
 }
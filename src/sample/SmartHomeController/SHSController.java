@@ -1,23 +1,22 @@
 package sample.SmartHomeController;
 
-import sample.Interfaces.Observer;
-import sample.Interfaces.Subject;
+import sample.SmartHomeModel.Command;
+import sample.SmartHomeModel.EventLog;
 import sample.SmartHomeModel.HouseModel;
 import sample.SmartHomeModel.RoomModel;
 import sample.SmartHomeModel.SimulationData;
+import sample.SmartHomeModel.SimulationEngine;
 import sample.SmartHomeModel.UserModel;
+import sample.SmartHomeModel.UserRegistry;
+import sample.SmartHomeModel.UserStore;
 
-import java.io.FileNotFoundException;
-import java.io.PrintWriter;
-import java.io.UnsupportedEncodingException;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
 import java.util.Map;
 
 /**
  * Class for the SHS Controller.
  */
-public class SHSController implements Subject {
+public class SHSController {
 
     /**
      * The Simulation data.
@@ -34,50 +33,32 @@ public class SHSController implements Subject {
      */
     private int loggedUserID = -1;
 
-    /**
-     * The printwriter
-     */
-    private PrintWriter printWriter;
-
-    /**
-     * The observer list
-     */
-    private List<Observer> observerList;
-
-    /**
-     * The current state
-     */
-    private Object state;
-
 
     /**
      * Instantiates a new SHS Controller.
      */
     public SHSController() {
         simulationData = new SimulationData();
-        observerList = new ArrayList<>();
     }
 
     /**
      * Sets outside temperature.
      *
-     * @param houseModel the house model
-     * @param value      the value
+     * @param engine the simulation engine
+     * @param value  the value
      */
-    void setOutsideTemperature(HouseModel houseModel, double value) {
-        houseModel.setOutsideTemp(value);
+    void setOutsideTemperature(SimulationEngine engine, double value) {
+        engine.execute(Command.outsideTemperature(value));
     }
 
     /**
-     * Sets inside temperature.
+     * Sets inside temperature (of every room).
      *
-     * @param rooms the rooms map
-     * @param value the value
+     * @param engine the simulation engine
+     * @param value  the value
      */
-    void setInsideTemperature(Map<String, RoomModel> rooms, double value) {
-        rooms.forEach((name, room) -> {
-            room.setTemperature(value);
-        });
+    void setInsideTemperature(SimulationEngine engine, double value) {
+        engine.execute(Command.roomTemperature(null, value));
     }
 
     /**
@@ -85,22 +66,20 @@ public class SHSController implements Subject {
      *
      * @param houseModel   the house model
      * @param id           the id
-     * @param userList     the user list
+     * @param users        the users
      * @param printConsole the console used for printing
      * @return the object [ ]
      */
-    Object[] login(HouseModel houseModel, int id, ArrayList<UserModel> userList, MainViewController.PrintConsole printConsole) {
-        boolean userExist = false;
+    Object[] login(HouseModel houseModel, int id, UserRegistry users, MainViewController.PrintConsole printConsole) {
         Object[] userInfo = new Object[2];
+        UserModel user = users.get(id);
+        boolean userExist = user != null;
 
-        for (int i = 0; i < userList.size(); i++) {
-            if (userList.get(i).getId() == (id)) {
-                houseModel.setLoggedUserName(userList.get(i).getName());
-                printConsole.setText("You're logged in as " + userList.get(i).getName() + ".");
-                userExist = true;
-                userInfo[1] = userList.get(i);
-                loggedUserID = userList.get(i).getId();
-            }
+        if (userExist) {
+            houseModel.setLoggedUserName(user.getName());
+            printConsole.setText("You're logged in as " + user.getName() + ".");
+            userInfo[1] = user;
+            loggedUserID = user.getId();
         }
 
         if (!userExist) {
@@ -116,30 +95,26 @@ public class SHSController implements Subject {
     /**
      * Delete user profile (if user can be removed).
      *
-     * @param userList     the user list
-     * @param rooms        the rooms
+     * @param userStore    the store of the users
+     * @param engine       the simulation engine
      * @param id           the id
      * @param printConsole the console object used for printing
      */
-    void deleteUserProfile(ArrayList<UserModel> userList, Map<String, RoomModel> rooms, int id, MainViewController.PrintConsole printConsole) {
-        boolean userExist = false;
-
-        for (int i = 0; i < userList.size(); i++) {
-            if (userList.get(i).getId() == (id)) {
-                if (userList.get(i).getId() != loggedUserID) {
-                    printConsole.setText("You removed " + userList.get(i).getName() + ".");
-                    rooms.get(userList.get(i).getCurrentLocation()).decrementNbPeople();
-                    userList.remove(i);
-                } else {
-                    printConsole.setText("You cannot remove yourself. First, make sure the simulation is stopped and then log out if you want to remove the user you're currently logged in as.");
-                }
-                userExist = true;
+    void deleteUserProfile(UserStore userStore, SimulationEngine engine, int id, MainViewController.PrintConsole printConsole) {
+        Map<String, RoomModel> rooms = engine.getHouseModel().getRooms();
+        UserModel user = userStore.getUsers().get(id);
 
-                break;
+        if (user != null) {
+            if (user.getId() != loggedUserID) {
+                printConsole.setText("You removed " + user.getName() + ".");
+                if (rooms.containsKey(user.getCurrentLocation())) {
+                    engine.execute(Command.people(user.getCurrentLocation(), -1));
+                }
+                userStore.remove(id);
+            } else {
+                printConsole.setText("You cannot remove yourself. First, make sure the simulation is stopped and then log out if you want to remove the user you're currently logged in as.");
             }
-        }
-
-        if (!userExist) {
+        } else {
             printConsole.setText("Try again. You cannot remove someone that doesn't exist in the database.");
         }
     }
@@ -147,18 +122,18 @@ public class SHSController implements Subject {
     /**
      * Add object to window (and print object blocking window).
      *
-     * @param rooms            the room map (mapping each name of a room to the corresponding room object)
+     * @param engine           the simulation engine
      * @param roomName         the room name
      * @param consoleTextField the console text field
      */
-    void addObjectToWindow(Map<String, RoomModel> rooms, String roomName, MainViewController.PrintConsole consoleTextField) {
-        rooms.forEach((name, room) -> {
+    void addObjectToWindow(SimulationEngine engine, String roomName, MainViewController.PrintConsole consoleTextField) {
+        engine.getHouseModel().getRooms().forEach((name, room) -> {
             if (name.equals(roomName)) {
-                if (!room.getWindow().hasObject().get()) {
-                    room.getWindow().hasObject().set(true);
+                if (!room.getWindow().hasObject()) {
+                    engine.execute(Command.blockWindow(name, true));
                     consoleTextField.setText("Adding object to block the window of the " + room.getName() + ".");
                 } else {
-                    room.getWindow().hasObject().set(false);
+                    engine.execute(Command.blockWindow(name, false));
                     consoleTextField.setText("Removing blocking object from the window of the " + room.getName() + ".");
                 }
             }
@@ -168,8 +143,8 @@ public class SHSController implements Subject {
     /**
      * Add/modify user object [ ].
      *
-     * @param userList     the user list
-     * @param rooms        the rooms
+     * @param userStore    the store of the users
+     * @param engine       the simulation engine
      * @param id           the id
      * @param name         the name
      * @param userType     the user type
@@ -177,68 +152,58 @@ public class SHSController implements Subject {
      * @param printConsole the console used to print
      * @return the object [ ]
      */
-    Object[] addModifyUser(ArrayList<UserModel> userList, Map<String, RoomModel> rooms, int id, String name, String userType, String location, MainViewController.PrintConsole printConsole) {
-        boolean userExist = false;
+    Object[] addModifyUser(UserStore userStore, SimulationEngine engine, int id, String name, String userType, String location, MainViewController.PrintConsole printConsole) {
+        Map<String, RoomModel> rooms = engine.getHouseModel().getRooms();
         Object[] userInfo = new Object[2];
-        String previousLocation = "";
-        for (int i = 0; i < userList.size(); i++) {
-            if (userList.get(i).getId() == (id)) {
-                userExist = true;
-                userList.get(i).setName(name);
-                userList.get(i).setUser_type(userType);
-
-                if (!userList.get(i).getCurrentLocation().equals(location)) {
-
-                    System.out.println("userList.get(i).getCurrentLocation(): " + userList.get(i).getCurrentLocation());
-                    System.out.println("location: " + location);
-
-                    if (((location.equals("House")) || (location.equals("Backyard")) || (location.equals("Front yard")) || (rooms.get(location).getDoor().isOpen() == true) ||
-                            (rooms.get(location).getDoor().isOpen() == false && rooms.get(location).getDoor().isLocked() == false))) {
+        UserModel user = userStore.getUsers().get(id);
+        boolean userExist = user != null;
 
-                        System.out.println("Door is either open or closed and unlocked.");
+        if (userExist) {
+            userStore.modify(user, name, userType);
 
-                        previousLocation = userList.get(i).getCurrentLocation();
+            if (!user.getCurrentLocation().equals(location)) {
 
-                        if (rooms.containsKey(location)) {
-                            System.out.println("Incrementing for room " + location);
-                            rooms.get(location).incrementNbPeople();
-                        }
+                printConsole.debug(location, "Moving user " + id + " from " + user.getCurrentLocation() + " to " + location + ".");
 
-                        if (rooms.containsKey(previousLocation)) {
-                            System.out.println("Decrementing for room " + previousLocation);
-                            rooms.get(previousLocation).decrementNbPeople();
-                        }
+                if (((location.equals("House")) || (location.equals("Backyard")) || (location.equals("Front yard")) || (rooms.get(location).getDoor().isOpen() == true) ||
+                        (rooms.get(location).getDoor().isOpen() == false && rooms.get(location).getDoor().isLocked() == false))) {
 
-                        userList.get(i).setCurrentLocation(location);
-                        userList.get(i).setPreviousLocation(previousLocation);
+                    String previousLocation = user.getCurrentLocation();
 
-                    } else if ((rooms.get(location).getDoor().isOpen() == false && rooms.get(location).getDoor().isLocked() == true)) {
-                        printConsole.setText("Cannot move this user in " + location + ". The door is locked.");
+                    if (rooms.containsKey(location)) {
+                        printConsole.debug(location, "Incrementing the number of people.");
+                        engine.execute(Command.people(location, 1));
                     }
-                } else if (userList.get(i).getCurrentLocation().equals(location)) {
-                    printConsole.setText("User is already in " + location + ".");
-                }
 
+                    if (rooms.containsKey(previousLocation)) {
+                        printConsole.debug(previousLocation, "Decrementing the number of people.");
+                        engine.execute(Command.people(previousLocation, -1));
+                    }
 
-                userInfo[1] = userList.get(i);
+                    userStore.relocate(user, location);
 
-                printConsole.setText("Modifying information for user with ID " + userList.get(i).getId() + ".");
+                } else if ((rooms.get(location).getDoor().isOpen() == false && rooms.get(location).getDoor().isLocked() == true)) {
+                    printConsole.setText("Cannot move this user in " + location + ". The door is locked.");
+                }
+            } else {
+                printConsole.setText("User is already in " + location + ".");
             }
-        }
 
-        if (!userExist) {
-            UserModel user = new UserModel(name, id, userType, location);
             userInfo[1] = user;
-            userList.add(user);
-            rooms.get(location).incrementNbPeople();
+
+            printConsole.setText("Modifying information for user with ID " + user.getId() + ".");
+        } else {
+            user = new UserModel(name, id, userType, location);
+            userInfo[1] = user;
+            userStore.add(user);
+            if (rooms.containsKey(location)) {
+                engine.execute(Command.people(location, 1));
+            }
             printConsole.setText("Creating new user " + name + ".");
         }
 
-        System.out.println("\n\nFrom inside the SHS controller");
         for (String roomName : rooms.keySet()) {
-
-            System.out.println("Room name: " + roomName);
-            System.out.println("rooms.get(roomName).getNbPeople(): " + rooms.get(roomName).getNbPeople());
+            printConsole.debug(roomName, "Number of people: " + rooms.get(roomName).getNbPeople());
         }
 
         userInfo[0] = userExist;
@@ -247,85 +212,34 @@ public class SHSController implements Subject {
     }
 
     /**
-     * Save user profiles.
+     * Save user profiles. Only the users changed since the last save are written.
      *
-     * @param userList     the user list
+     * @param userStore    the store of the users
      * @param printConsole the print console
      */
-    void saveUserProfiles(ArrayList<UserModel> userList, MainViewController.PrintConsole printConsole) {
+    void saveUserProfiles(UserStore userStore, MainViewController.PrintConsole printConsole) {
         try {
-
-            printWriter = new PrintWriter("Profiles.txt", "UTF-8");
-
-            for (UserModel userModel : userList) {
-                printWriter.println(userModel.getName() + "," + userModel.getId() + "," + userModel.getUser_type() + "," + userModel.getCurrentLocation());
-            }
+            int saved = userStore.save();
             printConsole.setText("Saving user profiles.");
-
-            printWriter.flush();
-            printWriter.close();
-
-        } catch (FileNotFoundException e) {
-            System.out.println("File does not exists.");
-        } catch (UnsupportedEncodingException e) {
-            System.out.println("UnsupportedEncoding Error");
-        }
-
-    }
-
-    /**
-     * Observer for register.
-     */
-    @Override
-    public void register(Observer observer) {
-        observerList.add(observer);
-    }
-
-    /**
-     * Observer for unregister.
-     */
-    @Override
-    public void unregister(Observer observer) {
-        observerList.remove(observer);
-    }
-
-    /**
-     * notify register.
-     */
-    @Override
-    public void notifyObservers() {
-        List<Observer> observerListLocal = new ArrayList<>(observerList);
-
-        for (Observer observer : observerListLocal) {
-            observer.update(state);
+            printConsole.debug(null, "Saved " + saved + " changed user profiles.");
+        } catch (IOException e) {
+            EventLog.log(EventLog.Module.SHS, EventLog.Type.ERROR, null, "Could not save the user profiles: " + e.getMessage());
+            printConsole.setText("The user profiles could not be saved (" + e.getMessage() + "). The " + userStore.getUnsavedCount() + " changed profiles will be saved the next time.");
         }
     }
 
     /**
      * Set the season based on a month
      *
-     * @param houseModel the house model
+     * @param engine the simulation engine
      * @param selectedMonth the selected month
      * @param selectedSeason the selected season
      * @param printConsole the print console
      */
-    public void setMonthToSeason(HouseModel houseModel, String selectedMonth, String selectedSeason, MainViewController.PrintConsole printConsole) {
-
-        //Removing the month from the season if it was already set before
-        if (houseModel.getWinterMonthList().contains(selectedMonth)) {
-            houseModel.getWinterMonthList().remove(selectedMonth);
-        }
-        if (houseModel.getSummerMonthList().contains(selectedMonth)) {
-            houseModel.getSummerMonthList().remove(selectedMonth);
-        }
+    public void setMonthToSeason(SimulationEngine engine, String selectedMonth, String selectedSeason, MainViewController.PrintConsole printConsole) {
 
-        //adding the month in the specific season
-        if (selectedSeason.equals("Summer")) {
-            houseModel.getSummerMonthList().add(selectedMonth);
-        }
-        if (selectedSeason.equals("Winter")) {
-            houseModel.getWinterMonthList().add(selectedMonth);
-        }
+        // The month is removed from the season it was in before, then added to the selected one.
+        engine.execute(Command.seasonMonth(selectedMonth, selectedSeason));
 
         printConsole.setText("The month of " + selectedMonth + " was added to the " + selectedSeason + " season.");
     }
@@ -0,0 +1,199 @@
+package sample.SmartHomeController;
+
+import sample.SmartHomeModel.EventLog;
+import sample.SmartHomeModel.SimulationEngine;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Class for the clock of the simulation. The clock runs at a fixed rate on the monotonic System.nanoTime(): the n-th
+ * simulated second is due n / speed seconds after the clock started, whatever the time spent processing the previous
+ * ones, so the simulated time does not drift from the wall time. When several seconds are due at once (high speeds,
+ * or the clock thread was delayed) they are processed in a single fast-forward, which is what allows speeds well
+ * above 1000x. A batch holds the lock of the engine, which the view needs to draw the house, so its size is chosen
+ * from the cost of the previous one to fit in BATCH_BUDGET of wall time; a longer backlog is processed in several
+ * batches, with the lock released between them.
+ * If the engine cannot keep up, the clock reports how far behind it is in the event log; past MAX_LAG it stops
+ * trying to catch up and goes on from the current simulated time, which is reported on the console.
+ */
+public class SimulationClock implements Runnable {
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * The lag (in wall time) above which the clock reports that it is behind.
+     */
+    private static final long REPORT_LAG = TimeUnit.MILLISECONDS.toNanos(250);
+
+    /**
+     * The minimum wall time between two reports of the lag.
+     */
+    private static final long REPORT_INTERVAL = TimeUnit.SECONDS.toNanos(5);
+
+    /**
+     * The lag (in wall time) above which the clock gives up catching up.
+     */
+    private static final long MAX_LAG = TimeUnit.SECONDS.toNanos(5);
+
+    /**
+     * The maximum number of simulated seconds processed in one batch, so that the clock stops promptly and reports
+     * its lag even at speeds the engine cannot sustain.
+     */
+    private static final long MAX_BATCH = 24 * 60 * 60;
+
+    /**
+     * The wall time one batch should take at most, so that the view is not kept waiting for the engine for more
+     * than about a frame.
+     */
+    private static final long BATCH_BUDGET = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final SimulationEngine engine;
+    private final SimulationPublisher publisher;
+    private final AtomicBoolean running;
+
+    /**
+     * The number of simulated seconds per second.
+     */
+    private volatile double speed;
+
+    /**
+     * How far (in wall time) the simulation was behind the clock after the last batch of ticks.
+     */
+    private volatile long lag;
+
+    /**
+     * The number of simulated seconds the clock gave up catching up on.
+     */
+    private volatile long skippedSeconds;
+
+    /**
+     * Instantiates a new Simulation clock.
+     *
+     * @param engine    the engine ticked by the clock
+     * @param publisher the publisher the result of each tick is sent to
+     * @param running   the flag which tells the clock to keep running
+     * @param speed     the number of simulated seconds per second
+     */
+    public SimulationClock(SimulationEngine engine, SimulationPublisher publisher, AtomicBoolean running, double speed) {
+        this.engine = engine;
+        this.publisher = publisher;
+        this.running = running;
+        setSpeed(speed);
+    }
+
+    /**
+     * Run the clock until the simulation is stopped.
+     */
+    @Override
+    public void run() {
+        double currentSpeed = speed;
+        long origin = System.nanoTime();
+        long ticks = 0;
+        long lastReport = origin - REPORT_INTERVAL;
+
+        // The cost of a simulated second is not known before the first batch (it is much higher with the thermal
+        // network, which is stepped every second), so the clock starts with a single second.
+        long batch = 1;
+
+        while (running.get() && !Thread.currentThread().isInterrupted()) {
+            if (speed != currentSpeed) {
+                // Keep the phase of the clock: the new rate starts from the deadline of the last tick processed.
+                origin += deadline(ticks, currentSpeed);
+                ticks = 0;
+                currentSpeed = speed;
+            }
+
+            long now = System.nanoTime();
+            long due = (long) ((now - origin) * currentSpeed / NANOS_PER_SECOND) - ticks;
+
+            if (due <= 0) {
+                LockSupport.parkNanos(origin + deadline(ticks + 1, currentSpeed) - now);
+                continue;
+            }
+
+            long seconds = Math.min(due, batch);
+            boolean layoutChanged = seconds == 1 ? engine.tick() : engine.fastForward(seconds);
+            ticks += seconds;
+            publisher.publishTick(engine.getDate(), engine.getTime(), engine.getChangedRooms(), layoutChanged);
+
+            long start = now;
+            now = System.nanoTime();
+
+            // Size the next batch after the cost of this one.
+            double nanosPerSecond = Math.max(now - start, 1) / (double) seconds;
+            batch = (long) Math.max(1, Math.min(MAX_BATCH, BATCH_BUDGET / nanosPerSecond));
+
+            long behind = (long) ((now - origin) * currentSpeed / NANOS_PER_SECOND) - ticks;
+            lag = behind > 0 ? (long) (behind * NANOS_PER_SECOND / currentSpeed) : 0;
+
+            if (lag > MAX_LAG) {
+                // Go on from the current simulated time rather than racing through the backlog.
+                origin = now - deadline(ticks, currentSpeed);
+                skippedSeconds += behind;
+                publisher.onMessage(engine.getTime(), "The simulation cannot keep up with a speed of " + currentSpeed + "x; it is now running behind the wall clock by " + skippedSeconds + " simulated seconds.");
+                lastReport = now;
+            } else if (lag > REPORT_LAG && now - lastReport >= REPORT_INTERVAL) {
+                EventLog.log(EventLog.Module.SHS, EventLog.Type.DEBUG, null, "The simulation clock is " + TimeUnit.NANOSECONDS.toMillis(lag) + " ms behind at a speed of " + currentSpeed + "x.");
+                lastReport = now;
+            }
+
+            if (seconds < due) {
+                // Give the view a chance to take the lock of the engine before the next batch.
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * Gets the wall time, since the origin of the clock, at which a simulated second is due.
+     *
+     * @param ticks the number of simulated seconds since the origin
+     * @param speed the number of simulated seconds per second
+     * @return the time in nanoseconds
+     */
+    private static long deadline(long ticks, double speed) {
+        return (long) Math.ceil(ticks * NANOS_PER_SECOND / speed);
+    }
+
+    /**
+     * Gets the number of simulated seconds per second.
+     *
+     * @return the speed
+     */
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Sets the number of simulated seconds per second. The new speed applies from the next tick.
+     *
+     * @param speed the speed (greater than 0)
+     * @throws IllegalArgumentException if the speed is not greater than 0
+     */
+    public void setSpeed(double speed) {
+        if (!(speed > 0) || Double.isInfinite(speed)) {
+            throw new IllegalArgumentException("The speed of the simulation must be a positive number, not " + speed + ".");
+        }
+        this.speed = speed;
+    }
+
+    /**
+     * Gets how far the simulation was behind the clock after the last batch of ticks.
+     *
+     * @return the lag in nanoseconds of wall time (0 if the simulation is on time)
+     */
+    public long getLag() {
+        return lag;
+    }
+
+    /**
+     * Gets the number of simulated seconds the clock gave up catching up on because the engine could not keep up.
+     *
+     * @return the number of simulated seconds
+     */
+    public long getSkippedSeconds() {
+        return skippedSeconds;
+    }
+}
@@ -1,14 +1,14 @@
 package sample.SmartHomeController;
 
+import sample.Exception.InvalidHouseLayoutException;
 import sample.SmartHomeModel.HouseModel;
 import sample.SmartHomeModel.RoomModel;
 import sample.SmartHomeModel.SimulationData;
-import sample.SmartHomeModel.UserModel;
+import sample.SmartHomeModel.UserStore;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
-import java.util.ArrayList;
 
 /**
  * Class for the Simulation Data Controller.
@@ -24,22 +24,20 @@ public class SimulationDataController {
      * Load data from json file
      *
      * @param path a String which specifies the file path of the JSON house layout file.
+     * @throws IOException if the house layout file or the user profiles cannot be read
+     * @throws InvalidHouseLayoutException if the house layout file is not valid
      */
-    void loadData(String path){
-        try {
-            smd.createData(path);
-        } catch (IOException e){
-            e.printStackTrace();
-        }
+    void loadData(String path) throws IOException, InvalidHouseLayoutException {
+        smd.createData(path);
     }
 
     /**
-     * Gets user array list.
+     * Gets the persistent store of the users.
      *
-     * @return the user array list
+     * @return the user store
      */
-    ArrayList<UserModel> getUserArrayList() {
-        return smd.getUserArrayList();
+    UserStore getUserStore() {
+        return smd.getUserStore();
     }
 
     /**
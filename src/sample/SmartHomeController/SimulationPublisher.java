@@ -0,0 +1,132 @@
+package sample.SmartHomeController;
+
+import javafx.animation.AnimationTimer;
+import sample.Interfaces.SimulationListener;
+import sample.Interfaces.SimulationView;
+import sample.SmartHomeModel.RoomModel;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Class for the layer between the simulation engine and the view. The simulation publishes its changes from the
+ * clock thread as fast as it ticks; they are accumulated here and applied to the view once per JavaFX pulse.
+ * Intermediate values which have been superseded before the next pulse (time, room temperatures) are dropped.
+ */
+public class SimulationPublisher extends AnimationTimer implements SimulationListener {
+
+    /**
+     * A console message waiting to be printed.
+     */
+    private static class Message {
+        private LocalTime time;
+        private String text;
+
+        Message(LocalTime time, String text) {
+            this.time = time;
+            this.text = text;
+        }
+    }
+
+    /**
+     * The view updated once per pulse.
+     */
+    private SimulationView view;
+
+    /**
+     * The console messages published since the last pulse.
+     */
+    private ConcurrentLinkedQueue<Message> messages = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The rooms whose temperature changed since the last pulse.
+     */
+    private Set<RoomModel> dirtyRooms = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Whether the whole layout must be redrawn on the next pulse (a light or a window was opened or closed).
+     */
+    private volatile boolean layoutDirty = false;
+
+    /**
+     * The latest date and time published (null once they have been displayed).
+     */
+    private AtomicReference<LocalDateTime> dateTime = new AtomicReference<>();
+
+    /**
+     * Instantiates a new Simulation publisher.
+     *
+     * @param view the view updated once per pulse
+     */
+    public SimulationPublisher(SimulationView view) {
+        this.view = view;
+    }
+
+    /**
+     * Queue a console message (called by the simulation engine).
+     *
+     * @param time    the simulated time at which the message was printed
+     * @param message the message
+     */
+    @Override
+    public void onMessage(LocalTime time, String message) {
+        messages.add(new Message(time, message));
+    }
+
+    /**
+     * Publish the result of one tick of the simulation.
+     *
+     * @param date          the date of the simulation after the tick
+     * @param time          the time of the simulation after the tick
+     * @param changedRooms  the rooms whose temperature changed during the tick
+     * @param layoutChanged true if a light or a window was opened or closed during the tick
+     */
+    public void publishTick(LocalDate date, LocalTime time, Collection<RoomModel> changedRooms, boolean layoutChanged) {
+        dirtyRooms.addAll(changedRooms);
+
+        if (layoutChanged) {
+            layoutDirty = true;
+        }
+
+        dateTime.set(LocalDateTime.of(date, time));
+    }
+
+    /**
+     * Apply everything published since the last pulse to the view.
+     *
+     * @param now the timestamp of the current frame
+     */
+    @Override
+    public void handle(long now) {
+        Message message;
+        while ((message = messages.poll()) != null) {
+            view.showMessage(message.time, message.text);
+        }
+
+        LocalDateTime latest = dateTime.getAndSet(null);
+        if (latest != null) {
+            view.showTime(latest.toLocalDate(), latest.toLocalTime());
+        }
+
+        if (layoutDirty) {
+            // The whole layout is drawn from the current state, including the temperature of every room.
+            layoutDirty = false;
+            dirtyRooms.clear();
+
+            view.redrawLayout();
+        } else if (!dirtyRooms.isEmpty()) {
+            List<RoomModel> changedRooms = new ArrayList<>(dirtyRooms);
+            dirtyRooms.removeAll(changedRooms);
+
+            view.refreshLayout(changedRooms);
+        }
+    }
+}
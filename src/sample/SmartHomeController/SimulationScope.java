@@ -0,0 +1,115 @@
+package sample.SmartHomeController;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Class for the scope in which the device threads of one simulation run (clock, countdown) are executed.
+ * The scope is opened when the simulation starts and closed when it stops: closing it interrupts every device so
+ * that none of them lingers until its next sleep returns.
+ * When the JDK supports them (JDK 21 or later), every device runs on its own virtual thread. Otherwise, or when the
+ * system property shs.virtualThreads is set to false, the devices run on daemon platform threads.
+ */
+public class SimulationScope implements AutoCloseable {
+
+    /**
+     * The flag shared by every device of the simulation which tells them to keep running.
+     */
+    private AtomicBoolean running;
+
+    /**
+     * The executor on which the devices run.
+     */
+    private ExecutorService executor;
+
+    /**
+     * Whether the devices run on virtual threads.
+     */
+    private boolean virtualThreads;
+
+    /**
+     * The devices started in this scope.
+     */
+    private List<Future<?>> devices = new CopyOnWriteArrayList<>();
+
+    /**
+     * Open a new scope for a simulation run.
+     *
+     * @param running the flag which tells the devices to keep running (set to true by the scope)
+     */
+    public SimulationScope(AtomicBoolean running) {
+        this.running = running;
+
+        if (Boolean.parseBoolean(System.getProperty("shs.virtualThreads", "true"))) {
+            executor = newVirtualThreadExecutor();
+        }
+
+        virtualThreads = executor != null;
+
+        if (!virtualThreads) {
+            executor = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "shs-device");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        running.set(true);
+    }
+
+    /**
+     * Create an executor which starts a new virtual thread for each task, if the JDK supports virtual threads.
+     *
+     * @return the executor, or null if virtual threads are not supported
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Start a device in this scope.
+     *
+     * @param device the device to run
+     */
+    public void fork(Runnable device) {
+        devices.add(executor.submit(device));
+    }
+
+    /**
+     * Whether the devices of this scope run on virtual threads.
+     *
+     * @return the boolean
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Stop every device of the scope and wait (briefly) for them to finish.
+     */
+    @Override
+    public void close() {
+        running.set(false);
+
+        for (Future<?> device : devices) {
+            device.cancel(true);
+        }
+
+        executor.shutdownNow();
+
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
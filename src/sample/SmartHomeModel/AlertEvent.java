@@ -0,0 +1,83 @@
+package sample.SmartHomeModel;
+
+import java.time.LocalDateTime;
+
+/**
+ * Event published when the simulation raises an alert.
+ */
+public final class AlertEvent extends SimulationEvent {
+
+    /**
+     * The kind of alert.
+     */
+    public enum Kind {
+        /**
+         * Someone is in the house while away mode is on.
+         */
+        INTRUSION,
+        /**
+         * The countdown after an intrusion ran out.
+         */
+        AUTHORITIES_CALLED,
+        /**
+         * The temperature of a room went below zero.
+         */
+        BURST_PIPE
+    }
+
+    private final Kind kind;
+    private final String location;
+    private final String message;
+
+    /**
+     * Instantiates a new Alert event.
+     *
+     * @param dateTime the simulated time of the event
+     * @param kind     the kind of alert
+     * @param location the location of the alert (null for the whole house)
+     * @param message  the message shown to the user
+     */
+    public AlertEvent(LocalDateTime dateTime, Kind kind, String location, String message) {
+        super(dateTime);
+        this.kind = kind;
+        this.location = location;
+        this.message = message;
+    }
+
+    /**
+     * Gets the kind of alert.
+     *
+     * @return the kind
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Gets the location of the alert.
+     *
+     * @return the location (null for the whole house)
+     */
+    public String getLocation() {
+        return location;
+    }
+
+    /**
+     * Gets the message shown to the user.
+     *
+     * @return the message
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Gets the event as written in the logs.
+     *
+     * @return the event
+     */
+    @Override
+    public String toString() {
+        return kind + (location == null ? "" : " " + location) + ": " + message;
+    }
+}
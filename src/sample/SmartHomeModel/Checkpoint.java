@@ -0,0 +1,658 @@
+package sample.SmartHomeModel;
+
+import sample.Exception.InvalidCheckpointException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+
+/**
+ * Class for a checkpoint of a simulation: the whole state of the house and of the engine at a tick boundary (clock,
+ * room temperatures and devices, zone periods, seasons, HVAC states, manual requests, light schedules, countdown).
+ * The engine captures a checkpoint by copying its arrays, which only holds the simulation for the time of a copy;
+ * writing the checkpoint to a file is done on a background thread while the simulation goes on. Restoring a
+ * checkpoint puts the engine back in that state, so that several scenarios can be branched from the same warm state.
+ * The file is a compact binary format (big-endian primitives, strings in modified UTF-8) starting with a magic number
+ * and a version, followed by the length of the body, the body and its CRC-32; it is written to a temporary file which
+ * then replaces the target, so a crash never leaves a truncated checkpoint behind. Reading a checkpoint checks the CRC
+ * and the range of every count, index and time of the body, so a damaged file is rejected instead of restored.
+ */
+public final class Checkpoint {
+
+    private static final int MAGIC = 0x53485343; // SHSC
+    private static final int VERSION = 2;
+
+    /**
+     * The number of HVAC states, and so of transitions (from * STATES + to) counted per room.
+     */
+    private static final int STATES = HVACState.values().length;
+
+    /**
+     * The room flags a checkpoint may hold.
+     */
+    private static final int FLAGS = HouseState.DOOR_OPEN | HouseState.DOOR_LOCKED | HouseState.WINDOW_OPEN | HouseState.WINDOW_BLOCKED | HouseState.LIGHT_OPEN;
+
+    /**
+     * The smallest size of a room in the body, to bound the number of rooms by the size of the body.
+     */
+    private static final int MIN_ROOM_SIZE = 50;
+
+    /**
+     * The thread writing checkpoints in the background.
+     */
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "shs-checkpoint");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The state of a zone period.
+     */
+    static final class Period {
+        String name;
+        int start;
+        int temperature;
+        boolean unset;
+    }
+
+    // Clock and modes
+    long epochDay;
+    int secondOfDay;
+    boolean hvacOn;
+    boolean awayModeOn;
+    boolean countdownActive;
+    boolean authoritiesCalled;
+    int countdownSeconds;
+
+    // House
+    int outsideTemperature;
+    int summerTemperature;
+    int winterTemperature;
+    boolean unsetSummerTemperature;
+    boolean unsetWinterTemperature;
+    List<String> summerMonths = new ArrayList<>();
+    List<String> winterMonths = new ArrayList<>();
+    Map<String, Integer> outdoorDevices = new LinkedHashMap<>();
+    Map<String, List<Period>> zones = new LinkedHashMap<>();
+
+    // Rooms, by index
+    String[] roomNames;
+    int[] temperatures;
+    int[] occupancy;
+    int[] flags;
+    String[] roomZones;
+
+    // HVACs, by index of their room
+    HVACState[] hvacStates;
+    int[] targetTemperatures;
+    int[] rates;
+    int[] resolutions;
+    String[] periodZones;
+    int[] periodStarts;
+    long[][] transitionCounts;
+
+    // Engine
+    boolean[] hasRequest;
+    int[] requestedTemperatures;
+    boolean[] pipeBurstMessageSent;
+    boolean[] continuousBlockingMessageSent;
+    Map<String, List<LightSchedule>> lightSchedules = new LinkedHashMap<>();
+    long[] residuals;
+
+    /**
+     * Checkpoints are captured by SimulationEngine.checkpoint() or read from a file.
+     */
+    Checkpoint() {
+    }
+
+    /**
+     * Gets the date of the simulation when the checkpoint was captured.
+     *
+     * @return the date
+     */
+    public LocalDate getDate() {
+        return LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * Gets the time of the simulation when the checkpoint was captured.
+     *
+     * @return the time
+     */
+    public LocalTime getTime() {
+        return LocalTime.ofSecondOfDay(secondOfDay);
+    }
+
+    /**
+     * Gets the number of rooms of the house.
+     *
+     * @return the number of rooms
+     */
+    public int getRoomCount() {
+        return roomNames.length;
+    }
+
+    /**
+     * Write the checkpoint to a file on the background thread.
+     *
+     * @param file the file
+     * @return a future completed once the file is written (exceptionally if it could not be)
+     */
+    public CompletableFuture<Void> writeAsync(File file) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+
+        WRITER.execute(() -> {
+            try {
+                write(file);
+                future.complete(null);
+            } catch (IOException e) {
+                future.completeExceptionally(e);
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Write the checkpoint to a file.
+     *
+     * @param file the file
+     * @throws IOException if the file cannot be written
+     */
+    public void write(File file) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        File temporary = File.createTempFile(file.getName(), ".tmp", directory);
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary), 1 << 16))) {
+            write(out);
+        } catch (IOException e) {
+            temporary.delete();
+            throw e;
+        }
+
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Write the checkpoint to a stream.
+     *
+     * @param out the stream
+     * @throws IOException if the stream cannot be written
+     */
+    void write(DataOutputStream out) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 12);
+        writeBody(new DataOutputStream(bytes));
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray(), 0, bytes.size());
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(bytes.size());
+        bytes.writeTo(out);
+        out.writeInt((int) crc.getValue());
+    }
+
+    /**
+     * Write the body of the checkpoint.
+     *
+     * @param out the stream
+     * @throws IOException if the stream cannot be written
+     */
+    private void writeBody(DataOutputStream out) throws IOException {
+        out.writeLong(epochDay);
+        out.writeInt(secondOfDay);
+        out.writeBoolean(hvacOn);
+        out.writeBoolean(awayModeOn);
+        out.writeBoolean(countdownActive);
+        out.writeBoolean(authoritiesCalled);
+        out.writeInt(countdownSeconds);
+
+        out.writeInt(outsideTemperature);
+        out.writeInt(summerTemperature);
+        out.writeInt(winterTemperature);
+        out.writeBoolean(unsetSummerTemperature);
+        out.writeBoolean(unsetWinterTemperature);
+        writeStrings(out, summerMonths);
+        writeStrings(out, winterMonths);
+
+        out.writeInt(outdoorDevices.size());
+        for (Map.Entry<String, Integer> device : outdoorDevices.entrySet()) {
+            out.writeUTF(device.getKey());
+            out.writeInt(device.getValue());
+        }
+
+        out.writeInt(zones.size());
+        for (Map.Entry<String, List<Period>> zone : zones.entrySet()) {
+            out.writeUTF(zone.getKey());
+            out.writeInt(zone.getValue().size());
+            for (Period period : zone.getValue()) {
+                out.writeUTF(period.name);
+                out.writeInt(period.start);
+                out.writeInt(period.temperature);
+                out.writeBoolean(period.unset);
+            }
+        }
+
+        int size = roomNames.length;
+        out.writeInt(size);
+
+        for (int i = 0; i < size; i++) {
+            out.writeUTF(roomNames[i]);
+            out.writeInt(temperatures[i]);
+            out.writeInt(occupancy[i]);
+            out.writeInt(flags[i]);
+            writeNullable(out, roomZones[i]);
+
+            out.writeByte(hvacStates[i].getCode());
+            out.writeInt(targetTemperatures[i]);
+            out.writeInt(rates[i]);
+            out.writeInt(resolutions[i]);
+            writeNullable(out, periodZones[i]);
+            out.writeInt(periodStarts[i]);
+
+            // Only the transitions which were taken, as (code of from, code of to, count).
+            long[] counts = transitionCounts[i];
+            int taken = 0;
+            for (long count : counts) {
+                if (count != 0) {
+                    taken++;
+                }
+            }
+            out.writeShort(taken);
+            for (int k = 0; k < counts.length; k++) {
+                if (counts[k] != 0) {
+                    out.writeByte(HVACState.values()[k / STATES].getCode());
+                    out.writeByte(HVACState.values()[k % STATES].getCode());
+                    out.writeLong(counts[k]);
+                }
+            }
+
+            out.writeBoolean(hasRequest[i]);
+            out.writeInt(requestedTemperatures[i]);
+            out.writeBoolean(pipeBurstMessageSent[i]);
+            out.writeBoolean(continuousBlockingMessageSent[i]);
+            out.writeLong(residuals == null ? 0 : residuals[i]);
+        }
+
+        out.writeBoolean(residuals != null);
+
+        out.writeInt(lightSchedules.size());
+        for (Map.Entry<String, List<LightSchedule>> light : lightSchedules.entrySet()) {
+            out.writeUTF(light.getKey());
+            out.writeInt(light.getValue().size());
+            for (LightSchedule schedule : light.getValue()) {
+                out.writeInt(schedule.getFrom().toSecondOfDay());
+                out.writeInt(schedule.getTo().toSecondOfDay());
+            }
+        }
+    }
+
+    /**
+     * Read a checkpoint from a file.
+     *
+     * @param file the file
+     * @return the checkpoint
+     * @throws IOException                if the file cannot be read
+     * @throws InvalidCheckpointException if the file is not a checkpoint, was written by another version, or is damaged
+     */
+    public static Checkpoint read(File file) throws IOException, InvalidCheckpointException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            return read(in, file.toString());
+        }
+    }
+
+    /**
+     * Read a checkpoint from a stream.
+     *
+     * @param in     the stream
+     * @param source the name of the stream, for the error messages
+     * @return the checkpoint
+     * @throws IOException                if the stream cannot be read
+     * @throws InvalidCheckpointException if the stream does not hold a checkpoint, holds one written by another version, or a damaged one
+     */
+    static Checkpoint read(DataInputStream in, String source) throws IOException, InvalidCheckpointException {
+        byte[] body;
+
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new InvalidCheckpointException(source + " is not a checkpoint.");
+            }
+
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new InvalidCheckpointException(source + " is a checkpoint of version " + version + ", expected " + VERSION + ".");
+            }
+
+            int length = in.readInt();
+            if (length < 0) {
+                throw new InvalidCheckpointException(source + " is corrupt: the body has a negative length.");
+            }
+            body = readFully(in, length);
+
+            CRC32 crc = new CRC32();
+            crc.update(body, 0, body.length);
+            if (in.readInt() != (int) crc.getValue()) {
+                throw new InvalidCheckpointException(source + " is corrupt: the CRC of the body does not match.");
+            }
+        } catch (EOFException e) {
+            throw new InvalidCheckpointException(source + " is truncated.");
+        }
+
+        DataInputStream bodyIn = new DataInputStream(new ByteArrayInputStream(body));
+        try {
+            Checkpoint checkpoint = readBody(bodyIn);
+            if (bodyIn.available() != 0) {
+                throw new InvalidCheckpointException("the body has " + bodyIn.available() + " bytes left over");
+            }
+            return checkpoint;
+        } catch (InvalidCheckpointException e) {
+            throw new InvalidCheckpointException(source + " is corrupt: " + e.getMessage() + ".");
+        } catch (IOException | RuntimeException e) {
+            // The body is in memory: running past its end or a malformed string is a corrupt body, like any value the
+            // checks of readBody missed.
+            throw new InvalidCheckpointException(source + " is corrupt: " + e);
+        }
+    }
+
+    /**
+     * Read a number of bytes, in chunks so that a damaged length cannot allocate more than the stream holds.
+     *
+     * @param in     the stream
+     * @param length the number of bytes
+     * @return the bytes
+     * @throws IOException if the stream cannot be read, or ends first (EOFException)
+     */
+    private static byte[] readFully(DataInputStream in, int length) throws IOException {
+        byte[] bytes = new byte[Math.min(length, 1 << 16)];
+        int read = 0;
+
+        while (read < length) {
+            if (read == bytes.length) {
+                bytes = Arrays.copyOf(bytes, (int) Math.min(length, bytes.length * 2L));
+            }
+            int count = in.read(bytes, read, bytes.length - read);
+            if (count < 0) {
+                throw new EOFException();
+            }
+            read += count;
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Read the body of a checkpoint, checking the range of every count, index and time.
+     *
+     * @param in the body
+     * @return the checkpoint
+     * @throws IOException                if the body ends early, or holds a malformed string
+     * @throws InvalidCheckpointException if a value of the body is out of range
+     */
+    private static Checkpoint readBody(DataInputStream in) throws IOException, InvalidCheckpointException {
+        Checkpoint checkpoint = new Checkpoint();
+
+        checkpoint.epochDay = in.readLong();
+        if (checkpoint.epochDay < LocalDate.MIN.toEpochDay() || checkpoint.epochDay > LocalDate.MAX.toEpochDay()) {
+            throw new InvalidCheckpointException("the day " + checkpoint.epochDay + " is out of range");
+        }
+        checkpoint.secondOfDay = readSecondOfDay(in);
+        checkpoint.hvacOn = in.readBoolean();
+        checkpoint.awayModeOn = in.readBoolean();
+        checkpoint.countdownActive = in.readBoolean();
+        checkpoint.authoritiesCalled = in.readBoolean();
+        checkpoint.countdownSeconds = in.readInt();
+        if (checkpoint.countdownSeconds < 0) {
+            throw new InvalidCheckpointException("the countdown is negative");
+        }
+
+        checkpoint.outsideTemperature = in.readInt();
+        checkpoint.summerTemperature = in.readInt();
+        checkpoint.winterTemperature = in.readInt();
+        checkpoint.unsetSummerTemperature = in.readBoolean();
+        checkpoint.unsetWinterTemperature = in.readBoolean();
+        readStrings(in, checkpoint.summerMonths);
+        readStrings(in, checkpoint.winterMonths);
+
+        int devices = readCount(in, 6);
+        for (int i = 0; i < devices; i++) {
+            checkpoint.outdoorDevices.put(in.readUTF(), in.readInt());
+        }
+
+        int zones = readCount(in, 6);
+        for (int i = 0; i < zones; i++) {
+            String zone = in.readUTF();
+            int count = readCount(in, 11);
+            List<Period> periods = new ArrayList<>(count);
+            for (int k = 0; k < count; k++) {
+                Period period = new Period();
+                period.name = in.readUTF();
+                period.start = readSecondOfDay(in);
+                period.temperature = in.readInt();
+                period.unset = in.readBoolean();
+                periods.add(period);
+            }
+            checkpoint.zones.put(zone, periods);
+        }
+
+        int size = readCount(in, MIN_ROOM_SIZE);
+        checkpoint.allocateRooms(size);
+
+        for (int i = 0; i < size; i++) {
+            checkpoint.roomNames[i] = in.readUTF();
+            checkpoint.temperatures[i] = in.readInt();
+            checkpoint.occupancy[i] = in.readInt();
+            checkpoint.flags[i] = in.readInt();
+            checkpoint.roomZones[i] = readNullable(in);
+            if (checkpoint.occupancy[i] < 0 || (checkpoint.flags[i] & ~FLAGS) != 0) {
+                throw new InvalidCheckpointException("the room " + checkpoint.roomNames[i] + " has a negative occupancy or unknown flags");
+            }
+
+            checkpoint.hvacStates[i] = readState(in);
+            checkpoint.targetTemperatures[i] = in.readInt();
+            checkpoint.rates[i] = in.readInt();
+            checkpoint.resolutions[i] = in.readInt();
+            checkpoint.periodZones[i] = readNullable(in);
+            checkpoint.periodStarts[i] = in.readInt();
+            if (checkpoint.resolutions[i] != Temperature.TENTHS && checkpoint.resolutions[i] != Temperature.HUNDREDTHS) {
+                throw new InvalidCheckpointException("the HVAC of the " + checkpoint.roomNames[i] + " has an unknown resolution");
+            }
+            // The HVAC steps by the rate rounded to the resolution, and divides by that step.
+            if (checkpoint.rates[i] <= 0 || Temperature.round(checkpoint.rates[i], checkpoint.resolutions[i]) <= 0) {
+                throw new InvalidCheckpointException("the HVAC of the " + checkpoint.roomNames[i] + " has a rate of " + checkpoint.rates[i] + ", which does not move the temperature at its resolution");
+            }
+            if (checkpoint.periodZones[i] == null ? checkpoint.periodStarts[i] != -1 : checkpoint.periodStarts[i] < 0 || checkpoint.periodStarts[i] >= 86400) {
+                throw new InvalidCheckpointException("the period of the HVAC of the " + checkpoint.roomNames[i] + " starts at an invalid time");
+            }
+
+            long[] counts = new long[STATES * STATES];
+            int taken = in.readShort();
+            if (taken < 0 || taken > counts.length) {
+                throw new InvalidCheckpointException("the HVAC of the " + checkpoint.roomNames[i] + " has " + taken + " kinds of transitions");
+            }
+            for (int k = 0; k < taken; k++) {
+                int cell = readState(in).ordinal() * STATES + readState(in).ordinal();
+                counts[cell] = in.readLong();
+                if (counts[cell] < 0) {
+                    throw new InvalidCheckpointException("the HVAC of the " + checkpoint.roomNames[i] + " has a negative transition count");
+                }
+            }
+            checkpoint.transitionCounts[i] = counts;
+
+            checkpoint.hasRequest[i] = in.readBoolean();
+            checkpoint.requestedTemperatures[i] = in.readInt();
+            checkpoint.pipeBurstMessageSent[i] = in.readBoolean();
+            checkpoint.continuousBlockingMessageSent[i] = in.readBoolean();
+            checkpoint.residuals[i] = in.readLong();
+        }
+
+        if (!in.readBoolean()) {
+            checkpoint.residuals = null;
+        }
+
+        int lights = readCount(in, 6);
+        for (int i = 0; i < lights; i++) {
+            String location = in.readUTF();
+            int count = readCount(in, 8);
+            List<LightSchedule> schedules = new ArrayList<>(count);
+            for (int k = 0; k < count; k++) {
+                LocalTime from = LocalTime.ofSecondOfDay(readSecondOfDay(in));
+                schedules.add(new LightSchedule(from, LocalTime.ofSecondOfDay(readSecondOfDay(in))));
+            }
+            checkpoint.lightSchedules.put(location, schedules);
+        }
+
+        return checkpoint;
+    }
+
+    /**
+     * Read a count of items, which the rest of the body must be large enough to hold.
+     *
+     * @param in       the body
+     * @param itemSize the smallest size of an item
+     * @return the count
+     * @throws IOException                if the body ends early
+     * @throws InvalidCheckpointException if the count is negative or larger than the rest of the body
+     */
+    private static int readCount(DataInputStream in, int itemSize) throws IOException, InvalidCheckpointException {
+        int count = in.readInt();
+        if (count < 0 || count > in.available() / itemSize) {
+            throw new InvalidCheckpointException("a count of " + count + " does not fit in the body");
+        }
+        return count;
+    }
+
+    /**
+     * Read a time of the day, in seconds.
+     *
+     * @param in the body
+     * @return the second of the day
+     * @throws IOException                if the body ends early
+     * @throws InvalidCheckpointException if it is not a second of the day
+     */
+    private static int readSecondOfDay(DataInputStream in) throws IOException, InvalidCheckpointException {
+        int second = in.readInt();
+        if (second < 0 || second >= 86400) {
+            throw new InvalidCheckpointException("the time " + second + " is not a second of the day");
+        }
+        return second;
+    }
+
+    /**
+     * Read the code of an HVAC state.
+     *
+     * @param in the body
+     * @return the state
+     * @throws IOException                if the body ends early
+     * @throws InvalidCheckpointException if no state has this code
+     */
+    private static HVACState readState(DataInputStream in) throws IOException, InvalidCheckpointException {
+        int code = in.readUnsignedByte();
+        HVACState state = HVACState.fromCode(code);
+        if (state == null) {
+            throw new InvalidCheckpointException("the HVAC state " + code + " is unknown");
+        }
+        return state;
+    }
+
+    /**
+     * Allocate the arrays of the rooms.
+     *
+     * @param size the number of rooms
+     */
+    void allocateRooms(int size) {
+        roomNames = new String[size];
+        temperatures = new int[size];
+        occupancy = new int[size];
+        flags = new int[size];
+        roomZones = new String[size];
+        hvacStates = new HVACState[size];
+        targetTemperatures = new int[size];
+        rates = new int[size];
+        resolutions = new int[size];
+        periodZones = new String[size];
+        periodStarts = new int[size];
+        transitionCounts = new long[size][];
+        hasRequest = new boolean[size];
+        requestedTemperatures = new int[size];
+        pipeBurstMessageSent = new boolean[size];
+        continuousBlockingMessageSent = new boolean[size];
+        residuals = new long[size];
+    }
+
+    /**
+     * Write a list of strings.
+     *
+     * @param out     the stream
+     * @param strings the strings
+     * @throws IOException if the stream cannot be written
+     */
+    private static void writeStrings(DataOutputStream out, List<String> strings) throws IOException {
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            out.writeUTF(string);
+        }
+    }
+
+    /**
+     * Read a list of strings.
+     *
+     * @param in      the stream
+     * @param strings the list the strings are added to
+     * @throws IOException                if the stream cannot be read
+     * @throws InvalidCheckpointException if the number of strings does not fit in the body
+     */
+    private static void readStrings(DataInputStream in, List<String> strings) throws IOException, InvalidCheckpointException {
+        int size = readCount(in, 2);
+        for (int i = 0; i < size; i++) {
+            strings.add(in.readUTF());
+        }
+    }
+
+    /**
+     * Write a string which may be null.
+     *
+     * @param out    the stream
+     * @param string the string
+     * @throws IOException if the stream cannot be written
+     */
+    static void writeNullable(DataOutputStream out, String string) throws IOException {
+        out.writeBoolean(string != null);
+        if (string != null) {
+            out.writeUTF(string);
+        }
+    }
+
+    /**
+     * Read a string which may be null.
+     *
+     * @param in the stream
+     * @return the string
+     * @throws IOException if the stream cannot be read
+     */
+    static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,378 @@
+package sample.SmartHomeModel;
+
+import java.time.LocalTime;
+
+/**
+ * Class for a command of the user which changes the state of the simulation (opening a door, moving a room to a zone,
+ * requesting a temperature...). Commands are applied by SimulationEngine.execute() between two ticks and recorded in
+ * the command journal, so that a run can be replayed exactly.
+ * A command is the effect of an action rather than the action itself: the controllers decide whether the action is
+ * allowed (a locked door cannot be opened, a blocked window cannot be closed) and only issue the resulting change.
+ * Every command has a target (a location, a zone, a month or a season), and depending on its type an argument, a value
+ * and a second of the day.
+ */
+public final class Command {
+
+    /**
+     * The type of a command.
+     */
+    public enum Type {
+        /**
+         * Open (value 1) or close (value 0) the door of a location.
+         */
+        OPEN_DOOR,
+        /**
+         * Lock (value 1) or unlock (value 0) the door of a location.
+         */
+        LOCK_DOOR,
+        /**
+         * Open (value 1) or close (value 0) the window of a room.
+         */
+        OPEN_WINDOW,
+        /**
+         * Put (value 1) or remove (value 0) an object blocking the window of a room.
+         */
+        BLOCK_WINDOW,
+        /**
+         * Turn on (value 1) or off (value 0) the light of a location.
+         */
+        OPEN_LIGHT,
+        /**
+         * Add value people to a room (negative when people leave it).
+         */
+        PEOPLE,
+        /**
+         * Set the outside temperature to value.
+         */
+        OUTSIDE_TEMPERATURE,
+        /**
+         * Set the temperature of a room (of every room if there is no target) to value.
+         */
+        ROOM_TEMPERATURE,
+        /**
+         * Move the month target to the season argument.
+         */
+        SEASON_MONTH,
+        /**
+         * Set the default temperature of the season target to value.
+         */
+        SEASON_TEMPERATURE,
+        /**
+         * Move the room target to the zone argument (to no zone if there is no argument).
+         */
+        ROOM_ZONE,
+        /**
+         * Set the temperature of the period of the zone target starting at secondOfDay to value.
+         */
+        ZONE_TEMPERATURE,
+        /**
+         * Request the temperature value in the room target.
+         */
+        MANUAL_TEMPERATURE,
+        /**
+         * Remove the manual override of the room target.
+         */
+        CLEAR_MANUAL_TEMPERATURE,
+        /**
+         * Keep the light of the location target on from secondOfDay to the second of the day value.
+         */
+        LIGHT_SCHEDULE,
+        /**
+         * Turn the HVAC on (value 1) or off (value 0).
+         */
+        HVAC,
+        /**
+         * Turn away mode on (value 1) or off (value 0).
+         */
+        AWAY_MODE,
+        /**
+         * Start the countdown of value seconds until the authorities are called.
+         */
+        START_COUNTDOWN,
+        /**
+         * Cancel the countdown until the authorities are called.
+         */
+        CANCEL_COUNTDOWN
+    }
+
+    private final Type type;
+    private final String target;
+    private final String argument;
+    private final int value;
+    private final int secondOfDay;
+
+    /**
+     * Instantiates a new Command. Use the factory methods.
+     *
+     * @param type        the type
+     * @param target      the target (may be null)
+     * @param argument    the argument (may be null)
+     * @param value       the value
+     * @param secondOfDay the second of the day
+     */
+    Command(Type type, String target, String argument, int value, int secondOfDay) {
+        this.type = type;
+        this.target = target;
+        this.argument = argument;
+        this.value = value;
+        this.secondOfDay = secondOfDay;
+    }
+
+    /**
+     * Open or close the door of a location.
+     *
+     * @param location the location
+     * @param open     true to open the door
+     * @return the command
+     */
+    public static Command openDoor(String location, boolean open) {
+        return new Command(Type.OPEN_DOOR, location, null, open ? 1 : 0, 0);
+    }
+
+    /**
+     * Lock or unlock the door of a location.
+     *
+     * @param location the location
+     * @param locked   true to lock the door
+     * @return the command
+     */
+    public static Command lockDoor(String location, boolean locked) {
+        return new Command(Type.LOCK_DOOR, location, null, locked ? 1 : 0, 0);
+    }
+
+    /**
+     * Open or close the window of a room.
+     *
+     * @param location the room
+     * @param open     true to open the window
+     * @return the command
+     */
+    public static Command openWindow(String location, boolean open) {
+        return new Command(Type.OPEN_WINDOW, location, null, open ? 1 : 0, 0);
+    }
+
+    /**
+     * Put or remove an object blocking the window of a room.
+     *
+     * @param location  the room
+     * @param hasObject true to block the window
+     * @return the command
+     */
+    public static Command blockWindow(String location, boolean hasObject) {
+        return new Command(Type.BLOCK_WINDOW, location, null, hasObject ? 1 : 0, 0);
+    }
+
+    /**
+     * Turn on or off the light of a location.
+     *
+     * @param location the location
+     * @param open     true to turn the light on
+     * @return the command
+     */
+    public static Command openLight(String location, boolean open) {
+        return new Command(Type.OPEN_LIGHT, location, null, open ? 1 : 0, 0);
+    }
+
+    /**
+     * Add people to a room or remove people from it.
+     *
+     * @param location the room
+     * @param delta    the number of people entering the room (negative when leaving it)
+     * @return the command
+     */
+    public static Command people(String location, int delta) {
+        return new Command(Type.PEOPLE, location, null, delta, 0);
+    }
+
+    /**
+     * Set the outside temperature.
+     *
+     * @param temperature the temperature
+     * @return the command
+     */
+    public static Command outsideTemperature(double temperature) {
+        return new Command(Type.OUTSIDE_TEMPERATURE, null, null, Temperature.fromDegrees(temperature), 0);
+    }
+
+    /**
+     * Set the temperature of a room.
+     *
+     * @param location    the room (null for every room)
+     * @param temperature the temperature
+     * @return the command
+     */
+    public static Command roomTemperature(String location, double temperature) {
+        return new Command(Type.ROOM_TEMPERATURE, location, null, Temperature.fromDegrees(temperature), 0);
+    }
+
+    /**
+     * Move a month to a season.
+     *
+     * @param month  the month
+     * @param season the season (Summer or Winter)
+     * @return the command
+     */
+    public static Command seasonMonth(String month, String season) {
+        return new Command(Type.SEASON_MONTH, month, season, 0, 0);
+    }
+
+    /**
+     * Set the default temperature of a season.
+     *
+     * @param season      the season (Summer or Winter)
+     * @param temperature the temperature
+     * @return the command
+     */
+    public static Command seasonTemperature(String season, double temperature) {
+        return new Command(Type.SEASON_TEMPERATURE, season, null, Temperature.fromDegrees(temperature), 0);
+    }
+
+    /**
+     * Move a room to a zone.
+     *
+     * @param location the room
+     * @param zone     the zone (null to remove the room from its zone)
+     * @return the command
+     */
+    public static Command roomZone(String location, String zone) {
+        return new Command(Type.ROOM_ZONE, location, zone, 0, 0);
+    }
+
+    /**
+     * Set the temperature of a period of a zone.
+     *
+     * @param zone        the zone
+     * @param start       the time of the day at which the period starts
+     * @param temperature the temperature
+     * @return the command
+     */
+    public static Command zoneTemperature(String zone, LocalTime start, double temperature) {
+        return new Command(Type.ZONE_TEMPERATURE, zone, null, Temperature.fromDegrees(temperature), start.toSecondOfDay());
+    }
+
+    /**
+     * Request a temperature in a room.
+     *
+     * @param location    the room
+     * @param temperature the temperature
+     * @return the command
+     */
+    public static Command manualTemperature(String location, double temperature) {
+        return new Command(Type.MANUAL_TEMPERATURE, location, null, Temperature.fromDegrees(temperature), 0);
+    }
+
+    /**
+     * Remove the manual override of a room.
+     *
+     * @param location the room
+     * @return the command
+     */
+    public static Command clearManualTemperature(String location) {
+        return new Command(Type.CLEAR_MANUAL_TEMPERATURE, location, null, 0, 0);
+    }
+
+    /**
+     * Keep a light on between two times.
+     *
+     * @param location the location of the light
+     * @param schedule the schedule
+     * @return the command
+     */
+    public static Command lightSchedule(String location, LightSchedule schedule) {
+        return new Command(Type.LIGHT_SCHEDULE, location, null, schedule.getTo().toSecondOfDay(), schedule.getFrom().toSecondOfDay());
+    }
+
+    /**
+     * Turn the HVAC on or off.
+     *
+     * @param on true to turn the HVAC on
+     * @return the command
+     */
+    public static Command hvac(boolean on) {
+        return new Command(Type.HVAC, null, null, on ? 1 : 0, 0);
+    }
+
+    /**
+     * Turn away mode on or off.
+     *
+     * @param on true to turn away mode on
+     * @return the command
+     */
+    public static Command awayMode(boolean on) {
+        return new Command(Type.AWAY_MODE, null, null, on ? 1 : 0, 0);
+    }
+
+    /**
+     * Start the countdown until the authorities are called.
+     *
+     * @param seconds the number of simulated seconds until the authorities are called
+     * @return the command
+     */
+    public static Command startCountdown(int seconds) {
+        return new Command(Type.START_COUNTDOWN, null, null, seconds, 0);
+    }
+
+    /**
+     * Cancel the countdown until the authorities are called.
+     *
+     * @return the command
+     */
+    public static Command cancelCountdown() {
+        return new Command(Type.CANCEL_COUNTDOWN, null, null, 0, 0);
+    }
+
+    /**
+     * Gets the type.
+     *
+     * @return the type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the target.
+     *
+     * @return the target (may be null)
+     */
+    public String getTarget() {
+        return target;
+    }
+
+    /**
+     * Gets the argument.
+     *
+     * @return the argument (may be null)
+     */
+    public String getArgument() {
+        return argument;
+    }
+
+    /**
+     * Gets the value.
+     *
+     * @return the value (temperatures are in hundredths of a degree)
+     */
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     * Gets the second of the day.
+     *
+     * @return the second of the day
+     */
+    public int getSecondOfDay() {
+        return secondOfDay;
+    }
+
+    /**
+     * Gets the command as written in the logs.
+     *
+     * @return the command
+     */
+    @Override
+    public String toString() {
+        return type + (target == null ? "" : " " + target) + (argument == null ? "" : " " + argument) + " " + value + (secondOfDay == 0 ? "" : " @" + LocalTime.ofSecondOfDay(secondOfDay));
+    }
+}
@@ -0,0 +1,270 @@
+package sample.SmartHomeModel;
+
+import sample.Exception.InvalidCheckpointException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Class for the command journal of a simulation: an append-only file holding the state of the simulation when the
+ * journal was opened (a checkpoint) followed by every command applied since, each stamped with the simulated time at
+ * which it was applied. Replaying the journal on the same house (SimulationEngine.replay()) restores the checkpoint and
+ * fast-forwards from one command to the next, which reproduces the run exactly without waiting for the clock.
+ * Each command is flushed as soon as it is appended. A journal whose last entry is cut short (the simulator crashed)
+ * can still be replayed up to its last complete command.
+ */
+public final class CommandJournal implements AutoCloseable {
+
+    private static final int MAGIC = 0x5348534A; // SHSJ
+    private static final int VERSION = 1;
+
+    /**
+     * The type written instead of a command to mark the end of the journal.
+     */
+    private static final int END = -1;
+
+    /**
+     * A command and the simulated time at which it was applied.
+     */
+    public static final class Entry {
+        private final long epochSecond;
+        private final Command command;
+
+        /**
+         * Instantiates a new Entry.
+         *
+         * @param epochSecond the simulated time, in seconds since the epoch
+         * @param command     the command
+         */
+        Entry(long epochSecond, Command command) {
+            this.epochSecond = epochSecond;
+            this.command = command;
+        }
+
+        /**
+         * Gets the simulated time at which the command was applied.
+         *
+         * @return the simulated time, in seconds since the epoch
+         */
+        public long getEpochSecond() {
+            return epochSecond;
+        }
+
+        /**
+         * Gets the command.
+         *
+         * @return the command
+         */
+        public Command getCommand() {
+            return command;
+        }
+    }
+
+    /**
+     * A journal read from a file.
+     */
+    public static final class Recording {
+        private final Checkpoint start;
+        private final List<Entry> entries;
+        private final long endEpochSecond;
+
+        /**
+         * Instantiates a new Recording.
+         *
+         * @param start          the state of the simulation when the journal was opened
+         * @param entries        the commands
+         * @param endEpochSecond the simulated time at which the journal was closed (-1 if it was not)
+         */
+        Recording(Checkpoint start, List<Entry> entries, long endEpochSecond) {
+            this.start = start;
+            this.entries = entries;
+            this.endEpochSecond = endEpochSecond;
+        }
+
+        /**
+         * Gets the state of the simulation when the journal was opened.
+         *
+         * @return the checkpoint
+         */
+        public Checkpoint getStart() {
+            return start;
+        }
+
+        /**
+         * Gets the commands, in the order they were applied.
+         *
+         * @return the entries (read-only)
+         */
+        public List<Entry> getEntries() {
+            return Collections.unmodifiableList(entries);
+        }
+
+        /**
+         * Gets the simulated time at which the journal was closed.
+         *
+         * @return the simulated time, in seconds since the epoch (-1 if the journal was not closed)
+         */
+        public long getEndEpochSecond() {
+            return endEpochSecond;
+        }
+    }
+
+    private final File file;
+    private final DataOutputStream out;
+
+    /**
+     * Instantiates a new Command journal.
+     *
+     * @param file the file
+     * @param out  the stream, after the header
+     */
+    private CommandJournal(File file, DataOutputStream out) {
+        this.file = file;
+        this.out = out;
+    }
+
+    /**
+     * Create a journal, starting with the state of the simulation.
+     *
+     * @param file  the file (replaced if it exists)
+     * @param start the state of the simulation
+     * @return the journal
+     * @throws IOException if the file cannot be written
+     */
+    static CommandJournal create(File file, Checkpoint start) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null) {
+            directory.mkdirs();
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            start.write(out);
+            out.flush();
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+
+        return new CommandJournal(file, out);
+    }
+
+    /**
+     * Gets the file of the journal.
+     *
+     * @return the file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Append a command.
+     *
+     * @param dateTime the simulated time at which the command was applied
+     * @param command  the command
+     * @throws IOException if the file cannot be written
+     */
+    void append(LocalDateTime dateTime, Command command) throws IOException {
+        out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+        out.writeByte(command.getType().ordinal());
+        Checkpoint.writeNullable(out, command.getTarget());
+        Checkpoint.writeNullable(out, command.getArgument());
+        out.writeInt(command.getValue());
+        out.writeInt(command.getSecondOfDay());
+        out.flush();
+    }
+
+    /**
+     * Mark the end of the journal and close it.
+     *
+     * @param dateTime the simulated time at which the journal is closed
+     * @throws IOException if the file cannot be written
+     */
+    void close(LocalDateTime dateTime) throws IOException {
+        try {
+            out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+            out.writeByte(END);
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Close the journal without marking its end.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Read a journal.
+     *
+     * @param file the file
+     * @return the recording
+     * @throws IOException                if the file cannot be read
+     * @throws InvalidCheckpointException if the file is not a journal, or its checkpoint is not valid
+     */
+    public static Recording read(File file) throws IOException, InvalidCheckpointException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            try {
+                if (in.readInt() != MAGIC) {
+                    throw new InvalidCheckpointException(file + " is not a command journal.");
+                }
+
+                int version = in.readInt();
+                if (version != VERSION) {
+                    throw new InvalidCheckpointException(file + " is a command journal of version " + version + ", expected " + VERSION + ".");
+                }
+            } catch (EOFException e) {
+                throw new InvalidCheckpointException(file + " is truncated.");
+            }
+
+            Checkpoint start = Checkpoint.read(in, file.toString());
+            List<Entry> entries = new ArrayList<>();
+            Command.Type[] types = Command.Type.values();
+
+            try {
+                while (true) {
+                    long epochSecond = in.readLong();
+                    int type = in.readByte();
+
+                    if (type == END) {
+                        return new Recording(start, entries, epochSecond);
+                    }
+                    if (type < 0 || type >= types.length) {
+                        throw new InvalidCheckpointException(file + " holds an unknown command (" + type + ").");
+                    }
+
+                    String target = Checkpoint.readNullable(in);
+                    String argument = Checkpoint.readNullable(in);
+                    int value = in.readInt();
+                    int secondOfDay = in.readInt();
+
+                    entries.add(new Entry(epochSecond, new Command(types[type], target, argument, value, secondOfDay)));
+                }
+            } catch (EOFException e) {
+                // The simulator stopped without closing the journal; the last entry may be incomplete.
+                return new Recording(start, entries, -1);
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package sample.SmartHomeModel;
+
+import java.time.LocalTime;
+
+/**
+ * Class for a message printed on the console.
+ */
+public class ConsoleEntry {
+
+    private LocalTime time;
+    private String message;
+
+    /**
+     * Instantiates a new Console entry.
+     *
+     * @param time    the simulated time at which the message was printed
+     * @param message the message
+     */
+    public ConsoleEntry(LocalTime time, String message) {
+        this.time = time;
+        this.message = message;
+    }
+
+    /**
+     * Gets the simulated time at which the message was printed.
+     *
+     * @return the time
+     */
+    public LocalTime getTime() {
+        return time;
+    }
+
+    /**
+     * Gets the message.
+     *
+     * @return the message
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Format the entry the way it is shown on the console.
+     *
+     * @return the String [hh:mm:ss] message
+     */
+    @Override
+    public String toString() {
+        int h = time.getHour();
+        int m = time.getMinute();
+        int s = time.getSecond();
+
+        String formatted = String.format("%s:%s:%s", h < 10 ? "0" + h : "" + h, m < 10 ? "0" + m : "" + m, s < 10 ? "0" + s : s + "");
+
+        return "[" + formatted + "] " + message;
+    }
+}
@@ -0,0 +1,164 @@
+package sample.SmartHomeModel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class for the compiled schedule of a day: the start of every zone period and the start and end of every light
+ * schedule, as an immutable timeline sorted by time of the day. The engine walks the timeline with a cursor instead of
+ * comparing every schedule with the clock each simulated second. A new timeline is compiled whenever a schedule
+ * changes.
+ */
+public class DailySchedule {
+
+    /**
+     * The kind of an event of the timeline. At the same second, lights are turned off before others are turned on
+     * (so that a light scheduled from 10:00 to 12:00 and from 12:00 to 14:00 stays on).
+     */
+    public enum Kind {
+        LIGHT_OFF, LIGHT_ON, PERIOD
+    }
+
+    /**
+     * An event of the timeline.
+     */
+    public static final class Event {
+        private final int second;
+        private final Kind kind;
+        private final Zone zone;
+        private final ZonePeriod period;
+        private final String location;
+
+        private Event(int second, Kind kind, Zone zone, ZonePeriod period, String location) {
+            this.second = second;
+            this.kind = kind;
+            this.zone = zone;
+            this.period = period;
+            this.location = location;
+        }
+
+        /**
+         * Gets the second of the day at which the event happens.
+         *
+         * @return the second
+         */
+        public int getSecond() {
+            return second;
+        }
+
+        /**
+         * Gets the kind of the event.
+         *
+         * @return the kind
+         */
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * Gets the zone whose period starts (PERIOD events only).
+         *
+         * @return the zone
+         */
+        public Zone getZone() {
+            return zone;
+        }
+
+        /**
+         * Gets the period which starts (PERIOD events only).
+         *
+         * @return the period
+         */
+        public ZonePeriod getPeriod() {
+            return period;
+        }
+
+        /**
+         * Gets the location of the light (LIGHT_ON and LIGHT_OFF events only).
+         *
+         * @return the location
+         */
+        public String getLocation() {
+            return location;
+        }
+    }
+
+    private static final Comparator<Event> ORDER = Comparator.comparingInt(Event::getSecond).thenComparing(Event::getKind);
+
+    private final Event[] events;
+    private final int[] seconds;
+
+    /**
+     * Compile the schedule of a day.
+     *
+     * @param zones          the zones of the house
+     * @param lightSchedules the light schedules, by location of the light
+     */
+    public DailySchedule(Collection<Zone> zones, Map<String, List<LightSchedule>> lightSchedules) {
+        List<Event> timeline = new ArrayList<>();
+
+        for (Zone zone : zones) {
+            for (ZonePeriod period : zone.getPeriods()) {
+                timeline.add(new Event(period.getStart().toSecondOfDay(), Kind.PERIOD, zone, period, null));
+            }
+        }
+
+        for (Map.Entry<String, List<LightSchedule>> entry : lightSchedules.entrySet()) {
+            for (LightSchedule schedule : entry.getValue()) {
+                timeline.add(new Event(schedule.getFrom().toSecondOfDay(), Kind.LIGHT_ON, null, null, entry.getKey()));
+                timeline.add(new Event(schedule.getTo().toSecondOfDay(), Kind.LIGHT_OFF, null, null, entry.getKey()));
+            }
+        }
+
+        timeline.sort(ORDER);
+
+        events = timeline.toArray(new Event[0]);
+        seconds = new int[events.length];
+        for (int i = 0; i < events.length; i++) {
+            seconds[i] = events[i].getSecond();
+        }
+    }
+
+    /**
+     * Gets the position of the first event happening at or after a second of the day.
+     *
+     * @param secondOfDay the second of the day
+     * @return the position (size() if there is no such event)
+     */
+    public int cursorAt(int secondOfDay) {
+        int index = Arrays.binarySearch(seconds, secondOfDay);
+
+        if (index < 0) {
+            return -index - 1;
+        }
+
+        // Several events can happen at the same second; return the first of them.
+        while (index > 0 && seconds[index - 1] == secondOfDay) {
+            index--;
+        }
+        return index;
+    }
+
+    /**
+     * Gets an event of the timeline.
+     *
+     * @param index the position of the event
+     * @return the event
+     */
+    public Event get(int index) {
+        return events[index];
+    }
+
+    /**
+     * Gets the number of events of the timeline.
+     *
+     * @return the number of events
+     */
+    public int size() {
+        return events.length;
+    }
+}
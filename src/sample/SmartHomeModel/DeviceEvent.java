@@ -0,0 +1,80 @@
+package sample.SmartHomeModel;
+
+import java.time.LocalDateTime;
+
+/**
+ * Event published when a door, a window or a light of the house changes, whether the user or the simulation (a light
+ * schedule, the HVAC opening a window) changed it.
+ */
+public final class DeviceEvent extends SimulationEvent {
+
+    /**
+     * The kind of device.
+     */
+    public enum Device {
+        DOOR, WINDOW, LIGHT
+    }
+
+    /**
+     * The change of the device.
+     */
+    public enum Change {
+        OPENED, CLOSED, LOCKED, UNLOCKED, BLOCKED, UNBLOCKED
+    }
+
+    private final Device device;
+    private final String location;
+    private final Change change;
+
+    /**
+     * Instantiates a new Device event.
+     *
+     * @param dateTime the simulated time of the event
+     * @param device   the kind of device
+     * @param location the location of the device
+     * @param change   the change
+     */
+    public DeviceEvent(LocalDateTime dateTime, Device device, String location, Change change) {
+        super(dateTime);
+        this.device = device;
+        this.location = location;
+        this.change = change;
+    }
+
+    /**
+     * Gets the kind of device.
+     *
+     * @return the device
+     */
+    public Device getDevice() {
+        return device;
+    }
+
+    /**
+     * Gets the location of the device.
+     *
+     * @return the location
+     */
+    public String getLocation() {
+        return location;
+    }
+
+    /**
+     * Gets the change.
+     *
+     * @return the change
+     */
+    public Change getChange() {
+        return change;
+    }
+
+    /**
+     * Gets the event as written in the logs.
+     *
+     * @return the event
+     */
+    @Override
+    public String toString() {
+        return device + " " + location + " " + change;
+    }
+}
@@ -1,7 +1,5 @@
 package sample.SmartHomeModel;
 
-import javafx.scene.image.Image;
-
 /**
  * Class for the Door model.
  */
@@ -10,8 +8,9 @@ public class DoorModel {
 	private String name;
 	private boolean isOpen = false;
 	private boolean isLocked = false;
-	private Image imageOpen;
-	private Image imageClose;
+
+	private HouseState state;
+	private int index;
 
 	/**
 	 * Instantiates a new Door model.
@@ -22,20 +21,8 @@ public class DoorModel {
 	public DoorModel(String id, String name) {
 		this.name = name;
 		this.id = id;
-		loadImage();
 	}
 
-	/**
-	 * Load image.
-	 */
-	public void loadImage() {
-
-		imageOpen = new Image(getClass().getResourceAsStream("/img/door_open.jpg"));
-		imageClose = new Image(getClass().getResourceAsStream("/img/door_close.jpg"));
-
-	}
-
-
 	/**
 	 * Gets id of the Door.
 	 *
@@ -45,24 +32,6 @@ public class DoorModel {
 		return id;
 	}
 
-	/**
-	 * Gets image open.
-	 *
-	 * @return the image open
-	 */
-	public Image getImageOpen() {
-		return imageOpen;
-	}
-
-	/**
-	 * Gets image close.
-	 *
-	 * @return the image close
-	 */
-	public Image getImageClose() {
-		return imageClose;
-	}
-
 	/**
 	 * Gets name of the Door.
 	 *
@@ -78,7 +47,7 @@ public class DoorModel {
 	 * @return the boolean
 	 */
 	public boolean isOpen() {
-		return isOpen;
+		return state == null ? isOpen : state.is(index, HouseState.DOOR_OPEN);
 	}
 
 	/**
@@ -87,7 +56,11 @@ public class DoorModel {
 	 * @param isOpen the is open
 	 */
 	public void setOpen(boolean isOpen) {
-		this.isOpen = isOpen;
+		if (state == null) {
+			this.isOpen = isOpen;
+		} else {
+			state.set(index, HouseState.DOOR_OPEN, isOpen);
+		}
 	}
 
 	/**
@@ -96,7 +69,7 @@ public class DoorModel {
 	 * @return the boolean
 	 */
 	public boolean isLocked() {
-		return isLocked;
+		return state == null ? isLocked : state.is(index, HouseState.DOOR_LOCKED);
 	}
 
 	/**
@@ -105,6 +78,24 @@ public class DoorModel {
 	 * @param isLocked the is locked
 	 */
 	public void setLocked(boolean isLocked) {
-		this.isLocked = isLocked;
+		if (state == null) {
+			this.isLocked = isLocked;
+		} else {
+			state.set(index, HouseState.DOOR_LOCKED, isLocked);
+		}
+	}
+
+	/**
+	 * Make the door a view over the slot of its room in the state of the house.
+	 *
+	 * @param state the state of the house
+	 * @param index the index of the room
+	 */
+	void attach(HouseState state, int index) {
+		state.set(index, HouseState.DOOR_OPEN, isOpen);
+		state.set(index, HouseState.DOOR_LOCKED, isLocked);
+
+		this.state = state;
+		this.index = index;
 	}
 }
@@ -0,0 +1,307 @@
+package sample.SmartHomeModel;
+
+import sample.Interfaces.EventSubscriber;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Class for the event bus of the simulation. Events are published, from any thread, into a ring buffer allocated once
+ * with a fixed number of slots: a producer claims the next sequence number with a single atomic increment and never
+ * takes a lock or waits for a subscriber.
+ * Every subscription reads the ring at its own pace on its own executor (a dedicated daemon thread by default), so a
+ * slow subscriber cannot stall the simulation thread or the other subscribers. A subscriber which falls more than the
+ * size of the ring behind loses the oldest events it has not read yet; they are counted in getDropped().
+ * The size of the ring can be set with the system property shs.eventBufferSize (a power of two, 1024 by default).
+ */
+public final class EventBus {
+
+    /**
+     * The number of slots of the ring, unless set with shs.eventBufferSize.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * The sequence number stored in a slot while an event is being written in it.
+     */
+    private static final long WRITING = -1;
+
+    private final int mask;
+    private final AtomicReferenceArray<SimulationEvent> events;
+
+    /**
+     * The sequence number of the event held by each slot.
+     */
+    private final AtomicLongArray sequences;
+
+    /**
+     * The sequence number the next event will get.
+     */
+    private final AtomicLong next = new AtomicLong();
+
+    private final List<Subscription<?>> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Instantiates a new Event bus whose size is set by the system property shs.eventBufferSize.
+     */
+    public EventBus() {
+        this(Integer.getInteger("shs.eventBufferSize", DEFAULT_CAPACITY));
+    }
+
+    /**
+     * Instantiates a new Event bus.
+     *
+     * @param capacity the number of slots of the ring (a power of two)
+     * @throws IllegalArgumentException if the capacity is not a power of two
+     */
+    public EventBus(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("The size of the event buffer must be a power of two, not " + capacity + ".");
+        }
+
+        mask = capacity - 1;
+        events = new AtomicReferenceArray<>(capacity);
+        sequences = new AtomicLongArray(capacity);
+
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, WRITING);
+        }
+    }
+
+    /**
+     * Gets the number of slots of the ring.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Publish an event to every subscriber of its type. Never blocks.
+     *
+     * @param event the event
+     */
+    public void publish(SimulationEvent event) {
+        long sequence = next.getAndIncrement();
+        int slot = (int) sequence & mask;
+
+        sequences.set(slot, WRITING);
+        events.set(slot, event);
+        sequences.set(slot, sequence);
+
+        for (Subscription<?> subscription : subscriptions) {
+            if (subscription.type.isInstance(event)) {
+                subscription.signal();
+            }
+        }
+    }
+
+    /**
+     * Subscribe to a type of event. The subscriber runs on a dedicated daemon thread, which is stopped when the
+     * subscription is closed.
+     *
+     * @param type       the type of event (events of its subclasses are delivered too)
+     * @param subscriber the subscriber
+     * @param <E>        the type of event
+     * @return the subscription
+     */
+    public <E extends SimulationEvent> Subscription<E> subscribe(Class<E> type, EventSubscriber<? super E> subscriber) {
+        String name = "shs-events-" + type.getSimpleName();
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        return subscribe(type, subscriber, executor, executor);
+    }
+
+    /**
+     * Subscribe to a type of event. The subscriber runs on the given executor, which must run one task at a time
+     * (Platform::runLater for instance), and is not shut down when the subscription is closed.
+     *
+     * @param type       the type of event (events of its subclasses are delivered too)
+     * @param subscriber the subscriber
+     * @param executor   the executor on which the subscriber runs
+     * @param <E>        the type of event
+     * @return the subscription
+     */
+    public <E extends SimulationEvent> Subscription<E> subscribe(Class<E> type, EventSubscriber<? super E> subscriber, Executor executor) {
+        return subscribe(type, subscriber, executor, null);
+    }
+
+    /**
+     * Register a subscription. It receives the events published from now on.
+     *
+     * @param type       the type of event
+     * @param subscriber the subscriber
+     * @param executor   the executor on which the subscriber runs
+     * @param owned      the executor to shut down when the subscription is closed (may be null)
+     * @param <E>        the type of event
+     * @return the subscription
+     */
+    private <E extends SimulationEvent> Subscription<E> subscribe(Class<E> type, EventSubscriber<? super E> subscriber, Executor executor, ExecutorService owned) {
+        Subscription<E> subscription = new Subscription<>(type, subscriber, executor, owned, next.get());
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * A subscriber registered on the bus, with its position in the ring.
+     *
+     * @param <E> the type of event
+     */
+    public final class Subscription<E extends SimulationEvent> implements AutoCloseable {
+
+        private final Class<E> type;
+        private final EventSubscriber<? super E> subscriber;
+        private final Executor executor;
+        private final ExecutorService owned;
+
+        /**
+         * The sequence number of the next event to read. Only the drain task, which never runs concurrently with
+         * itself, reads and writes it.
+         */
+        private long cursor;
+
+        /**
+         * Whether a drain task has been handed to the executor and has not finished yet.
+         */
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private final AtomicLong dropped = new AtomicLong();
+        private volatile boolean closed;
+
+        /**
+         * Instantiates a new Subscription.
+         *
+         * @param type       the type of event
+         * @param subscriber the subscriber
+         * @param executor   the executor on which the subscriber runs
+         * @param owned      the executor to shut down when the subscription is closed (may be null)
+         * @param cursor     the sequence number of the first event to deliver
+         */
+        private Subscription(Class<E> type, EventSubscriber<? super E> subscriber, Executor executor, ExecutorService owned, long cursor) {
+            this.type = type;
+            this.subscriber = subscriber;
+            this.executor = executor;
+            this.owned = owned;
+            this.cursor = cursor;
+        }
+
+        /**
+         * Hand a drain task to the executor, unless one is already pending.
+         */
+        private void signal() {
+            if (!closed && scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // The subscription has just been closed.
+                }
+            }
+        }
+
+        /**
+         * Deliver every event published since the last drain.
+         */
+        private void drain() {
+            while (true) {
+                deliverAvailable();
+                scheduled.set(false);
+
+                // An event published after the last read but before the flag was cleared did not schedule a drain.
+                if (closed || !isAvailable(cursor) || !scheduled.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Deliver the events of the subscribed type which can be read from the ring.
+         */
+        private void deliverAvailable() {
+            while (!closed) {
+                long head = next.get();
+
+                if (cursor >= head) {
+                    return;
+                }
+
+                // The producers went around the ring: skip to the oldest event still in it.
+                if (head - cursor > events.length()) {
+                    dropped.addAndGet(head - events.length() - cursor);
+                    cursor = head - events.length();
+                }
+
+                int slot = (int) cursor & mask;
+                long sequence = sequences.get(slot);
+
+                if (sequence < cursor) {
+                    // Claimed but not written yet; its producer signals once it is.
+                    return;
+                }
+
+                SimulationEvent event = events.get(slot);
+
+                if (sequence > cursor || sequences.get(slot) != cursor) {
+                    // Overwritten by a producer a whole ring ahead.
+                    dropped.incrementAndGet();
+                    cursor++;
+                    continue;
+                }
+
+                cursor++;
+
+                if (type.isInstance(event)) {
+                    try {
+                        subscriber.onEvent(type.cast(event));
+                    } catch (RuntimeException e) {
+                        EventLog.log(EventLog.Module.SHS, EventLog.Type.ERROR, null, "A subscriber to " + type.getSimpleName() + " failed on " + event + ": " + e);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Is the event with the given sequence number written in the ring.
+         *
+         * @param sequence the sequence number
+         * @return true if it can be read (or has already been overwritten)
+         */
+        private boolean isAvailable(long sequence) {
+            return sequence < next.get() && sequences.get((int) sequence & mask) >= sequence;
+        }
+
+        /**
+         * Gets the number of events this subscriber lost because it fell too far behind.
+         *
+         * @return the number of events
+         */
+        public long getDropped() {
+            return dropped.get();
+        }
+
+        /**
+         * Stop delivering events to the subscriber.
+         */
+        @Override
+        public void close() {
+            closed = true;
+            subscriptions.remove(this);
+
+            if (owned != null) {
+                owned.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package sample.SmartHomeModel;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Class for the event log of the simulator, kept for post-mortem analysis of long runs.
+ * Logging an event only adds it to a lock-free queue; a background thread drains the queue and writes the events to
+ * a log file, one tab separated line per event:
+ * wall time, simulated time, module, event type, room and message.
+ * When the file grows past its maximum size it is rotated (shs.log becomes shs.log.1, shs.log.1 becomes shs.log.2, ...).
+ * The directory, the maximum size of a file and the number of files kept are set with the system properties
+ * shs.logDir (default logs), shs.logMaxBytes (default 10 MB) and shs.logFiles (default 5).
+ */
+public final class EventLog {
+
+    /**
+     * The module an event comes from.
+     */
+    public enum Module {
+        SHS, SHC, SHP, SHH
+    }
+
+    /**
+     * The type of an event.
+     */
+    public enum Type {
+        /**
+         * A message also printed on the console.
+         */
+        CONSOLE,
+        /**
+         * An alert (intrusion, burst pipe).
+         */
+        ALERT,
+        /**
+         * Diagnostic information.
+         */
+        DEBUG,
+        /**
+         * An error.
+         */
+        ERROR
+    }
+
+    /**
+     * An event waiting to be written.
+     */
+    private static class Event {
+        private long wallTime;
+        private LocalDateTime simulatedTime;
+        private Module module;
+        private Type type;
+        private String room;
+        private String message;
+    }
+
+    private static final String FILE_NAME = "shs.log";
+
+    /**
+     * How long the writer waits for new events when the queue is empty.
+     */
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private static final ConcurrentLinkedQueue<Event> EVENTS = new ConcurrentLinkedQueue<>();
+
+    private static volatile LocalDateTime simulatedTime;
+
+    private static volatile Thread writerThread;
+
+    private static File directory = new File(System.getProperty("shs.logDir", "logs"));
+    private static long maxBytes = Long.getLong("shs.logMaxBytes", 10L * 1024 * 1024);
+    private static int maxFiles = Integer.getInteger("shs.logFiles", 5);
+
+    private static Writer writer;
+    private static long written;
+
+    private EventLog() {
+    }
+
+    /**
+     * Set the current simulated date and time, used for the events which do not carry their own.
+     *
+     * @param dateTime the simulated date and time
+     */
+    public static void setSimulatedTime(LocalDateTime dateTime) {
+        simulatedTime = dateTime;
+    }
+
+    /**
+     * Log an event at the current simulated time.
+     *
+     * @param module  the module
+     * @param type    the event type
+     * @param room    the room concerned (may be null)
+     * @param message the message
+     */
+    public static void log(Module module, Type type, String room, String message) {
+        log(simulatedTime, module, type, room, message);
+    }
+
+    /**
+     * Log an event.
+     *
+     * @param dateTime the simulated date and time of the event (may be null)
+     * @param module   the module
+     * @param type     the event type
+     * @param room     the room concerned (may be null)
+     * @param message  the message
+     */
+    public static void log(LocalDateTime dateTime, Module module, Type type, String room, String message) {
+        Event event = new Event();
+        event.wallTime = System.currentTimeMillis();
+        event.simulatedTime = dateTime;
+        event.module = module;
+        event.type = type;
+        event.room = room;
+        event.message = message;
+
+        EVENTS.offer(event);
+
+        if (writerThread == null) {
+            startWriter();
+        }
+    }
+
+    /**
+     * Start the background writer, once.
+     */
+    private static synchronized void startWriter() {
+        if (writerThread != null) {
+            return;
+        }
+
+        Thread thread = new Thread(EventLog::writeLoop, "shs-event-log");
+        thread.setDaemon(true);
+        thread.start();
+
+        // Write what is left in the queue when the simulator exits.
+        Runtime.getRuntime().addShutdownHook(new Thread(EventLog::drain, "shs-event-log-flush"));
+
+        writerThread = thread;
+    }
+
+    /**
+     * Drain the queue until the simulator exits.
+     */
+    private static void writeLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            if (EVENTS.isEmpty()) {
+                LockSupport.parkNanos(IDLE_NANOS);
+            } else {
+                drain();
+            }
+        }
+    }
+
+    /**
+     * Write every event in the queue to the log file.
+     */
+    private static synchronized void drain() {
+        try {
+            Event event;
+            while ((event = EVENTS.poll()) != null) {
+                write(format(event));
+            }
+
+            if (writer != null) {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            // The log is best effort: drop the events rather than disturb the simulation.
+            EVENTS.clear();
+        }
+    }
+
+    /**
+     * Write a line, rotating the files first if the current one is full.
+     *
+     * @param line the line
+     * @throws IOException if the file cannot be written
+     */
+    private static void write(String line) throws IOException {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+
+        if (writer == null || written + bytes.length > maxBytes) {
+            rotate();
+        }
+
+        writer.write(line);
+        written += bytes.length;
+    }
+
+    /**
+     * Close the current file, shift the older files by one and open a new file.
+     *
+     * @throws IOException if the file cannot be opened
+     */
+    private static void rotate() throws IOException {
+        File current = new File(directory, FILE_NAME);
+
+        if (writer != null) {
+            writer.close();
+            writer = null;
+
+            if (maxFiles > 1) {
+                new File(directory, FILE_NAME + "." + (maxFiles - 1)).delete();
+                for (int i = maxFiles - 2; i >= 1; i--) {
+                    new File(directory, FILE_NAME + "." + i).renameTo(new File(directory, FILE_NAME + "." + (i + 1)));
+                }
+                current.renameTo(new File(directory, FILE_NAME + "." + 1));
+            } else {
+                current.delete();
+            }
+        }
+
+        directory.mkdirs();
+
+        written = current.length();
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(current, true), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Format an event as one line of the log file.
+     *
+     * @param event the event
+     * @return the line
+     */
+    private static String format(Event event) {
+        return Instant.ofEpochMilli(event.wallTime) + "\t"
+                + (event.simulatedTime == null ? "-" : event.simulatedTime.toString()) + "\t"
+                + event.module + "\t"
+                + event.type + "\t"
+                + (event.room == null ? "-" : event.room) + "\t"
+                + event.message.replace('\n', ' ').replace('\t', ' ') + System.lineSeparator();
+    }
+}
@@ -0,0 +1,360 @@
+package sample.SmartHomeModel;
+
+import java.util.Map;
+
+/**
+ * Class for the HVAC model of a room.
+ * Temperatures, the rate and the rounding resolution are in hundredths of a degree (see Temperature), so stepping is
+ * integer arithmetic and does not allocate.
+ */
+public class HVACModel {
+
+    /**
+     * The number of HVAC states.
+     */
+    private static final int STATES = HVACState.values().length;
+
+    private RoomModel room;
+    private volatile int rate;
+    private volatile int targetTemperature;
+    private volatile int resolution;
+    private HVACState stateHVAC;
+    private ZonePeriod period;
+    private boolean isManual = false;
+    private Map<String, Boolean> isRoomManual;
+
+    /**
+     * The number of transitions taken, indexed by from * number of states + to.
+     */
+    private long[] transitionCounts = new long[STATES * STATES];
+
+    /**
+     * Instantiates a new HVAC model.
+     *
+     * @param room              the room heated/cooled by this HVAC
+     * @param rate              the rate (in hundredths of a degree per second)
+     * @param targetTemperature the target temperature (in hundredths of a degree)
+     * @param resolution        the rounding applied after each step (Temperature.TENTHS or Temperature.HUNDREDTHS)
+     * @param isRoomManual      the map in which the manual override of the room is stored
+     */
+    public HVACModel(RoomModel room, int rate, int targetTemperature, int resolution, Map<String, Boolean> isRoomManual) {
+        this.room = room;
+        this.rate = rate;
+        this.targetTemperature = targetTemperature;
+        this.resolution = resolution;
+        this.isRoomManual = isRoomManual;
+        this.stateHVAC = HVACState.IDLE;
+        isRoomManual.put(room.getName(), false);
+    }
+
+    /**
+     * Move the temperature of the room one step (one simulated second) towards the target temperature.
+     *
+     * @return true if the temperature of the room has changed
+     */
+    public boolean step() {
+        refreshTargetTemperature();
+
+        int temperature = room.getTemperatureHundredths();
+
+        if (targetTemperature < temperature) {
+            room.setTemperatureHundredths(Temperature.round(temperature - rate, resolution));
+            return true;
+        } else if (targetTemperature > temperature) {
+            room.setTemperatureHundredths(Temperature.round(temperature + rate, resolution));
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Compute the number of steps, starting with the current one, which can be done in closed form with advance()
+     * and during which the temperature of the room stays on the same side of every threshold.
+     *
+     * @param max        the maximum number of steps
+     * @param thresholds the temperatures which must not be crossed (in hundredths of a degree)
+     * @return the number of steps (at least 1)
+     */
+    public long quietSteps(long max, int[] thresholds) {
+        refreshTargetTemperature();
+
+        int temperature = room.getTemperatureHundredths();
+
+        if (temperature == targetTemperature) {
+            return max;
+        }
+
+        // Only a temperature on the rounding grid moves by exactly one rate per step.
+        if (Temperature.round(temperature, resolution) != temperature) {
+            return 1;
+        }
+
+        int step = Temperature.round(rate, resolution);
+        int distance = Math.abs(targetTemperature - temperature);
+        int direction = Integer.signum(targetTemperature - temperature);
+
+        // Closer than one step: the temperature alternates between two values around the target.
+        if (distance < step) {
+            int other = temperature + direction * step;
+
+            for (int threshold : thresholds) {
+                if (Integer.compare(temperature, threshold) != Integer.compare(other, threshold)) {
+                    return 1;
+                }
+            }
+            return max;
+        }
+
+        long quiet = max;
+        long stepsToTarget = (distance + step - 1) / step;
+
+        // Overshooting the target starts an alternation, which is computed separately from the next step on.
+        if (temperature + direction * stepsToTarget * step != targetTemperature) {
+            quiet = Math.min(quiet, stepsToTarget);
+        }
+
+        for (int threshold : thresholds) {
+            if (Integer.signum(threshold - temperature) == direction) {
+                quiet = Math.min(quiet, (Math.abs(threshold - temperature) + step - 1) / step);
+            } else if (threshold == temperature) {
+                return 1;
+            }
+        }
+
+        return Math.max(quiet, 1);
+    }
+
+    /**
+     * Move the temperature of the room the given number of steps towards the target temperature, in closed form.
+     *
+     * @param steps the number of steps (simulated seconds)
+     * @return true if the temperature of the room has changed
+     */
+    public boolean advance(long steps) {
+        refreshTargetTemperature();
+
+        int temperature = room.getTemperatureHundredths();
+
+        if (temperature == targetTemperature || steps <= 0) {
+            return false;
+        }
+
+        // Off the rounding grid, the first step puts the temperature back on it.
+        if (Temperature.round(temperature, resolution) != temperature) {
+            step();
+            advance(steps - 1);
+            return true;
+        }
+
+        int step = Temperature.round(rate, resolution);
+        int distance = Math.abs(targetTemperature - temperature);
+        int direction = Integer.signum(targetTemperature - temperature);
+
+        if (distance < step) {
+            if (steps % 2 == 1) {
+                room.setTemperatureHundredths(temperature + direction * step);
+                return true;
+            }
+            return false;
+        }
+
+        long stepsToTarget = (distance + step - 1) / step;
+        long closedFormSteps = Math.min(steps, stepsToTarget);
+        room.setTemperatureHundredths((int) (temperature + direction * closedFormSteps * step));
+
+        if (steps > closedFormSteps) {
+            advance(steps - closedFormSteps);
+        }
+
+        return true;
+    }
+
+    /**
+     * Update the target temperature with the current temperature of the zone period when following a schedule.
+     */
+    private void refreshTargetTemperature() {
+        if (period != null) {
+            targetTemperature = period.getTemperatureHundredths();
+        }
+    }
+
+    /**
+     * Gets the room.
+     *
+     * @return the room
+     */
+    public RoomModel getRoom() {
+        return room;
+    }
+
+    /**
+     * Set the rate
+     *
+     * @param rate the rate (in hundredths of a degree per second)
+     */
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+
+    /**
+     * Set the target temperature
+     *
+     * @param targetTemperature the target temperature (in hundredths of a degree)
+     */
+    public void setTargetTemperature(int targetTemperature) {
+        this.targetTemperature = targetTemperature;
+    }
+
+    /**
+     * Set the rounding applied after each step
+     *
+     * @param resolution the resolution (Temperature.TENTHS or Temperature.HUNDREDTHS)
+     */
+    public void setResolution(int resolution) {
+        this.resolution = resolution;
+    }
+
+    /**
+     * Gets state hvac.
+     *
+     * @return the state hvac
+     */
+    public HVACState getStateHVAC() {
+        return stateHVAC;
+    }
+
+    /**
+     * Set the state of the HVAC. Setting the current state again does nothing. An illegal transition is logged as an
+     * error and ignored, since the state is changed on the clock thread.
+     *
+     * @param state the state
+     * @return true if the HVAC is in that state now, false if it cannot go from its current state to that state
+     */
+    public boolean setStateHVAC(HVACState state) {
+        if (state == stateHVAC) {
+            return true;
+        }
+
+        if (!stateHVAC.canTransitionTo(state)) {
+            EventLog.log(EventLog.Module.SHH, EventLog.Type.ERROR, room.getName(), "Ignoring an illegal transition of the HVAC of the " + room.getName() + " from " + stateHVAC + " to " + state + ".");
+            return false;
+        }
+
+        transitionCounts[stateHVAC.ordinal() * STATES + state.ordinal()]++;
+        stateHVAC = state;
+
+        if (!state.in(HVACState.SCHEDULES)) {
+            period = null;
+        }
+
+        if (isManual != (state == HVACState.MANUAL)) {
+            isManual = !isManual;
+            isRoomManual.put(room.getName(), isManual);
+        }
+
+        return true;
+    }
+
+    /**
+     * Follow a period of the schedule of the zone of the room: the HVAC takes the state of the period and heats/cools
+     * the room to its temperature until another period is followed or the state changes.
+     *
+     * @param period the period
+     * @return true if the period is followed, false if the HVAC cannot go from its current state to the state of the
+     * period
+     */
+    public boolean followPeriod(ZonePeriod period) {
+        if (!setStateHVAC(period.getState())) {
+            return false;
+        }
+
+        this.period = period;
+        refreshTargetTemperature();
+        return true;
+    }
+
+    /**
+     * Gets the zone period followed by the HVAC.
+     *
+     * @return the period (null when the HVAC is not following a schedule)
+     */
+    public ZonePeriod getPeriod() {
+        return period;
+    }
+
+    /**
+     * Gets the number of times the HVAC went from a state to another.
+     *
+     * @param from the state before the transition
+     * @param to   the state after the transition
+     * @return the number of transitions
+     */
+    public long getTransitionCount(HVACState from, HVACState to) {
+        return transitionCounts[from.ordinal() * STATES + to.ordinal()];
+    }
+
+    /**
+     * Gets the target temperature.
+     *
+     * @return the target temperature (in hundredths of a degree)
+     */
+    public int getTargetTemperature() {
+        return targetTemperature;
+    }
+
+    /**
+     * Gets the rate.
+     *
+     * @return the rate (in hundredths of a degree per second)
+     */
+    public int getRate() {
+        return rate;
+    }
+
+    /**
+     * Gets the rounding applied after each step.
+     *
+     * @return the resolution (in hundredths of a degree)
+     */
+    public int getResolution() {
+        return resolution;
+    }
+
+    /**
+     * Put the HVAC back in a state saved in a checkpoint, without counting a transition.
+     *
+     * @param state             the state
+     * @param targetTemperature the target temperature (in hundredths of a degree)
+     * @param rate              the rate (in hundredths of a degree per second)
+     * @param resolution        the resolution (in hundredths of a degree)
+     * @param period            the zone period followed (may be null)
+     */
+    void restore(HVACState state, int targetTemperature, int rate, int resolution, ZonePeriod period) {
+        this.stateHVAC = state;
+        this.targetTemperature = targetTemperature;
+        this.rate = rate;
+        this.resolution = resolution;
+        this.period = period;
+        this.isManual = state == HVACState.MANUAL;
+        isRoomManual.put(room.getName(), isManual);
+    }
+
+    /**
+     * Gets the number of transitions taken, indexed by from * number of states + to.
+     *
+     * @return the transition counts (not a copy)
+     */
+    long[] getTransitionCounts() {
+        return transitionCounts;
+    }
+
+    /**
+     * Is the HVAC in manual override.
+     *
+     * @return the boolean
+     */
+    public boolean isManual() {
+        return isManual;
+    }
+}
@@ -0,0 +1,128 @@
+package sample.SmartHomeModel;
+
+/**
+ * The states of the HVAC of a room.
+ * Each state has a bit, so that a set of states is an int mask and checking whether a state belongs to it is a single
+ * AND. The transitions the HVAC may take from each state are stored in the same way.
+ */
+public enum HVACState {
+    IDLE(0, "Idle"),
+    MANUAL(1, "Manual"),
+    NIGHT_SCHEDULE(2, "Night Schedule"),
+    DAY_SCHEDULE(3, "Day Schedule"),
+    EVENING_SCHEDULE(4, "Evening Schedule"),
+    SCHEDULE(5, "Schedule"),
+    SUMMER_COOLING(6, "Summer Cooling"),
+    AWAY_MODE_SUMMER(7, "Away Mode Summer"),
+    AWAY_MODE_WINTER(8, "Away Mode Winter"),
+    OFF(9, "Off");
+
+    /**
+     * The states following the schedule of a zone.
+     */
+    public static final int SCHEDULES = NIGHT_SCHEDULE.bit | DAY_SCHEDULE.bit | EVENING_SCHEDULE.bit | SCHEDULE.bit;
+
+    /**
+     * The states of the away mode.
+     */
+    public static final int AWAY_MODES = AWAY_MODE_SUMMER.bit | AWAY_MODE_WINTER.bit;
+
+    /**
+     * The states every other state can go to (a manual request, the end of a mode, turning the HVAC off).
+     */
+    private static final int ALWAYS = IDLE.bit | MANUAL.bit | OFF.bit;
+
+    static {
+        IDLE.transitions = ALWAYS | SCHEDULES | SUMMER_COOLING.bit | AWAY_MODES;
+        MANUAL.transitions = ALWAYS;
+        NIGHT_SCHEDULE.transitions = ALWAYS | SCHEDULES;
+        DAY_SCHEDULE.transitions = ALWAYS | SCHEDULES;
+        EVENING_SCHEDULE.transitions = ALWAYS | SCHEDULES;
+        SCHEDULE.transitions = ALWAYS | SCHEDULES;
+        SUMMER_COOLING.transitions = ALWAYS | SCHEDULES;
+        AWAY_MODE_SUMMER.transitions = ALWAYS | AWAY_MODES;
+        AWAY_MODE_WINTER.transitions = ALWAYS | AWAY_MODES;
+        OFF.transitions = ALWAYS;
+    }
+
+    /**
+     * The states, indexed by code.
+     */
+    private static final HVACState[] BY_CODE = new HVACState[values().length];
+
+    static {
+        for (HVACState state : values()) {
+            BY_CODE[state.code] = state;
+        }
+    }
+
+    private final int code;
+    private final String name;
+    private final int bit;
+    private int transitions;
+
+    HVACState(int code, String name) {
+        this.code = code;
+        this.name = name;
+        this.bit = 1 << ordinal();
+    }
+
+    /**
+     * Gets the code of the state, as stored in the checkpoints. Unlike the ordinal, the code of a state never
+     * changes: a new state takes the next free code, wherever it is declared.
+     *
+     * @return the code
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Gets the state of a code.
+     *
+     * @param code the code
+     * @return the state, or null if no state has this code
+     */
+    public static HVACState fromCode(int code) {
+        return code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+
+    /**
+     * Gets the bit of the state, to build a set of states.
+     *
+     * @return the bit
+     */
+    public int bit() {
+        return bit;
+    }
+
+    /**
+     * Whether the state belongs to a set of states.
+     *
+     * @param states the set of states (bits combined with |)
+     * @return the boolean
+     */
+    public boolean in(int states) {
+        return (states & bit) != 0;
+    }
+
+    /**
+     * Whether the HVAC may go from this state to another one.
+     *
+     * @param next the other state
+     * @return the boolean
+     */
+    public boolean canTransitionTo(HVACState next) {
+        return (transitions & next.bit) != 0;
+    }
+
+    /**
+     * Gets the name of the state as shown to the user.
+     *
+     * @return the name
+     */
+    @Override
+    public String toString() {
+        return name;
+    }
+}
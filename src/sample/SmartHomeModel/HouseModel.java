@@ -2,6 +2,7 @@ package sample.SmartHomeModel;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -9,9 +10,10 @@ import java.util.Map;
  */
 public class HouseModel {
 
-    private double outsideTemp;
+    private volatile int outsideTemp;
     private String loggedUserName;
     private Map<String, RoomModel> rooms;
+    private HouseState state;
     private Map<String, LightModel> lights;
     private Map<String, DoorModel> doors;
     private Map<String, WindowModel> windows;
@@ -21,8 +23,8 @@ public class HouseModel {
     private int xAxis;
     private int yAxis;
 
-    private double winterTemperature = 0.0;
-    private double summerTemperature = 0.0;
+    private volatile int winterTemperature = 0;
+    private volatile int summerTemperature = 0;
 
     ArrayList<String> summer;
     ArrayList<String> winter;
@@ -46,9 +48,13 @@ public class HouseModel {
      * @param yAxis          the y axis
      */
     public HouseModel(int outsideTemp, String loggedUserName, Map<String, RoomModel> rooms, Map<String, LightModel> lights, Map<String, DoorModel> doors, Map<String, WindowModel> windows, int width, int height, int xAxis, int yAxis) {
-        this.outsideTemp = outsideTemp;
+        this.outsideTemp = Temperature.fromDegrees(outsideTemp);
         this.loggedUserName = loggedUserName;
         this.rooms = rooms;
+        this.state = new HouseState(rooms.size());
+        for (RoomModel room : rooms.values()) {
+            state.add(room);
+        }
         this.lights = lights;
         this.doors = doors;
         this.windows = windows;
@@ -66,10 +72,10 @@ public class HouseModel {
      * Create a zone
      */
     private void createZone(){
-        Zone zone1 = new Zone("Zone 1", outsideTemp);
-        Zone zone2 = new Zone("Zone 2", outsideTemp);
-        Zone zone3 = new Zone("Zone 3", outsideTemp);
-        Zone zone4 = new Zone("Zone 4", outsideTemp);
+        Zone zone1 = new Zone("Zone 1", getOutsideTemp());
+        Zone zone2 = new Zone("Zone 2", getOutsideTemp());
+        Zone zone3 = new Zone("Zone 3", getOutsideTemp());
+        Zone zone4 = new Zone("Zone 4", getOutsideTemp());
 
         zoneList.put(zone1.getZoneName(), zone1);
         zoneList.put(zone2.getZoneName(), zone2);
@@ -86,11 +92,42 @@ public class HouseModel {
         return zoneList;
     }
 
+    /**
+     * Move a room to a zone, keeping the zone of the room and the rooms of the zones consistent.
+     *
+     * @param room the room
+     * @param zone the new zone of the room (null to remove it from its zone)
+     * @return the previous zone of the room (null if it was in none)
+     */
+    public Zone setRoomZone(RoomModel room, Zone zone){
+        Zone previous = room.getZone();
+
+        if (previous != null) {
+            previous.removeRoom(room);
+        }
+
+        room.setZone(zone);
+
+        if (zone != null) {
+            zone.addRoom(room);
+        }
+
+        return previous;
+    }
+
     /**
      * Getter for the winter temperature
      * @return winterTemperature double
      */
     public double getWinterTemperature() {
+        return Temperature.toDegrees(winterTemperature);
+    }
+
+    /**
+     * Getter for the winter temperature in hundredths of a degree
+     * @return winterTemperature int
+     */
+    public int getWinterTemperatureHundredths() {
         return winterTemperature;
     }
 
@@ -99,7 +136,7 @@ public class HouseModel {
      * @param winterTemperature double
      */
     public void setWinterTemperature(double winterTemperature) {
-        this.winterTemperature = winterTemperature;
+        this.winterTemperature = Temperature.fromDegrees(winterTemperature);
         unsetWinterTemp = false;
     }
 
@@ -108,6 +145,14 @@ public class HouseModel {
      * @return summerTemperature double
      */
     public double getSummerTemperature() {
+        return Temperature.toDegrees(summerTemperature);
+    }
+
+    /**
+     * Getter for the summer temperature in hundredths of a degree
+     * @return summerTemperature int
+     */
+    public int getSummerTemperatureHundredths() {
         return summerTemperature;
     }
 
@@ -116,7 +161,7 @@ public class HouseModel {
      * @param summerTemperature the summer temperature
      */
     public void setSummerTemperature(double summerTemperature) {
-        this.summerTemperature = summerTemperature;
+        this.summerTemperature = Temperature.fromDegrees(summerTemperature);
         unsetSummerTemp = false;
     }
 
@@ -158,6 +203,15 @@ public class HouseModel {
      * @return the outside temp
      */
     public double getOutsideTemp() {
+        return Temperature.toDegrees(outsideTemp);
+    }
+
+    /**
+     * Gets outside temp in hundredths of a degree.
+     *
+     * @return the outside temp
+     */
+    public int getOutsideTempHundredths() {
         return outsideTemp;
     }
 
@@ -167,7 +221,28 @@ public class HouseModel {
      * @param outsideTemp the outside temp
      */
     public void setOutsideTemp(double outsideTemp) {
+        this.outsideTemp = Temperature.fromDegrees(outsideTemp);
+    }
+
+    /**
+     * Put the outside temperature and the seasons back in a state saved in a checkpoint.
+     *
+     * @param outsideTemp       the outside temperature (in hundredths of a degree)
+     * @param summerTemperature the summer temperature (in hundredths of a degree)
+     * @param unsetSummerTemp   whether the summer temperature has not been set yet
+     * @param winterTemperature the winter temperature (in hundredths of a degree)
+     * @param unsetWinterTemp   whether the winter temperature has not been set yet
+     * @param summer            the summer months
+     * @param winter            the winter months
+     */
+    void restore(int outsideTemp, int summerTemperature, boolean unsetSummerTemp, int winterTemperature, boolean unsetWinterTemp, List<String> summer, List<String> winter) {
         this.outsideTemp = outsideTemp;
+        this.summerTemperature = summerTemperature;
+        this.unsetSummerTemp = unsetSummerTemp;
+        this.winterTemperature = winterTemperature;
+        this.unsetWinterTemp = unsetWinterTemp;
+        this.summer = new ArrayList<>(summer);
+        this.winter = new ArrayList<>(winter);
     }
 
     /**
@@ -216,6 +291,13 @@ public class HouseModel {
      */
     public Map<String, RoomModel> getRooms() {return rooms;}
 
+    /**
+     * Returns the state of the rooms of the house, indexed by room.
+     *
+     * @return the state
+     */
+    public HouseState getState() {return state;}
+
     /**
      * Gets height.
      *
@@ -0,0 +1,265 @@
+package sample.SmartHomeModel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class for the state of the rooms of a house, stored as a structure of arrays.
+ * Each room gets a dense index; its temperature, number of people, door/window/light bits and zone are kept in
+ * primitive arrays at that index, so that a pass over every room reads contiguous memory instead of following a
+ * HashMap and an object per room. RoomModel, DoorModel, LightModel and WindowModel are views over this store once
+ * their house is created.
+ * The arrays are written by one thread at a time (the simulation engine or the UI thread); the bits of a room are
+ * updated under a lock because the UI and the engine change different bits of the same room.
+ */
+public class HouseState {
+
+    /**
+     * The door of the room is open.
+     */
+    public static final int DOOR_OPEN = 1;
+
+    /**
+     * The door of the room is locked.
+     */
+    public static final int DOOR_LOCKED = 1 << 1;
+
+    /**
+     * The window of the room is open.
+     */
+    public static final int WINDOW_OPEN = 1 << 2;
+
+    /**
+     * There is an object blocking the window of the room.
+     */
+    public static final int WINDOW_BLOCKED = 1 << 3;
+
+    /**
+     * The light of the room is open.
+     */
+    public static final int LIGHT_OPEN = 1 << 4;
+
+    /**
+     * The zone id of a room which is in no zone.
+     */
+    public static final int NO_ZONE = -1;
+
+    private int size = 0;
+    private RoomModel[] rooms;
+    private int[] temperatures;
+    private int[] occupancy;
+    private int[] flags;
+    private int[] zones;
+
+    private Map<String, Integer> indexes = new HashMap<>();
+    private List<Zone> zoneTable = new ArrayList<>();
+
+    /**
+     * Instantiates a new House state.
+     *
+     * @param capacity the number of rooms expected
+     */
+    public HouseState(int capacity) {
+        capacity = Math.max(capacity, 1);
+        rooms = new RoomModel[capacity];
+        temperatures = new int[capacity];
+        occupancy = new int[capacity];
+        flags = new int[capacity];
+        zones = new int[capacity];
+    }
+
+    /**
+     * Add a room to the store and make it a view over its slot.
+     *
+     * @param room the room
+     * @return the index of the room
+     */
+    public synchronized int add(RoomModel room) {
+        if (size == rooms.length) {
+            int capacity = size * 2;
+            rooms = Arrays.copyOf(rooms, capacity);
+            temperatures = Arrays.copyOf(temperatures, capacity);
+            occupancy = Arrays.copyOf(occupancy, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+            zones = Arrays.copyOf(zones, capacity);
+        }
+
+        int index = size++;
+        rooms[index] = room;
+        zones[index] = NO_ZONE;
+        indexes.put(room.getName(), index);
+        room.attach(this, index);
+
+        return index;
+    }
+
+    /**
+     * Gets the number of rooms.
+     *
+     * @return the number of rooms
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the index of a room.
+     *
+     * @param name the name of the room
+     * @return the index (-1 if there is no such room)
+     */
+    public int indexOf(String name) {
+        Integer index = indexes.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Gets a room.
+     *
+     * @param index the index of the room
+     * @return the room
+     */
+    public RoomModel getRoom(int index) {
+        return rooms[index];
+    }
+
+    /**
+     * Gets the temperature of a room.
+     *
+     * @param index the index of the room
+     * @return the temperature in hundredths of a degree
+     */
+    public int getTemperature(int index) {
+        return temperatures[index];
+    }
+
+    /**
+     * Sets the temperature of a room.
+     *
+     * @param index       the index of the room
+     * @param temperature the temperature in hundredths of a degree
+     */
+    public void setTemperature(int index, int temperature) {
+        temperatures[index] = temperature;
+    }
+
+    /**
+     * Gets the number of people in a room.
+     *
+     * @param index the index of the room
+     * @return the number of people
+     */
+    public int getOccupancy(int index) {
+        return occupancy[index];
+    }
+
+    /**
+     * Add to the number of people in a room.
+     *
+     * @param index the index of the room
+     * @param delta the number of people who entered (negative if they left)
+     */
+    public synchronized void addOccupancy(int index, int delta) {
+        occupancy[index] += delta;
+    }
+
+    /**
+     * Whether a bit of a room is set.
+     *
+     * @param index the index of the room
+     * @param flag  the bit (DOOR_OPEN, DOOR_LOCKED, WINDOW_OPEN, WINDOW_BLOCKED or LIGHT_OPEN)
+     * @return the boolean
+     */
+    public boolean is(int index, int flag) {
+        return (flags[index] & flag) != 0;
+    }
+
+    /**
+     * Set or clear a bit of a room.
+     *
+     * @param index the index of the room
+     * @param flag  the bit (DOOR_OPEN, DOOR_LOCKED, WINDOW_OPEN, WINDOW_BLOCKED or LIGHT_OPEN)
+     * @param value true to set the bit
+     */
+    public synchronized void set(int index, int flag, boolean value) {
+        if (value) {
+            flags[index] |= flag;
+        } else {
+            flags[index] &= ~flag;
+        }
+    }
+
+    /**
+     * Gets every bit of a room.
+     *
+     * @param index the index of the room
+     * @return the bits
+     */
+    public int getFlags(int index) {
+        return flags[index];
+    }
+
+    /**
+     * Replace every bit of a room.
+     *
+     * @param index the index of the room
+     * @param value the bits
+     */
+    public synchronized void setFlags(int index, int value) {
+        flags[index] = value;
+    }
+
+    /**
+     * Sets the number of people in a room.
+     *
+     * @param index     the index of the room
+     * @param occupancy the number of people
+     */
+    public synchronized void setOccupancy(int index, int occupancy) {
+        this.occupancy[index] = occupancy;
+    }
+
+    /**
+     * Gets the zone of a room.
+     *
+     * @param index the index of the room
+     * @return the zone (null if the room is in no zone)
+     */
+    public Zone getZone(int index) {
+        int zone = zones[index];
+        return zone == NO_ZONE ? null : zoneTable.get(zone);
+    }
+
+    /**
+     * Gets the zone id of a room.
+     *
+     * @param index the index of the room
+     * @return the zone id (NO_ZONE if the room is in no zone)
+     */
+    public int getZoneId(int index) {
+        return zones[index];
+    }
+
+    /**
+     * Sets the zone of a room.
+     *
+     * @param index the index of the room
+     * @param zone  the zone (null to remove the room from its zone)
+     */
+    public synchronized void setZone(int index, Zone zone) {
+        if (zone == null) {
+            zones[index] = NO_ZONE;
+            return;
+        }
+
+        int id = zoneTable.indexOf(zone);
+        if (id < 0) {
+            id = zoneTable.size();
+            zoneTable.add(zone);
+        }
+        zones[index] = id;
+    }
+}
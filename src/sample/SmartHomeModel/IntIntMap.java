@@ -0,0 +1,166 @@
+package sample.SmartHomeModel;
+
+import java.util.Arrays;
+
+/**
+ * Map from int keys to non-negative int values, stored in two primitive arrays with open addressing and linear
+ * probing, so that looking up a key neither boxes it nor follows a pointer.
+ */
+final class IntIntMap {
+
+    /**
+     * The value returned for a key which is not in the map.
+     */
+    static final int NO_VALUE = -1;
+
+    private int[] keys;
+
+    /**
+     * The value of each slot, NO_VALUE when the slot is free.
+     */
+    private int[] values;
+    private int mask;
+    private int size;
+
+    /**
+     * Instantiates a new Int int map.
+     *
+     * @param expectedSize the number of keys the map should hold without growing
+     */
+    IntIntMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 4) * 2 - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Allocate empty tables.
+     *
+     * @param capacity the number of slots (a power of two)
+     */
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, NO_VALUE);
+        mask = capacity - 1;
+    }
+
+    /**
+     * Gets the slot at which a key is probed first.
+     *
+     * @param key the key
+     * @return the slot
+     */
+    private int slotOf(int key) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Gets the number of keys.
+     *
+     * @return the size
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets the value of a key.
+     *
+     * @param key the key
+     * @return the value, or NO_VALUE if the key is not in the map
+     */
+    int get(int key) {
+        for (int slot = slotOf(key); values[slot] != NO_VALUE; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+
+        return NO_VALUE;
+    }
+
+    /**
+     * Associate a value with a key.
+     *
+     * @param key   the key
+     * @param value the value (not negative)
+     * @return the previous value of the key, or NO_VALUE if it was not in the map
+     */
+    int put(int key, int value) {
+        int slot = slotOf(key);
+
+        for (; values[slot] != NO_VALUE; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+
+        // Keep the load factor under 1/2 so that probe sequences stay short.
+        if (++size * 2 > keys.length) {
+            rehash();
+        }
+
+        return NO_VALUE;
+    }
+
+    /**
+     * Remove a key.
+     *
+     * @param key the key
+     * @return the value of the key, or NO_VALUE if it was not in the map
+     */
+    int remove(int key) {
+        int slot = slotOf(key);
+
+        while (values[slot] != NO_VALUE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+
+        int removed = values[slot];
+        if (removed == NO_VALUE) {
+            return NO_VALUE;
+        }
+
+        // Shift back the entries of the probe sequence which follows the freed slot, instead of leaving a tombstone.
+        int free = slot;
+        for (int next = (free + 1) & mask; values[next] != NO_VALUE; next = (next + 1) & mask) {
+            int home = slotOf(keys[next]);
+
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = keys[next];
+                values[free] = values[next];
+                free = next;
+            }
+        }
+
+        values[free] = NO_VALUE;
+        size--;
+        return removed;
+    }
+
+    /**
+     * Double the number of slots.
+     */
+    private void rehash() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != NO_VALUE) {
+                int slot = slotOf(oldKeys[i]);
+                while (values[slot] != NO_VALUE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package sample.SmartHomeModel;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Class for the compiled images of the house layouts. An image holds what was built from a layout file: the geometry
+ * of the house, and the name, geometry and ids (room, door, light, window) of every room, in fixed records followed by
+ * the names in UTF-8. It is named after the SHA-256 of the layout file it was built from, so that a layout which
+ * changes gets a new image, and it is read through a memory mapping instead of parsing the layout again.
+ * The images are kept in the directory set by the system property shs.layoutCache ("layout-cache" by default; an
+ * empty value turns the cache off).
+ */
+public final class LayoutCache {
+
+    private static final int MAGIC = 0x5348534C; // SHSL
+    private static final int VERSION = 1;
+    private static final int HASH_SIZE = 32;
+    private static final int HEADER_SIZE = 8 + HASH_SIZE + 6 * 4;
+    private static final int RECORD_SIZE = 6 * 4 + 4 * 16;
+
+    private final File directory;
+
+    /**
+     * Instantiates a new Layout cache in the directory set by the system property shs.layoutCache.
+     */
+    public LayoutCache() {
+        this(System.getProperty("shs.layoutCache", "layout-cache"));
+    }
+
+    /**
+     * Instantiates a new Layout cache.
+     *
+     * @param directory the directory of the images (empty to turn the cache off)
+     */
+    public LayoutCache(String directory) {
+        this.directory = directory.isEmpty() ? null : new File(directory);
+    }
+
+    /**
+     * Is the cache turned on.
+     *
+     * @return true if images are read and written
+     */
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Create a SHA-256 digest.
+     *
+     * @return the digest
+     */
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform supports SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Gets the SHA-256 of a file.
+     *
+     * @param file the file
+     * @return the hash
+     * @throws IOException if the file cannot be read
+     */
+    public static byte[] hash(File file) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[1 << 16];
+
+        try (InputStream in = new FileInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+
+        return digest.digest();
+    }
+
+    /**
+     * Gets the file of the image of a layout.
+     *
+     * @param hash the SHA-256 of the layout file
+     * @return the file
+     */
+    private File imageFile(byte[] hash) {
+        StringBuilder name = new StringBuilder(HASH_SIZE * 2 + 5);
+        for (byte b : hash) {
+            name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return new File(directory, name.append(".shsl").toString());
+    }
+
+    /**
+     * Map the image of a layout.
+     *
+     * @param hash the SHA-256 of the layout file
+     * @return the image, or null if there is none (or it cannot be used, in which case the layout is parsed again
+     * and the image replaced)
+     */
+    public Image open(byte[] hash) {
+        if (directory == null) {
+            return null;
+        }
+
+        File file = imageFile(hash);
+        if (!file.exists()) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("the image is too large to be mapped");
+            }
+            return new Image(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), hash);
+        } catch (IOException e) {
+            EventLog.log(EventLog.Module.SHS, EventLog.Type.ERROR, null, "Ignoring the house layout image " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Write the image of a layout, to a temporary file moved into place once complete.
+     *
+     * @param hash   the SHA-256 of the layout file
+     * @param width  the width of the house
+     * @param height the height of the house
+     * @param xAxis  the x-axis of the house
+     * @param yAxis  the y-axis of the house
+     * @param rooms  the rooms built from the layout
+     * @throws IOException if the image cannot be written, or a room has an id which is not a UUID
+     */
+    public void write(byte[] hash, int width, int height, int xAxis, int yAxis, Collection<RoomModel> rooms) throws IOException {
+        if (directory == null) {
+            return;
+        }
+
+        byte[][] names = new byte[rooms.size()][];
+        long nameData = 0;
+        int i = 0;
+        for (RoomModel room : rooms) {
+            names[i] = room.getName().getBytes(StandardCharsets.UTF_8);
+            nameData += names[i++].length;
+        }
+
+        if (HEADER_SIZE + (long) rooms.size() * RECORD_SIZE + nameData > Integer.MAX_VALUE) {
+            throw new IOException("The house layout is too large to be cached.");
+        }
+
+        Files.createDirectories(directory.toPath());
+        File file = imageFile(hash);
+        File temporary = File.createTempFile(file.getName(), ".tmp", directory);
+
+        try (FileOutputStream stream = new FileOutputStream(temporary);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.write(hash);
+            out.writeInt(width);
+            out.writeInt(height);
+            out.writeInt(xAxis);
+            out.writeInt(yAxis);
+            out.writeInt(rooms.size());
+            out.writeInt((int) nameData);
+
+            int offset = 0;
+            i = 0;
+            for (RoomModel room : rooms) {
+                out.writeInt(offset);
+                out.writeInt(names[i].length);
+                offset += names[i++].length;
+                out.writeInt(room.getWidth());
+                out.writeInt(room.getHeight());
+                out.writeInt(room.getxAxis());
+                out.writeInt(room.getyAxis());
+                writeId(out, room.getRoomID());
+                writeId(out, room.getDoor().getId());
+                writeId(out, room.getLight().getId());
+                writeId(out, room.getWindow().getId());
+            }
+
+            for (byte[] name : names) {
+                out.write(name);
+            }
+
+            out.flush();
+            stream.getChannel().force(true);
+        } catch (IOException | IllegalArgumentException e) {
+            temporary.delete();
+            throw e instanceof IOException ? (IOException) e : new IOException("An id is not a UUID: " + e.getMessage(), e);
+        }
+
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Write an id as the two longs of its UUID.
+     *
+     * @param out the image
+     * @param id  the id
+     * @throws IOException if the image cannot be written
+     */
+    private static void writeId(DataOutputStream out, String id) throws IOException {
+        UUID uuid = UUID.fromString(id);
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * The image of a layout, read through a memory mapping.
+     */
+    public static final class Image {
+
+        private final ByteBuffer buffer;
+        private final int roomCount;
+        private final String[] names;
+
+        /**
+         * Instantiates a new Image. Every record is checked here, so that creating the rooms cannot fail.
+         *
+         * @param buffer the mapping of the image
+         * @param hash   the SHA-256 of the layout file the image must have been built from
+         * @throws IOException if the image is not valid, or was built from another layout
+         */
+        private Image(ByteBuffer buffer, byte[] hash) throws IOException {
+            this.buffer = buffer;
+
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("it is not a house layout image of version " + VERSION);
+            }
+
+            byte[] imageHash = new byte[HASH_SIZE];
+            ByteBuffer view = buffer.duplicate();
+            view.position(8);
+            view.get(imageHash);
+            if (!Arrays.equals(imageHash, hash)) {
+                throw new IOException("it was built from another layout");
+            }
+
+            roomCount = buffer.getInt(HEADER_SIZE - 8);
+            int nameDataLength = buffer.getInt(HEADER_SIZE - 4);
+            if (roomCount < 0 || nameDataLength < 0 || HEADER_SIZE + (long) roomCount * RECORD_SIZE + nameDataLength != buffer.capacity()) {
+                throw new IOException("it is truncated or corrupt");
+            }
+
+            // The names are decoded once here, which also checks that they lie in the name data and are distinct.
+            int nameData = HEADER_SIZE + roomCount * RECORD_SIZE;
+            names = new String[roomCount];
+            Set<String> distinct = new HashSet<>();
+
+            for (int i = 0; i < roomCount; i++) {
+                int position = HEADER_SIZE + i * RECORD_SIZE;
+                int offset = buffer.getInt(position);
+                int length = buffer.getInt(position + 4);
+                if (offset < 0 || length < 0 || offset > nameDataLength - length) {
+                    throw new IOException("the name of the room " + (i + 1) + " lies outside the name data");
+                }
+
+                byte[] bytes = new byte[length];
+                view.position(nameData + offset);
+                view.get(bytes);
+                names[i] = new String(bytes, StandardCharsets.UTF_8);
+
+                if (!distinct.add(names[i])) {
+                    throw new IOException("two rooms are named \"" + names[i] + "\"");
+                }
+            }
+        }
+
+        /**
+         * Gets the width of the house.
+         *
+         * @return the width
+         */
+        public int getWidth() {
+            return buffer.getInt(8 + HASH_SIZE);
+        }
+
+        /**
+         * Gets the height of the house.
+         *
+         * @return the height
+         */
+        public int getHeight() {
+            return buffer.getInt(8 + HASH_SIZE + 4);
+        }
+
+        /**
+         * Gets the x-axis of the house.
+         *
+         * @return the x-axis
+         */
+        public int getxAxis() {
+            return buffer.getInt(8 + HASH_SIZE + 8);
+        }
+
+        /**
+         * Gets the y-axis of the house.
+         *
+         * @return the y-axis
+         */
+        public int getyAxis() {
+            return buffer.getInt(8 + HASH_SIZE + 12);
+        }
+
+        /**
+         * Gets the number of rooms.
+         *
+         * @return the number of rooms
+         */
+        public int getRoomCount() {
+            return roomCount;
+        }
+
+        /**
+         * Create a room of the image, with its door, light and window.
+         *
+         * @param index the index of the room
+         * @return the room
+         */
+        public RoomModel createRoom(int index) {
+            int position = HEADER_SIZE + index * RECORD_SIZE;
+            String name = names[index];
+
+            DoorModel door = new DoorModel(readId(position + 40), name);
+            LightModel light = new LightModel(readId(position + 56), name);
+            WindowModel window = new WindowModel(readId(position + 72), name);
+
+            return new RoomModel(readId(position + 24), name, buffer.getInt(position + 8), buffer.getInt(position + 12),
+                    buffer.getInt(position + 16), buffer.getInt(position + 20), door, light, window);
+        }
+
+        /**
+         * Read an id stored as the two longs of its UUID.
+         *
+         * @param position the position of the id
+         * @return the id
+         */
+        private String readId(int position) {
+            return new UUID(buffer.getLong(position), buffer.getLong(position + 8)).toString();
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package sample.SmartHomeModel;
 
-import javafx.scene.image.Image;
-
 /**
  * Class for the Light model.
  */
@@ -10,8 +8,9 @@ public class LightModel {
 	private String id;
 	private String name;
 	private boolean isOpen = false;
-	private Image imageOpen;
-	private Image imageClose;
+
+	private HouseState state;
+	private int index;
 
 	/**
 	 * Instantiates a new Light model.
@@ -22,17 +21,6 @@ public class LightModel {
 	public LightModel(String id, String name) {
 		this.id = id;
 		this.name = name;
-		loadImage();
-	}
-
-	/**
-	 * Load the images used for windows.
-	 */
-	public void loadImage() {
-
-		imageOpen = new Image(getClass().getResourceAsStream("/img/light_bulb_open.jpg"));
-		imageClose = new Image(getClass().getResourceAsStream("/img/light_bulb_close.jpg"));
-
 	}
 
 	/**
@@ -59,7 +47,7 @@ public class LightModel {
 	 * @return the boolean
 	 */
 	public boolean isOpen() {
-		return isOpen;
+		return state == null ? isOpen : state.is(index, HouseState.LIGHT_OPEN);
 	}
 
 	/**
@@ -68,24 +56,23 @@ public class LightModel {
 	 * @param isOpen the is open
 	 */
 	public void setOpen(boolean isOpen) {
-		this.isOpen = isOpen;
+		if (state == null) {
+			this.isOpen = isOpen;
+		} else {
+			state.set(index, HouseState.LIGHT_OPEN, isOpen);
+		}
 	}
 
 	/**
-	 * Getter for light open image.
+	 * Make the light a view over the slot of its room in the state of the house.
 	 *
-	 * @return the Image imageOpen.
+	 * @param state the state of the house
+	 * @param index the index of the room
 	 */
-	public Image getImageOpen() {
-		return imageOpen;
-	}
+	void attach(HouseState state, int index) {
+		state.set(index, HouseState.LIGHT_OPEN, isOpen);
 
-	/**
-	 * Getter for light closed image.
-	 *
-	 * @return the Image imageClose.
-	 */
-	public Image getImageClose() {
-		return imageClose;
+		this.state = state;
+		this.index = index;
 	}
 }
@@ -0,0 +1,41 @@
+package sample.SmartHomeModel;
+
+import java.time.LocalTime;
+
+/**
+ * Class for the schedule of a light that must be kept on between two times of the day.
+ */
+public class LightSchedule {
+
+    private LocalTime from;
+    private LocalTime to;
+
+    /**
+     * Instantiates a new Light schedule.
+     *
+     * @param from the time at which the light is turned on
+     * @param to   the time at which the light is turned off
+     */
+    public LightSchedule(LocalTime from, LocalTime to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Gets the time at which the light is turned on.
+     *
+     * @return the from time
+     */
+    public LocalTime getFrom() {
+        return from;
+    }
+
+    /**
+     * Gets the time at which the light is turned off.
+     *
+     * @return the to time
+     */
+    public LocalTime getTo() {
+        return to;
+    }
+}
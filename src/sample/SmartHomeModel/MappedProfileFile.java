@@ -0,0 +1,466 @@
+package sample.SmartHomeModel;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class for a binary file of user profiles read through a memory mapping. The file holds:
+ * - a header: magic, version, number of records, number of strings and the positions of the sections;
+ * - one record of four ints per user (id, name, type, location), sorted by id, so that a user is found by a binary
+ * search over the mapping;
+ * - an index of the records by location, and one by type: each distinct value with the records which have it;
+ * - the string table: every distinct name, type and location once, in UTF-8, referenced by index from the records.
+ * Opening the file reads nothing but the header and the keys of the two indexes (one per location and per type). A
+ * user is decoded only when it is asked for, and each string of the table is decoded once, the first time a record
+ * refers to it. The file is written in full (to a temporary file moved over the previous one) and never changed in
+ * place.
+ */
+public final class MappedProfileFile {
+
+    private static final int MAGIC = 0x5348534D; // SHSM
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_SIZE = 16;
+
+    /**
+     * The reference of a string which is null.
+     */
+    private static final int NULL = -1;
+
+    private final File file;
+    private final ByteBuffer buffer;
+    private final int recordCount;
+    private final int stringCount;
+    private final int locationIndex;
+    private final int typeIndex;
+    private final int stringOffsets;
+    private final int stringData;
+
+    /**
+     * The strings of the table decoded so far, by index.
+     */
+    private final Map<Integer, String> strings = new HashMap<>();
+
+    /**
+     * Instantiates a new Mapped profile file.
+     *
+     * @param file   the file
+     * @param buffer the mapping of the whole file
+     * @throws IOException if the file is not a profile file
+     */
+    private MappedProfileFile(File file, ByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a profile file.");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException(file + " is a profile file of version " + buffer.getInt(4) + ", expected " + VERSION + ".");
+        }
+
+        recordCount = buffer.getInt(8);
+        stringCount = buffer.getInt(12);
+        locationIndex = buffer.getInt(16);
+        typeIndex = buffer.getInt(20);
+        stringOffsets = buffer.getInt(24);
+        stringData = buffer.getInt(28);
+
+        if (recordCount < 0 || stringCount < 0 || locationIndex != HEADER_SIZE + (long) recordCount * RECORD_SIZE
+                || !isIndex(locationIndex, typeIndex) || !isIndex(typeIndex, stringOffsets)
+                || stringData != stringOffsets + (stringCount + 1L) * 4 || stringData > buffer.capacity()
+                || stringData + (long) buffer.getInt(stringOffsets + stringCount * 4) != buffer.capacity()) {
+            throw new IOException(file + " is truncated or corrupt.");
+        }
+    }
+
+    /**
+     * Check the keys of an index against the sections around it.
+     *
+     * @param index the position of the index
+     * @param end   the position of the next section
+     * @return true if the index fills the space up to the next section and its keys are in range
+     */
+    private boolean isIndex(int index, int end) {
+        if (index < HEADER_SIZE || index > end || end > buffer.capacity() - 4L || end - index < 8) {
+            return false;
+        }
+
+        int keyCount = buffer.getInt(index);
+        if (keyCount < 0 || keyCount > (end - index - 8) / 8) {
+            return false;
+        }
+
+        int total = buffer.getInt(index + 4 + keyCount * 8);
+        if (total < 0 || total > recordCount || index + 8 + keyCount * 8L + total * 4L != end) {
+            return false;
+        }
+
+        int previous = 0;
+        for (int key = 0; key < keyCount; key++) {
+            int reference = buffer.getInt(index + 4 + key * 8);
+            int start = buffer.getInt(index + 8 + key * 8);
+            if (reference < NULL || reference >= stringCount || start < previous || start > total) {
+                return false;
+            }
+            previous = start;
+        }
+
+        return true;
+    }
+
+    /**
+     * Map a profile file.
+     *
+     * @param file the file
+     * @return the profile file
+     * @throws IOException if the file cannot be read, or is not a profile file
+     */
+    public static MappedProfileFile open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(file + " is too large to be mapped.");
+            }
+
+            // The mapping stays valid once the channel is closed.
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new MappedProfileFile(file, buffer);
+        }
+    }
+
+    /**
+     * Gets the file.
+     *
+     * @return the file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the number of users.
+     *
+     * @return the number of records
+     */
+    public int size() {
+        return recordCount;
+    }
+
+    /**
+     * Gets the id of the user of a record.
+     *
+     * @param record the record
+     * @return the id
+     */
+    public int getId(int record) {
+        return buffer.getInt(HEADER_SIZE + record * RECORD_SIZE);
+    }
+
+    /**
+     * Gets the permission type of the user of a record.
+     *
+     * @param record the record
+     * @return the type
+     */
+    public String getType(int record) {
+        return string(buffer.getInt(HEADER_SIZE + record * RECORD_SIZE + 8));
+    }
+
+    /**
+     * Gets the location of the user of a record.
+     *
+     * @param record the record
+     * @return the location
+     */
+    public String getLocation(int record) {
+        return string(buffer.getInt(HEADER_SIZE + record * RECORD_SIZE + 12));
+    }
+
+    /**
+     * Find the record of a user.
+     *
+     * @param id the id of the user
+     * @return the record, or -1 if there is no user with this id
+     */
+    public int find(int id) {
+        int low = 0;
+        int high = recordCount - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleId = getId(middle);
+
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Gets the locations of the users.
+     *
+     * @return the distinct locations (null included if a user has no location)
+     */
+    public List<String> getLocations() {
+        return keys(locationIndex);
+    }
+
+    /**
+     * Find the records of the users in a location.
+     *
+     * @param location the location
+     * @return the records, in increasing order
+     */
+    public int[] findByLocation(String location) {
+        return records(locationIndex, location);
+    }
+
+    /**
+     * Find the records of the users of a permission type.
+     *
+     * @param type the type
+     * @return the records, in increasing order
+     */
+    public int[] findByType(String type) {
+        return records(typeIndex, type);
+    }
+
+    /**
+     * Gets the keys of an index.
+     *
+     * @param index the position of the index
+     * @return the keys
+     */
+    private List<String> keys(int index) {
+        int keyCount = buffer.getInt(index);
+        List<String> keys = new ArrayList<>(keyCount);
+        for (int key = 0; key < keyCount; key++) {
+            keys.add(string(buffer.getInt(index + 4 + key * 8)));
+        }
+        return keys;
+    }
+
+    /**
+     * Gets the records of a key of an index.
+     *
+     * @param index the position of the index
+     * @param value the key
+     * @return the records (empty if the key is not in the index)
+     */
+    private int[] records(int index, String value) {
+        int keyCount = buffer.getInt(index);
+        int postings = index + 8 + keyCount * 8;
+
+        for (int key = 0; key < keyCount; key++) {
+            String string = string(buffer.getInt(index + 4 + key * 8));
+            if (value == null ? string != null : !value.equals(string)) {
+                continue;
+            }
+
+            int start = buffer.getInt(index + 8 + key * 8);
+            int end = key + 1 < keyCount ? buffer.getInt(index + 8 + (key + 1) * 8) : buffer.getInt(postings - 4);
+            int[] records = new int[end - start];
+
+            for (int i = 0; i < records.length; i++) {
+                records[i] = buffer.getInt(postings + (start + i) * 4);
+                if (records[i] < 0 || records[i] >= recordCount) {
+                    throw new IllegalStateException(file + " is corrupt: the index refers to the record " + records[i] + ".");
+                }
+            }
+            return records;
+        }
+
+        return new int[0];
+    }
+
+    /**
+     * Decode the user of a record. Every call returns a new user.
+     *
+     * @param record the record
+     * @return the user
+     */
+    public UserModel read(int record) {
+        int position = HEADER_SIZE + record * RECORD_SIZE;
+        return new UserModel(string(buffer.getInt(position + 4)), buffer.getInt(position), string(buffer.getInt(position + 8)), string(buffer.getInt(position + 12)));
+    }
+
+    /**
+     * Gets a string of the table, decoding it the first time.
+     *
+     * @param reference the index of the string
+     * @return the string (null for the reference NULL)
+     */
+    private String string(int reference) {
+        if (reference == NULL) {
+            return null;
+        }
+        if (reference < 0 || reference >= stringCount) {
+            throw new IllegalStateException(file + " is corrupt: a record refers to the string " + reference + ".");
+        }
+
+        String string = strings.get(reference);
+
+        if (string == null) {
+            int start = buffer.getInt(stringOffsets + reference * 4);
+            int end = buffer.getInt(stringOffsets + reference * 4 + 4);
+            byte[] bytes = new byte[end - start];
+
+            ByteBuffer view = buffer.duplicate();
+            view.position(stringData + start);
+            view.get(bytes);
+
+            string = new String(bytes, StandardCharsets.UTF_8);
+            strings.put(reference, string);
+        }
+
+        return string;
+    }
+
+    /**
+     * Write a profile file. The users are sorted by id; each distinct string is stored once.
+     *
+     * @param file  the file (replaced if it exists)
+     * @param users the users
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(File file, List<UserModel> users) throws IOException {
+        UserModel[] sorted = users.toArray(new UserModel[0]);
+        Arrays.sort(sorted, (a, b) -> Integer.compare(a.getId(), b.getId()));
+
+        Map<String, Integer> references = new HashMap<>();
+        List<byte[]> table = new ArrayList<>();
+        int[] fields = new int[sorted.length * 3];
+        long dataSize = 0;
+
+        // The records of each location and of each type, by reference of the string.
+        Map<Integer, List<Integer>> byLocation = new LinkedHashMap<>();
+        Map<Integer, List<Integer>> byType = new LinkedHashMap<>();
+
+        for (int i = 0; i < sorted.length; i++) {
+            String[] values = {sorted[i].getName(), sorted[i].getUser_type(), sorted[i].getCurrentLocation()};
+
+            for (int j = 0; j < 3; j++) {
+                if (values[j] == null) {
+                    fields[i * 3 + j] = NULL;
+                    continue;
+                }
+
+                Integer reference = references.get(values[j]);
+                if (reference == null) {
+                    reference = table.size();
+                    references.put(values[j], reference);
+                    byte[] bytes = values[j].getBytes(StandardCharsets.UTF_8);
+                    table.add(bytes);
+                    dataSize += bytes.length;
+                }
+                fields[i * 3 + j] = reference;
+            }
+
+            byType.computeIfAbsent(fields[i * 3 + 1], key -> new ArrayList<>()).add(i);
+            byLocation.computeIfAbsent(fields[i * 3 + 2], key -> new ArrayList<>()).add(i);
+        }
+
+        long locationIndex = HEADER_SIZE + (long) sorted.length * RECORD_SIZE;
+        long typeIndex = locationIndex + 8 + byLocation.size() * 8L + sorted.length * 4L;
+        long stringOffsets = typeIndex + 8 + byType.size() * 8L + sorted.length * 4L;
+        long stringData = stringOffsets + (table.size() + 1L) * 4;
+        if (stringData + dataSize > Integer.MAX_VALUE) {
+            throw new IOException("Too many user profiles to be written to " + file + ".");
+        }
+
+        File directory = file.getAbsoluteFile().getParentFile();
+        File temporary = File.createTempFile(file.getName(), ".tmp", directory);
+
+        try (FileOutputStream stream = new FileOutputStream(temporary);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sorted.length);
+            out.writeInt(table.size());
+            out.writeInt((int) locationIndex);
+            out.writeInt((int) typeIndex);
+            out.writeInt((int) stringOffsets);
+            out.writeInt((int) stringData);
+
+            for (int i = 0; i < sorted.length; i++) {
+                if (i > 0 && sorted[i].getId() == sorted[i - 1].getId()) {
+                    throw new IOException("Two users have the ID " + sorted[i].getId() + ".");
+                }
+                out.writeInt(sorted[i].getId());
+                out.writeInt(fields[i * 3]);
+                out.writeInt(fields[i * 3 + 1]);
+                out.writeInt(fields[i * 3 + 2]);
+            }
+
+            writeIndex(out, byLocation);
+            writeIndex(out, byType);
+
+            int offset = 0;
+            for (byte[] bytes : table) {
+                out.writeInt(offset);
+                offset += bytes.length;
+            }
+            out.writeInt(offset);
+
+            for (byte[] bytes : table) {
+                out.write(bytes);
+            }
+
+            out.flush();
+            stream.getChannel().force(true);
+        } catch (IOException e) {
+            temporary.delete();
+            throw e;
+        }
+
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Write an index: the number of keys, the reference and the first posting of every key, the number of postings,
+     * then the postings (the records of each key in turn).
+     *
+     * @param out   the file
+     * @param index the records of each key, by reference of the string
+     * @throws IOException if the file cannot be written
+     */
+    private static void writeIndex(DataOutputStream out, Map<Integer, List<Integer>> index) throws IOException {
+        out.writeInt(index.size());
+
+        int start = 0;
+        for (Map.Entry<Integer, List<Integer>> key : index.entrySet()) {
+            out.writeInt(key.getKey());
+            out.writeInt(start);
+            start += key.getValue().size();
+        }
+        out.writeInt(start);
+
+        for (List<Integer> records : index.values()) {
+            for (int record : records) {
+                out.writeInt(record);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package sample.SmartHomeModel;
+
+import java.time.LocalDateTime;
+
+/**
+ * Event published when people enter or leave a room.
+ */
+public final class OccupancyEvent extends SimulationEvent {
+
+    private final String room;
+    private final int delta;
+    private final int occupancy;
+
+    /**
+     * Instantiates a new Occupancy event.
+     *
+     * @param dateTime  the simulated time of the event
+     * @param room      the room
+     * @param delta     the number of people who entered the room (negative when they left it)
+     * @param occupancy the number of people in the room after the change
+     */
+    public OccupancyEvent(LocalDateTime dateTime, String room, int delta, int occupancy) {
+        super(dateTime);
+        this.room = room;
+        this.delta = delta;
+        this.occupancy = occupancy;
+    }
+
+    /**
+     * Gets the room.
+     *
+     * @return the room
+     */
+    public String getRoom() {
+        return room;
+    }
+
+    /**
+     * Gets the number of people who entered the room.
+     *
+     * @return the delta (negative when people left the room)
+     */
+    public int getDelta() {
+        return delta;
+    }
+
+    /**
+     * Gets the number of people in the room after the change.
+     *
+     * @return the occupancy
+     */
+    public int getOccupancy() {
+        return occupancy;
+    }
+
+    /**
+     * Gets the event as written in the logs.
+     *
+     * @return the event
+     */
+    @Override
+    public String toString() {
+        return room + " " + (delta >= 0 ? "+" : "") + delta + " = " + occupancy;
+    }
+}
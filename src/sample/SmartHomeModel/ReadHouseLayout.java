@@ -1,61 +1,678 @@
 package sample.SmartHomeModel;
 
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
+import sample.Exception.InvalidHouseLayoutException;
 
-import java.io.FileNotFoundException;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
- * Class to read the house layout file.
+ * Class to read the house layout file. The file is read in a single pass, one token at a time, and every room is
+ * handed over as soon as it has been read, so no part of the document is kept in memory but the room being read:
+ * the layout is validated and turned into rooms at once, whatever its size.
+ * The layout is an object whose member "listOfRoom" holds the rooms, under the keys room1, room2, ... The room room1
+ * is the house itself. Every room has a name and an integer width, height, x-axis and y-axis; the other members are
+ * ignored. An error is reported with its line and column.
  */
 public class ReadHouseLayout {
 
-    private ArrayList<JSONObject> jsonObjectArray;
+    /**
+     * Receives the rooms of the layout as they are read.
+     */
+    interface Handler {
+
+        /**
+         * Receive the geometry of the house (the room room1).
+         *
+         * @param width  the width
+         * @param height the height
+         * @param xAxis  the x-axis
+         * @param yAxis  the y-axis
+         */
+        void house(int width, int height, int xAxis, int yAxis);
+
+        /**
+         * Receive a room.
+         *
+         * @param name   the name of the room
+         * @param width  the width
+         * @param height the height
+         * @param xAxis  the x-axis
+         * @param yAxis  the y-axis
+         */
+        void room(String name, int width, int height, int xAxis, int yAxis);
+    }
+
+    /**
+     * The maximum nesting of the values which are skipped.
+     */
+    private static final int MAX_DEPTH = 256;
+
+    /**
+     * The maximum number of characters of a number.
+     */
+    private static final int MAX_NUMBER = 64;
+
+    private final Reader in;
+    private final char[] buffer = new char[1 << 13];
+    private int position;
+    private int limit;
+
+    /**
+     * The position of the next character.
+     */
+    private int line = 1;
+    private int column = 1;
 
     /**
-     * Reads the JSON file.
+     * The position of the token being read, where an error is reported.
+     */
+    private int tokenLine;
+    private int tokenColumn;
+
+    /**
+     * Instantiates a new Read house layout.
+     *
+     * @param in the layout
+     */
+    private ReadHouseLayout(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Reads the house layout file.
      *
      * @param fileName the name of the file.
+     * @param handler  the handler receiving the rooms.
+     * @throws IOException                 if the file cannot be read
+     * @throws InvalidHouseLayoutException if the file is not a valid house layout
      */
-    void ReadJSON(String fileName){
+    static void read(String fileName, Handler handler) throws IOException, InvalidHouseLayoutException {
+        try (Reader reader = new InputStreamReader(new FileInputStream(fileName), StandardCharsets.UTF_8)) {
+            read(reader, handler);
+        }
+    }
 
-        JSONParser parser = new JSONParser();
+    /**
+     * Reads a house layout.
+     *
+     * @param reader  the layout.
+     * @param handler the handler receiving the rooms.
+     * @throws IOException                 if the layout cannot be read
+     * @throws InvalidHouseLayoutException if the layout is not valid
+     */
+    static void read(Reader reader, Handler handler) throws IOException, InvalidHouseLayoutException {
+        new ReadHouseLayout(reader).readLayout(handler);
+    }
 
-        try{
-            Object obj = parser.parse(new FileReader(fileName));
-            JSONObject jsonObj = (JSONObject) obj;
+    /**
+     * Read the layout object.
+     *
+     * @param handler the handler receiving the rooms
+     * @throws IOException                 if the layout cannot be read
+     * @throws InvalidHouseLayoutException if the layout is not valid
+     */
+    private void readLayout(Handler handler) throws IOException, InvalidHouseLayoutException {
+        skipWhitespace();
+        mark();
+        expect('{', "the house layout object");
 
-            JSONObject listInfo = (JSONObject) jsonObj.get("listOfRoom");
-            //    System.out.println(listInfo.size());
+        boolean found = false;
 
-            jsonObjectArray = new ArrayList<>();
+        if (!consume('}')) {
+            do {
+                String key = readKey();
 
-            for(int i = 1; i <= listInfo.size(); i++){
+                if (key.equals("listOfRoom")) {
+                    if (found) {
+                        throw error("The list of rooms is defined twice.");
+                    }
+                    readRooms(handler);
+                    found = true;
+                } else {
+                    skipValue(0);
+                }
+            } while (nextMember('}'));
+        }
 
-                JSONObject roomInfo = (JSONObject) listInfo.get("room"+i);
+        if (!found) {
+            throw error("The house layout has no \"listOfRoom\".");
+        }
 
-                jsonObjectArray.add(roomInfo);
+        skipWhitespace();
+        mark();
+        if (peek() != -1) {
+            throw error("Unexpected " + describe(peek()) + " after the house layout.");
+        }
+    }
 
-                // Instead, create the specific objects
+    /**
+     * Read the list of rooms.
+     *
+     * @param handler the handler receiving the rooms
+     * @throws IOException                 if the layout cannot be read
+     * @throws InvalidHouseLayoutException if the list is not valid
+     */
+    private void readRooms(Handler handler) throws IOException, InvalidHouseLayoutException {
+        skipWhitespace();
+        mark();
+        expect('{', "the list of rooms");
+
+        Set<String> keys = new HashSet<>();
+        Set<String> names = new HashSet<>();
+
+        if (!consume('}')) {
+            do {
+                String key = readKey();
+
+                if (!isRoomKey(key)) {
+                    throw error("\"" + key + "\" is not a room; the rooms are named room1, room2, ...");
+                }
+                if (!keys.add(key)) {
+                    throw error("The room " + key + " is defined twice.");
+                }
+
+                readRoom(key, handler, names);
+            } while (nextMember('}'));
+        }
+
+        if (!keys.contains("room1")) {
+            throw error("The list of rooms has no room1, the house.");
+        }
+    }
+
+    /**
+     * Is a key the key of a room (room followed by a number).
+     *
+     * @param key the key
+     * @return true if it is
+     */
+    private static boolean isRoomKey(String key) {
+        if (key.length() <= 4 || !key.startsWith("room")) {
+            return false;
+        }
+        for (int i = 4; i < key.length(); i++) {
+            if (!isDigit(key.charAt(i))) {
+                return false;
             }
+        }
+        return true;
+    }
+
+    /**
+     * Read a room and hand it over.
+     *
+     * @param key     the key of the room
+     * @param handler the handler receiving the room
+     * @param names   the names of the rooms read so far
+     * @throws IOException                 if the layout cannot be read
+     * @throws InvalidHouseLayoutException if the room is not valid
+     */
+    private void readRoom(String key, Handler handler, Set<String> names) throws IOException, InvalidHouseLayoutException {
+        skipWhitespace();
+        mark();
+        int roomLine = tokenLine;
+        int roomColumn = tokenColumn;
+        expect('{', "the room " + key);
+
+        String name = null;
+        Integer width = null;
+        Integer height = null;
+        Integer xAxis = null;
+        Integer yAxis = null;
+
+        if (!consume('}')) {
+            do {
+                String field = readKey();
+
+                switch (field) {
+                    case "name":
+                        name = readStringValue(field);
+                        break;
+                    case "width":
+                        width = readInteger(field);
+                        break;
+                    case "height":
+                        height = readInteger(field);
+                        break;
+                    case "x-axis":
+                        xAxis = readInteger(field);
+                        break;
+                    case "y-axis":
+                        yAxis = readInteger(field);
+                        break;
+                    case "nbDoor":
+                    case "nbLight":
+                    case "nbWindow":
+                        readInteger(field);
+                        break;
+                    default:
+                        skipValue(0);
+                }
+            } while (nextMember('}'));
+        }
+
+        tokenLine = roomLine;
+        tokenColumn = roomColumn;
+
+        String missing = name == null ? "name" : width == null ? "width" : height == null ? "height" : xAxis == null ? "x-axis" : yAxis == null ? "y-axis" : null;
+        if (missing != null) {
+            throw error("The room " + key + " has no \"" + missing + "\".");
+        }
+
+        if (key.equals("room1")) {
+            handler.house(width, height, xAxis, yAxis);
+        } else if (!names.add(name)) {
+            throw error("Two rooms are named \"" + name + "\".");
+        } else {
+            handler.room(name, width, height, xAxis, yAxis);
+        }
+    }
+
+    /**
+     * Read a member's key and the colon after it. The position of the key is kept for the errors.
+     *
+     * @return the key
+     * @throws IOException                 if the layout cannot be read
+     * @throws InvalidHouseLayoutException if there is no key
+     */
+    private String readKey() throws IOException, InvalidHouseLayoutException {
+        skipWhitespace();
+        mark();
+        int keyLine = tokenLine;
+        int keyColumn = tokenColumn;
+        expect('"', "a key in double quotes");
+        String key = readString(true);
+
+        skipWhitespace();
+        mark();
+        expect(':', "':'");
+
+        tokenLine = keyLine;
+        tokenColumn = keyColumn;
+        return key;
+    }
+
+    /**
+     * Read the separator after a member or an element.
+     *
+     * @param close the character closing the object or the array
+     * @return true if another member or element follows, false if the object or the array is closed
+     * @throws IOException                 if the layout cannot be read
+     * @throws InvalidHouseLayoutException if there is neither a comma nor the closing character
+     */
+    private boolean nextMember(char close) throws IOException, InvalidHouseLayoutException {
+        skipWhitespace();
+        mark();
+        int c = peek();
 
+        if (c == ',') {
+            next();
+            return true;
         }
-        catch (Exception e){
-            e.printStackTrace();
+        if (c == close) {
+            next();
+            return false;
         }
+        throw error("Expected ',' or '" + close + "' but found " + describe(c) + ".");
+    }
+
+    /**
+     * Read a string value.
+     *
+     * @param field the member holding the value
+     * @return the string
+     * @throws IOException                 if the layout cannot be read
+     * @throws InvalidHouseLayoutException if the value is not a string
+     */
+    private String readStringValue(String field) throws IOException, InvalidHouseLayoutException {
+        skipWhitespace();
+        mark();
+        if (peek() != '"') {
+            throw error("\"" + field + "\" must be a string.");
+        }
+        next();
+        return readString(true);
+    }
+
+    /**
+     * Read an integer value.
+     *
+     * @param field the member holding the value
+     * @return the integer
+     * @throws IOException                 if the layout cannot be read
+     * @throws InvalidHouseLayoutException if the value is not an integer
+     */
+    private int readInteger(String field) throws IOException, InvalidHouseLayoutException {
+        skipWhitespace();
+        mark();
+        int c = peek();
+        if (c != '-' && !isDigit(c)) {
+            throw error("\"" + field + "\" must be an integer.");
+        }
+
+        String number = readNumber();
+        if (number.indexOf('.') >= 0 || number.indexOf('e') >= 0 || number.indexOf('E') >= 0) {
+            throw error("\"" + field + "\" must be an integer, not " + number + ".");
+        }
+
+        try {
+            return Integer.parseInt(number);
+        } catch (NumberFormatException e) {
+            throw error("\"" + field + "\" is out of range: " + number + ".");
+        }
+    }
+
+    /**
+     * Skip a value of any type.
+     *
+     * @param depth the nesting of the value
+     * @throws IOException                 if the layout cannot be read
+     * @throws InvalidHouseLayoutException if the value is not valid
+     */
+    private void skipValue(int depth) throws IOException, InvalidHouseLayoutException {
+        skipWhitespace();
+        mark();
+        int c = peek();
+
+        if ((c == '{' || c == '[') && depth == MAX_DEPTH) {
+            throw error("The values are nested too deeply.");
+        }
+
+        if (c == '{') {
+            next();
+            if (!consume('}')) {
+                do {
+                    readKey();
+                    skipValue(depth + 1);
+                } while (nextMember('}'));
+            }
+        } else if (c == '[') {
+            next();
+            if (!consume(']')) {
+                do {
+                    skipValue(depth + 1);
+                } while (nextMember(']'));
+            }
+        } else if (c == '"') {
+            next();
+            readString(false);
+        } else if (c == '-' || isDigit(c)) {
+            readNumber();
+        } else if (c == 't') {
+            readLiteral("true");
+        } else if (c == 'f') {
+            readLiteral("false");
+        } else if (c == 'n') {
+            readLiteral("null");
+        } else {
+            throw error("Expected a value but found " + describe(c) + ".");
+        }
+    }
+
+    /**
+     * Read the rest of a string, after its opening quote.
+     *
+     * @param keep whether the string is needed (a skipped string is not kept in memory)
+     * @return the string, or null if it is not kept
+     * @throws IOException                 if the layout cannot be read
+     * @throws InvalidHouseLayoutException if the string is not valid
+     */
+    private String readString(boolean keep) throws IOException, InvalidHouseLayoutException {
+        StringBuilder builder = keep ? new StringBuilder() : null;
+
+        while (true) {
+            int c = next();
+
+            if (c == '"') {
+                return keep ? builder.toString() : null;
+            }
+            if (c == -1) {
+                throw error("The string is not terminated.");
+            }
+            if (c < 0x20) {
+                throw error("The string contains a control character; it must be escaped.");
+            }
+
+            if (c == '\\') {
+                int escape = next();
+
+                switch (escape) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        c = escape;
+                        break;
+                    case 'b':
+                        c = '\b';
+                        break;
+                    case 'f':
+                        c = '\f';
+                        break;
+                    case 'n':
+                        c = '\n';
+                        break;
+                    case 'r':
+                        c = '\r';
+                        break;
+                    case 't':
+                        c = '\t';
+                        break;
+                    case 'u':
+                        c = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(next(), 16);
+                            if (digit < 0) {
+                                throw error("The string contains an invalid \\u escape.");
+                            }
+                            c = c * 16 + digit;
+                        }
+                        break;
+                    default:
+                        throw error("The string contains an invalid escape: \\" + (escape == -1 ? "" : String.valueOf((char) escape)) + ".");
+                }
+            }
+
+            if (keep) {
+                builder.append((char) c);
+            }
+        }
+    }
+
+    /**
+     * Read a number.
+     *
+     * @return the text of the number
+     * @throws IOException                 if the layout cannot be read
+     * @throws InvalidHouseLayoutException if the number is not valid
+     */
+    private String readNumber() throws IOException, InvalidHouseLayoutException {
+        StringBuilder builder = new StringBuilder();
+
+        if (peek() == '-') {
+            builder.append((char) next());
+        }
+
+        if (peek() == '0') {
+            builder.append((char) next());
+        } else {
+            readDigits(builder);
+        }
+
+        if (peek() == '.') {
+            builder.append((char) next());
+            readDigits(builder);
+        }
+
+        if (peek() == 'e' || peek() == 'E') {
+            builder.append((char) next());
+            if (peek() == '+' || peek() == '-') {
+                builder.append((char) next());
+            }
+            readDigits(builder);
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Read one digit or more.
+     *
+     * @param builder the text of the number
+     * @throws IOException                 if the layout cannot be read
+     * @throws InvalidHouseLayoutException if there is no digit, or the number is too long
+     */
+    private void readDigits(StringBuilder builder) throws IOException, InvalidHouseLayoutException {
+        if (!isDigit(peek())) {
+            throw error("Invalid number: expected a digit but found " + describe(peek()) + ".");
+        }
+
+        while (isDigit(peek())) {
+            if (builder.length() == MAX_NUMBER) {
+                throw error("The number is too long.");
+            }
+            builder.append((char) next());
+        }
+    }
+
+    /**
+     * Read a literal (true, false or null).
+     *
+     * @param literal the literal
+     * @throws IOException                 if the layout cannot be read
+     * @throws InvalidHouseLayoutException if the literal is not the expected one
+     */
+    private void readLiteral(String literal) throws IOException, InvalidHouseLayoutException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (next() != literal.charAt(i)) {
+                throw error("Invalid value, expected " + literal + ".");
+            }
+        }
+    }
+
+    /**
+     * Consume a character if it comes next, after white space.
+     *
+     * @param c the character
+     * @return true if it was consumed
+     * @throws IOException if the layout cannot be read
+     */
+    private boolean consume(char c) throws IOException {
+        skipWhitespace();
+        if (peek() == c) {
+            next();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Consume a character which must come next.
+     *
+     * @param expected the character
+     * @param what     what the character starts, for the error
+     * @throws IOException                 if the layout cannot be read
+     * @throws InvalidHouseLayoutException if another character comes next
+     */
+    private void expect(char expected, String what) throws IOException, InvalidHouseLayoutException {
+        int c = peek();
+        if (c != expected) {
+            throw error("Expected " + what + " but found " + describe(c) + ".");
+        }
+        next();
+    }
+
+    /**
+     * Skip the white space.
+     *
+     * @throws IOException if the layout cannot be read
+     */
+    private void skipWhitespace() throws IOException {
+        int c = peek();
+        while (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+            next();
+            c = peek();
+        }
+    }
+
+    /**
+     * Gets the next character without consuming it.
+     *
+     * @return the character, or -1 at the end of the layout
+     * @throws IOException if the layout cannot be read
+     */
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = Math.max(in.read(buffer, 0, buffer.length), 0);
+            position = 0;
+
+            if (limit == 0) {
+                return -1;
+            }
+        }
+        return buffer[position];
+    }
+
+    /**
+     * Consume the next character.
+     *
+     * @return the character, or -1 at the end of the layout
+     * @throws IOException if the layout cannot be read
+     */
+    private int next() throws IOException {
+        int c = peek();
+
+        if (c != -1) {
+            position++;
+            if (c == '\n') {
+                line++;
+                column = 1;
+            } else {
+                column++;
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Record the position of the next character as the position of the token being read.
+     */
+    private void mark() {
+        tokenLine = line;
+        tokenColumn = column;
+    }
+
+    /**
+     * Create an error at the position of the token being read.
+     *
+     * @param message the message
+     * @return the exception
+     */
+    private InvalidHouseLayoutException error(String message) {
+        return new InvalidHouseLayoutException(message, tokenLine, tokenColumn);
+    }
+
+    /**
+     * Describe a character for an error.
+     *
+     * @param c the character, or -1
+     * @return the description
+     */
+    private static String describe(int c) {
+        return c == -1 ? "the end of the file" : "'" + (char) c + "'";
     }
 
     /**
-     * Gets the house layout.
+     * Is a character a digit.
      *
-     * @return an ArrayList containing JSONObjects
+     * @param c the character, or -1
+     * @return true if it is a digit
      */
-    ArrayList<JSONObject> getHouseLayout(){
-        return jsonObjectArray;
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
     }
 }
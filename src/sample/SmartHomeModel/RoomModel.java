@@ -2,12 +2,14 @@ package sample.SmartHomeModel;
 
 /**
  * Class for the Room Model.
+ * Once its house is created, the temperature, number of people and zone of the room are stored in the HouseState of
+ * the house and the room is a view over them.
  */
 public class RoomModel {
 	
 	private String roomID;
 	private String name;
-	private double temperature = 0;
+	private volatile int temperature = 0;
 	private int nbPeople = 0;
 
 	private DoorModel door;
@@ -21,6 +23,9 @@ public class RoomModel {
 
 	private Zone zone;
 
+	private HouseState state;
+	private int index = -1;
+
 	/**
 	 * Getter for the width of the room.
 	 *
@@ -126,7 +131,7 @@ public class RoomModel {
 	 * @return the zone
 	 */
 	public Zone getZone() {
-		return zone;
+		return state == null ? zone : state.getZone(index);
 	}
 
 	/**
@@ -135,7 +140,39 @@ public class RoomModel {
 	 * @param zone the zone
 	 */
 	public void setZone(Zone zone) {
-		this.zone = zone;
+		if (state == null) {
+			this.zone = zone;
+		} else {
+			state.setZone(index, zone);
+		}
+	}
+
+	/**
+	 * Make the room (and its door, light and window) a view over a slot of the state of its house.
+	 *
+	 * @param state the state of the house
+	 * @param index the index of the room
+	 */
+	void attach(HouseState state, int index) {
+		state.setTemperature(index, temperature);
+		state.addOccupancy(index, nbPeople);
+		state.setZone(index, zone);
+
+		this.state = state;
+		this.index = index;
+
+		door.attach(state, index);
+		light.attach(state, index);
+		window.attach(state, index);
+	}
+
+	/**
+	 * Getter for the index of the room in the state of its house.
+	 *
+	 * @return the int index (-1 until the house is created).
+	 */
+	public int getIndex() {
+		return index;
 	}
 
 	/**
@@ -180,16 +217,38 @@ public class RoomModel {
 	 * @return the double temperature.
 	 */
 	public double getTemperature() {
-		return temperature;
+		return Temperature.toDegrees(getTemperatureHundredths());
 	}
 
 	/**
-	 * Setter for the temperature of the room.
+	 * Setter for the temperature of the room (rounded to the hundredth of a degree).
 	 *
 	 * @param temperature the temperature of the room.
 	 */
 	public void setTemperature(double temperature) {
-		this.temperature = temperature;
+		setTemperatureHundredths(Temperature.fromDegrees(temperature));
+	}
+
+	/**
+	 * Getter for the temperature of the room in hundredths of a degree.
+	 *
+	 * @return the int temperature.
+	 */
+	public int getTemperatureHundredths() {
+		return state == null ? temperature : state.getTemperature(index);
+	}
+
+	/**
+	 * Setter for the temperature of the room in hundredths of a degree.
+	 *
+	 * @param temperature the temperature of the room.
+	 */
+	public void setTemperatureHundredths(int temperature) {
+		if (state == null) {
+			this.temperature = temperature;
+		} else {
+			state.setTemperature(index, temperature);
+		}
 	}
 
 	/**
@@ -198,21 +257,29 @@ public class RoomModel {
 	 * @return the int nbPeople.
 	 */
 	public int getNbPeople() {
-		return nbPeople;
+		return state == null ? nbPeople : state.getOccupancy(index);
 	}
 
 	/**
 	 * Increment the number of people of the room.
 	 */
 	public void incrementNbPeople(){
-		nbPeople++;
+		if (state == null) {
+			nbPeople++;
+		} else {
+			state.addOccupancy(index, 1);
+		}
 	}
 
 	/**
 	 * Decrement the number of people of the room.
 	 */
 	public void decrementNbPeople(){
-		nbPeople--;
+		if (state == null) {
+			nbPeople--;
+		} else {
+			state.addOccupancy(index, -1);
+		}
 	}
 
 	/**
@@ -249,6 +316,9 @@ public class RoomModel {
 	 */
 	public void setDoor(DoorModel door) {
 		this.door = door;
+		if (state != null) {
+			door.attach(state, index);
+		}
 	}
 
 	/**
@@ -258,6 +328,9 @@ public class RoomModel {
 	 */
 	public void setLight(LightModel light) {
 		this.light = light;
+		if (state != null) {
+			light.attach(state, index);
+		}
 	}
 
 	/**
@@ -267,6 +340,9 @@ public class RoomModel {
 	 */
 	public void setWindow(WindowModel window) {
 		this.window = window;
+		if (state != null) {
+			window.attach(state, index);
+		}
 	}
 
 }
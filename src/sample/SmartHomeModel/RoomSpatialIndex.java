@@ -0,0 +1,117 @@
+package sample.SmartHomeModel;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Class for a spatial index over the rectangles of the rooms of a house.
+ * The bounding box of the rooms is divided in a uniform grid of square cells; each cell lists the rooms which overlap
+ * it, so that the rooms inside a rectangle are found by visiting only the cells it covers.
+ */
+public class RoomSpatialIndex {
+
+    private int cellSize;
+    private int minX;
+    private int minY;
+    private int columns;
+    private int rows;
+    private List<RoomModel>[] cells;
+
+    /**
+     * Instantiates a new Room spatial index.
+     *
+     * @param rooms    the rooms to index
+     * @param cellSize the width and height of a cell
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public RoomSpatialIndex(Collection<RoomModel> rooms, int cellSize) {
+        this.cellSize = cellSize;
+
+        minX = Integer.MAX_VALUE;
+        minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+
+        for (RoomModel room : rooms) {
+            minX = Math.min(minX, room.getxAxis());
+            minY = Math.min(minY, room.getyAxis());
+            maxX = Math.max(maxX, room.getxAxis() + room.getWidth());
+            maxY = Math.max(maxY, room.getyAxis() + room.getHeight());
+        }
+
+        if (rooms.isEmpty()) {
+            minX = minY = maxX = maxY = 0;
+        }
+
+        columns = (maxX - minX) / cellSize + 1;
+        rows = (maxY - minY) / cellSize + 1;
+        cells = new List[columns * rows];
+
+        for (RoomModel room : rooms) {
+            for (int row = row(room.getyAxis()); row <= row(room.getyAxis() + room.getHeight()); row++) {
+                for (int column = column(room.getxAxis()); column <= column(room.getxAxis() + room.getWidth()); column++) {
+                    int cell = row * columns + column;
+                    if (cells[cell] == null) {
+                        cells[cell] = new ArrayList<>();
+                    }
+                    cells[cell].add(room);
+                }
+            }
+        }
+    }
+
+    /**
+     * Find the rooms which overlap a rectangle.
+     *
+     * @param x      the x-axis of the rectangle
+     * @param y      the y-axis of the rectangle
+     * @param width  the width of the rectangle
+     * @param height the height of the rectangle
+     * @param result the list to which the rooms are added (each room once)
+     */
+    public void query(double x, double y, double width, double height, List<RoomModel> result) {
+        int firstColumn = column(x);
+        int lastColumn = column(x + width);
+        int firstRow = row(y);
+        int lastRow = row(y + height);
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                List<RoomModel> cell = cells[row * columns + column];
+                if (cell == null) {
+                    continue;
+                }
+
+                for (RoomModel room : cell) {
+                    // A room spanning several cells is only reported by the first of them inside the rectangle.
+                    if (column == Math.max(firstColumn, column(room.getxAxis())) && row == Math.max(firstRow, row(room.getyAxis()))
+                            && room.getxAxis() <= x + width && room.getxAxis() + room.getWidth() >= x
+                            && room.getyAxis() <= y + height && room.getyAxis() + room.getHeight() >= y) {
+                        result.add(room);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the column of the cell containing an x-axis, clamped to the grid.
+     *
+     * @param x the x-axis
+     * @return the column
+     */
+    private int column(double x) {
+        return (int) Math.max(0, Math.min(columns - 1, Math.floor((x - minX) / cellSize)));
+    }
+
+    /**
+     * Gets the row of the cell containing a y-axis, clamped to the grid.
+     *
+     * @param y the y-axis
+     * @return the row
+     */
+    private int row(double y) {
+        return (int) Math.max(0, Math.min(rows - 1, Math.floor((y - minY) / cellSize)));
+    }
+}
@@ -1,9 +1,11 @@
 package sample.SmartHomeModel;
 
-import org.json.simple.JSONObject;
+import sample.Exception.InvalidHouseLayoutException;
 
 import java.io.*;
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -13,69 +15,123 @@ import java.util.Map;
 public class SimulationData {
 
     private Map<String, RoomModel> rooms;
-    private ArrayList<UserModel> userList = new ArrayList<>();
+    private UserStore userStore;
     private HouseModel houseModel;
-    private BufferedReader bufferedReader;
 
 
     /**
-     * Create the data for the rooms, doors, windows, and lights.
+     * Create the data for the rooms, doors, windows, and lights. The rooms are created from the compiled image of the
+     * layout file if there is one for its content (see LayoutCache); otherwise they are created while the layout file
+     * is read, and the image is written for the next time.
      *
      * @param fileName the name of the house layout file
      * @throws IOException the io exception
+     * @throws InvalidHouseLayoutException if the house layout file is not valid
      */
-    public void createData(String fileName) throws IOException {
+    public void createData(String fileName) throws IOException, InvalidHouseLayoutException {
 
-        System.out.println("Creating Data");
-
-        ReadHouseLayout rhm = new ReadHouseLayout();
-        rhm.ReadJSON(fileName);
+        EventLog.log(EventLog.Module.SHS, EventLog.Type.DEBUG, null, "Creating Data");
 
         rooms = new HashMap<>();
-        ArrayList<JSONObject> jsonObjectArray = rhm.getHouseLayout();
-
-        System.out.println("Creating Rooms");
-        //start at 1 so we don't include the house room inside the json file
-        for(int i = 1; i < jsonObjectArray.size(); i++){
-
-            String name = jsonObjectArray.get(i).get("name").toString();
-            int width = Integer.parseInt(jsonObjectArray.get(i).get("width").toString());
-            int height = Integer.parseInt(jsonObjectArray.get(i).get("height").toString());
-            int xAxis = Integer.parseInt(jsonObjectArray.get(i).get("x-axis").toString());
-            int yAxis = Integer.parseInt(jsonObjectArray.get(i).get("y-axis").toString());
-
-            DoorModel door = new DoorModel(generateId(), name);
-            LightModel light = new LightModel(generateId(), name);
-            System.out.println(name+" light");
-            WindowModel window = new WindowModel(generateId(), name);
-            RoomModel room = new RoomModel(generateId(), name, width, height, xAxis, yAxis, door, light, window);
-
-            rooms.put(name, room);
-
-            System.out.println("Room Id: "+room.getRoomID());
-            System.out.println("Room Name: "+room.getName());
-            System.out.println("Room Width: "+room.getWidth());
-            System.out.println("Room Height: "+room.getHeight());
-            System.out.println("Room x-axis: "+room.getxAxis());
-            System.out.println("Room y-axis "+room.getyAxis());
-
-            System.out.println("Room Light ID: "+room.getLight().getId());
-            System.out.println("Room Light Status: "+room.getLight().isOpen());
-
-            System.out.println("Room Door ID: "+room.getDoor().getId());
-            System.out.println("Room Door is Open: "+room.getDoor().isOpen());
-            System.out.println("Room Door is Lock: "+room.getDoor().isLocked());
-
-            System.out.println("Room Window ID: "+room.getWindow().getId());
-            System.out.println("Room Window is open: "+room.getWindow().isOpen());
-            System.out.println("Room Window has object: "+room.getWindow().hasObject());
-            System.out.println();
+        int[] house = new int[4];
+
+        LayoutCache cache = new LayoutCache();
+        LayoutCache.Image image = cache.isEnabled() ? cache.open(LayoutCache.hash(new File(fileName))) : null;
+
+        if (image != null) {
+            EventLog.log(EventLog.Module.SHS, EventLog.Type.DEBUG, null, "Creating Rooms from the compiled house layout");
+            for (int i = 0; i < image.getRoomCount(); i++) {
+                addRoom(image.createRoom(i));
+            }
+            house[0] = image.getWidth();
+            house[1] = image.getHeight();
+            house[2] = image.getxAxis();
+            house[3] = image.getyAxis();
+        } else {
+            EventLog.log(EventLog.Module.SHS, EventLog.Type.DEBUG, null, "Creating Rooms");
+            readLayout(fileName, house, cache);
         }
 
         createDefaultUsers();
 
 
-        createHouse(Integer.parseInt(jsonObjectArray.get(0).get("width").toString()), Integer.parseInt(jsonObjectArray.get(0).get("height").toString()), Integer.parseInt(jsonObjectArray.get(0).get("x-axis").toString()), Integer.parseInt(jsonObjectArray.get(0).get("y-axis").toString()));
+        createHouse(house[0], house[1], house[2], house[3]);
+    }
+
+    /**
+     * Read the house layout file, creating the rooms, and write its compiled image if the cache is on. The image is
+     * named after the content which was actually parsed.
+     *
+     * @param fileName the name of the house layout file
+     * @param house the geometry of the house (width, height, x-axis, y-axis), set from the layout
+     * @param cache the cache of the compiled layouts
+     * @throws IOException the io exception
+     * @throws InvalidHouseLayoutException if the house layout file is not valid
+     */
+    private void readLayout(String fileName, int[] house, LayoutCache cache) throws IOException, InvalidHouseLayoutException {
+
+        ReadHouseLayout.Handler handler = new ReadHouseLayout.Handler() {
+            @Override
+            public void house(int width, int height, int xAxis, int yAxis) {
+                house[0] = width;
+                house[1] = height;
+                house[2] = xAxis;
+                house[3] = yAxis;
+            }
+
+            @Override
+            public void room(String name, int width, int height, int xAxis, int yAxis) {
+                createRoom(name, width, height, xAxis, yAxis);
+            }
+        };
+
+        if (!cache.isEnabled()) {
+            ReadHouseLayout.read(fileName, handler);
+            return;
+        }
+
+        MessageDigest digest = LayoutCache.newDigest();
+        try (Reader reader = new InputStreamReader(new DigestInputStream(new FileInputStream(fileName), digest), StandardCharsets.UTF_8)) {
+            ReadHouseLayout.read(reader, handler);
+        }
+
+        try {
+            cache.write(digest.digest(), house[0], house[1], house[2], house[3], rooms.values());
+        } catch (IOException e) {
+            EventLog.log(EventLog.Module.SHS, EventLog.Type.ERROR, null, "Could not write the compiled house layout: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Create a room with its door, light and window.
+     *
+     * @param name the name
+     * @param width the width
+     * @param height the height
+     * @param xAxis the x-axis
+     * @param yAxis the y-axis
+     */
+    private void createRoom(String name, int width, int height, int xAxis, int yAxis){
+
+        DoorModel door = new DoorModel(generateId(), name);
+        LightModel light = new LightModel(generateId(), name);
+        WindowModel window = new WindowModel(generateId(), name);
+
+        addRoom(new RoomModel(generateId(), name, width, height, xAxis, yAxis, door, light, window));
+    }
+
+    /**
+     * Add a room to the data.
+     *
+     * @param room the room
+     */
+    private void addRoom(RoomModel room){
+
+        rooms.put(room.getName(), room);
+
+        EventLog.log(EventLog.Module.SHS, EventLog.Type.DEBUG, room.getName(), "Room Id: " + room.getRoomID() + ", width: " + room.getWidth() + ", height: " + room.getHeight()
+                + ", x-axis: " + room.getxAxis() + ", y-axis: " + room.getyAxis() + ", light ID: " + room.getLight().getId()
+                + ", door ID: " + room.getDoor().getId() + ", window ID: " + room.getWindow().getId());
     }
 
     /**
@@ -84,8 +140,9 @@ public class SimulationData {
     private void createDefaultUsers() throws IOException {
 
         loadExistingUser();
+        UserRegistry users = userStore.getUsers();
 
-        if(userList.size() == 0){
+        if(users.size() == 0){
             UserModel defaultParent = new UserModel("Bob", 0,"Parent", "Kitchen");
             UserModel defaultChild = new UserModel("Daniel", 1, "Child", "Garage");
             UserModel defaultGuest = new UserModel("Boris", 2,"Guest", "Bedroom");
@@ -95,67 +152,61 @@ public class SimulationData {
             rooms.get("Garage").incrementNbPeople();
 
 
-            userList.add(defaultParent);
-            userList.add(defaultChild);
-            userList.add(defaultGuest);
-            userList.add(defaultStranger);
+            userStore.add(defaultParent);
+            userStore.add(defaultChild);
+            userStore.add(defaultGuest);
+            userStore.add(defaultStranger);
         }
 
-        printDefaultUsers(userList);
+        if (userStore.getFormat() == UserStore.Format.TEXT) {
+            printDefaultUsers(users);
+        } else {
+            // Logging every profile would decode them all.
+            EventLog.log(EventLog.Module.SHS, EventLog.Type.DEBUG, null, "Loaded " + users.size() + " user profiles.");
+        }
     }
     //refactor extract method
 
     /**
      * Print the default users
      *
-     * @param userList
+     * @param users
      */
-    private void printDefaultUsers(ArrayList<UserModel> userList){
-        System.out.println("Default Users are created");
-        for (UserModel userModel : userList) {
-            System.out.println(userModel.getId());
-            System.out.println(userModel.getName());
-            System.out.println(userModel.getUser_type());
-            System.out.println(userModel.getCurrentLocation());
-            System.out.println(userModel.getPreviousLocation());
-            System.out.println();
+    private void printDefaultUsers(UserRegistry users){
+        for (UserModel userModel : users) {
+            EventLog.log(EventLog.Module.SHS, EventLog.Type.DEBUG, userModel.getCurrentLocation(), "User created, ID: " + userModel.getId() + ", name: " + userModel.getName()
+                    + ", type: " + userModel.getUser_type() + ", previous location: " + userModel.getPreviousLocation());
         }
     }
 
     /**
-     * Load the existing user
+     * Load the existing users (the snapshot and its journal) and count the people in every room. The snapshot is
+     * Profiles.txt, or the mapped Profiles.bin if the system property shs.profileStore is "mapped"; the first time,
+     * Profiles.bin is written from the profiles of Profiles.txt.
      *
-     * @throws IOException
+     * @throws IOException if the profiles cannot be read
      */
     private void loadExistingUser() throws IOException{
-        try {
-            bufferedReader = new BufferedReader(new FileReader("Profiles.txt"));
-            String currentLine;
-            String [] profileArray = new String[4];
-            currentLine = bufferedReader.readLine();
-
-            while (currentLine.length() > 0) {
-                profileArray = currentLine.split(",");
-                System.out.println("Length"+profileArray.length);
-                UserModel user = new UserModel(profileArray[0],Integer.parseInt(profileArray[1]),profileArray[2],profileArray[3]);
-
-                try{
-                    rooms.get(profileArray[3]).incrementNbPeople();
-                }catch (NullPointerException e){
-                    System.out.println("User does not start in a room.");
-                }
+        if ("mapped".equals(System.getProperty("shs.profileStore"))) {
+            userStore = UserStore.open(new File("Profiles.bin"), UserStore.Format.MAPPED, new File("Profiles.txt"));
+        } else {
+            userStore = UserStore.open(new File("Profiles.txt"));
+        }
 
-                userList.add(user);
-                currentLine = bufferedReader.readLine();
+        // Count through the location index, which does not decode the users of a mapped snapshot.
+        UserRegistry users = userStore.getUsers();
+        for (String location : users.getLocations()) {
+            RoomModel room = rooms.get(location);
+            int count = users.countByLocation(location);
 
+            if (room != null) {
+                for (int i = 0; i < count; i++) {
+                    room.incrementNbPeople();
+                }
+            } else {
+                EventLog.log(EventLog.Module.SHS, EventLog.Type.DEBUG, location, count + " users do not start in a room.");
             }
         }
-        catch (FileNotFoundException e){
-            System.out.println("File was not found");
-        }
-        catch (NullPointerException e){
-            System.out.println("Reached end of file");
-        }
     }
 
     /**
@@ -180,17 +231,13 @@ public class SimulationData {
 
         for (String roomName : rooms.keySet()) {
             lights.put(roomName, rooms.get(roomName).getLight());
-            System.out.println(roomName+"key");
             doors.put(roomName, rooms.get(roomName).getDoor());
             windows.put(roomName, rooms.get(roomName).getWindow());
         }
 
         houseModel = new HouseModel(0,"", rooms, lights, doors, windows, width, height, xAxis, yAxis);
 
-        System.out.println("House model is created");
-        System.out.println(houseModel.getLoggedUserName());
-        System.out.println(houseModel.getOutsideTemp());
-        System.out.println();
+        EventLog.log(EventLog.Module.SHS, EventLog.Type.DEBUG, null, "House model is created with " + rooms.size() + " rooms");
     }
 
 
@@ -214,12 +261,21 @@ public class SimulationData {
     }
 
     /**
-     * Getter for the array list of users.
+     * Getter for the registry of users.
+     *
+     * @return the users.
+     */
+    public UserRegistry getUsers() {
+        return userStore.getUsers();
+    }
+
+    /**
+     * Getter for the persistent store of the users.
      *
-     * @return the userList.
+     * @return the userStore.
      */
-    public ArrayList<UserModel> getUserArrayList() {
-        return userList;
+    public UserStore getUserStore() {
+        return userStore;
     }
 
 }
@@ -0,0 +1,1436 @@
+package sample.SmartHomeModel;
+
+import sample.Exception.InvalidCheckpointException;
+import sample.Interfaces.SimulationListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class for the simulation engine. The engine owns the house, the HVAC of every room and the light schedules and
+ * advances the simulation one simulated second per tick. It does not depend on the UI, which means that it can be
+ * driven by the simulation clock of the view or run headless as fast as possible.
+ */
+public class SimulationEngine {
+
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    /**
+     * The rate (in hundredths of a degree per second) at which the HVAC heats/cools a room.
+     */
+    private static final int HVAC_RATE = 10;
+
+    /**
+     * The rate (in hundredths of a degree per second) at which a room goes to the outside temperature.
+     */
+    private static final int OUTSIDE_RATE = 5;
+
+    private HouseModel houseModel;
+    private SimulationListener listener;
+
+    private LocalDate date;
+    private LocalTime time;
+
+    private volatile boolean hvacOn = true;
+    private volatile boolean awayModeOn = false;
+
+    /**
+     * The countdown until the authorities are called after an intrusion, in simulated seconds.
+     */
+    private volatile int countdownSeconds;
+    private volatile boolean countdownActive = false;
+    private volatile boolean authoritiesCalled = false;
+
+    private HouseState state;
+
+    /**
+     * The HVAC of every room and the manual temperature requests, indexed like the rooms in the state of the house.
+     */
+    private HVACModel[] hvacs = new HVACModel[0];
+    private int[] requestedTemperatures;
+    private boolean[] hasRequest;
+    private Map<String, Boolean> isRoomHVACManual = new HashMap<>();
+    private Map<String, List<LightSchedule>> keepLightsOn = new HashMap<>();
+
+    /**
+     * The compiled schedule of the day, the position of the next event to apply and the second of the day at which
+     * the events were last applied.
+     */
+    private DailySchedule schedule;
+    private int cursor;
+    private int lastSecond;
+    private boolean scheduleChanged = true;
+    private int zoneVersions;
+
+    /**
+     * The period in progress in every zone.
+     */
+    private Map<Zone, ZonePeriod> currentPeriods = new HashMap<>();
+
+    /**
+     * The heat exchanged between neighbouring rooms and through open windows, when enabled with the system property
+     * shs.thermalNetwork (null otherwise).
+     */
+    private ThermalNetwork thermalNetwork;
+    private boolean[] changed = new boolean[0];
+
+    private boolean[] pipeBurstMessageSent = new boolean[0];
+    private boolean[] continuousBlockingMessageSent = new boolean[0];
+
+    /**
+     * The rooms whose temperature changed during the last tick or fast-forward, each listed once (marked by index).
+     */
+    private List<RoomModel> changedRooms = new ArrayList<>();
+    private boolean[] roomChanged = new boolean[0];
+
+    /**
+     * The temperatures a room must not cross during a fast-forward jump: zero and the outside temperature.
+     */
+    private int[] thresholds = new int[2];
+
+    /**
+     * The month of the simulation as written in the summer and winter month lists, cached per month.
+     */
+    private Month cachedMonth;
+    private String monthName;
+
+    private boolean rulesFired;
+
+    /**
+     * Whether a checkpoint has been restored since the simulation was last started.
+     */
+    private boolean resumed;
+
+    /**
+     * The journal the commands are recorded in (null when they are not recorded).
+     */
+    private CommandJournal journal;
+
+    /**
+     * The bus on which the device changes, occupancy changes and alerts are published.
+     */
+    private final EventBus eventBus = new EventBus();
+
+    /**
+     * Instantiates a new Simulation engine.
+     *
+     * @param houseModel the house model
+     * @param listener   the listener notified of the console messages
+     */
+    public SimulationEngine(HouseModel houseModel, SimulationListener listener) {
+        this.houseModel = houseModel;
+        this.listener = listener;
+        this.state = houseModel.getState();
+        this.requestedTemperatures = new int[state.size()];
+        this.hasRequest = new boolean[state.size()];
+    }
+
+    /**
+     * Start the simulation at the given date and time. Every room gets an idle HVAC whose target temperature is the
+     * current temperature of the room, unless a checkpoint has just been restored: the simulation then resumes with
+     * the HVACs of the checkpoint.
+     *
+     * @param date the date of the simulation
+     * @param time the time of the simulation
+     */
+    public synchronized void start(LocalDate date, LocalTime time) {
+        this.date = date;
+        this.time = time;
+
+        // The cursor and the last second belong to the previous run: going back or forward in time is not a new day,
+        // so the schedule is compiled again from the new time instead of applying the events in between.
+        scheduleChanged = true;
+
+        if (resumed) {
+            resumed = false;
+        } else {
+            createHVACs();
+        }
+    }
+
+    /**
+     * Give every room an idle HVAC and reset the per-room state of the engine.
+     */
+    private void createHVACs() {
+        hvacs = new HVACModel[state.size()];
+        pipeBurstMessageSent = new boolean[state.size()];
+        continuousBlockingMessageSent = new boolean[state.size()];
+        changed = new boolean[state.size()];
+        roomChanged = new boolean[state.size()];
+
+        if (Boolean.getBoolean("shs.thermalNetwork")) {
+            thermalNetwork = new ThermalNetwork(state);
+        }
+
+        for (int i = 0; i < state.size(); i++) {
+            hvacs[i] = new HVACModel(state.getRoom(i), HVAC_RATE, state.getTemperature(i), Temperature.TENTHS, isRoomHVACManual);
+        }
+    }
+
+    /**
+     * Run the simulation headless for the given number of ticks.
+     *
+     * @param ticks the number of simulated seconds
+     */
+    public synchronized void run(long ticks) {
+        for (long i = 0; i < ticks; i++) {
+            tick();
+        }
+    }
+
+    /**
+     * Process one simulated second: the light schedules, the HVAC state of every room, the temperature of every room
+     * and the clock. The rooms whose temperature changed during the tick are available through getChangedRooms().
+     *
+     * @return true if a light or a window has been opened or closed during this tick
+     */
+    public synchronized boolean tick() {
+        clearChangedRooms();
+
+        boolean layoutChanged = evaluateSchedules();
+        thermalStage();
+        advanceClock(1);
+
+        return layoutChanged;
+    }
+
+    /**
+     * Fast-forward the simulation by the given number of simulated seconds. Instead of processing every second, the
+     * engine jumps straight to the next instant at which a schedule (zone period or light) or the HVAC state of a room
+     * can change, and the temperature of every room is computed in closed form over the skipped interval. The rooms
+     * whose temperature changed during any of the seconds are available through getChangedRooms().
+     *
+     * @param seconds the number of simulated seconds
+     * @return true if a light or a window has been opened or closed
+     */
+    public synchronized boolean fastForward(long seconds) {
+        clearChangedRooms();
+
+        boolean layoutChanged = false;
+        long remaining = seconds;
+
+        while (remaining > 0) {
+            layoutChanged |= evaluateSchedules();
+
+            // Nothing fired at this instant, so nothing will fire until the next event either.
+            long quiet = rulesFired ? 1 : quietTicks(remaining);
+
+            if (quiet > 1) {
+                for (int i = 0; i < hvacs.length; i++) {
+                    if (hvacs[i].advance(quiet)) {
+                        markChanged(i);
+                    }
+                }
+
+                // The countdown was already evaluated for the first of the skipped ticks.
+                if (countdownActive) {
+                    countdownSeconds -= quiet - 1;
+                }
+            } else {
+                thermalStage();
+            }
+
+            advanceClock(quiet);
+            remaining -= quiet;
+        }
+
+        return layoutChanged;
+    }
+
+    /**
+     * Compute the number of ticks, starting with the current one, during which evaluating the schedules cannot
+     * change anything: no zone period or light schedule starts or ends and no room temperature crosses zero or the
+     * outside temperature.
+     *
+     * @param max the maximum number of ticks
+     * @return the number of ticks (at least 1)
+     */
+    private long quietTicks(long max) {
+        // Heat flowing between rooms has no closed form; the network is stepped every second.
+        if (thermalNetwork != null) {
+            return 1;
+        }
+
+        int secondOfDay = time.toSecondOfDay();
+        long quiet = Math.min(max, secondsUntil(secondOfDay, 0));
+
+        if (cursor < schedule.size()) {
+            quiet = Math.min(quiet, secondsUntil(secondOfDay, schedule.get(cursor).getSecond()));
+        }
+
+        if (countdownActive) {
+            quiet = Math.min(quiet, countdownSeconds + 1);
+        }
+
+        thresholds[0] = 0;
+        thresholds[1] = houseModel.getOutsideTempHundredths();
+
+        for (HVACModel hvac : hvacs) {
+            quiet = Math.min(quiet, hvac.quietSteps(quiet, thresholds));
+        }
+
+        return Math.max(quiet, 1);
+    }
+
+    /**
+     * Number of seconds from a time of the day until the next occurrence of another time of the day.
+     *
+     * @param from  the current second of the day
+     * @param event the second of the day of the event
+     * @return the number of seconds, between 1 and 86400
+     */
+    private static long secondsUntil(int from, int event) {
+        int delta = Math.floorMod(event - from, SECONDS_PER_DAY);
+        return delta == 0 ? SECONDS_PER_DAY : delta;
+    }
+
+    /**
+     * Evaluate the light schedules and the HVAC state of every room at the current time.
+     *
+     * @return true if a light or a window of the house has been opened or closed
+     */
+    private boolean evaluateSchedules() {
+        boolean layoutChanged = false;
+        rulesFired = false;
+
+        // Countdown until the authorities are called
+        if (countdownActive) {
+            if (countdownSeconds > 0) {
+                countdownSeconds--;
+            } else {
+                countdownActive = false;
+                authoritiesCalled = true;
+                alert(EventLog.Module.SHP, AlertEvent.Kind.AUTHORITIES_CALLED, null, "The authorities have been called!!!");
+            }
+        }
+
+        // Zone periods and lights scheduling
+        layoutChanged |= applyScheduledEvents();
+
+        // When entering the loop, a HVAC can be in four states:
+        // 1. Idle and not away mode
+        // 2. Idle and away mode
+        // 3. Manual and not away mode
+        // 4. Manual and away mode
+
+        if (date.getMonth() != cachedMonth) {
+            cachedMonth = date.getMonth();
+            monthName = cachedMonth.toString();
+            monthName = monthName.substring(0, 1).toUpperCase() + monthName.substring(1).toLowerCase(); // Capitalize first letter
+        }
+        String month = monthName;
+
+        // The rules are evaluated once per room; Case #1 only looks at the zone of the room.
+        for (int i = 0; i < hvacs.length; i++) {
+            RoomModel room = state.getRoom(i);
+            Zone zone = state.getZone(i);
+            HVACModel hvac = hvacs[i];
+
+            if (hvacOn) {
+
+                // Activating all the manual temperature changes.
+                if (hasRequest[i] && hvac.getStateHVAC() != HVACState.MANUAL) {
+                    hvac.setTargetTemperature(requestedTemperatures[i]);
+                    hvac.setRate(HVAC_RATE);
+                    hvac.setResolution(Temperature.TENTHS);
+                    setState(hvac, HVACState.MANUAL);
+                    message(EventLog.Module.SHH, EventLog.Type.CONSOLE, room.getName(), "Starting to cool/heat the " + room.getName() + " to a temperature of " + Temperature.format(requestedTemperatures[i]) + " C.");
+                }
+
+                // Case #-2 If you had the HVAC off and now you turned it back on, your state will still be off and so we have to make it idle.
+                if (hvac.getStateHVAC() == HVACState.OFF) {
+                    setState(hvac, HVACState.IDLE);
+                    hvac.setTargetTemperature(state.getTemperature(i));
+                }
+
+                // Case #-1 If you are in away mode and you are not in state Idle, Manual, Away Mode Summer or Away Mode Winter, then your state will change to Idle.
+                if (awayModeOn && !hvac.getStateHVAC().in(HVACState.IDLE.bit() | HVACState.MANUAL.bit() | HVACState.AWAY_MODES)) {
+                    setState(hvac, HVACState.IDLE);
+                    hvac.setTargetTemperature(state.getTemperature(i));
+                }
+
+                // Case #0 If you were in away mode and in either the state Away Mode Summer or the state Away Mode Winter AND you just turned off away mode, then your state is now set to idle.
+                if (!awayModeOn && hvac.getStateHVAC().in(HVACState.AWAY_MODES)) {
+                    setState(hvac, HVACState.IDLE);
+                    hvac.setTargetTemperature(state.getTemperature(i));
+                }
+
+                // Case #1 Follow the period in progress in the zone of the room, once its temperature has been set.
+                ZonePeriod period = zone == null ? null : currentPeriods.get(zone);
+                if (!awayModeOn && period != null && !hvac.getStateHVAC().in(HVACState.MANUAL.bit() | HVACState.AWAY_MODES) && hvac.getPeriod() != period && !period.isUnset()
+                        && hvac.followPeriod(period)) {
+                    hvac.setRate(HVAC_RATE);
+                    hvac.setResolution(Temperature.TENTHS);
+                    message(EventLog.Module.SHH, EventLog.Type.CONSOLE, room.getName(), "Starting scheduling heating/cooling for the " + period.getName().toLowerCase() + " in the " + room.getName() + " (" + zone.getZoneName() + "). Target temperature: " + Temperature.format(period.getTemperatureHundredths()) + " C.");
+                }
+
+                // Case #2 when in summer month, away mode is off, it's not manual mode, window of a specific room is not blocked, HVAC is on, and room temp > outside temp: set target temp for the
+                // specific room to the outside temp and make the room temp go down by 0.05 C/S
+                if (!awayModeOn && houseModel.getSummerMonthList().contains(month) && (houseModel.getOutsideTempHundredths() < state.getTemperature(i)) && !hvac.getStateHVAC().in(HVACState.SUMMER_COOLING.bit() | HVACState.MANUAL.bit() | HVACState.SCHEDULES)) {
+                    boolean windowOpen = state.is(i, HouseState.WINDOW_OPEN);
+                    boolean windowBlocked = state.is(i, HouseState.WINDOW_BLOCKED);
+
+                    if (!windowOpen && windowBlocked && !continuousBlockingMessageSent[i]) {
+                        continuousBlockingMessageSent[i] = true;
+                        message(EventLog.Module.SHH, EventLog.Type.CONSOLE, room.getName(), "Cannot cool " + room.getName() + " to outside temperature because the windows cannot be opened (there is an object blocking them)!");
+                    } else if (windowOpen || !windowBlocked) {
+                        continuousBlockingMessageSent[i] = false;
+                        layoutChanged |= openWindow(room);
+                        hvac.setTargetTemperature(houseModel.getOutsideTempHundredths());
+                        hvac.setRate(OUTSIDE_RATE);
+                        hvac.setResolution(Temperature.HUNDREDTHS);
+                        setState(hvac, HVACState.SUMMER_COOLING);
+                        message(EventLog.Module.SHH, EventLog.Type.CONSOLE, room.getName(), "Canceling any current heating/cooling for the " + room.getName() + " in order to cool it to the outside temperature! [Continuous monitoring]");
+                    }
+                }
+
+                // Case #3 If the house is in away mode and the HVAC is on and it's a summer month and the room is not in manual mode, change target temp of the room to season temp
+                if (awayModeOn && hvac.getStateHVAC() != HVACState.MANUAL) {
+                    final boolean monthIsASummerMonth = houseModel.getSummerMonthList().contains(month);
+                    final boolean monthIsAWinterMonth = houseModel.getWinterMonthList().contains(month);
+                    final boolean isRoomInZone = zone != null;
+                    final boolean isSummerTemperatureSet = !houseModel.isUnsetSummerTemp();
+                    final boolean isAwayModeSummer = hvac.getStateHVAC() != HVACState.AWAY_MODE_SUMMER;
+                    final boolean isAwayModeWinter = hvac.getStateHVAC() != HVACState.AWAY_MODE_WINTER;
+                    final boolean isWinterTemperatureSet = !houseModel.isUnsetWinterTemp();
+
+                    if (monthIsASummerMonth && isRoomInZone && isAwayModeSummer && isSummerTemperatureSet) {
+
+                        // Set state to away mode summer
+                        hvac.setTargetTemperature(houseModel.getSummerTemperatureHundredths());
+                        hvac.setRate(HVAC_RATE);
+                        hvac.setResolution(Temperature.TENTHS);
+                        setState(hvac, HVACState.AWAY_MODE_SUMMER);
+                        message(EventLog.Module.SHH, EventLog.Type.CONSOLE, room.getName(), "Starting default heating/cooling for the summer in the " + room.getName() + ". Target temperature: " + Temperature.format(houseModel.getSummerTemperatureHundredths()) + " C. [Away Mode]");
+
+                    } else if (monthIsAWinterMonth && isRoomInZone && isAwayModeWinter && isWinterTemperatureSet) {
+
+                        // Set state to away mode winter
+                        hvac.setTargetTemperature(houseModel.getWinterTemperatureHundredths());
+                        hvac.setRate(HVAC_RATE);
+                        hvac.setResolution(Temperature.TENTHS);
+                        setState(hvac, HVACState.AWAY_MODE_WINTER);
+                        message(EventLog.Module.SHH, EventLog.Type.CONSOLE, room.getName(), "Starting default heating/cooling for the summer in the " + room.getName() + ". Target temperature: " + Temperature.format(houseModel.getWinterTemperatureHundredths()) + " C. [Away Mode]");
+                    }
+                }
+            }
+
+            // Case #4 when the HVAC is off: set target temp for all rooms to the outside temp and make the room temp go down by 0.05 C/S
+            if (!hvacOn && hvac.getStateHVAC() != HVACState.OFF) {
+                hvac.setTargetTemperature(houseModel.getOutsideTempHundredths());
+                hvac.setRate(OUTSIDE_RATE);
+                hvac.setResolution(Temperature.HUNDREDTHS);
+                setState(hvac, HVACState.OFF);
+            }
+
+            if (state.getTemperature(i) > 0 && pipeBurstMessageSent[i]) {
+                pipeBurstMessageSent[i] = false;
+            }
+
+            if (state.getTemperature(i) < 0 && !pipeBurstMessageSent[i]) {
+                pipeBurstMessageSent[i] = true;
+                alert(EventLog.Module.SHH, AlertEvent.Kind.BURST_PIPE, room.getName(), "The temperature in the " + room.getName() + " is below zero! There might be a burst pipe in there!");
+            }
+        }
+
+        return layoutChanged;
+    }
+
+    /**
+     * Apply the events of the compiled schedule which are due at the current time, compiling the schedule again first
+     * if a light schedule or a zone period has been added since it was compiled.
+     *
+     * @return true if a light has been turned on or off
+     */
+    private boolean applyScheduledEvents() {
+        boolean layoutChanged = false;
+        int secondOfDay = time.toSecondOfDay();
+
+        int versions = 0;
+        for (Zone zone : houseModel.getZoneList().values()) {
+            versions += zone.getVersion();
+        }
+
+        if (scheduleChanged || versions != zoneVersions) {
+            schedule = new DailySchedule(houseModel.getZoneList().values(), keepLightsOn);
+            cursor = schedule.cursorAt(secondOfDay);
+            scheduleChanged = false;
+            zoneVersions = versions;
+
+            currentPeriods.clear();
+            for (Zone zone : houseModel.getZoneList().values()) {
+                currentPeriods.put(zone, zone.getPeriodAt(time));
+            }
+        } else if (secondOfDay < lastSecond) {
+            // A new day: apply what is left of the previous one, then start over.
+            layoutChanged |= applyScheduledEvents(SECONDS_PER_DAY);
+            cursor = 0;
+        }
+
+        layoutChanged |= applyScheduledEvents(secondOfDay);
+        lastSecond = secondOfDay;
+
+        return layoutChanged;
+    }
+
+    /**
+     * Apply the events of the compiled schedule up to a second of the day.
+     *
+     * @param secondOfDay the second of the day (included)
+     * @return true if a light has been turned on or off
+     */
+    private boolean applyScheduledEvents(int secondOfDay) {
+        boolean layoutChanged = false;
+
+        while (cursor < schedule.size() && schedule.get(cursor).getSecond() <= secondOfDay) {
+            DailySchedule.Event event = schedule.get(cursor++);
+
+            if (event.getKind() == DailySchedule.Kind.PERIOD) {
+                currentPeriods.put(event.getZone(), event.getPeriod());
+            } else {
+                scheduleTurnOnOffLight(event.getLocation(), event.getKind() == DailySchedule.Kind.LIGHT_ON);
+                layoutChanged = true;
+            }
+        }
+
+        return layoutChanged;
+    }
+
+    /**
+     * Advance the clock of the simulation.
+     *
+     * @param seconds the number of simulated seconds
+     */
+    private void advanceClock(long seconds) {
+        long days = (time.toSecondOfDay() + seconds) / SECONDS_PER_DAY;
+        date = date.plusDays(days);
+        time = time.plusSeconds(seconds);
+    }
+
+    /**
+     * Step the HVAC of every room once, in a single pass over the rooms, then exchange heat between the rooms if the
+     * thermal network is enabled. The rooms whose temperature changed are added to the changed rooms.
+     */
+    private void thermalStage() {
+        if (thermalNetwork == null) {
+            for (int i = 0; i < hvacs.length; i++) {
+                if (hvacs[i].step()) {
+                    markChanged(i);
+                }
+            }
+            return;
+        }
+
+        for (int i = 0; i < hvacs.length; i++) {
+            changed[i] = hvacs[i].step();
+        }
+
+        thermalNetwork.step(houseModel.getOutsideTempHundredths(), changed);
+
+        for (int i = 0; i < changed.length; i++) {
+            if (changed[i]) {
+                markChanged(i);
+            }
+        }
+    }
+
+    /**
+     * Add a room to the changed rooms, unless it is already there.
+     *
+     * @param index the index of the room
+     */
+    private void markChanged(int index) {
+        if (!roomChanged[index]) {
+            roomChanged[index] = true;
+            changedRooms.add(state.getRoom(index));
+        }
+    }
+
+    /**
+     * Empty the changed rooms before a tick or a fast-forward.
+     */
+    private void clearChangedRooms() {
+        Arrays.fill(roomChanged, false);
+        changedRooms.clear();
+    }
+
+    /**
+     * Change the state of an HVAC as a result of the schedules.
+     *
+     * @param hvac  the HVAC
+     * @param state the new state
+     */
+    private void setState(HVACModel hvac, HVACState state) {
+        if (hvac.setStateHVAC(state)) {
+            rulesFired = true;
+        }
+    }
+
+    /**
+     * Print a message on the console and log it.
+     *
+     * @param module  the module the message comes from
+     * @param type    the event type
+     * @param room    the room concerned
+     * @param message the message
+     */
+    private void message(EventLog.Module module, EventLog.Type type, String room, String message) {
+        listener.onMessage(time, message);
+        EventLog.log(LocalDateTime.of(date, time), module, type, room, message);
+        rulesFired = true;
+    }
+
+    /**
+     * Print an alert on the console and publish it on the event bus.
+     *
+     * @param module   the module which raised the alert
+     * @param kind     the kind of alert
+     * @param location the location of the alert (may be null)
+     * @param message  the message
+     */
+    private void alert(EventLog.Module module, AlertEvent.Kind kind, String location, String message) {
+        message(module, EventLog.Type.ALERT, location, message);
+        eventBus.publish(new AlertEvent(LocalDateTime.of(date, time), kind, location, message));
+    }
+
+    /**
+     * Publish the change of a device on the event bus.
+     *
+     * @param device   the kind of device
+     * @param location the location of the device
+     * @param change   the change
+     */
+    private void publishDevice(DeviceEvent.Device device, String location, DeviceEvent.Change change) {
+        eventBus.publish(new DeviceEvent(now(), device, location, change));
+    }
+
+    /**
+     * Gets the simulated time.
+     *
+     * @return the date and time (null if the simulation has not been started)
+     */
+    private LocalDateTime now() {
+        return date == null ? null : LocalDateTime.of(date, time);
+    }
+
+    /**
+     * Turn a light on or off as scheduled.
+     *
+     * @param location the location of the light
+     * @param open     true to turn the light on
+     */
+    private void scheduleTurnOnOffLight(String location, boolean open) {
+        houseModel.getLights().get(location).setOpen(open);
+        publishDevice(DeviceEvent.Device.LIGHT, location, open ? DeviceEvent.Change.OPENED : DeviceEvent.Change.CLOSED);
+        message(EventLog.Module.SHC, EventLog.Type.CONSOLE, location, (open ? "Opening" : "Closing") + " the lights in " + location + " as scheduled.");
+    }
+
+    /**
+     * Open the window of a room (if there is no object blocking it).
+     *
+     * @param room the room
+     * @return true if the window has been opened
+     */
+    private boolean openWindow(RoomModel room) {
+        if (room.getWindow().hasObject()) {
+            message(EventLog.Module.SHC, EventLog.Type.CONSOLE, room.getName(), "Cannot open the windows in " + room.getName() + " since there is an object blocking them.");
+            return false;
+        }
+
+        room.getWindow().setOpen(true);
+        publishDevice(DeviceEvent.Device.WINDOW, room.getName(), DeviceEvent.Change.OPENED);
+        message(EventLog.Module.SHC, EventLog.Type.CONSOLE, room.getName(), "Opening the window in " + room.getName() + ".");
+        return true;
+    }
+
+    /**
+     * Store a manual temperature request for a room. If the simulation has been started, the HVAC of the room starts
+     * heating/cooling to that temperature right away, otherwise it will once the simulation starts.
+     *
+     * @param room        the room
+     * @param temperature the requested temperature
+     * @return true if the HVAC of the room was updated right away
+     */
+    public boolean setManualTemperature(RoomModel room, double temperature) {
+        return execute(Command.manualTemperature(room.getName(), temperature));
+    }
+
+    /**
+     * Remove the manual override of a room. If its HVAC is currently in manual mode, it goes back to idle.
+     *
+     * @param room the room
+     * @return true if the room had a manual override
+     */
+    public boolean clearManualTemperature(RoomModel room) {
+        return execute(Command.clearManualTemperature(room.getName()));
+    }
+
+    /**
+     * Set the default temperature of a season, and update the target temperature of every HVAC currently
+     * heating/cooling to it.
+     *
+     * @param season      the season (Summer or Winter)
+     * @param temperature the new default temperature of the season
+     * @return true if at least one HVAC was updated
+     */
+    public boolean setSeasonTemperature(String season, double temperature) {
+        return execute(Command.seasonTemperature(season, temperature));
+    }
+
+    /**
+     * Schedule a light to be kept on between two times. A light can have several schedules.
+     *
+     * @param location the location of the light
+     * @param schedule the schedule
+     */
+    public void scheduleLight(String location, LightSchedule schedule) {
+        execute(Command.lightSchedule(location, schedule));
+    }
+
+    /**
+     * Apply a command of the user between two ticks, and record it in the journal if one is open.
+     *
+     * @param command the command
+     * @return for MANUAL_TEMPERATURE, whether the HVAC of the room was updated right away; for
+     * CLEAR_MANUAL_TEMPERATURE, whether the room had a manual override; for SEASON_TEMPERATURE, whether at least one
+     * HVAC was updated; true for the other commands
+     */
+    public synchronized boolean execute(Command command) {
+        boolean result = apply(command);
+
+        if (journal != null) {
+            try {
+                journal.append(LocalDateTime.of(date, time), command);
+            } catch (IOException e) {
+                EventLog.log(EventLog.Module.SHS, EventLog.Type.ERROR, null, "Could not write the command journal " + journal.getFile() + ", the commands are no longer recorded: " + e.getMessage());
+                closeJournal(null);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Apply a command.
+     *
+     * @param command the command
+     * @return the result of the command (see execute())
+     */
+    private boolean apply(Command command) {
+        String target = command.getTarget();
+        int value = command.getValue();
+
+        switch (command.getType()) {
+            case OPEN_DOOR:
+                houseModel.getDoors().get(target).setOpen(value != 0);
+                publishDevice(DeviceEvent.Device.DOOR, target, value != 0 ? DeviceEvent.Change.OPENED : DeviceEvent.Change.CLOSED);
+                return true;
+            case LOCK_DOOR:
+                houseModel.getDoors().get(target).setLocked(value != 0);
+                publishDevice(DeviceEvent.Device.DOOR, target, value != 0 ? DeviceEvent.Change.LOCKED : DeviceEvent.Change.UNLOCKED);
+                return true;
+            case OPEN_WINDOW:
+                houseModel.getWindows().get(target).setOpen(value != 0);
+                publishDevice(DeviceEvent.Device.WINDOW, target, value != 0 ? DeviceEvent.Change.OPENED : DeviceEvent.Change.CLOSED);
+                return true;
+            case BLOCK_WINDOW:
+                houseModel.getWindows().get(target).setHasObject(value != 0);
+                publishDevice(DeviceEvent.Device.WINDOW, target, value != 0 ? DeviceEvent.Change.BLOCKED : DeviceEvent.Change.UNBLOCKED);
+                return true;
+            case OPEN_LIGHT:
+                houseModel.getLights().get(target).setOpen(value != 0);
+                publishDevice(DeviceEvent.Device.LIGHT, target, value != 0 ? DeviceEvent.Change.OPENED : DeviceEvent.Change.CLOSED);
+                return true;
+            case PEOPLE:
+                int index = state.indexOf(target);
+                state.addOccupancy(index, value);
+                eventBus.publish(new OccupancyEvent(now(), target, value, state.getOccupancy(index)));
+                return true;
+            case OUTSIDE_TEMPERATURE:
+                houseModel.setOutsideTemp(Temperature.toDegrees(value));
+                return true;
+            case ROOM_TEMPERATURE:
+                for (int i = 0; i < state.size(); i++) {
+                    if (target == null || target.equals(state.getRoom(i).getName())) {
+                        state.setTemperature(i, value);
+                    }
+                }
+                return true;
+            case SEASON_MONTH:
+                houseModel.getWinterMonthList().remove(target);
+                houseModel.getSummerMonthList().remove(target);
+                if (command.getArgument().equals("Summer")) {
+                    houseModel.getSummerMonthList().add(target);
+                } else if (command.getArgument().equals("Winter")) {
+                    houseModel.getWinterMonthList().add(target);
+                }
+                return true;
+            case SEASON_TEMPERATURE:
+                return applySeasonTemperature(target, value);
+            case ROOM_ZONE:
+                houseModel.setRoomZone(houseModel.getRooms().get(target), command.getArgument() == null ? null : houseModel.getZoneList().get(command.getArgument()));
+                return true;
+            case ZONE_TEMPERATURE:
+                houseModel.getZoneList().get(target).getPeriodAt(LocalTime.ofSecondOfDay(command.getSecondOfDay())).setTemperature(Temperature.toDegrees(value));
+                return true;
+            case MANUAL_TEMPERATURE:
+                return applyManualTemperature(state.indexOf(target), value);
+            case CLEAR_MANUAL_TEMPERATURE:
+                return applyClearManualTemperature(state.indexOf(target));
+            case LIGHT_SCHEDULE:
+                keepLightsOn.computeIfAbsent(target, key -> new ArrayList<>()).add(new LightSchedule(LocalTime.ofSecondOfDay(command.getSecondOfDay()), LocalTime.ofSecondOfDay(value)));
+                scheduleChanged = true;
+                return true;
+            case HVAC:
+                hvacOn = value != 0;
+                return true;
+            case AWAY_MODE:
+                awayModeOn = value != 0;
+                return true;
+            case START_COUNTDOWN:
+                if (!countdownActive) {
+                    countdownSeconds = value;
+                    countdownActive = true;
+                    authoritiesCalled = false;
+                }
+                return true;
+            case CANCEL_COUNTDOWN:
+                countdownActive = false;
+                authoritiesCalled = false;
+                return true;
+            default:
+                throw new IllegalArgumentException("Unknown command " + command.getType() + ".");
+        }
+    }
+
+    /**
+     * Store a manual temperature request for a room and start heating/cooling to it if the simulation has been started.
+     *
+     * @param index       the index of the room
+     * @param temperature the requested temperature (in hundredths of a degree)
+     * @return true if the HVAC of the room was updated right away
+     */
+    private boolean applyManualTemperature(int index, int temperature) {
+        requestedTemperatures[index] = temperature;
+        hasRequest[index] = true;
+
+        if (index >= hvacs.length) {
+            return false;
+        }
+
+        HVACModel hvac = hvacs[index];
+        hvac.setTargetTemperature(temperature);
+        hvac.setRate(HVAC_RATE);
+        hvac.setResolution(Temperature.TENTHS);
+        setState(hvac, HVACState.MANUAL);
+        return true;
+    }
+
+    /**
+     * Remove the manual override of a room. If its HVAC is currently in manual mode, it goes back to idle.
+     *
+     * @param index the index of the room
+     * @return true if the room had a manual override
+     */
+    private boolean applyClearManualTemperature(int index) {
+        if (index < hvacs.length && hvacs[index].getStateHVAC() == HVACState.MANUAL) {
+            setState(hvacs[index], HVACState.IDLE);
+            hvacs[index].setTargetTemperature(state.getTemperature(index));
+        }
+
+        boolean hadRequest = hasRequest[index];
+        hasRequest[index] = false;
+        return hadRequest;
+    }
+
+    /**
+     * Set the default temperature of a season and update every HVAC currently heating/cooling to it.
+     *
+     * @param season      the season (Summer or Winter)
+     * @param temperature the temperature (in hundredths of a degree)
+     * @return true if at least one HVAC was updated
+     */
+    private boolean applySeasonTemperature(String season, int temperature) {
+        boolean updated = false;
+
+        if (season.equals("Summer")) {
+            houseModel.setSummerTemperature(Temperature.toDegrees(temperature));
+        } else if (season.equals("Winter")) {
+            houseModel.setWinterTemperature(Temperature.toDegrees(temperature));
+        }
+
+        for (HVACModel hvac : hvacs) {
+            if ((season.equals("Summer") && hvac.getStateHVAC() == HVACState.AWAY_MODE_SUMMER) || (season.equals("Winter") && hvac.getStateHVAC() == HVACState.AWAY_MODE_WINTER)) {
+                hvac.setTargetTemperature(temperature);
+                updated = true;
+            }
+        }
+
+        return updated;
+    }
+
+    /**
+     * Start recording the commands in a journal, which begins with the current state of the simulation. A journal
+     * which was already open is closed first.
+     *
+     * @param file the file of the journal
+     * @throws IOException           if the file cannot be written
+     * @throws IllegalStateException if the simulation has never been started
+     */
+    public synchronized void openJournal(File file) throws IOException {
+        Checkpoint start = checkpoint();
+        closeJournal(LocalDateTime.of(date, time));
+        journal = CommandJournal.create(file, start);
+    }
+
+    /**
+     * Stop recording the commands and close the journal (if one is open).
+     */
+    public synchronized void closeJournal() {
+        closeJournal(date == null ? null : LocalDateTime.of(date, time));
+    }
+
+    /**
+     * Close the journal.
+     *
+     * @param end the simulated time written as the end of the journal (null to close it without marking its end)
+     */
+    private void closeJournal(LocalDateTime end) {
+        if (journal == null) {
+            return;
+        }
+
+        try {
+            if (end == null) {
+                journal.close();
+            } else {
+                journal.close(end);
+            }
+        } catch (IOException e) {
+            EventLog.log(EventLog.Module.SHS, EventLog.Type.ERROR, null, "Could not close the command journal " + journal.getFile() + ": " + e.getMessage());
+        }
+
+        journal = null;
+    }
+
+    /**
+     * Replay a journal: restore its checkpoint, then fast-forward to each command and apply it, up to the end of the
+     * journal. The engine must be built on the same house as the one the journal was recorded on. The messages of the
+     * simulation are sent to the listener as they were during the recorded run.
+     *
+     * @param recording the journal
+     * @throws InvalidCheckpointException if the checkpoint of the journal does not match the house
+     */
+    public synchronized void replay(CommandJournal.Recording recording) throws InvalidCheckpointException {
+        Checkpoint start = recording.getStart();
+        restore(start);
+        start(start.getDate(), start.getTime());
+
+        for (CommandJournal.Entry entry : recording.getEntries()) {
+            fastForward(entry.getEpochSecond() - epochSecond());
+            apply(entry.getCommand());
+        }
+
+        if (recording.getEndEpochSecond() >= 0) {
+            fastForward(recording.getEndEpochSecond() - epochSecond());
+        }
+    }
+
+    /**
+     * Gets the simulated time in seconds since the epoch.
+     *
+     * @return the number of seconds
+     */
+    private long epochSecond() {
+        return LocalDateTime.of(date, time).toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Capture the state of the simulation between two ticks. Only the arrays of the engine and of the house are
+     * copied while the simulation is held; the checkpoint can then be written to a file in the background.
+     *
+     * @return the checkpoint
+     * @throws IllegalStateException if the simulation has never been started
+     */
+    public synchronized Checkpoint checkpoint() {
+        if (date == null || hvacs.length != state.size()) {
+            throw new IllegalStateException("The simulation has not been started.");
+        }
+
+        Checkpoint checkpoint = new Checkpoint();
+
+        checkpoint.epochDay = date.toEpochDay();
+        checkpoint.secondOfDay = time.toSecondOfDay();
+        checkpoint.hvacOn = hvacOn;
+        checkpoint.awayModeOn = awayModeOn;
+        checkpoint.countdownActive = countdownActive;
+        checkpoint.authoritiesCalled = authoritiesCalled;
+        checkpoint.countdownSeconds = countdownSeconds;
+
+        checkpoint.outsideTemperature = houseModel.getOutsideTempHundredths();
+        checkpoint.summerTemperature = houseModel.getSummerTemperatureHundredths();
+        checkpoint.winterTemperature = houseModel.getWinterTemperatureHundredths();
+        checkpoint.unsetSummerTemperature = houseModel.isUnsetSummerTemp();
+        checkpoint.unsetWinterTemperature = houseModel.isUnsetWinterTemp();
+        checkpoint.summerMonths.addAll(houseModel.getSummerMonthList());
+        checkpoint.winterMonths.addAll(houseModel.getWinterMonthList());
+
+        // The doors and lights outside of the rooms (front yard, backyard) are not part of the state of the house.
+        for (DoorModel door : houseModel.getDoors().values()) {
+            if (state.indexOf(door.getName()) < 0) {
+                int flags = (door.isOpen() ? HouseState.DOOR_OPEN : 0) | (door.isLocked() ? HouseState.DOOR_LOCKED : 0);
+                checkpoint.outdoorDevices.merge(door.getName(), flags, (a, b) -> a | b);
+            }
+        }
+        for (LightModel light : houseModel.getLights().values()) {
+            if (state.indexOf(light.getName()) < 0) {
+                checkpoint.outdoorDevices.merge(light.getName(), light.isOpen() ? HouseState.LIGHT_OPEN : 0, (a, b) -> a | b);
+            }
+        }
+
+        for (Zone zone : houseModel.getZoneList().values()) {
+            List<Checkpoint.Period> periods = new ArrayList<>();
+            for (ZonePeriod zonePeriod : zone.getPeriods()) {
+                Checkpoint.Period period = new Checkpoint.Period();
+                period.name = zonePeriod.getName();
+                period.start = zonePeriod.getStart().toSecondOfDay();
+                period.temperature = zonePeriod.getTemperatureHundredths();
+                period.unset = zonePeriod.isUnset();
+                periods.add(period);
+            }
+            checkpoint.zones.put(zone.getZoneName(), periods);
+        }
+
+        checkpoint.allocateRooms(state.size());
+
+        for (int i = 0; i < state.size(); i++) {
+            HVACModel hvac = hvacs[i];
+            Zone zone = state.getZone(i);
+
+            checkpoint.roomNames[i] = state.getRoom(i).getName();
+            checkpoint.temperatures[i] = state.getTemperature(i);
+            checkpoint.occupancy[i] = state.getOccupancy(i);
+            checkpoint.flags[i] = state.getFlags(i);
+            checkpoint.roomZones[i] = zone == null ? null : zone.getZoneName();
+
+            checkpoint.hvacStates[i] = hvac.getStateHVAC();
+            checkpoint.targetTemperatures[i] = hvac.getTargetTemperature();
+            checkpoint.rates[i] = hvac.getRate();
+            checkpoint.resolutions[i] = hvac.getResolution();
+            checkpoint.periodZones[i] = zoneOf(hvac.getPeriod());
+            checkpoint.periodStarts[i] = hvac.getPeriod() == null ? -1 : hvac.getPeriod().getStart().toSecondOfDay();
+            checkpoint.transitionCounts[i] = hvac.getTransitionCounts().clone();
+        }
+
+        System.arraycopy(hasRequest, 0, checkpoint.hasRequest, 0, hasRequest.length);
+        System.arraycopy(requestedTemperatures, 0, checkpoint.requestedTemperatures, 0, requestedTemperatures.length);
+        System.arraycopy(pipeBurstMessageSent, 0, checkpoint.pipeBurstMessageSent, 0, pipeBurstMessageSent.length);
+        System.arraycopy(continuousBlockingMessageSent, 0, checkpoint.continuousBlockingMessageSent, 0, continuousBlockingMessageSent.length);
+        checkpoint.residuals = thermalNetwork == null ? null : thermalNetwork.getResiduals().clone();
+
+        for (Map.Entry<String, List<LightSchedule>> light : keepLightsOn.entrySet()) {
+            checkpoint.lightSchedules.put(light.getKey(), new ArrayList<>(light.getValue()));
+        }
+
+        return checkpoint;
+    }
+
+    /**
+     * Find the zone a period belongs to (the room of an HVAC may have changed zone since it started following it).
+     *
+     * @param period the period (may be null)
+     * @return the name of the zone (null if there is no period)
+     */
+    private String zoneOf(ZonePeriod period) {
+        if (period != null) {
+            for (Zone zone : houseModel.getZoneList().values()) {
+                if (zone.getPeriods().contains(period)) {
+                    return zone.getZoneName();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Put the simulation back in the state of a checkpoint, with the occupancy of the rooms it was captured with.
+     *
+     * @param checkpoint the checkpoint
+     * @throws InvalidCheckpointException if the checkpoint does not match the house
+     * @see #restore(Checkpoint, UserRegistry)
+     */
+    public synchronized void restore(Checkpoint checkpoint) throws InvalidCheckpointException {
+        restore(checkpoint, null);
+    }
+
+    /**
+     * Put the simulation back in the state of a checkpoint. The checkpoint must come from the same house: every room
+     * and zone it mentions must exist. The whole checkpoint is checked before anything is changed, so nothing is
+     * changed if it does not. The next start() resumes the simulation from the checkpoint instead of resetting the
+     * HVACs. A journal which was open is closed.
+     * The checkpoint does not hold where the users are; with a registry, the occupancy of each room is counted from
+     * the users the registry places in it, so that it matches the registry instead of the users of the checkpoint.
+     *
+     * @param checkpoint the checkpoint
+     * @param users      the users whose locations give the occupancy (null to keep the occupancy of the checkpoint)
+     * @throws InvalidCheckpointException if the checkpoint does not match the house
+     */
+    public synchronized void restore(Checkpoint checkpoint, UserRegistry users) throws InvalidCheckpointException {
+        validate(checkpoint);
+
+        // Decoded before the first change, so that every failure happens while the engine is still untouched.
+        LocalDate restoredDate = checkpoint.getDate();
+        LocalTime restoredTime = checkpoint.getTime();
+
+        // The journal describes the run the checkpoint replaces.
+        closeJournal();
+
+        if (hvacs.length != state.size()) {
+            createHVACs();
+        }
+
+        date = restoredDate;
+        time = restoredTime;
+        hvacOn = checkpoint.hvacOn;
+        awayModeOn = checkpoint.awayModeOn;
+        countdownActive = checkpoint.countdownActive;
+        authoritiesCalled = checkpoint.authoritiesCalled;
+        countdownSeconds = checkpoint.countdownSeconds;
+
+        houseModel.restore(checkpoint.outsideTemperature, checkpoint.summerTemperature, checkpoint.unsetSummerTemperature, checkpoint.winterTemperature, checkpoint.unsetWinterTemperature, checkpoint.summerMonths, checkpoint.winterMonths);
+
+        for (Map.Entry<String, Integer> device : checkpoint.outdoorDevices.entrySet()) {
+            DoorModel door = houseModel.getDoors().get(device.getKey());
+            if (door != null) {
+                door.setOpen((device.getValue() & HouseState.DOOR_OPEN) != 0);
+                door.setLocked((device.getValue() & HouseState.DOOR_LOCKED) != 0);
+            }
+
+            LightModel light = houseModel.getLights().get(device.getKey());
+            if (light != null) {
+                light.setOpen((device.getValue() & HouseState.LIGHT_OPEN) != 0);
+            }
+        }
+
+        for (Map.Entry<String, List<Checkpoint.Period>> entry : checkpoint.zones.entrySet()) {
+            Zone zone = houseModel.getZoneList().get(entry.getKey());
+            for (Checkpoint.Period period : entry.getValue()) {
+                LocalTime start = LocalTime.ofSecondOfDay(period.start);
+                ZonePeriod zonePeriod = zone.getPeriodAt(start);
+                if (!zonePeriod.getStart().equals(start)) {
+                    zonePeriod = zone.addPeriod(period.name, start, Temperature.toDegrees(period.temperature));
+                }
+                zonePeriod.restore(period.temperature, period.unset);
+            }
+        }
+
+        for (int i = 0; i < state.size(); i++) {
+            RoomModel room = state.getRoom(i);
+            Zone zone = checkpoint.roomZones[i] == null ? null : houseModel.getZoneList().get(checkpoint.roomZones[i]);
+
+            if (state.getZone(i) != zone) {
+                houseModel.setRoomZone(room, zone);
+            }
+
+            state.setTemperature(i, checkpoint.temperatures[i]);
+            state.setOccupancy(i, users == null ? checkpoint.occupancy[i] : users.countByLocation(room.getName()));
+            state.setFlags(i, checkpoint.flags[i]);
+
+            ZonePeriod period = null;
+            if (checkpoint.periodZones[i] != null) {
+                period = houseModel.getZoneList().get(checkpoint.periodZones[i]).getPeriodAt(LocalTime.ofSecondOfDay(checkpoint.periodStarts[i]));
+            }
+
+            HVACModel hvac = hvacs[i];
+            hvac.restore(checkpoint.hvacStates[i], checkpoint.targetTemperatures[i], checkpoint.rates[i], checkpoint.resolutions[i], period);
+            System.arraycopy(checkpoint.transitionCounts[i], 0, hvac.getTransitionCounts(), 0, checkpoint.transitionCounts[i].length);
+        }
+
+        System.arraycopy(checkpoint.hasRequest, 0, hasRequest, 0, hasRequest.length);
+        System.arraycopy(checkpoint.requestedTemperatures, 0, requestedTemperatures, 0, requestedTemperatures.length);
+        System.arraycopy(checkpoint.pipeBurstMessageSent, 0, pipeBurstMessageSent, 0, pipeBurstMessageSent.length);
+        System.arraycopy(checkpoint.continuousBlockingMessageSent, 0, continuousBlockingMessageSent, 0, continuousBlockingMessageSent.length);
+
+        if (thermalNetwork != null) {
+            long[] residuals = thermalNetwork.getResiduals();
+            if (checkpoint.residuals == null) {
+                Arrays.fill(residuals, 0);
+            } else {
+                System.arraycopy(checkpoint.residuals, 0, residuals, 0, residuals.length);
+            }
+        }
+
+        keepLightsOn.clear();
+        for (Map.Entry<String, List<LightSchedule>> light : checkpoint.lightSchedules.entrySet()) {
+            keepLightsOn.put(light.getKey(), new ArrayList<>(light.getValue()));
+        }
+
+        // The schedule is compiled again at the next tick, from the restored time; the lights are already restored.
+        scheduleChanged = true;
+        lastSecond = time.toSecondOfDay();
+        clearChangedRooms();
+        resumed = true;
+    }
+
+    /**
+     * Check that a checkpoint matches the house before restoring it.
+     *
+     * @param checkpoint the checkpoint
+     * @throws InvalidCheckpointException if a room, a zone or a device of the checkpoint does not exist in the house
+     */
+    private void validate(Checkpoint checkpoint) throws InvalidCheckpointException {
+        if (checkpoint.getRoomCount() != state.size()) {
+            throw new InvalidCheckpointException("The checkpoint has " + checkpoint.getRoomCount() + " rooms, the house has " + state.size() + ".");
+        }
+
+        for (int i = 0; i < state.size(); i++) {
+            if (!checkpoint.roomNames[i].equals(state.getRoom(i).getName())) {
+                throw new InvalidCheckpointException("The room " + checkpoint.roomNames[i] + " of the checkpoint does not match the room " + state.getRoom(i).getName() + " of the house.");
+            }
+            if (checkpoint.roomZones[i] != null && !houseModel.getZoneList().containsKey(checkpoint.roomZones[i])) {
+                throw new InvalidCheckpointException("The zone " + checkpoint.roomZones[i] + " of the checkpoint does not exist.");
+            }
+            if (checkpoint.hvacStates[i] == null) {
+                throw new InvalidCheckpointException("The HVAC of the " + checkpoint.roomNames[i] + " is in an unknown state.");
+            }
+            if (checkpoint.periodZones[i] != null && !hasPeriod(checkpoint, checkpoint.periodZones[i], checkpoint.periodStarts[i])) {
+                throw new InvalidCheckpointException("The HVAC of the " + checkpoint.roomNames[i] + " follows a period of " + checkpoint.periodZones[i] + " which is not in the checkpoint.");
+            }
+        }
+
+        for (Map.Entry<String, List<Checkpoint.Period>> entry : checkpoint.zones.entrySet()) {
+            Zone zone = houseModel.getZoneList().get(entry.getKey());
+            if (zone == null) {
+                throw new InvalidCheckpointException("The zone " + entry.getKey() + " of the checkpoint does not exist.");
+            }
+
+            // Periods can be added to a zone but not removed, so the zone must not have any period the checkpoint does not.
+            for (ZonePeriod zonePeriod : zone.getPeriods()) {
+                boolean found = false;
+                for (Checkpoint.Period period : entry.getValue()) {
+                    found |= period.start == zonePeriod.getStart().toSecondOfDay();
+                }
+                if (!found) {
+                    throw new InvalidCheckpointException("The period " + zonePeriod.getName() + " of " + zone.getZoneName() + " is not in the checkpoint.");
+                }
+            }
+        }
+
+        for (String location : checkpoint.lightSchedules.keySet()) {
+            if (!houseModel.getLights().containsKey(location)) {
+                throw new InvalidCheckpointException("The light " + location + " of the checkpoint does not exist.");
+            }
+        }
+    }
+
+    /**
+     * Whether a zone of a checkpoint has a period starting at a time.
+     *
+     * @param checkpoint the checkpoint
+     * @param zone       the name of the zone
+     * @param start      the start of the period, in seconds of the day
+     * @return the boolean
+     */
+    private static boolean hasPeriod(Checkpoint checkpoint, String zone, int start) {
+        List<Checkpoint.Period> periods = checkpoint.zones.get(zone);
+        if (periods != null) {
+            for (Checkpoint.Period period : periods) {
+                if (period.start == start) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the HVAC of a room.
+     *
+     * @param room the room
+     * @return the HVAC (null until the simulation is started)
+     */
+    public HVACModel getHVAC(RoomModel room) {
+        return room.getIndex() < hvacs.length ? hvacs[room.getIndex()] : null;
+    }
+
+    /**
+     * Gets the thermal network of the house.
+     *
+     * @return the thermal network (null if it is not enabled)
+     */
+    public ThermalNetwork getThermalNetwork() {
+        return thermalNetwork;
+    }
+
+    /**
+     * Gets the rooms whose temperature changed during the last tick or fast-forward.
+     *
+     * @return the list of rooms
+     */
+    public List<RoomModel> getChangedRooms() {
+        return changedRooms;
+    }
+
+    /**
+     * Gets the number of times the HVACs of the house went from a state to another.
+     *
+     * @param from the state before the transition
+     * @param to   the state after the transition
+     * @return the number of transitions, summed over every room
+     */
+    public synchronized long getTransitionCount(HVACState from, HVACState to) {
+        long count = 0;
+
+        for (HVACModel hvac : hvacs) {
+            count += hvac.getTransitionCount(from, to);
+        }
+
+        return count;
+    }
+
+    /**
+     * Gets the manual override of every room.
+     *
+     * @return a Map which maps the name of each room to whether its HVAC is in manual override
+     */
+    public Map<String, Boolean> getManualOverrides() {
+        return isRoomHVACManual;
+    }
+
+    /**
+     * Gets the house model.
+     *
+     * @return the house model
+     */
+    public HouseModel getHouseModel() {
+        return houseModel;
+    }
+
+    /**
+     * Gets the date of the simulation.
+     *
+     * @return the date
+     */
+    public LocalDate getDate() {
+        return date;
+    }
+
+    /**
+     * Gets the time of the simulation.
+     *
+     * @return the time
+     */
+    public LocalTime getTime() {
+        return time;
+    }
+
+    /**
+     * Is the HVAC turned on.
+     *
+     * @return the boolean
+     */
+    public boolean isHVACOn() {
+        return hvacOn;
+    }
+
+    /**
+     * Turn the HVAC on or off.
+     *
+     * @param hvacOn true to turn the HVAC on
+     */
+    public void setHVACOn(boolean hvacOn) {
+        execute(Command.hvac(hvacOn));
+    }
+
+    /**
+     * Start the countdown until the authorities are called, unless it is already running.
+     *
+     * @param seconds the number of simulated seconds until the authorities are called
+     */
+    public void startAuthoritiesCountdown(int seconds) {
+        execute(Command.startCountdown(seconds));
+    }
+
+    /**
+     * Cancel the countdown until the authorities are called.
+     */
+    public void cancelAuthoritiesCountdown() {
+        execute(Command.cancelCountdown());
+    }
+
+    /**
+     * Gets the number of simulated seconds left until the authorities are called.
+     *
+     * @return the number of seconds
+     */
+    public int getCountdownSeconds() {
+        return countdownSeconds;
+    }
+
+    /**
+     * Is the countdown until the authorities are called running.
+     *
+     * @return the boolean
+     */
+    public boolean isCountdownActive() {
+        return countdownActive;
+    }
+
+    /**
+     * Have the authorities been called (the countdown ran out and the alert was not canceled).
+     *
+     * @return the boolean
+     */
+    public boolean isAuthoritiesCalled() {
+        return authoritiesCalled;
+    }
+
+    /**
+     * Gets the bus on which the device changes, occupancy changes and alerts of the simulation are published.
+     *
+     * @return the event bus
+     */
+    public EventBus getEventBus() {
+        return eventBus;
+    }
+
+    /**
+     * Publish an alert raised outside of the engine (an intrusion detected by the SHP module), stamped with the
+     * current simulated time.
+     *
+     * @param kind     the kind of alert
+     * @param location the location of the alert (may be null)
+     * @param message  the message
+     */
+    public synchronized void raiseAlert(AlertEvent.Kind kind, String location, String message) {
+        eventBus.publish(new AlertEvent(now(), kind, location, message));
+    }
+
+    /**
+     * Is away mode on.
+     *
+     * @return the boolean
+     */
+    public boolean isAwayModeOn() {
+        return awayModeOn;
+    }
+
+    /**
+     * Turn away mode on or off.
+     *
+     * @param awayModeOn true to turn away mode on
+     */
+    public void setAwayModeOn(boolean awayModeOn) {
+        execute(Command.awayMode(awayModeOn));
+    }
+}
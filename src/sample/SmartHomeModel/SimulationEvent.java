@@ -0,0 +1,30 @@
+package sample.SmartHomeModel;
+
+import java.time.LocalDateTime;
+
+/**
+ * Base class for the events published by the simulation on its event bus. Events are immutable, so that they can be
+ * handed to several subscribers running on different threads.
+ */
+public abstract class SimulationEvent {
+
+    private final LocalDateTime dateTime;
+
+    /**
+     * Instantiates a new Simulation event.
+     *
+     * @param dateTime the simulated time of the event (null if the simulation has not been started)
+     */
+    protected SimulationEvent(LocalDateTime dateTime) {
+        this.dateTime = dateTime;
+    }
+
+    /**
+     * Gets the simulated time of the event.
+     *
+     * @return the date and time (null if the simulation had not been started)
+     */
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+}
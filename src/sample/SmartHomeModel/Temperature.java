@@ -0,0 +1,94 @@
+package sample.SmartHomeModel;
+
+/**
+ * Class for the fixed-point representation of temperatures.
+ * Temperatures are stored as ints in hundredths of a degree, so that the HVAC moves and rounds them with integer
+ * arithmetic instead of formatting and parsing doubles. They are converted to degrees (or formatted) only at the
+ * edges: the UI, the console and the layout file.
+ */
+public final class Temperature {
+
+    /**
+     * The number of hundredths in a degree.
+     */
+    public static final int SCALE = 100;
+
+    /**
+     * A resolution of a tenth of a degree.
+     */
+    public static final int TENTHS = 10;
+
+    /**
+     * A resolution of a hundredth of a degree.
+     */
+    public static final int HUNDREDTHS = 1;
+
+    private Temperature() {
+    }
+
+    /**
+     * Convert a temperature in degrees to hundredths of a degree.
+     *
+     * @param degrees the temperature in degrees
+     * @return the temperature in hundredths of a degree
+     */
+    public static int fromDegrees(double degrees) {
+        return (int) Math.round(degrees * SCALE);
+    }
+
+    /**
+     * Convert a temperature in hundredths of a degree to degrees.
+     *
+     * @param hundredths the temperature in hundredths of a degree
+     * @return the temperature in degrees
+     */
+    public static double toDegrees(int hundredths) {
+        return hundredths / (double) SCALE;
+    }
+
+    /**
+     * Round a temperature to a resolution, ties going to the even multiple (as DecimalFormat does).
+     *
+     * @param hundredths the temperature in hundredths of a degree
+     * @param resolution the resolution in hundredths of a degree (TENTHS or HUNDREDTHS)
+     * @return the rounded temperature
+     */
+    public static int round(int hundredths, int resolution) {
+        int remainder = Math.floorMod(hundredths, resolution);
+        int lower = hundredths - remainder;
+
+        if (remainder * 2 < resolution || (remainder * 2 == resolution && (lower / resolution) % 2 == 0)) {
+            return lower;
+        }
+        return lower + resolution;
+    }
+
+    /**
+     * Format a temperature in degrees with one or two decimals, like Double.toString does for temperatures
+     * (21.0, 21.5, 21.25).
+     *
+     * @param hundredths the temperature in hundredths of a degree
+     * @return the formatted temperature
+     */
+    public static String format(int hundredths) {
+        int magnitude = Math.abs(hundredths);
+        int fraction = magnitude % SCALE;
+
+        StringBuilder text = new StringBuilder(8);
+        if (hundredths < 0) {
+            text.append('-');
+        }
+        text.append(magnitude / SCALE).append('.');
+
+        if (fraction % 10 == 0) {
+            text.append(fraction / 10);
+        } else {
+            if (fraction < 10) {
+                text.append('0');
+            }
+            text.append(fraction);
+        }
+
+        return text.toString();
+    }
+}
@@ -0,0 +1,210 @@
+package sample.SmartHomeModel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Class for the thermal network of a house: the heat exchanged between rooms which share a wall, and between a room
+ * and the outside through its window.
+ * The network is built once from the geometry of the rooms (two rooms are neighbours when an edge of one lies on an
+ * edge of the other) and stored as a sparse symmetric matrix in compressed rows: for each room, the range of its
+ * neighbours and the length of the wall they share. Each tick, the heat flowing into a room is the sum over its
+ * neighbours of conductance * (neighbour temperature - room temperature), plus the same term with the outside.
+ * The conductance of a wall grows while the door of either room is open, and a room exchanges with the outside
+ * while its window is open, so opening a door or a window takes effect on the next tick.
+ * Temperatures are in hundredths of a degree; the fraction of a hundredth which does not add up to a whole one yet
+ * is kept per room, so that slow flows are not lost to rounding.
+ */
+public class ThermalNetwork {
+
+    /**
+     * The number of fractional bits of the conductances and of the residual heat of the rooms.
+     */
+    private static final int FRACTION_BITS = 24;
+
+    private static final long ONE = 1L << FRACTION_BITS;
+
+    /**
+     * The conductance of a wall per unit of length (10^-6 per second), in 2^-24 per second.
+     */
+    private static final long WALL = Math.round(1e-6 * ONE);
+
+    /**
+     * The conductance added to a wall while the door of one of its rooms is open (10^-3 per second).
+     */
+    private static final long OPEN_DOOR = Math.round(1e-3 * ONE);
+
+    /**
+     * The conductance between a room and the outside while its window is open (10^-3 per second).
+     */
+    private static final long OPEN_WINDOW = Math.round(1e-3 * ONE);
+
+    private HouseState state;
+
+    /**
+     * The neighbours of room i are neighbours[rowStart[i]] to neighbours[rowStart[i + 1] - 1], and wallLengths holds
+     * the length of the wall shared with each of them.
+     */
+    private int[] rowStart;
+    private int[] neighbours;
+    private int[] wallLengths;
+
+    private long[] flows;
+    private long[] residuals;
+
+    /**
+     * Build the thermal network of the rooms of a house.
+     *
+     * @param state the state of the house
+     */
+    public ThermalNetwork(HouseState state) {
+        this.state = state;
+
+        int size = state.size();
+        List<RoomModel> rooms = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            rooms.add(state.getRoom(i));
+        }
+
+        RoomSpatialIndex index = new RoomSpatialIndex(rooms, 200);
+        List<RoomModel> candidates = new ArrayList<>();
+
+        // Count the neighbours of every room first, to size the rows.
+        List<int[]> walls = new ArrayList<>();
+        int[] degrees = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            RoomModel room = rooms.get(i);
+            candidates.clear();
+            index.query(room.getxAxis(), room.getyAxis(), room.getWidth(), room.getHeight(), candidates);
+
+            for (RoomModel candidate : candidates) {
+                int j = candidate.getIndex();
+                int length = sharedWall(room, candidate);
+
+                if (j > i && length > 0) {
+                    walls.add(new int[]{i, j, length});
+                    degrees[i]++;
+                    degrees[j]++;
+                }
+            }
+        }
+
+        rowStart = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            rowStart[i + 1] = rowStart[i] + degrees[i];
+        }
+
+        neighbours = new int[rowStart[size]];
+        wallLengths = new int[rowStart[size]];
+        int[] next = Arrays.copyOf(rowStart, size);
+
+        for (int[] wall : walls) {
+            neighbours[next[wall[0]]] = wall[1];
+            wallLengths[next[wall[0]]++] = wall[2];
+            neighbours[next[wall[1]]] = wall[0];
+            wallLengths[next[wall[1]]++] = wall[2];
+        }
+
+        flows = new long[size];
+        residuals = new long[size];
+    }
+
+    /**
+     * Gets the length of the wall shared by two rooms.
+     *
+     * @param a a room
+     * @param b another room
+     * @return the length (0 if the rooms are not neighbours)
+     */
+    private static int sharedWall(RoomModel a, RoomModel b) {
+        if (a.getxAxis() + a.getWidth() == b.getxAxis() || b.getxAxis() + b.getWidth() == a.getxAxis()) {
+            return Math.max(0, Math.min(a.getyAxis() + a.getHeight(), b.getyAxis() + b.getHeight()) - Math.max(a.getyAxis(), b.getyAxis()));
+        }
+
+        if (a.getyAxis() + a.getHeight() == b.getyAxis() || b.getyAxis() + b.getHeight() == a.getyAxis()) {
+            return Math.max(0, Math.min(a.getxAxis() + a.getWidth(), b.getxAxis() + b.getWidth()) - Math.max(a.getxAxis(), b.getxAxis()));
+        }
+
+        return 0;
+    }
+
+    /**
+     * Exchange heat for one simulated second.
+     *
+     * @param outsideTemperature the outside temperature (in hundredths of a degree)
+     * @param changed            set to true for every room whose temperature changed
+     * @return true if the temperature of at least one room has changed
+     */
+    public boolean step(int outsideTemperature, boolean[] changed) {
+        int size = flows.length;
+
+        // Compute every flow from the temperatures before the step, then apply them.
+        for (int i = 0; i < size; i++) {
+            int temperature = state.getTemperature(i);
+            boolean doorOpen = state.is(i, HouseState.DOOR_OPEN);
+            long flow = 0;
+
+            for (int k = rowStart[i]; k < rowStart[i + 1]; k++) {
+                int j = neighbours[k];
+                long conductance = WALL * wallLengths[k];
+                if (doorOpen || state.is(j, HouseState.DOOR_OPEN)) {
+                    conductance += OPEN_DOOR;
+                }
+                flow += conductance * (state.getTemperature(j) - temperature);
+            }
+
+            if (state.is(i, HouseState.WINDOW_OPEN)) {
+                flow += OPEN_WINDOW * (outsideTemperature - temperature);
+            }
+
+            flows[i] = flow;
+        }
+
+        boolean anyChanged = false;
+
+        for (int i = 0; i < size; i++) {
+            long residual = residuals[i] + flows[i];
+            long delta = residual >> FRACTION_BITS;
+
+            residuals[i] = residual - (delta << FRACTION_BITS);
+
+            if (delta != 0) {
+                state.setTemperature(i, (int) (state.getTemperature(i) + delta));
+                changed[i] = true;
+                anyChanged = true;
+            }
+        }
+
+        return anyChanged;
+    }
+
+    /**
+     * Gets the heat received by every room which does not add up to a hundredth of a degree yet.
+     *
+     * @return the residuals (not a copy)
+     */
+    long[] getResiduals() {
+        return residuals;
+    }
+
+    /**
+     * Gets the number of walls shared by two rooms.
+     *
+     * @return the number of walls
+     */
+    public int getWallCount() {
+        return neighbours.length / 2;
+    }
+
+    /**
+     * Gets the neighbours of a room.
+     *
+     * @param index the index of the room
+     * @return the indexes of the rooms which share a wall with it
+     */
+    public int[] getNeighbours(int index) {
+        return Arrays.copyOfRange(neighbours, rowStart[index], rowStart[index + 1]);
+    }
+}
@@ -0,0 +1,575 @@
+package sample.SmartHomeModel;
+
+import java.util.AbstractCollection;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Class for the users of the simulation. The users are kept in a dense array, indexed by id through a primitive int
+ * map and grouped by location and by permission type, so that looking a user up, listing the users of a room and
+ * removing a user all take constant time however many users are loaded. A removed user is replaced by the last one,
+ * which means that the order of iteration is the order of insertion only until a user is removed.
+ * The location and the type of a registered user must be changed through relocate() and setType(), which keep the
+ * indexes up to date. The registry is not thread-safe; it is used on the JavaFX application thread.
+ * A registry can also be laid over a MappedProfileFile, which it never scans: a user is found in the file by id, and
+ * the users of a location or a type through the indexes of the file. A user of the file is decoded the first time it
+ * is asked for and joins the users in memory; its record is then shadowed, as is the record of a user removed before
+ * being decoded. Iterating decodes every user of the file, after the users in memory.
+ */
+public class UserRegistry extends AbstractCollection<UserModel> {
+
+    private UserModel[] users;
+    private int size;
+    private final IntIntMap slotsById;
+    private final Index byLocation;
+    private final Index byType;
+
+    /**
+     * The file the users which have not been asked for yet are read from (null if every user is in memory).
+     */
+    private final MappedProfileFile base;
+
+    /**
+     * The records of the base file which are no longer read: their user is in memory or was removed.
+     */
+    private final BitSet shadowed = new BitSet();
+    private int shadowedCount;
+
+    /**
+     * The locations and the types whose users in the base file are all in memory.
+     */
+    private final Set<String> loadedLocations = new HashSet<>();
+    private final Set<String> loadedTypes = new HashSet<>();
+
+    /**
+     * Instantiates a new, empty User registry.
+     */
+    public UserRegistry() {
+        this(16);
+    }
+
+    /**
+     * Instantiates a new, empty User registry.
+     *
+     * @param expectedSize the number of users the registry should hold without growing
+     */
+    public UserRegistry(int expectedSize) {
+        int capacity = Math.max(expectedSize, 4);
+        users = new UserModel[capacity];
+        slotsById = new IntIntMap(capacity);
+        byLocation = new Index(capacity);
+        byType = new Index(capacity);
+        base = null;
+    }
+
+    /**
+     * Instantiates a new User registry holding the users of a profile file, none of which is decoded yet. Nothing is
+     * read from the file until a user is asked for.
+     *
+     * @param base the profile file
+     */
+    public UserRegistry(MappedProfileFile base) {
+        users = new UserModel[16];
+        slotsById = new IntIntMap(16);
+        byLocation = new Index(16);
+        byType = new Index(16);
+        this.base = base;
+    }
+
+    /**
+     * Add a user.
+     *
+     * @param user the user
+     * @return true
+     * @throws IllegalArgumentException if a user with the same id is already registered
+     */
+    @Override
+    public boolean add(UserModel user) {
+        if (slotsById.get(user.getId()) != IntIntMap.NO_VALUE || baseRecord(user.getId()) >= 0) {
+            throw new IllegalArgumentException("A user with ID " + user.getId() + " is already registered.");
+        }
+
+        insert(user);
+        return true;
+    }
+
+    /**
+     * Put a user in a new slot.
+     *
+     * @param user the user
+     */
+    private void insert(UserModel user) {
+        if (size == users.length) {
+            int capacity = users.length * 2;
+            users = Arrays.copyOf(users, capacity);
+            byLocation.grow(capacity);
+            byType.grow(capacity);
+        }
+
+        int slot = size++;
+        users[slot] = user;
+        slotsById.put(user.getId(), slot);
+        byLocation.add(slot, user.getCurrentLocation());
+        byType.add(slot, user.getUser_type());
+    }
+
+    /**
+     * Find the record of a user in the base file.
+     *
+     * @param id the id
+     * @return the record, or -1 if there is no base file, the user is not in it or its record is shadowed
+     */
+    private int baseRecord(int id) {
+        if (base == null) {
+            return -1;
+        }
+        int record = base.find(id);
+        return record >= 0 && !shadowed.get(record) ? record : -1;
+    }
+
+    /**
+     * Shadow a record of the base file.
+     *
+     * @param record the record
+     */
+    private void shadow(int record) {
+        shadowed.set(record);
+        shadowedCount++;
+    }
+
+    /**
+     * Decode the user of a record of the base file and keep it in memory.
+     *
+     * @param record the record (not shadowed)
+     * @return the user
+     */
+    private UserModel load(int record) {
+        UserModel user = base.read(record);
+        shadow(record);
+        insert(user);
+        return user;
+    }
+
+    /**
+     * Gets the user with the given id.
+     *
+     * @param id the id
+     * @return the user, or null if there is none
+     */
+    public UserModel get(int id) {
+        int slot = slotsById.get(id);
+        if (slot != IntIntMap.NO_VALUE) {
+            return users[slot];
+        }
+
+        int record = baseRecord(id);
+        return record < 0 ? null : load(record);
+    }
+
+    /**
+     * Gets a copy of every user, for the snapshots of the store. The users of the base file which are not in memory
+     * are decoded without being kept.
+     *
+     * @return the copies
+     */
+    List<UserModel> copies() {
+        List<UserModel> copies = new ArrayList<>(size());
+        for (int slot = 0; slot < size; slot++) {
+            UserModel user = users[slot];
+            copies.add(new UserModel(user.getName(), user.getId(), user.getUser_type(), user.getCurrentLocation()));
+        }
+        if (base != null) {
+            for (int record = shadowed.nextClearBit(0); record < base.size(); record = shadowed.nextClearBit(record + 1)) {
+                copies.add(base.read(record));
+            }
+        }
+        return copies;
+    }
+
+    /**
+     * Gets a read-only list of every user, for the views which only show a few of them at a time. The ids of the users
+     * are taken when the list is made, in the order of iteration, without decoding anything; a user of the base file is
+     * only decoded when its position in the list is read. The list does not follow the users added or removed later
+     * (the position of a removed user reads null).
+     *
+     * @return the list
+     */
+    public List<UserModel> asList() {
+        int[] ids = new int[size()];
+        int count = 0;
+        for (int slot = 0; slot < size; slot++) {
+            ids[count++] = users[slot].getId();
+        }
+        if (base != null) {
+            for (int record = shadowed.nextClearBit(0); record < base.size(); record = shadowed.nextClearBit(record + 1)) {
+                ids[count++] = base.getId(record);
+            }
+        }
+
+        return new AbstractList<UserModel>() {
+            @Override
+            public UserModel get(int index) {
+                return UserRegistry.this.get(ids[index]);
+            }
+
+            @Override
+            public int size() {
+                return ids.length;
+            }
+        };
+    }
+
+    /**
+     * Remove the user with the given id.
+     *
+     * @param id the id
+     * @return the removed user, or null if there was none
+     */
+    public UserModel remove(int id) {
+        int slot = slotsById.remove(id);
+        if (slot == IntIntMap.NO_VALUE) {
+            int record = baseRecord(id);
+            if (record < 0) {
+                return null;
+            }
+            shadow(record);
+            return base.read(record);
+        }
+
+        UserModel user = users[slot];
+        byLocation.remove(slot);
+        byType.remove(slot);
+
+        // Move the last user into the freed slot.
+        int last = --size;
+        if (slot != last) {
+            users[slot] = users[last];
+            slotsById.put(users[slot].getId(), slot);
+            byLocation.move(last, slot);
+            byType.move(last, slot);
+        }
+        users[last] = null;
+
+        return user;
+    }
+
+    /**
+     * Move a registered user to a location. The location the user leaves becomes its previous location.
+     *
+     * @param user     the user
+     * @param location the new location
+     */
+    public void relocate(UserModel user, String location) {
+        int slot = slotOf(user);
+        user.setPreviousLocation(user.getCurrentLocation());
+        user.setCurrentLocation(location);
+        byLocation.remove(slot);
+        byLocation.add(slot, location);
+    }
+
+    /**
+     * Change the permission type of a registered user.
+     *
+     * @param user the user
+     * @param type the new type
+     */
+    public void setType(UserModel user, String type) {
+        int slot = slotOf(user);
+        user.setUser_type(type);
+        byType.remove(slot);
+        byType.add(slot, type);
+    }
+
+    /**
+     * Gets the slot of a registered user.
+     *
+     * @param user the user
+     * @return the slot
+     * @throws IllegalArgumentException if the user is not registered
+     */
+    private int slotOf(UserModel user) {
+        int slot = slotsById.get(user.getId());
+        if (slot == IntIntMap.NO_VALUE || users[slot] != user) {
+            throw new IllegalArgumentException("The user with ID " + user.getId() + " is not registered.");
+        }
+        return slot;
+    }
+
+    /**
+     * Gets the users in a location. The list is a view: it reflects the changes of the registry and must not be kept
+     * across them.
+     *
+     * @param location the location
+     * @return the users (read-only)
+     */
+    public List<UserModel> getByLocation(String location) {
+        if (base != null && loadedLocations.add(location)) {
+            loadAll(base.findByLocation(location));
+        }
+        return byLocation.get(location);
+    }
+
+    /**
+     * Count the users in a location, without decoding the users of the base file.
+     *
+     * @param location the location
+     * @return the number of users
+     */
+    public int countByLocation(String location) {
+        int count = byLocation.get(location).size();
+        if (base != null && !loadedLocations.contains(location)) {
+            for (int record : base.findByLocation(location)) {
+                if (!shadowed.get(record)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the users of a permission type. The list is a view: it reflects the changes of the registry and must not be
+     * kept across them.
+     *
+     * @param type the type (Parent, Child, Guest or Stranger)
+     * @return the users (read-only)
+     */
+    public List<UserModel> getByType(String type) {
+        if (base != null && loadedTypes.add(type)) {
+            loadAll(base.findByType(type));
+        }
+        return byType.get(type);
+    }
+
+    /**
+     * Decode the users of records of the base file which are not shadowed, and keep them in memory.
+     *
+     * @param records the records
+     */
+    private void loadAll(int[] records) {
+        for (int record : records) {
+            if (!shadowed.get(record)) {
+                load(record);
+            }
+        }
+    }
+
+    /**
+     * Gets the locations where there are users.
+     *
+     * @return the locations (read-only)
+     */
+    public Set<String> getLocations() {
+        if (base == null) {
+            return Collections.unmodifiableSet(byLocation.buckets.keySet());
+        }
+
+        Set<String> locations = new HashSet<>(byLocation.buckets.keySet());
+        for (String location : base.getLocations()) {
+            if (countByLocation(location) > 0) {
+                locations.add(location);
+            }
+        }
+        return Collections.unmodifiableSet(locations);
+    }
+
+    /**
+     * Is a user registered.
+     *
+     * @param o the user
+     * @return true if the user is registered
+     */
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof UserModel && get(((UserModel) o).getId()) == o;
+    }
+
+    /**
+     * Gets the number of users.
+     *
+     * @return the size
+     */
+    @Override
+    public int size() {
+        return base == null ? size : size + base.size() - shadowedCount;
+    }
+
+    /**
+     * Iterate over the users: the users in memory, then the users of the base file, which are decoded and kept.
+     *
+     * @return the iterator (which does not support removal)
+     */
+    @Override
+    public Iterator<UserModel> iterator() {
+        return new Iterator<UserModel>() {
+            // The users decoded from the base file go after the users in memory when the iteration started.
+            private final int inMemory = size;
+            private int next;
+
+            // A record once shadowed stays shadowed, so the records before this one are all done.
+            private int record;
+
+            @Override
+            public boolean hasNext() {
+                if (next < inMemory) {
+                    return true;
+                }
+                if (base == null) {
+                    return false;
+                }
+                record = shadowed.nextClearBit(record);
+                return record < base.size();
+            }
+
+            @Override
+            public UserModel next() {
+                if (next < inMemory) {
+                    return users[next++];
+                }
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return load(record);
+            }
+        };
+    }
+
+    /**
+     * Secondary index of the users by one of their attributes. Every key has a bucket holding the slots of its users;
+     * each slot remembers its key and its position in the bucket, so a user leaves its bucket in constant time by
+     * swapping with the last entry.
+     */
+    private final class Index {
+
+        private final Map<String, Bucket> buckets = new HashMap<>();
+        private String[] keys;
+        private int[] positions;
+
+        /**
+         * Instantiates a new Index.
+         *
+         * @param capacity the number of slots
+         */
+        Index(int capacity) {
+            keys = new String[capacity];
+            positions = new int[capacity];
+        }
+
+        /**
+         * Grow the index to a number of slots.
+         *
+         * @param capacity the number of slots
+         */
+        void grow(int capacity) {
+            keys = Arrays.copyOf(keys, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+        }
+
+        /**
+         * Add a slot to the bucket of a key.
+         *
+         * @param slot the slot
+         * @param key  the key
+         */
+        void add(int slot, String key) {
+            Bucket bucket = buckets.get(key);
+            if (bucket == null) {
+                bucket = new Bucket();
+                buckets.put(key, bucket);
+            }
+
+            if (bucket.size == bucket.slots.length) {
+                bucket.slots = Arrays.copyOf(bucket.slots, bucket.size * 2);
+            }
+
+            keys[slot] = key;
+            positions[slot] = bucket.size;
+            bucket.slots[bucket.size++] = slot;
+        }
+
+        /**
+         * Remove a slot from the bucket of its key.
+         *
+         * @param slot the slot
+         */
+        void remove(int slot) {
+            Bucket bucket = buckets.get(keys[slot]);
+            int last = bucket.slots[--bucket.size];
+            bucket.slots[positions[slot]] = last;
+            positions[last] = positions[slot];
+
+            if (bucket.size == 0) {
+                buckets.remove(keys[slot]);
+            }
+            keys[slot] = null;
+        }
+
+        /**
+         * Record that the user of a slot has been moved to another slot.
+         *
+         * @param from the slot the user was in
+         * @param to   the slot the user is in now (free in the index)
+         */
+        void move(int from, int to) {
+            Bucket bucket = buckets.get(keys[from]);
+            bucket.slots[positions[from]] = to;
+            keys[to] = keys[from];
+            positions[to] = positions[from];
+            keys[from] = null;
+        }
+
+        /**
+         * Gets the users of a key.
+         *
+         * @param key the key
+         * @return a read-only view of the users
+         */
+        List<UserModel> get(String key) {
+            Bucket bucket = buckets.get(key);
+            return bucket == null ? Collections.<UserModel>emptyList() : bucket;
+        }
+    }
+
+    /**
+     * The slots of the users sharing a key, seen as a list of users.
+     */
+    private final class Bucket extends AbstractList<UserModel> {
+
+        private int[] slots = new int[4];
+        private int size;
+
+        /**
+         * Gets a user of the bucket.
+         *
+         * @param index the position in the bucket
+         * @return the user
+         */
+        @Override
+        public UserModel get(int index) {
+            if (index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+            }
+            return users[slots[index]];
+        }
+
+        /**
+         * Gets the number of users of the bucket.
+         *
+         * @return the size
+         */
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,661 @@
+package sample.SmartHomeModel;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+/**
+ * Class for the persistent store of the user profiles. The profiles are kept in two files:
+ * - the snapshot (Profiles.txt), one "name,id,type,location" line per user;
+ * - the journal (Profiles.journal), the users added, modified, moved or deleted since the snapshot was written, each
+ * record followed by its CRC-32.
+ * Saving appends a record for every user changed since the last save and forces it to disk, so its cost does not
+ * depend on the number of users. When the journal holds more records than there are users, it is set aside
+ * (Profiles.journal.compacting) and a new snapshot is written in the background.
+ * Every record holds the whole user, so replaying a record twice is harmless: loading reads the snapshot, then the
+ * journal set aside, then the journal, and gets the same users whenever the simulator stopped. A record cut short by a
+ * crash is dropped. The store is not thread-safe; it is used on the JavaFX application thread.
+ * The snapshot can also be a MappedProfileFile (Format.MAPPED): loading then only maps it, and the users are decoded
+ * from it as they are asked for, so the time to start and the memory used depend on the users asked for rather than on
+ * the number of profiles. A mapped snapshot is written the first time it is opened, from the profiles of the text
+ * snapshot if there are any.
+ */
+public final class UserStore {
+
+    private static final int MAGIC = 0x53485355; // SHSU
+    private static final int VERSION = 1;
+
+    /**
+     * The maximum size of a record, to tell a corrupt length from a real one.
+     */
+    private static final int MAX_RECORD = 1 << 16;
+
+    /**
+     * The number of records under which the journal is never compacted.
+     */
+    private static final int COMPACTION_MIN_RECORDS = 1024;
+
+    /**
+     * The thread writing the snapshots in the background.
+     */
+    private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "shs-profiles");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The format of the snapshot.
+     */
+    public enum Format {
+        /**
+         * One "name,id,type,location" line per user, read in full when loading.
+         */
+        TEXT,
+        /**
+         * A MappedProfileFile, read lazily.
+         */
+        MAPPED
+    }
+
+    /**
+     * The change recorded for a user.
+     */
+    enum Change {
+        ADD, MODIFY, MOVE, DELETE
+    }
+
+    private final File snapshot;
+    private final Format format;
+    private final File journalFile;
+    private final File compactingFile;
+    private UserRegistry users = new UserRegistry();
+
+    /**
+     * The users changed since the last save, with the first change (a deletion replaces it).
+     */
+    private final Map<Integer, Change> pending = new LinkedHashMap<>();
+
+    private FileOutputStream journalStream;
+    private DataOutputStream journal;
+
+    /**
+     * The number of records in the journal.
+     */
+    private long journalRecords;
+
+    /**
+     * The length of the journal up to the last record saved completely (-1 while the journal is not open). A save
+     * which fails partway leaves the file longer; it is truncated back to this length before anything else is
+     * appended, since loading stops at the first incomplete record and would drop the records written after it.
+     */
+    private long journalLength = -1;
+
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream(128);
+    private final DataOutputStream recordOut = new DataOutputStream(record);
+    private final CRC32 crc = new CRC32();
+
+    private final AtomicBoolean compacting = new AtomicBoolean();
+
+    /**
+     * Whether a compaction failed; the journal set aside is then kept until the profiles are loaded again.
+     */
+    private volatile boolean compactionFailed;
+
+    /**
+     * Instantiates a new User store.
+     *
+     * @param snapshot the snapshot file
+     * @param format   the format of the snapshot
+     */
+    private UserStore(File snapshot, Format format) {
+        this.snapshot = snapshot;
+        this.format = format;
+        File directory = snapshot.getAbsoluteFile().getParentFile();
+        String name = snapshot.getName().endsWith(".txt") ? snapshot.getName().substring(0, snapshot.getName().length() - 4) : snapshot.getName();
+        this.journalFile = new File(directory, name + ".journal");
+        this.compactingFile = new File(directory, name + ".journal.compacting");
+    }
+
+    /**
+     * Load the profiles. If the simulator stopped during a compaction, the snapshot is written again first.
+     *
+     * @param snapshot the snapshot file (the journals are next to it)
+     * @return the store
+     * @throws IOException if the files cannot be read, or a journal is not a profile journal
+     */
+    public static UserStore open(File snapshot) throws IOException {
+        return open(snapshot, Format.TEXT);
+    }
+
+    /**
+     * Load the profiles. If the simulator stopped during a compaction, the snapshot is written again first.
+     *
+     * @param snapshot the snapshot file (the journals are next to it)
+     * @param format   the format of the snapshot
+     * @return the store
+     * @throws IOException if the files cannot be read, or a journal is not a profile journal
+     */
+    public static UserStore open(File snapshot, Format format) throws IOException {
+        return open(snapshot, format, null);
+    }
+
+    /**
+     * Load the profiles. If the simulator stopped during a compaction, the snapshot is written again first.
+     * A mapped snapshot which does not exist yet is written first, with the profiles of a text snapshot and its
+     * journal if it has no journal of its own, so that the profiles saved before switching formats are kept. The text
+     * files are left as they are.
+     *
+     * @param snapshot     the snapshot file (the journals are next to it)
+     * @param format       the format of the snapshot
+     * @param textSnapshot the text snapshot to import the profiles from (null to start without profiles)
+     * @return the store
+     * @throws IOException if the files cannot be read or the mapped snapshot cannot be written, or a journal is not a
+     *                     profile journal
+     */
+    public static UserStore open(File snapshot, Format format, File textSnapshot) throws IOException {
+        UserStore store = new UserStore(snapshot, format);
+
+        if (format == Format.MAPPED && !snapshot.exists()) {
+            List<UserModel> imported = Collections.emptyList();
+
+            // The text profiles may be only in their journal, until it is first compacted.
+            if (textSnapshot != null && !store.journalFile.exists() && !store.compactingFile.exists()) {
+                imported = open(textSnapshot).snapshotUsers();
+                EventLog.log(EventLog.Module.SHS, EventLog.Type.DEBUG, null, "Importing " + imported.size() + " user profiles from " + textSnapshot + " into " + snapshot + ".");
+            }
+
+            MappedProfileFile.write(snapshot, imported);
+        }
+
+        store.load();
+        return store;
+    }
+
+    /**
+     * Read the snapshot and replay the journals, in a single pass over each file.
+     *
+     * @throws IOException if the files cannot be read
+     */
+    private void load() throws IOException {
+        readSnapshot();
+
+        boolean interrupted = compactingFile.exists();
+        if (interrupted) {
+            replay(compactingFile);
+        }
+
+        if (journalFile.exists()) {
+            long valid = replay(journalFile);
+
+            if (valid < journalFile.length()) {
+                EventLog.log(EventLog.Module.SHS, EventLog.Type.ERROR, null, "Dropping the incomplete end of " + journalFile + " (" + (journalFile.length() - valid) + " bytes).");
+                try (FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.WRITE)) {
+                    channel.truncate(valid);
+                }
+            }
+        }
+
+        if (interrupted) {
+            // Both journals are in the users now.
+            writeSnapshot(snapshotUsers());
+            Files.delete(compactingFile.toPath());
+            Files.deleteIfExists(journalFile.toPath());
+            journalRecords = 0;
+            EventLog.log(EventLog.Module.SHS, EventLog.Type.DEBUG, null, "Completed the compaction of the user profiles interrupted the last time.");
+        }
+    }
+
+    /**
+     * Read the snapshot. Malformed lines and duplicate ids are skipped; a mapped snapshot is only mapped.
+     *
+     * @throws IOException if the file cannot be read, or a mapped snapshot is corrupt
+     */
+    private void readSnapshot() throws IOException {
+        if (!snapshot.exists()) {
+            EventLog.log(EventLog.Module.SHS, EventLog.Type.DEBUG, null, snapshot + " was not found");
+            return;
+        }
+
+        if (format == Format.MAPPED) {
+            users = new UserRegistry(MappedProfileFile.open(snapshot));
+            return;
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(snapshot), StandardCharsets.UTF_8), 1 << 16)) {
+            String line;
+            int lineNumber = 0;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+
+                String[] fields = line.split(",", -1);
+                int id;
+
+                try {
+                    id = fields.length == 4 ? Integer.parseInt(fields[1].trim()) : -1;
+                } catch (NumberFormatException e) {
+                    id = -1;
+                }
+
+                if (id < 0) {
+                    EventLog.log(EventLog.Module.SHS, EventLog.Type.ERROR, null, "Skipping line " + lineNumber + " of " + snapshot + ", it is not a user profile: " + line);
+                } else if (users.get(id) != null) {
+                    EventLog.log(EventLog.Module.SHS, EventLog.Type.ERROR, fields[3], "Skipping the profile of " + fields[0] + ", the ID " + id + " is already used.");
+                } else {
+                    users.add(new UserModel(fields[0], id, fields[2], fields[3]));
+                }
+            }
+        }
+    }
+
+    /**
+     * Replay a journal, up to its first incomplete or corrupt record.
+     *
+     * @param file the journal
+     * @return the length of the valid part of the journal
+     * @throws IOException if the file cannot be read, or is not a profile journal
+     */
+    private long replay(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            long offset = 0;
+
+            try {
+                int magic = in.readInt();
+                int version = in.readInt();
+
+                if (magic != MAGIC || version != VERSION) {
+                    throw new IOException(file + " is not a profile journal of version " + VERSION + ".");
+                }
+                offset = 8;
+
+                byte[] buffer = new byte[256];
+                CRC32 check = new CRC32();
+
+                while (true) {
+                    int length = in.readInt();
+                    if (length <= 0 || length > MAX_RECORD) {
+                        return offset;
+                    }
+
+                    if (buffer.length < length) {
+                        buffer = new byte[Math.max(length, buffer.length * 2)];
+                    }
+                    in.readFully(buffer, 0, length);
+                    int expected = in.readInt();
+
+                    check.reset();
+                    check.update(buffer, 0, length);
+                    if ((int) check.getValue() != expected || buffer[0] < 0 || buffer[0] >= Change.values().length) {
+                        return offset;
+                    }
+
+                    apply(new DataInputStream(new ByteArrayInputStream(buffer, 0, length)));
+                    offset += 4 + length + 4;
+                    journalRecords++;
+                }
+            } catch (EOFException e) {
+                // The simulator stopped while writing the last record (or the header).
+                return offset;
+            }
+        }
+    }
+
+    /**
+     * Apply a record of the journal to the users.
+     *
+     * @param in the record
+     * @throws IOException if the record cannot be read
+     */
+    private void apply(DataInputStream in) throws IOException {
+        Change change = Change.values()[in.readByte()];
+        int id = in.readInt();
+
+        users.remove(id);
+
+        if (change != Change.DELETE) {
+            String name = Checkpoint.readNullable(in);
+            String type = Checkpoint.readNullable(in);
+            String location = Checkpoint.readNullable(in);
+            users.add(new UserModel(name, id, type, location));
+        }
+    }
+
+    /**
+     * Gets the users.
+     *
+     * @return the registry of the users (change them through the store so that the changes are saved)
+     */
+    public UserRegistry getUsers() {
+        return users;
+    }
+
+    /**
+     * Gets the format of the snapshot.
+     *
+     * @return the format
+     */
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * Add a user.
+     *
+     * @param user the user
+     * @throws IllegalArgumentException if a user with the same id is already registered
+     */
+    public void add(UserModel user) {
+        users.add(user);
+        changed(user.getId(), Change.ADD);
+    }
+
+    /**
+     * Change the name and the type of a user.
+     *
+     * @param user the user
+     * @param name the new name
+     * @param type the new type
+     */
+    public void modify(UserModel user, String name, String type) {
+        user.setName(name);
+        users.setType(user, type);
+        changed(user.getId(), Change.MODIFY);
+    }
+
+    /**
+     * Move a user to a location.
+     *
+     * @param user     the user
+     * @param location the new location
+     */
+    public void relocate(UserModel user, String location) {
+        users.relocate(user, location);
+        changed(user.getId(), Change.MOVE);
+    }
+
+    /**
+     * Remove a user.
+     *
+     * @param id the id
+     * @return the removed user, or null if there was none
+     */
+    public UserModel remove(int id) {
+        UserModel user = users.remove(id);
+        if (user != null) {
+            changed(id, Change.DELETE);
+        }
+        return user;
+    }
+
+    /**
+     * Record that a user has changed.
+     *
+     * @param id     the id of the user
+     * @param change the change
+     */
+    private void changed(int id, Change change) {
+        Change previous = pending.get(id);
+
+        if (previous == null || change == Change.DELETE) {
+            pending.put(id, change);
+        } else if (previous == Change.DELETE) {
+            pending.put(id, Change.ADD);
+        }
+    }
+
+    /**
+     * Gets the number of users changed since the last save.
+     *
+     * @return the number of users
+     */
+    public int getUnsavedCount() {
+        return pending.size();
+    }
+
+    /**
+     * Append the users changed since the last save to the journal and force it to disk. If the journal holds more
+     * records than there are users, a new snapshot is written in the background.
+     *
+     * @return the number of records appended
+     * @throws IOException if the journal cannot be written (what this save wrote is dropped from the journal, and the
+     *                     changes are kept for the next save)
+     */
+    public int save() throws IOException {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        openJournal();
+
+        try {
+            for (Map.Entry<Integer, Change> entry : pending.entrySet()) {
+                UserModel user = users.get(entry.getKey());
+                append(user == null ? Change.DELETE : entry.getValue() == Change.DELETE ? Change.ADD : entry.getValue(), entry.getKey(), user);
+            }
+
+            journal.flush();
+            journalStream.getChannel().force(false);
+            journalLength = journalStream.getChannel().size();
+        } catch (IOException e) {
+            discardJournal();
+            throw e;
+        }
+
+        int saved = pending.size();
+        journalRecords += saved;
+        pending.clear();
+
+        if (journalRecords > Math.max(COMPACTION_MIN_RECORDS, users.size())) {
+            compact();
+        }
+
+        return saved;
+    }
+
+    /**
+     * Open the journal for appending, writing its header if it is new.
+     *
+     * @throws IOException if the journal cannot be opened
+     */
+    private void openJournal() throws IOException {
+        if (journal != null) {
+            return;
+        }
+
+        if (journalLength >= 0) {
+            truncateJournal();
+        }
+
+        long length = journalFile.length();
+        journalStream = new FileOutputStream(journalFile, true);
+        journal = new DataOutputStream(new BufferedOutputStream(journalStream, 1 << 16));
+        journalLength = length;
+
+        if (length == 0) {
+            journal.writeInt(MAGIC);
+            journal.writeInt(VERSION);
+        }
+    }
+
+    /**
+     * Close the journal after a failed save, dropping what is still buffered, and truncate it back to the last record
+     * saved completely. If it cannot be truncated now, it is the next time the journal is opened.
+     */
+    private void discardJournal() {
+        FileOutputStream stream = journalStream;
+        journal = null;
+        journalStream = null;
+
+        try {
+            // Closing the file instead of the buffered stream does not write the rest of the failed save.
+            stream.close();
+            truncateJournal();
+        } catch (IOException e) {
+            EventLog.log(EventLog.Module.SHS, EventLog.Type.ERROR, null, "Could not drop the incomplete records of " + journalFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Truncate the journal back to the last record saved completely.
+     *
+     * @throws IOException if the journal cannot be truncated
+     */
+    private void truncateJournal() throws IOException {
+        if (journalFile.length() > journalLength) {
+            try (FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(journalLength);
+            }
+        }
+    }
+
+    /**
+     * Close the journal.
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    private void closeJournal() throws IOException {
+        if (journal != null) {
+            DataOutputStream out = journal;
+            journal = null;
+            journalStream = null;
+            journalLength = -1;
+            out.close();
+        }
+    }
+
+    /**
+     * Append a record to the journal.
+     *
+     * @param change the change
+     * @param id     the id of the user
+     * @param user   the user (null if it was deleted)
+     * @throws IOException if the journal cannot be written
+     */
+    private void append(Change change, int id, UserModel user) throws IOException {
+        record.reset();
+        recordOut.writeByte(change.ordinal());
+        recordOut.writeInt(id);
+
+        if (user != null) {
+            Checkpoint.writeNullable(recordOut, user.getName());
+            Checkpoint.writeNullable(recordOut, user.getUser_type());
+            Checkpoint.writeNullable(recordOut, user.getCurrentLocation());
+        }
+
+        crc.reset();
+        crc.update(record.toByteArray(), 0, record.size());
+
+        journal.writeInt(record.size());
+        record.writeTo(journal);
+        journal.writeInt((int) crc.getValue());
+    }
+
+    /**
+     * Set the journal aside and write a new snapshot in the background. The changes saved meanwhile go to a new
+     * journal.
+     */
+    private void compact() {
+        if (compactionFailed || !compacting.compareAndSet(false, true)) {
+            return;
+        }
+
+        List<UserModel> copies;
+
+        try {
+            closeJournal();
+            Files.move(journalFile.toPath(), compactingFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            copies = snapshotUsers();
+            journalRecords = 0;
+        } catch (IOException e) {
+            compacting.set(false);
+            EventLog.log(EventLog.Module.SHS, EventLog.Type.ERROR, null, "Could not compact the user profiles: " + e.getMessage());
+            return;
+        }
+
+        COMPACTOR.execute(() -> {
+            try {
+                writeSnapshot(copies);
+                Files.delete(compactingFile.toPath());
+                EventLog.log(EventLog.Module.SHS, EventLog.Type.DEBUG, null, "Compacted the user profiles into " + snapshot + " (" + copies.size() + " users).");
+            } catch (IOException e) {
+                compactionFailed = true;
+                EventLog.log(EventLog.Module.SHS, EventLog.Type.ERROR, null, "Could not compact the user profiles, they will be compacted the next time they are loaded: " + e.getMessage());
+            } finally {
+                compacting.set(false);
+            }
+        });
+    }
+
+    /**
+     * Gets a copy of the current users, which the background thread can write while the users change. The users not
+     * decoded from a mapped snapshot yet are read from it without being kept.
+     *
+     * @return the copies
+     */
+    private List<UserModel> snapshotUsers() {
+        return users.copies();
+    }
+
+    /**
+     * Write the snapshot to a temporary file, force it to disk and move it over the previous one. A mapped snapshot
+     * replaced this way stays readable through the mappings of the old file (on file systems which allow replacing a
+     * mapped file).
+     *
+     * @param copies the users
+     * @throws IOException if the snapshot cannot be written
+     */
+    private void writeSnapshot(List<UserModel> copies) throws IOException {
+        if (format == Format.MAPPED) {
+            MappedProfileFile.write(snapshot, copies);
+            return;
+        }
+
+        File directory = snapshot.getAbsoluteFile().getParentFile();
+        File temporary = File.createTempFile(snapshot.getName(), ".tmp", directory);
+
+        try (FileOutputStream stream = new FileOutputStream(temporary);
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), 1 << 16)) {
+            for (UserModel user : copies) {
+                writer.write(user.getName() + "," + user.getId() + "," + user.getUser_type() + "," + user.getCurrentLocation());
+                writer.newLine();
+            }
+            writer.flush();
+            stream.getChannel().force(true);
+        } catch (IOException e) {
+            temporary.delete();
+            throw e;
+        }
+
+        Files.move(temporary.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -1,8 +1,5 @@
 package sample.SmartHomeModel;
 
-import javafx.scene.image.Image;
-import java.util.concurrent.atomic.AtomicBoolean;
-
 /**
  * Class for the Window Model.
  */
@@ -11,9 +8,10 @@ public class WindowModel {
 	private String id;
 	private String name;
 	private boolean isOpen = false;
-	private AtomicBoolean hasObject = new AtomicBoolean(false);
-	private Image imageOpen;
-	private Image imageClose;
+	private boolean hasObject = false;
+
+	private HouseState state;
+	private int index;
 
 	/**
 	 * Instantiate a Window.
@@ -24,16 +22,6 @@ public class WindowModel {
 	public WindowModel(String id, String name) {
 		this.id = id;
 		this.name = name;
-		loadImage();
-	}
-
-	/**
-	 * Load the images used for windows.
-	 */
-	private void loadImage() {
-
-			imageOpen = new Image(getClass().getResourceAsStream("/img/window_open.png"));
-			imageClose = new Image(getClass().getResourceAsStream("/img/window_close.png"));
 	}
 
 	/**
@@ -60,7 +48,7 @@ public class WindowModel {
 	 * @return the boolean isOpen.
 	 */
 	public boolean isOpen() {
-		return isOpen;
+		return state == null ? isOpen : state.is(index, HouseState.WINDOW_OPEN);
 	}
 
 	/**
@@ -69,7 +57,11 @@ public class WindowModel {
 	 * @param isOpen boolean for whether the window is open or not.
 	 */
 	public void setOpen(boolean isOpen) {
-		this.isOpen = isOpen;
+		if (state == null) {
+			this.isOpen = isOpen;
+		} else {
+			state.set(index, HouseState.WINDOW_OPEN, isOpen);
+		}
 	}
 
 	/**
@@ -77,25 +69,34 @@ public class WindowModel {
 	 *
 	 * @return the boolean hasObject
 	 */
-	public AtomicBoolean hasObject() {
-		return hasObject;
+	public boolean hasObject() {
+		return state == null ? hasObject : state.is(index, HouseState.WINDOW_BLOCKED);
 	}
 
 	/**
-	 * Getter for window open image.
+	 * Setter for whether a window has an arbitrary object in front of it.
 	 *
-	 * @return the Image imageOpen.
+	 * @param hasObject boolean for whether there is an object in front of the window or not.
 	 */
-	public Image getImageOpen() {
-		return imageOpen;
+	public void setHasObject(boolean hasObject) {
+		if (state == null) {
+			this.hasObject = hasObject;
+		} else {
+			state.set(index, HouseState.WINDOW_BLOCKED, hasObject);
+		}
 	}
 
 	/**
-	 * Getter for window closed image.
+	 * Make the window a view over the slot of its room in the state of the house.
 	 *
-	 * @return the Image imageClose.
+	 * @param state the state of the house
+	 * @param index the index of the room
 	 */
-	public Image getImageClose() {
-		return imageClose;
+	void attach(HouseState state, int index) {
+		state.set(index, HouseState.WINDOW_OPEN, isOpen);
+		state.set(index, HouseState.WINDOW_BLOCKED, hasObject);
+
+		this.state = state;
+		this.index = index;
 	}
 }
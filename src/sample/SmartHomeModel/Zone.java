@@ -1,50 +1,144 @@
 package sample.SmartHomeModel;
 
 import java.awt.event.ActionEvent;
+import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 public class Zone {
 
     private String zoneName = "";
-    private double nightTemp;
-    private double dayTemp;
-    private double eveningTemp;
-    private List<RoomModel> rooms = new ArrayList<>();
-    private volatile boolean unsetnightTemp = true;
-    private volatile boolean unsetdayTemp = true;
-    private volatile boolean unseteveningTemp = true;
+    private ZonePeriod nightPeriod;
+    private ZonePeriod dayPeriod;
+    private ZonePeriod eveningPeriod;
+    private List<ZonePeriod> periods = new ArrayList<>();
+    private volatile int version = 0;
+    private Set<RoomModel> rooms = new LinkedHashSet<>();
 
 
     /**
-     * Zone constructor
+     * Zone constructor. The zone starts with three periods: night (00:00 - 08:00), day (08:00 - 16:00) and evening
+     * (16:00 - 24:00).
      *
      * @param zoneName name of the zone
      * @param outsideTemp outside temperature
      */
     public Zone(String zoneName, double outsideTemp){
         this.zoneName = zoneName;
-        this.dayTemp = outsideTemp;
-        this.eveningTemp = outsideTemp;
-        this.nightTemp = outsideTemp;
+        nightPeriod = new ZonePeriod("Night", LocalTime.of(0, 0), HVACState.NIGHT_SCHEDULE, outsideTemp);
+        dayPeriod = new ZonePeriod("Day", LocalTime.of(8, 0), HVACState.DAY_SCHEDULE, outsideTemp);
+        eveningPeriod = new ZonePeriod("Evening", LocalTime.of(16, 0), HVACState.EVENING_SCHEDULE, outsideTemp);
+        periods.add(nightPeriod);
+        periods.add(dayPeriod);
+        periods.add(eveningPeriod);
     }
 
     /**
-     * Add a room to list
+     * Add a period to the schedule of the zone. The period which contained its start time now ends there.
+     *
+     * @param name        the name of the period
+     * @param start       the time of the day at which the period starts
+     * @param temperature the temperature of the period
+     * @return the period
+     * @throws IllegalArgumentException if another period already starts at that time
+     */
+    public synchronized ZonePeriod addPeriod(String name, LocalTime start, double temperature) {
+        int index = 0;
+        while (index < periods.size() && periods.get(index).getStart().isBefore(start)) {
+            index++;
+        }
+
+        if (index < periods.size() && periods.get(index).getStart().equals(start)) {
+            throw new IllegalArgumentException("A period of " + zoneName + " already starts at " + start + ".");
+        }
+
+        ZonePeriod period = new ZonePeriod(name, start, HVACState.SCHEDULE, temperature);
+        period.setTemperature(temperature);
+
+        List<ZonePeriod> copy = new ArrayList<>(periods);
+        copy.add(index, period);
+        periods = copy;
+        version++;
+
+        return period;
+    }
+
+    /**
+     * Gets the periods of the zone, sorted by start time.
+     *
+     * @return the periods (read-only)
+     */
+    public List<ZonePeriod> getPeriods() {
+        return Collections.unmodifiableList(periods);
+    }
+
+    /**
+     * Gets the period in progress at a time of the day.
+     *
+     * @param time the time of the day
+     * @return the period
+     */
+    public ZonePeriod getPeriodAt(LocalTime time) {
+        List<ZonePeriod> current = periods;
+        ZonePeriod period = current.get(current.size() - 1);
+
+        for (ZonePeriod candidate : current) {
+            if (candidate.getStart().isAfter(time)) {
+                break;
+            }
+            period = candidate;
+        }
+
+        return period;
+    }
+
+    /**
+     * Gets the version of the periods, incremented each time a period is added.
+     *
+     * @return the version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Add a room to the zone. Use HouseModel.setRoomZone, which also updates the zone of the room.
      *
      * @param room the room
      */
-    public void addRomeToList (RoomModel room) {
+    void addRoom (RoomModel room) {
         rooms.add(room);
     }
 
     /**
-     * Getter for the list of rooms
+     * Remove a room from the zone. Use HouseModel.setRoomZone, which also updates the zone of the room.
+     *
+     * @param room the room
+     */
+    void removeRoom (RoomModel room) {
+        rooms.remove(room);
+    }
+
+    /**
+     * Whether a room is in the zone
+     *
+     * @param room the room
+     * @return the boolean
+     */
+    public boolean contains (RoomModel room) {
+        return rooms.contains(room);
+    }
+
+    /**
+     * Getter for the rooms of the zone
      *
-     * @return the rooms
+     * @return the rooms (read-only)
      */
-    public List<RoomModel> getRooms () {
-        return rooms;
+    public Set<RoomModel> getRooms () {
+        return Collections.unmodifiableSet(rooms);
     }
 
     /**
@@ -60,7 +154,7 @@ public class Zone {
      * @return the day temperature
      */
     public double getDayTemp() {
-        return dayTemp;
+        return dayPeriod.getTemperature();
     }
 
     /**
@@ -68,8 +162,7 @@ public class Zone {
      * @param dayTemp the day temperature
      */
     public void setDayTemp(double dayTemp) {
-        this.dayTemp = dayTemp;
-        unsetdayTemp = false;
+        dayPeriod.setTemperature(dayTemp);
     }
 
     /**
@@ -77,7 +170,7 @@ public class Zone {
      * @return the evening temperature
      */
     public double getEveningTemp() {
-        return eveningTemp;
+        return eveningPeriod.getTemperature();
     }
 
     /**
@@ -85,8 +178,7 @@ public class Zone {
      * @param eveningTemp the evening temperature
      */
     public void setEveningTemp(double eveningTemp) {
-        this.eveningTemp = eveningTemp;
-        unseteveningTemp = false;
+        eveningPeriod.setTemperature(eveningTemp);
     }
 
     /**
@@ -94,7 +186,7 @@ public class Zone {
      * @return the night temperature
      */
     public double getNightTemp() {
-        return nightTemp;
+        return nightPeriod.getTemperature();
     }
 
     /**
@@ -102,8 +194,7 @@ public class Zone {
      * @param nightTemp the night temperature
      */
     public void setNightTemp(double nightTemp) {
-        this.nightTemp = nightTemp;
-        unsetnightTemp = false;
+        nightPeriod.setTemperature(nightTemp);
     }
 
     /**
@@ -111,7 +202,7 @@ public class Zone {
      * @return unsetnightTemp
      */
     public boolean isUnsetNightTemp () {
-        return unsetnightTemp;
+        return nightPeriod.isUnset();
     }
 
     /**
@@ -119,7 +210,7 @@ public class Zone {
      * @return unsetdayTemp
      */
     public boolean isUnsetDayTemp () {
-        return unsetdayTemp;
+        return dayPeriod.isUnset();
     }
 
     /**
@@ -127,6 +218,6 @@ public class Zone {
      * @return unseteveningTemp
      */
     public boolean isUnsetEveningTemp () {
-        return unseteveningTemp;
+        return eveningPeriod.isUnset();
     }
 }
@@ -0,0 +1,106 @@
+package sample.SmartHomeModel;
+
+import java.time.LocalTime;
+
+/**
+ * Class for a period of the daily schedule of a zone. The period starts at its start time and lasts until the start
+ * of the next period of the zone; while it lasts, the rooms of the zone are heated/cooled to its temperature.
+ */
+public class ZonePeriod {
+
+    private String name;
+    private LocalTime start;
+    private HVACState state;
+    private volatile int temperature;
+    private volatile boolean unset = true;
+
+    /**
+     * Instantiates a new Zone period whose temperature is not set yet.
+     *
+     * @param name        the name of the period (night, day, ...)
+     * @param start       the time of the day at which the period starts
+     * @param state       the state of the HVAC following this period
+     * @param temperature the initial temperature
+     */
+    public ZonePeriod(String name, LocalTime start, HVACState state, double temperature) {
+        this.name = name;
+        this.start = start;
+        this.state = state;
+        this.temperature = Temperature.fromDegrees(temperature);
+    }
+
+    /**
+     * Gets the name of the period.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the time of the day at which the period starts.
+     *
+     * @return the start
+     */
+    public LocalTime getStart() {
+        return start;
+    }
+
+    /**
+     * Gets the state of the HVAC following this period.
+     *
+     * @return the state
+     */
+    public HVACState getState() {
+        return state;
+    }
+
+    /**
+     * Gets the temperature of the period.
+     *
+     * @return the temperature
+     */
+    public double getTemperature() {
+        return Temperature.toDegrees(temperature);
+    }
+
+    /**
+     * Gets the temperature of the period in hundredths of a degree.
+     *
+     * @return the temperature
+     */
+    public int getTemperatureHundredths() {
+        return temperature;
+    }
+
+    /**
+     * Sets the temperature of the period.
+     *
+     * @param temperature the temperature
+     */
+    public void setTemperature(double temperature) {
+        this.temperature = Temperature.fromDegrees(temperature);
+        unset = false;
+    }
+
+    /**
+     * Put the period back in a state saved in a checkpoint.
+     *
+     * @param temperature the temperature (in hundredths of a degree)
+     * @param unset       whether the temperature has not been set yet
+     */
+    void restore(int temperature, boolean unset) {
+        this.temperature = temperature;
+        this.unset = unset;
+    }
+
+    /**
+     * Whether the temperature of the period has not been set yet (the rooms are then not scheduled).
+     *
+     * @return the boolean
+     */
+    public boolean isUnset() {
+        return unset;
+    }
+}
@@ -0,0 +1,60 @@
+package sample.SmartHomeView;
+
+import sample.Exception.InvalidCheckpointException;
+import sample.Exception.InvalidHouseLayoutException;
+import sample.SmartHomeModel.CommandJournal;
+import sample.SmartHomeModel.HouseModel;
+import sample.SmartHomeModel.RoomModel;
+import sample.SmartHomeModel.SimulationData;
+import sample.SmartHomeModel.SimulationEngine;
+import sample.SmartHomeModel.Temperature;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Headless replay of a command journal, to reproduce a run (for example the burst pipe alerts of a long simulation)
+ * at full speed without the user interface. The messages of the simulation are printed on the standard output as
+ * they were printed on the console during the run, followed by the temperature of every room at the end.
+ * Usage: JournalReplay house-layout.json simulation.shsj
+ */
+public class JournalReplay {
+
+    /**
+     * The entry point of the replay.
+     *
+     * @param args the path of the house layout file and the path of the journal
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: JournalReplay <house layout file> <journal file>");
+            System.exit(2);
+        }
+
+        try {
+            SimulationData simulationData = new SimulationData();
+            simulationData.createData(args[0]);
+            HouseModel houseModel = simulationData.getHouseModel();
+
+            SimulationEngine engine = new SimulationEngine(houseModel, (time, message) -> System.out.println(time + " " + message));
+            CommandJournal.Recording recording = CommandJournal.read(new File(args[1]));
+
+            long start = System.nanoTime();
+            engine.replay(recording);
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+
+            System.out.println("Replayed " + recording.getEntries().size() + " commands from " + recording.getStart().getDate() + " " + recording.getStart().getTime()
+                    + " to " + engine.getDate() + " " + engine.getTime() + " in " + elapsed + " ms.");
+
+            Map<String, RoomModel> rooms = new TreeMap<>(houseModel.getRooms());
+            for (RoomModel room : rooms.values()) {
+                System.out.println(room.getName() + ": " + Temperature.format(room.getTemperatureHundredths()) + " C");
+            }
+        } catch (IOException | InvalidCheckpointException | InvalidHouseLayoutException e) {
+            System.err.println("Could not replay " + args[1] + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}